@@ -2,7 +2,7 @@
 if exist bin rmdir /s /q bin
 mkdir bin
 
-javac -d bin -encoding UTF-8 src\Main\*.java src\BufferManager\*.java src\DBManager\*.java src\DiskManager\*.java src\FileManager\*.java src\QueryManager\*.java
+javac -d bin -encoding UTF-8 src\Main\*.java src\BufferManager\*.java src\DBManager\*.java src\DiskManager\*.java src\FileManager\*.java src\QueryManager\*.java src\IndexManager\*.java
 
 java -cp bin Main.SGBD
 pause
\ No newline at end of file
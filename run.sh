@@ -1,6 +1,6 @@
 rm -rf bin
 mkdir bin
 
-javac -d bin -encoding UTF-8 src/Main/*.java src/BufferManager/*.java src/DBManager/*.java src/DiskManager/*.java src/FileManager/*.java src/QueryManager/*.java
+javac -d bin -encoding UTF-8 src/Main/*.java src/BufferManager/*.java src/DBManager/*.java src/DiskManager/*.java src/FileManager/*.java src/QueryManager/*.java src/IndexManager/*.java
 
 java -cp bin Main.SGBD
\ No newline at end of file
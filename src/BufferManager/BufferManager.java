@@ -114,6 +114,20 @@ public class BufferManager {
         }
     }
 
+    // Oublie sans les écrire les pages d'un fichier supprimé (segment d'une relation détruite) :
+    // elles ne doivent plus être épinglées.
+    public void DiscardFile(int fileIdx) {
+        synchronized (this) {
+            for (int i = 0; i < bufferPool.length; i++) {
+                Buffer buffer = bufferPool[i];
+                if (buffer.isValid() && buffer.getPageId().getFileIdx() == fileIdx) {
+                    pageToBufferMap.remove(buffer.getPageId());
+                    buffer.reset();
+                }
+            }
+        }
+    }
+
     private int findReplacementBuffer() {
         // First, try to find an empty buffer
         for (int i = 0; i < bufferPool.length; i++) {
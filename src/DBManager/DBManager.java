@@ -3,13 +3,17 @@ package DBManager;
 import FileManager.ColumnType;
 import FileManager.Relation;
 import FileManager.Column;
+import FileManager.Record;
+import QueryManager.Condition;
 import DiskManager.DiskManager;
 import BufferManager.BufferManager;
 import DiskManager.PageId;
+import IndexManager.Index;
 import Main.DBConfig;
 
 import java.io.*;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
 import java.util.ArrayList;
@@ -18,58 +22,165 @@ public class DBManager {
 
     private DBConfig config;
     private Map<String, Relation> tables;
+    private Map<String, PartitionedTable> partitionedTables;
+    private Map<String, Index> indexes; // par nom d'index, dans l'ordre de création
 
     public DBManager(DBConfig config) {
         this.config = config;
         this.tables = new HashMap<>();
+        this.partitionedTables = new HashMap<>();
+        this.indexes = new LinkedHashMap<>();
     }
 
     public void AddTable(Relation tab) {
-        if (tables.containsKey(tab.getRelationName())) {
+        if (tables.containsKey(tab.getRelationName()) || partitionedTables.containsKey(tab.getRelationName())) {
             System.err.println("Erreur : La table " + tab.getRelationName() + " existe déjà.");
             return;
         }
         tables.put(tab.getRelationName(), tab);
     }
 
+    public void AddPartitionedTable(PartitionedTable tab) {
+        if (tables.containsKey(tab.getName()) || partitionedTables.containsKey(tab.getName())) {
+            System.err.println("Erreur : La table " + tab.getName() + " existe déjà.");
+            return;
+        }
+        partitionedTables.put(tab.getName(), tab);
+    }
+
+    // Table non partitionnée (null pour une table partitionnée, voir GetPartitionedTable)
     public Relation GetTable(String nomTable) {
         return tables.get(nomTable);
     }
 
+    public PartitionedTable GetPartitionedTable(String nomTable) {
+        return partitionedTables.get(nomTable);
+    }
+
+    // Relation qui porte le schéma de la table (une partition pour une table partitionnée)
+    public Relation GetSchema(String nomTable) {
+        PartitionedTable partitioned = partitionedTables.get(nomTable);
+        return partitioned != null ? partitioned.getSchema() : tables.get(nomTable);
+    }
+
+    // Relations à parcourir pour ces conditions : la table elle-même, ou les partitions
+    // qui peuvent contenir des records correspondants (null si la table n'existe pas)
+    public List<Relation> GetRelations(String nomTable, List<Condition> conditions) {
+        PartitionedTable partitioned = partitionedTables.get(nomTable);
+        if (partitioned != null) {
+            return partitioned.prune(conditions);
+        }
+        Relation rel = tables.get(nomTable);
+        return rel != null ? List.of(rel) : null;
+    }
+
+    // Nombre de records de la table, lu dans les Header Pages (-1 si la table n'existe pas)
+    public long GetRowCount(String nomTable) {
+        List<Relation> relations = GetRelations(nomTable, null);
+        if (relations == null) {
+            return -1;
+        }
+        long count = 0;
+        for (Relation rel : relations) {
+            count += rel.getRowCount();
+        }
+        return count;
+    }
+
+    // Relation qui doit recevoir le record (sa partition pour une table partitionnée)
+    public Relation GetInsertTarget(String nomTable, Record record) {
+        PartitionedTable partitioned = partitionedTables.get(nomTable);
+        return partitioned != null ? partitioned.partitionFor(record) : tables.get(nomTable);
+    }
+
+    public void AddIndex(Index index) {
+        if (indexes.containsKey(index.getName())) {
+            System.err.println("Erreur : L'index " + index.getName() + " existe déjà.");
+            return;
+        }
+        indexes.put(index.getName(), index);
+    }
+
+    public Index GetIndex(String nomIndex) {
+        return indexes.get(nomIndex);
+    }
+
+    // Index d'une table non partitionnée, dans l'ordre de création
+    public List<Index> GetIndexes(String nomTable) {
+        List<Index> result = new ArrayList<>();
+        for (Index index : indexes.values()) {
+            if (index.getRelation().getRelationName().equals(nomTable)) {
+                result.add(index);
+            }
+        }
+        return result;
+    }
+
+    // Retire l'index du catalogue et rend ses pages
+    public void RemoveIndex(String nomIndex) {
+        Index index = indexes.remove(nomIndex);
+        if (index == null) {
+            System.err.println("Erreur : Index " + nomIndex + " introuvable.");
+            return;
+        }
+        index.drop();
+    }
+
+    // Les index de la table disparaissent avec elle
     public void RemoveTable(String nomTable) {
         if (tables.containsKey(nomTable)) {
+            for (Index index : GetIndexes(nomTable)) {
+                RemoveIndex(index.getName());
+            }
             tables.remove(nomTable);
+        } else if (partitionedTables.containsKey(nomTable)) {
+            partitionedTables.remove(nomTable);
         } else {
             System.err.println("Erreur : Table " + nomTable + " introuvable.");
         }
     }
 
     public void RemoveAllTables() {
+        for (Index index : indexes.values()) {
+            index.drop();
+        }
+        indexes.clear();
         tables.clear();
+        partitionedTables.clear();
     }
 
     public List<String> GetTableNames() {
         return new ArrayList<>(tables.keySet());
     }
 
+    public List<String> GetPartitionedTableNames() {
+        return new ArrayList<>(partitionedTables.keySet());
+    }
+
     public void DescribeTable(String nomTable) {
         Relation rel = tables.get(nomTable);
-        if (rel == null) {
+        PartitionedTable partitioned = partitionedTables.get(nomTable);
+        if (rel != null) {
+            printTableSchema(nomTable, rel, null);
+        } else if (partitioned != null) {
+            printTableSchema(nomTable, partitioned.getSchema(), partitioned);
+        } else {
             System.err.println("Erreur : Table " + nomTable + " introuvable.");
-            return;
         }
-        printTableSchema(rel);
     }
 
     public void DescribeAllTables() {
         for (Relation rel : tables.values()) {
-            printTableSchema(rel);
+            printTableSchema(rel.getRelationName(), rel, null);
+        }
+        for (PartitionedTable partitioned : partitionedTables.values()) {
+            printTableSchema(partitioned.getName(), partitioned.getSchema(), partitioned);
         }
     }
 
-    private void printTableSchema(Relation rel) {
+    private void printTableSchema(String name, Relation rel, PartitionedTable partitioned) {
         StringBuilder sb = new StringBuilder();
-        sb.append(rel.getRelationName()).append(" (");
+        sb.append(name).append(" (");
         Column[] cols = rel.getColumns();
 
         for (int i = 0; i < cols.length; i++) {
@@ -91,6 +202,43 @@ public class DBManager {
             }
         }
         sb.append(")");
+        sb.append(" LAYOUT=").append(rel.getLayout());
+        List<String> dictionaryColumns = rel.getDictionaryColumns();
+        if (!dictionaryColumns.isEmpty()) {
+            sb.append(" DICTIONARY=").append(String.join(",", dictionaryColumns));
+        }
+        List<String> bloomColumns = rel.getBloomColumns();
+        if (!bloomColumns.isEmpty()) {
+            sb.append(" BLOOM=").append(String.join(",", bloomColumns));
+        }
+        if (rel.getClusterColumn() != -1) {
+            sb.append(" CLUSTER=").append(cols[rel.getClusterColumn()].getColumnName());
+        }
+        if (rel.getSegment() != DiskManager.SHARED) {
+            sb.append(" STORAGE=SEGMENT");
+        }
+        if (partitioned != null) {
+            sb.append(" ").append(partitioned.describePartitioning());
+        } else {
+            for (Index index : GetIndexes(name)) {
+                sb.append(" INDEX=").append(index.getName()).append("(")
+                        .append(index.getColumn().getColumnName()).append(",").append(index.getKind()).append(")");
+            }
+        }
+
+        List<Relation> relations = partitioned != null ? partitioned.getPartitions() : List.of(rel);
+        long rows = 0;
+        int fullPages = 0;
+        int freePages = 0;
+        for (Relation part : relations) {
+            rows += part.getRowCount();
+            fullPages += part.getFullPageCount();
+            freePages += part.getFreePageCount();
+        }
+        sb.append(" ROWS=").append(rows)
+                .append(" PAGES=").append(fullPages + freePages)
+                .append(" (FULL=").append(fullPages)
+                .append(", FREE=").append(freePages).append(")");
         System.out.println(sb.toString());
     }
 
@@ -100,10 +248,29 @@ public class DBManager {
             oos.writeInt(tables.size());
 
             for (Relation rel : tables.values()) {
+                rel.flush();
                 oos.writeUTF(rel.getRelationName());
                 oos.writeObject(rel.getHeaderPageId());
                 oos.writeObject(rel.getColumns());
             }
+            // Tables partitionnées à la suite (absentes des anciens catalogues)
+            oos.writeInt(partitionedTables.size());
+            for (PartitionedTable partitioned : partitionedTables.values()) {
+                for (Relation partition : partitioned.getPartitions()) {
+                    partition.flush();
+                }
+                partitioned.writeTo(oos);
+            }
+            // Index à la suite (absents des anciens catalogues)
+            oos.writeInt(indexes.size());
+            for (Index index : indexes.values()) {
+                index.flush();
+                oos.writeUTF(index.getName());
+                oos.writeUTF(index.getRelation().getRelationName());
+                oos.writeUTF(index.getColumn().getColumnName());
+                oos.writeUTF(index.getKind());
+                oos.writeObject(index.getMetaPageId());
+            }
         } catch (IOException e) {
             System.err.println("Erreur lors de la sauvegarde de l'état : " + e.getMessage());
         }
@@ -128,6 +295,34 @@ public class DBManager {
                 Relation rel = new Relation(name, cols, config, dm, bm, headerId);
                 this.tables.put(name, rel);
             }
+
+            int partitionedCount;
+            try {
+                partitionedCount = ois.readInt();
+            } catch (EOFException e) {
+                partitionedCount = 0; // catalogue sans tables partitionnées
+            }
+            for (int i = 0; i < partitionedCount; i++) {
+                PartitionedTable partitioned = PartitionedTable.readFrom(ois, config, dm, bm);
+                this.partitionedTables.put(partitioned.getName(), partitioned);
+            }
+
+            int indexCount;
+            try {
+                indexCount = ois.readInt();
+            } catch (EOFException e) {
+                indexCount = 0; // catalogue sans index
+            }
+            for (int i = 0; i < indexCount; i++) {
+                String name = ois.readUTF();
+                Relation rel = tables.get(ois.readUTF());
+                String colName = ois.readUTF();
+                String kind = ois.readUTF();
+                PageId metaPageId = (PageId) ois.readObject();
+                Index index = Index.open(kind, name, rel, rel.getColumnIndex(colName), metaPageId, config, dm, bm);
+                rel.addIndex(index);
+                this.indexes.put(name, index);
+            }
         } catch (IOException | ClassNotFoundException e) {
             System.err.println("Erreur chargement état : " + e.getMessage());
         }
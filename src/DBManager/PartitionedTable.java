@@ -0,0 +1,338 @@
+package DBManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+import FileManager.Column;
+import FileManager.ColumnType;
+import FileManager.Record;
+import FileManager.Relation;
+import FileManager.TableOptions;
+import Main.DBConfig;
+import QueryManager.Condition;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+// Table partitionnée (PARTITION BY RANGE ou HASH) : chaque partition est une Relation avec
+// son propre heap file et sa propre Header Page, toutes avec le même schéma et les mêmes
+// options physiques. Un record est rangé dans la partition de sa clé ; les requêtes ne lisent
+// que les partitions compatibles avec leurs conditions WHERE.
+// RANGE : la partition i reçoit les clés de [borne(i), borne(i+1)) (la première n'a pas de
+// borne inférieure, la dernière pas de borne supérieure).
+// HASH : la partition d'une clé est hash(clé) modulo le nombre de partitions.
+public class PartitionedTable {
+
+    public enum Kind { RANGE, HASH }
+
+    private final String name;
+    private final Column[] columns;
+    private final Kind kind;
+    private final int partitionColumn;
+    private final List<String> partitionNames; // p0, p1, ... (stables après un DROP PARTITION)
+    private final List<Double> lowerBounds; // RANGE uniquement
+    private final List<Relation> partitions;
+    private int nextPartitionId;
+
+    private final DBConfig config;
+    private final DiskManager diskManager;
+    private final BufferManager bufferManager;
+
+    private PartitionedTable(String name, Column[] columns, Kind kind, int partitionColumn,
+                             DBConfig config, DiskManager diskManager, BufferManager bufferManager) {
+        this.name = name;
+        this.columns = columns;
+        this.kind = kind;
+        this.partitionColumn = partitionColumn;
+        this.partitionNames = new ArrayList<>();
+        this.lowerBounds = new ArrayList<>();
+        this.partitions = new ArrayList<>();
+        this.nextPartitionId = 0;
+        this.config = config;
+        this.diskManager = diskManager;
+        this.bufferManager = bufferManager;
+    }
+
+    // PARTITION BY RANGE(col) (b1, b2, ...) : bornes.size() + 1 partitions
+    public static PartitionedTable createRange(String name, Column[] columns, String colName, List<Double> bounds,
+                                               TableOptions options, DBConfig config, DiskManager dm, BufferManager bm) {
+        int colIdx = findColumn(columns, colName);
+        ColumnType type = columns[colIdx].getColumnType();
+        if (type != ColumnType.INT && type != ColumnType.FLOAT) {
+            throw new IllegalArgumentException("PARTITION BY RANGE réservé aux colonnes INT ou FLOAT: " + colName);
+        }
+        for (int i = 1; i < bounds.size(); i++) {
+            if (bounds.get(i) <= bounds.get(i - 1)) {
+                throw new IllegalArgumentException("Bornes de partitions non croissantes");
+            }
+        }
+        PartitionedTable table = new PartitionedTable(name, columns, Kind.RANGE, colIdx, config, dm, bm);
+        table.addNewPartition(Double.NEGATIVE_INFINITY, options);
+        for (double bound : bounds) {
+            table.addNewPartition(bound, options);
+        }
+        return table;
+    }
+
+    // PARTITION BY HASH(col, n)
+    public static PartitionedTable createHash(String name, Column[] columns, String colName, int count,
+                                              TableOptions options, DBConfig config, DiskManager dm, BufferManager bm) {
+        int colIdx = findColumn(columns, colName);
+        ColumnType type = columns[colIdx].getColumnType();
+        if (type != ColumnType.INT && type != ColumnType.CHAR) {
+            throw new IllegalArgumentException("PARTITION BY HASH réservé aux colonnes INT ou CHAR: " + colName);
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("Nombre de partitions invalide: " + count);
+        }
+        PartitionedTable table = new PartitionedTable(name, columns, Kind.HASH, colIdx, config, dm, bm);
+        for (int i = 0; i < count; i++) {
+            table.addNewPartition(Double.NaN, options);
+        }
+        return table;
+    }
+
+    public String getName() { return name; }
+    public Column[] getColumns() { return columns.clone(); }
+    public Kind getKind() { return kind; }
+    public int getPartitionColumn() { return partitionColumn; }
+    public List<String> getPartitionNames() { return new ArrayList<>(partitionNames); }
+    public List<Relation> getPartitions() { return new ArrayList<>(partitions); }
+
+    // Relation de référence pour le schéma et les options physiques (communs à toutes les partitions)
+    public Relation getSchema() {
+        return partitions.get(0);
+    }
+
+    // Partition qui doit recevoir le record
+    public Relation partitionFor(Record record) {
+        if (kind == Kind.HASH) {
+            return partitions.get(hashPartition(keyObject(record)));
+        }
+        double key = columns[partitionColumn].getColumnType() == ColumnType.FLOAT
+                ? record.getFloat(partitionColumn)
+                : record.getInt(partitionColumn);
+        return partitions.get(rangePartition(key));
+    }
+
+    // Partitions qui peuvent contenir des records vérifiant toutes les conditions
+    public List<Relation> prune(List<Condition> conditions) {
+        if (conditions == null) {
+            return getPartitions();
+        }
+        List<Relation> result = new ArrayList<>();
+        if (kind == Kind.RANGE) {
+            double[] range = { Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+            for (Condition cond : conditions) {
+                cond.narrowRange(partitionColumn, range);
+            }
+            for (int i = 0; i < partitions.size(); i++) {
+                double upper = i + 1 < partitions.size() ? lowerBounds.get(i + 1) : Double.POSITIVE_INFINITY;
+                if (range[0] < upper && range[1] >= lowerBounds.get(i)) {
+                    result.add(partitions.get(i));
+                }
+            }
+            return result;
+        }
+
+        TreeSet<Integer> selected = null;
+        for (Condition cond : conditions) {
+            List<Object> values = cond.getPossibleValues(partitionColumn);
+            if (values == null) continue;
+            TreeSet<Integer> hashes = new TreeSet<>();
+            for (Object value : values) {
+                hashes.add(hashPartition(value));
+            }
+            if (selected == null) {
+                selected = hashes;
+            } else {
+                selected.retainAll(hashes);
+            }
+        }
+        if (selected == null) {
+            return getPartitions();
+        }
+        for (int i : selected) {
+            result.add(partitions.get(i));
+        }
+        return result;
+    }
+
+    // ALTER TABLE ... DROP PARTITION p : les pages de la partition sont rendues d'un coup, sans
+    // parcourir ses records. Son intervalle de clés passe à la partition précédente (ou à la
+    // suivante pour la première).
+    public void dropPartition(String partitionName) {
+        if (kind != Kind.RANGE) {
+            throw new IllegalArgumentException("DROP PARTITION réservé aux tables partitionnées par RANGE");
+        }
+        int idx = partitionNames.indexOf(partitionName);
+        if (idx == -1) {
+            throw new IllegalArgumentException("Partition inconnue: " + partitionName);
+        }
+        if (partitions.size() == 1) {
+            throw new IllegalArgumentException("Impossible de supprimer la dernière partition de " + name);
+        }
+        partitions.get(idx).Drop();
+        partitions.remove(idx);
+        partitionNames.remove(idx);
+        lowerBounds.remove(idx);
+        lowerBounds.set(0, Double.NEGATIVE_INFINITY);
+    }
+
+    // ALTER TABLE ... ADD PARTITION (b) : nouvelle partition pour les clés >= b, au-dessus de
+    // toutes les autres. Les records de la dernière partition dont la clé est >= b y sont déplacés.
+    public void addPartition(double bound) {
+        if (kind != Kind.RANGE) {
+            throw new IllegalArgumentException("ADD PARTITION réservé aux tables partitionnées par RANGE");
+        }
+        if (bound <= lowerBounds.get(lowerBounds.size() - 1)) {
+            throw new IllegalArgumentException("La borne doit dépasser celle de la dernière partition");
+        }
+        Relation last = partitions.get(partitions.size() - 1);
+        Relation added = addNewPartition(bound, optionsOf(getSchema()));
+
+        List<Record> moved = new ArrayList<>();
+        for (Record rec : last.GetAllRecords()) {
+            if (partitionFor(rec) == added) {
+                moved.add(rec);
+            }
+        }
+        for (Record rec : moved) {
+            last.DeleteRecord(rec.getRid());
+        }
+        for (Record rec : moved) {
+            added.InsertRecord(rec);
+        }
+    }
+
+    // DROP TABLE : toutes les pages de toutes les partitions sont rendues
+    public void drop() {
+        for (Relation partition : partitions) {
+            partition.Drop();
+        }
+        partitions.clear();
+    }
+
+    // TRUNCATE TABLE : toutes les partitions sont vidées, le découpage est gardé
+    public void truncate() {
+        for (Relation partition : partitions) {
+            partition.Truncate();
+        }
+    }
+
+    // Description après le schéma (DESCRIBE)
+    public String describePartitioning() {
+        String colName = columns[partitionColumn].getColumnName();
+        if (kind == Kind.HASH) {
+            return "PARTITION BY HASH(" + colName + ", " + partitions.size() + ")";
+        }
+        StringBuilder sb = new StringBuilder("PARTITION BY RANGE(" + colName + ")");
+        for (int i = 0; i < partitions.size(); i++) {
+            sb.append(" ").append(partitionNames.get(i)).append("[");
+            sb.append(i == 0 ? "-inf" : formatBound(lowerBounds.get(i))).append(",");
+            sb.append(i + 1 < partitions.size() ? formatBound(lowerBounds.get(i + 1)) : "+inf").append(")");
+        }
+        return sb.toString();
+    }
+
+    void writeTo(ObjectOutputStream oos) throws IOException {
+        oos.writeUTF(name);
+        oos.writeObject(columns);
+        oos.writeUTF(kind.name());
+        oos.writeInt(partitionColumn);
+        oos.writeInt(nextPartitionId);
+        oos.writeInt(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            oos.writeUTF(partitionNames.get(i));
+            oos.writeDouble(kind == Kind.RANGE ? lowerBounds.get(i) : Double.NaN);
+            oos.writeObject(partitions.get(i).getHeaderPageId());
+        }
+    }
+
+    static PartitionedTable readFrom(ObjectInputStream ois, DBConfig config, DiskManager dm, BufferManager bm)
+            throws IOException, ClassNotFoundException {
+        String name = ois.readUTF();
+        Column[] columns = (Column[]) ois.readObject();
+        Kind kind = Kind.valueOf(ois.readUTF());
+        int partitionColumn = ois.readInt();
+        PartitionedTable table = new PartitionedTable(name, columns, kind, partitionColumn, config, dm, bm);
+        table.nextPartitionId = ois.readInt();
+        int count = ois.readInt();
+        for (int i = 0; i < count; i++) {
+            String partitionName = ois.readUTF();
+            double lowerBound = ois.readDouble();
+            PageId headerPageId = (PageId) ois.readObject();
+            table.partitionNames.add(partitionName);
+            table.lowerBounds.add(lowerBound);
+            table.partitions.add(new Relation(name + "#" + partitionName, columns, config, dm, bm, headerPageId));
+        }
+        return table;
+    }
+
+    private Relation addNewPartition(double lowerBound, TableOptions options) {
+        String partitionName = "p" + nextPartitionId++;
+        PageId headerPageId = diskManager.AllocPage();
+        Relation.formatHeaderPage(bufferManager, headerPageId);
+        Relation partition = new Relation(name + "#" + partitionName, columns, config, diskManager, bufferManager,
+                headerPageId, options);
+        partitionNames.add(partitionName);
+        lowerBounds.add(lowerBound);
+        partitions.add(partition);
+        return partition;
+    }
+
+    // Options physiques d'une partition existante, pour en créer une nouvelle à l'identique
+    private static TableOptions optionsOf(Relation relation) {
+        TableOptions options = new TableOptions();
+        options.setLayout(relation.getLayout());
+        options.getDictionaryColumns().addAll(relation.getDictionaryColumns());
+        options.getBloomColumns().addAll(relation.getBloomColumns());
+        if (relation.getClusterColumn() != -1) {
+            options.setClusterColumn(relation.getColumns()[relation.getClusterColumn()].getColumnName());
+        }
+        options.setSegmentStorage(relation.getSegment() != DiskManager.SHARED);
+        return options;
+    }
+
+    // Dernière partition dont la borne inférieure est <= clé
+    private int rangePartition(double key) {
+        int idx = 0;
+        while (idx + 1 < lowerBounds.size() && lowerBounds.get(idx + 1) <= key) {
+            idx++;
+        }
+        return idx;
+    }
+
+    private int hashPartition(Object key) {
+        return Math.floorMod(key.hashCode(), partitions.size());
+    }
+
+    // Clé de hachage telle qu'elle sera relue : un Integer, ou la chaîne tronquée à T sans espaces
+    private Object keyObject(Record record) {
+        if (columns[partitionColumn].getColumnType() == ColumnType.INT) {
+            return record.getInt(partitionColumn);
+        }
+        Object value = record.getValue(partitionColumn);
+        String str = value != null ? (String) value : "";
+        return str.substring(0, Math.min(str.length(), columns[partitionColumn].getSizeInBytes())).trim();
+    }
+
+    private String formatBound(double bound) {
+        return columns[partitionColumn].getColumnType() == ColumnType.INT
+                ? String.valueOf((long) bound)
+                : String.valueOf(bound);
+    }
+
+    private static int findColumn(Column[] columns, String colName) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].getColumnName().equals(colName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Colonne de partitionnement inconnue: " + colName);
+    }
+}
@@ -8,17 +8,31 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 public class DiskManager {
 
+    // Pages partagées : fichiers DataN.bin, communs à toutes les relations.
+    // Segments : fichiers SegN.bin propres à une relation ; leurs pages ont le fileIdx
+    // SEGMENT_FILE_BASE + N, le PageId suffit donc à retrouver le fichier. Un segment grandit
+    // sans limite de taille et ses pages libres ne servent qu'à lui.
+    public static final int SHARED = -1;
+    public static final int SEGMENT_FILE_BASE = 1 << 20;
+
     private final DBConfig config;
-    private final List<PageId> freePages;
+    private final LinkedHashSet<PageId> freePages; // réutilisées dans l'ordre de libération
+    private final Map<Integer, LinkedHashSet<PageId>> segmentFreePages;
     private final String binDataPath;
 
     public DiskManager(DBConfig config) {
         this.config = config;
-        this.freePages = new ArrayList<>();
+        this.freePages = new LinkedHashSet<>();
+        this.segmentFreePages = new HashMap<>();
         this.binDataPath = config.getDbPath() + File.separator + "BinData";
     }
 
@@ -39,13 +53,21 @@ public class DiskManager {
     }
 
     public PageId AllocPage() {
+        return AllocPage(SHARED);
+    }
+
+    // Alloue une page dans les fichiers partagés (SHARED) ou dans le segment donné
+    public PageId AllocPage(int segment) {
+        if (segment != SHARED) {
+            return AllocPages(segment, 1).get(0);
+        }
         if (!freePages.isEmpty()) {
-            return freePages.remove(0);
+            return takeFreePage(freePages);
         }
 
         try {
             for (int fileIdx = 0; fileIdx < config.getDmMaxFileCount(); fileIdx++) {
-                File dataFile = new File(binDataPath + File.separator + "Data" + fileIdx + ".bin");
+                File dataFile = pageFile(fileIdx);
 
                 if (!dataFile.exists()) {
                     dataFile.createNewFile();
@@ -68,10 +90,86 @@ public class DiskManager {
         }
     }
 
+    // Alloue jusqu'à count pages d'un coup : les pages libres d'abord, puis une seule
+    // extension de fichier pour le reste (au lieu d'un setLength par page).
+    // Peut en rendre moins si l'espace disque configuré est presque épuisé.
+    public List<PageId> AllocPages(int count) {
+        return AllocPages(SHARED, count);
+    }
+
+    public List<PageId> AllocPages(int segment, int count) {
+        if (segment != SHARED) {
+            return allocSegmentPages(segment, count);
+        }
+        List<PageId> pages = new ArrayList<>(count);
+        while (pages.size() < count && !freePages.isEmpty()) {
+            pages.add(takeFreePage(freePages));
+        }
+
+        int remaining = count - pages.size();
+        try {
+            for (int fileIdx = 0; remaining > 0 && fileIdx < config.getDmMaxFileCount(); fileIdx++) {
+                File dataFile = pageFile(fileIdx);
+
+                if (!dataFile.exists()) {
+                    dataFile.createNewFile();
+                }
+
+                long fileSize = dataFile.length();
+                int currentPages = (int) (fileSize / config.getPageSize());
+                int toAlloc = Math.min(remaining, config.getDmMaxPagesPerFile() - currentPages);
+
+                if (toAlloc > 0) {
+                    try (RandomAccessFile raf = new RandomAccessFile(dataFile, "rw")) {
+                        raf.setLength(fileSize + (long) toAlloc * config.getPageSize());
+                    }
+                    for (int i = 0; i < toAlloc; i++) {
+                        pages.add(new PageId(fileIdx, currentPages + i));
+                    }
+                    remaining -= toAlloc;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur allocation pages: " + e.getMessage());
+        }
+
+        if (pages.isEmpty()) {
+            throw new RuntimeException("Nombre maximum de fichiers atteint");
+        }
+        return pages;
+    }
+
+    // Nouveau segment (fichier vide) ; retourne le fileIdx de ses pages
+    public int CreateSegment() {
+        try {
+            for (int n = 0; ; n++) {
+                File segmentFile = pageFile(SEGMENT_FILE_BASE + n);
+                if (segmentFile.createNewFile()) {
+                    return SEGMENT_FILE_BASE + n;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur création segment: " + e.getMessage());
+        }
+    }
+
+    // Supprime le fichier du segment et oublie ses pages libres. Les pages du segment ne
+    // doivent plus être dans le buffer pool (voir BufferManager.DiscardFile).
+    public void DeleteSegment(int segment) {
+        segmentFreePages.remove(segment);
+        File segmentFile = pageFile(segment);
+        if (segmentFile.exists() && !segmentFile.delete()) {
+            throw new RuntimeException("Erreur suppression segment: " + segmentFile.getName());
+        }
+    }
+
+    public static boolean isSegment(int fileIdx) {
+        return fileIdx >= SEGMENT_FILE_BASE;
+    }
+
     public void ReadPage(PageId pageId, ByteBuffer buffer) {
         try {
-            String fileName = binDataPath + File.separator + "Data" + pageId.getFileIdx() + ".bin";
-            File file = new File(fileName);
+            File file = pageFile(pageId.getFileIdx());
 
             if (!file.exists()) {
                 // Si le fichier n'existe pas, c'est une page vide, on la remplit de zéros
@@ -116,8 +214,7 @@ public class DiskManager {
 
     public void WritePage(PageId pageId, ByteBuffer buffer) {
         try {
-            String fileName = binDataPath + "/Data" + pageId.getFileIdx() + ".bin";
-            File file = new File(fileName);
+            File file = pageFile(pageId.getFileIdx());
 
             if (!file.exists()) {
                 file.createNewFile();
@@ -140,9 +237,70 @@ public class DiskManager {
     }
 
     public void DeallocPage(PageId pageId) {
-        if (!freePages.contains(pageId)) {
-            freePages.add(pageId);
+        freeListOf(pageId).add(pageId); // sans effet si la page est déjà libre
+    }
+
+    // Libère toutes les pages d'un coup (DROP, TRUNCATE) : seule la liste des pages libres
+    // change, aucune page n'est lue ni écrite
+    public void DeallocPages(Collection<PageId> pageIds) {
+        for (PageId pageId : pageIds) {
+            freeListOf(pageId).add(pageId);
+        }
+    }
+
+    // Pages libres des fichiers partagés
+    public int getFreePageCount() {
+        return freePages.size();
+    }
+
+    public int getFreePageCount(int segment) {
+        LinkedHashSet<PageId> free = segmentFreePages.get(segment);
+        return free == null ? 0 : free.size();
+    }
+
+    // Pages libres du segment d'abord, puis une seule extension du fichier pour le reste
+    private List<PageId> allocSegmentPages(int segment, int count) {
+        List<PageId> pages = new ArrayList<>(count);
+        LinkedHashSet<PageId> free = segmentFreePages.get(segment);
+        while (pages.size() < count && free != null && !free.isEmpty()) {
+            pages.add(takeFreePage(free));
+        }
+        int remaining = count - pages.size();
+        if (remaining > 0) {
+            File segmentFile = pageFile(segment);
+            try (RandomAccessFile raf = new RandomAccessFile(segmentFile, "rw")) {
+                long fileSize = raf.length();
+                int currentPages = (int) (fileSize / config.getPageSize());
+                raf.setLength(fileSize + (long) remaining * config.getPageSize());
+                for (int i = 0; i < remaining; i++) {
+                    pages.add(new PageId(segment, currentPages + i));
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Erreur allocation segment: " + e.getMessage());
+            }
+        }
+        return pages;
+    }
+
+    private LinkedHashSet<PageId> freeListOf(PageId pageId) {
+        if (!isSegment(pageId.getFileIdx())) {
+            return freePages;
         }
+        return segmentFreePages.computeIfAbsent(pageId.getFileIdx(), k -> new LinkedHashSet<>());
+    }
+
+    private static PageId takeFreePage(LinkedHashSet<PageId> free) {
+        Iterator<PageId> it = free.iterator();
+        PageId pageId = it.next();
+        it.remove();
+        return pageId;
+    }
+
+    private File pageFile(int fileIdx) {
+        String fileName = isSegment(fileIdx)
+                ? "Seg" + (fileIdx - SEGMENT_FILE_BASE) + ".bin"
+                : "Data" + fileIdx + ".bin";
+        return new File(binDataPath + File.separator + fileName);
     }
 
     private void loadFreePages() {
@@ -158,7 +316,7 @@ public class DiskManager {
                 if (parts.length == 2) {
                     int fileIdx = Integer.parseInt(parts[0]);
                     int pageIdx = Integer.parseInt(parts[1]);
-                    freePages.add(new PageId(fileIdx, pageIdx));
+                    DeallocPage(new PageId(fileIdx, pageIdx));
                 }
             }
         } catch (IOException e) {
@@ -173,6 +331,11 @@ public class DiskManager {
             for (PageId pageId : freePages) {
                 writer.write(pageId.getFileIdx() + "," + pageId.getPageIdx() + "\n");
             }
+            for (LinkedHashSet<PageId> free : segmentFreePages.values()) {
+                for (PageId pageId : free) {
+                    writer.write(pageId.getFileIdx() + "," + pageId.getPageIdx() + "\n");
+                }
+            }
         } catch (IOException e) {
             System.err.println("Erreur sauvegarde pages libres: " + e.getMessage());
         }
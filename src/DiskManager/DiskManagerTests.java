@@ -24,6 +24,7 @@ public class DiskManagerTests {
         testWriteAndReadPage();
         testDeallocPage();
         testPersistence();
+        testDeallocPages();
 
         // cleanup();
 
@@ -193,4 +194,32 @@ public class DiskManagerTests {
         dm2.Finish();
         System.out.println();
     }
+
+    public static void testDeallocPages() {
+        System.out.println("Test 6: DeallocPages (liberation en bloc)");
+        cleanup();
+
+        DBConfig config = new DBConfig(TEST_DB_PATH, 4, 2, 8, 10, "LRU");
+        DiskManager dm = new DiskManager(config);
+        dm.Init();
+
+        java.util.List<PageId> pages = dm.AllocPages(6);
+        dm.DeallocPages(pages);
+        dm.DeallocPage(pages.get(0)); // deja libre : ignoree
+        System.out.println("Pages libres: " + dm.getFreePageCount());
+
+        // Les pages sont reutilisees dans l'ordre de liberation
+        boolean reused = dm.getFreePageCount() == 6;
+        for (PageId expected : pages) {
+            reused &= dm.AllocPage().equals(expected);
+        }
+        if (reused && dm.getFreePageCount() == 0) {
+            System.out.println("Reutilisation en bloc reussie");
+        } else {
+            System.out.println("Echec reutilisation en bloc");
+        }
+
+        dm.Finish();
+        System.out.println();
+    }
 }
\ No newline at end of file
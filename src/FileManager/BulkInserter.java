@@ -0,0 +1,115 @@
+package FileManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+// Session d'insertion en masse (APPEND, INSERT multi-lignes).
+// La page cible reste épinglée pendant qu'on la remplit slot après slot ;
+// son entrée dans le répertoire n'est écrite qu'une seule fois, quand on la quitte, en même
+// temps que les compteurs de la Header Page.
+// Les nouvelles pages sont allouées par lots.
+// Pour une table triée (CLUSTER BY), chaque record passe par l'insertion triée de la relation.
+public class BulkInserter {
+
+    private static final int ALLOC_BATCH_SIZE = 32;
+
+    private final Relation relation;
+    private final DiskManager diskManager;
+    private final BufferManager bufferManager;
+    private final Deque<PageId> preallocatedPages;
+
+    private PageId currentPageId;
+    private ByteBuffer currentBuff;
+    private boolean currentIsListed; // true si la page courante est déjà dans le répertoire
+    private ZoneMap currentZone;
+    private int currentRows; // records écrits dans la page courante, pas encore comptés
+
+    BulkInserter(Relation relation, DiskManager diskManager, BufferManager bufferManager) {
+        this.relation = relation;
+        this.diskManager = diskManager;
+        this.bufferManager = bufferManager;
+        this.preallocatedPages = new ArrayDeque<>();
+        this.currentPageId = null;
+    }
+
+    public RecordId insert(Record record) {
+        if (relation.getClusterColumn() != -1) {
+            return relation.InsertRecord(record);
+        }
+        DataPageLayout layout = relation.getPageLayout();
+        if (currentPageId == null) {
+            acquirePage(layout.spaceNeeded(record));
+        }
+
+        int slotIdx = layout.insert(currentBuff, record);
+        if (slotIdx == -1) {
+            // La page courante n'a plus la place pour ce record (layout à taille variable)
+            releasePage();
+            acquirePage(layout.spaceNeeded(record));
+            slotIdx = layout.insert(currentBuff, record);
+            if (slotIdx == -1) throw new RuntimeException("Erreur: record trop grand pour une page.");
+        }
+
+        currentZone.add(record);
+        currentRows++;
+        RecordId rid = new RecordId(currentPageId, slotIdx);
+        relation.notifyInserted(record, rid);
+        if (layout.getFreeSpace(currentBuff) < layout.getMinInsertSpace()) {
+            releasePage();
+        }
+        return rid;
+    }
+
+    // Termine la session : rattache la page courante et rend les pages pré-allouées inutilisées
+    public void close() {
+        if (currentPageId != null) {
+            releasePage();
+        }
+        while (!preallocatedPages.isEmpty()) {
+            diskManager.DeallocPage(preallocatedPages.poll());
+        }
+    }
+
+    private void acquirePage(int neededSpace) {
+        PageId pageWithSpace = relation.getDirectory().findPageWithSpace(neededSpace);
+        if (!pageWithSpace.equals(Relation.DUMMY_PAGE_ID)) {
+            currentPageId = pageWithSpace;
+            currentBuff = bufferManager.GetPage(currentPageId);
+            currentIsListed = true;
+            currentZone = relation.getDirectory().getZoneMap(currentPageId).copy();
+        } else {
+            if (preallocatedPages.isEmpty()) {
+                preallocatedPages.addAll(diskManager.AllocPages(relation.getSegment(), ALLOC_BATCH_SIZE));
+            }
+            currentPageId = preallocatedPages.poll();
+            currentBuff = bufferManager.GetPage(currentPageId);
+            relation.getPageLayout().initPage(currentBuff);
+            currentIsListed = false;
+            currentZone = relation.newZoneMap();
+        }
+    }
+
+    private void releasePage() {
+        PageId pageId = currentPageId;
+        int freeSpace = relation.getPageLayout().getFreeSpace(currentBuff);
+
+        if (currentIsListed) {
+            relation.getDirectory().updatePage(pageId, freeSpace, currentZone);
+        } else {
+            relation.getDirectory().addPage(pageId, freeSpace, currentZone);
+        }
+
+        bufferManager.FreePage(pageId, true);
+        relation.addRows(currentRows);
+        relation.writeCounts(); // une fois par page quittée
+        currentRows = 0;
+        currentPageId = null;
+        currentBuff = null;
+        currentZone = null;
+    }
+}
@@ -0,0 +1,73 @@
+package FileManager;
+
+import DiskManager.PageId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Index des séparateurs d'une table triée (CLUSTER BY) : les pages de données rangées par
+// clé croissante, chacune avec la plus petite clé qu'elle doit recevoir. La page d'une clé
+// est la dernière dont le séparateur est <= clé ; une clé plus petite que tous les
+// séparateurs va dans la première page, dont le séparateur est abaissé.
+// L'index n'est pas stocké : à l'ouverture, il est reconstruit à partir des zone maps du
+// répertoire (séparateur = min de la colonne de tri dans la page).
+class ClusterIndex {
+
+    private final List<Double> separators;
+    private final List<PageId> pages;
+
+    ClusterIndex() {
+        this.separators = new ArrayList<>();
+        this.pages = new ArrayList<>();
+    }
+
+    // Page qui doit recevoir la clé, ou DUMMY_PAGE_ID si la table est vide
+    PageId pageForKey(double key) {
+        if (pages.isEmpty()) {
+            return Relation.DUMMY_PAGE_ID;
+        }
+        if (key < separators.get(0)) {
+            separators.set(0, key);
+        }
+        return pages.get(upperBound(key) - 1);
+    }
+
+    void add(double separator, PageId pageId) {
+        int pos = upperBound(separator);
+        separators.add(pos, separator);
+        pages.add(pos, pageId);
+    }
+
+    void remove(PageId pageId) {
+        int pos = pages.indexOf(pageId);
+        if (pos != -1) {
+            separators.remove(pos);
+            pages.remove(pos);
+        }
+    }
+
+    void clear() {
+        separators.clear();
+        pages.clear();
+    }
+
+    // Pages dans l'ordre des clés
+    List<PageId> getPageIds() {
+        return new ArrayList<>(pages);
+    }
+
+    // Nombre de séparateurs <= key
+    private int upperBound(double key) {
+        int low = 0;
+        int high = separators.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (separators.get(mid) <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,85 @@
+package FileManager;
+
+import java.nio.ByteBuffer;
+
+// Format d'une page de données. L'en-tête commun fait 24 octets ; l'offset 16 contient
+// l'espace libre de la page, dans l'unité propre au format (slots ou octets), la même
+// que celle enregistrée dans le répertoire de pages.
+abstract class DataPageLayout {
+
+    static final int FREE_SPACE_OFFSET = 16;
+    static final int PAGE_HEADER_SIZE = 24;
+
+    protected final Relation relation;
+    protected final RecordCodec codec;
+    protected final int pageSize;
+
+    DataPageLayout(Relation relation, int pageSize) {
+        this.relation = relation;
+        this.codec = relation.getCodec();
+        this.pageSize = pageSize;
+    }
+
+    abstract PageLayout getKind();
+
+    abstract void initPage(ByteBuffer pageBuff);
+
+    // Espace libre d'une page vide
+    abstract int getEmptyPageSpace();
+
+    // En dessous de ce seuil une page n'est plus proposée pour une insertion
+    abstract int getMinInsertSpace();
+
+    // Espace à réserver dans une page pour insérer ce record
+    abstract int spaceNeeded(Record record);
+
+    int getFreeSpace(ByteBuffer pageBuff) {
+        return pageBuff.getInt(FREE_SPACE_OFFSET);
+    }
+
+    // Slot du record inséré, ou -1 si la page n'a pas la place
+    abstract int insert(ByteBuffer pageBuff, Record record);
+
+    // false si le nouveau record ne tient pas dans la page (l'ancien est alors conservé)
+    abstract boolean update(ByteBuffer pageBuff, int slotIdx, Record record);
+
+    abstract void delete(ByteBuffer pageBuff, int slotIdx);
+
+    // Prochain slot occupé à partir de fromSlot (inclus), ou -1 s'il n'y en a plus
+    abstract int nextUsedSlot(ByteBuffer pageBuff, int fromSlot);
+
+    abstract boolean isSlotUsed(ByteBuffer pageBuff, int slotIdx);
+
+    // Position du premier octet du record dans la page
+    abstract int recordPosition(ByteBuffer pageBuff, int slotIdx);
+
+    // Position d'une valeur de taille fixe du record
+    int fieldPosition(ByteBuffer pageBuff, int slotIdx, int colIdx) {
+        return recordPosition(pageBuff, slotIdx) + codec.getFieldOffset(colIdx);
+    }
+
+    // Vecteur d'une colonne INT d'un lot : out[row] pour les count lignes de rows, row désignant
+    // le slot slots[row]
+    void readIntColumn(ByteBuffer pageBuff, int[] slots, int[] rows, int count, int colIdx, int[] out) {
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            out[row] = pageBuff.getInt(fieldPosition(pageBuff, slots[row], colIdx));
+        }
+    }
+
+    void readFloatColumn(ByteBuffer pageBuff, int[] slots, int[] rows, int count, int colIdx, float[] out) {
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            out[row] = pageBuff.getFloat(fieldPosition(pageBuff, slots[row], colIdx));
+        }
+    }
+
+    void read(ByteBuffer pageBuff, int slotIdx, Record record) {
+        codec.decode(record, pageBuff, recordPosition(pageBuff, slotIdx));
+    }
+
+    // Lit seulement les colonnes demandées ; les autres valeurs du record ne sont pas touchées
+    void readColumns(ByteBuffer pageBuff, int slotIdx, Record record, int[] columnIndexes) {
+        codec.decodeColumns(record, pageBuff, recordPosition(pageBuff, slotIdx), columnIndexes);
+    }
+}
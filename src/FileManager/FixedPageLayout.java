@@ -0,0 +1,198 @@
+package FileManager;
+
+import java.nio.ByteBuffer;
+
+// Layout ROW : records de taille fixe rangés à RECORDS_OFFSET + slot * recordSize,
+// occupation des slots dans une Bitmap (1 bit par slot, lue par mots de 64 bits).
+// L'espace libre est compté en slots.
+class FixedPageLayout extends DataPageLayout {
+
+    private static final int BITMAP_OFFSET = PAGE_HEADER_SIZE; // aligné sur 8 octets
+
+    protected final int recordSize;
+    protected final int slotCount;
+    private final int bitmapWordCount;
+    protected final int recordsOffset;
+
+    FixedPageLayout(Relation relation, int pageSize, int recordSize) {
+        super(relation, pageSize);
+        this.recordSize = recordSize;
+
+        int slots = ((pageSize - PAGE_HEADER_SIZE) * 8) / (8 * recordSize + 1);
+        while (slots > 0 && PAGE_HEADER_SIZE + wordsFor(slots) * 8 + slots * recordSize > pageSize) {
+            slots--;
+        }
+        this.slotCount = slots;
+        this.bitmapWordCount = wordsFor(slots);
+        this.recordsOffset = BITMAP_OFFSET + bitmapWordCount * 8;
+    }
+
+    private static int wordsFor(int slots) {
+        return (slots + 63) >>> 6;
+    }
+
+    int getSlotCount() {
+        return slotCount;
+    }
+
+    int getRecordsOffset() {
+        return recordsOffset;
+    }
+
+    @Override
+    PageLayout getKind() {
+        return PageLayout.ROW;
+    }
+
+    // Remet à zéro la bitmap ; les bits au-delà du dernier slot sont mis à 1
+    // pour qu'ils ne soient jamais choisis lors d'une allocation.
+    @Override
+    void initPage(ByteBuffer pageBuff) {
+        for (int w = 0; w < bitmapWordCount; w++) {
+            pageBuff.putLong(BITMAP_OFFSET + w * 8, 0L);
+        }
+        int tailBits = slotCount & 63;
+        if (tailBits != 0) {
+            pageBuff.putLong(BITMAP_OFFSET + (bitmapWordCount - 1) * 8, -1L << tailBits);
+        }
+        pageBuff.putInt(FREE_SPACE_OFFSET, slotCount);
+    }
+
+    @Override
+    int getEmptyPageSpace() {
+        return slotCount;
+    }
+
+    @Override
+    int getMinInsertSpace() {
+        return 1;
+    }
+
+    @Override
+    int spaceNeeded(Record record) {
+        return 1;
+    }
+
+    @Override
+    int insert(ByteBuffer pageBuff, Record record) {
+        codec.prepare(record);
+        int slotIdx = findFreeSlot(pageBuff);
+        if (slotIdx == -1) return -1;
+
+        // Le slot n'est pris qu'une fois le record écrit : un échec laisse la page inchangée
+        writeSlot(pageBuff, slotIdx, record);
+        setSlotBit(pageBuff, slotIdx);
+        pageBuff.putInt(FREE_SPACE_OFFSET, pageBuff.getInt(FREE_SPACE_OFFSET) - 1);
+        return slotIdx;
+    }
+
+    @Override
+    boolean update(ByteBuffer pageBuff, int slotIdx, Record record) {
+        codec.prepare(record);
+        writeSlot(pageBuff, slotIdx, record);
+        return true;
+    }
+
+    // Écrit les valeurs du record dans le slot (le record est contigu dans le layout ROW)
+    protected void writeSlot(ByteBuffer pageBuff, int slotIdx, Record record) {
+        codec.encode(record, pageBuff, recordsOffset + slotIdx * recordSize);
+    }
+
+    @Override
+    void delete(ByteBuffer pageBuff, int slotIdx) {
+        int pos = BITMAP_OFFSET + (slotIdx >>> 6) * 8;
+        pageBuff.putLong(pos, pageBuff.getLong(pos) & ~(1L << (slotIdx & 63)));
+        pageBuff.putInt(FREE_SPACE_OFFSET, pageBuff.getInt(FREE_SPACE_OFFSET) + 1);
+    }
+
+    // Premier slot libre de la page, ou -1 si la page est pleine (parcours par mots de 64 bits)
+    private int findFreeSlot(ByteBuffer pageBuff) {
+        for (int w = 0; w < bitmapWordCount; w++) {
+            long word = pageBuff.getLong(BITMAP_OFFSET + w * 8);
+            if (word != -1L) {
+                return (w << 6) + Long.numberOfTrailingZeros(~word);
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    int nextUsedSlot(ByteBuffer pageBuff, int fromSlot) {
+        if (fromSlot >= slotCount) return -1;
+        int w = fromSlot >>> 6;
+        long word = pageBuff.getLong(BITMAP_OFFSET + w * 8) & (-1L << (fromSlot & 63));
+        while (true) {
+            if (word != 0) {
+                int slot = (w << 6) + Long.numberOfTrailingZeros(word);
+                return slot < slotCount ? slot : -1;
+            }
+            w++;
+            if (w >= bitmapWordCount) return -1;
+            word = pageBuff.getLong(BITMAP_OFFSET + w * 8);
+        }
+    }
+
+    @Override
+    boolean isSlotUsed(ByteBuffer pageBuff, int slotIdx) {
+        if (slotIdx < 0 || slotIdx >= slotCount) return false;
+        long word = pageBuff.getLong(BITMAP_OFFSET + (slotIdx >>> 6) * 8);
+        return (word & (1L << (slotIdx & 63))) != 0;
+    }
+
+    @Override
+    int recordPosition(ByteBuffer pageBuff, int slotIdx) {
+        return recordsOffset + slotIdx * recordSize;
+    }
+
+    // Les valeurs d'une colonne sont à columnBase(c) + slot * columnStride(c) : les vecteurs
+    // d'un lot se lisent sans passer par fieldPosition
+    protected int columnBase(int colIdx) {
+        return recordsOffset + codec.getFieldOffset(colIdx);
+    }
+
+    protected int columnStride(int colIdx) {
+        return recordSize;
+    }
+
+    @Override
+    void readIntColumn(ByteBuffer pageBuff, int[] slots, int[] rows, int count, int colIdx, int[] out) {
+        int base = columnBase(colIdx);
+        int stride = columnStride(colIdx);
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            out[row] = pageBuff.getInt(base + slots[row] * stride);
+        }
+    }
+
+    @Override
+    void readFloatColumn(ByteBuffer pageBuff, int[] slots, int[] rows, int count, int colIdx, float[] out) {
+        int base = columnBase(colIdx);
+        int stride = columnStride(colIdx);
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            out[row] = pageBuff.getFloat(base + slots[row] * stride);
+        }
+    }
+
+    private void setSlotBit(ByteBuffer pageBuff, int slotIdx) {
+        int pos = BITMAP_OFFSET + (slotIdx >>> 6) * 8;
+        pageBuff.putLong(pos, pageBuff.getLong(pos) | (1L << (slotIdx & 63)));
+    }
+
+    // Réécrit une page au format Bitmap à partir des records bruts d'une page ByteMap
+    // (contents[i] == null pour un slot libre). Retourne le nombre de slots libres ;
+    // les records au-delà du dernier slot disponible sont laissés à l'appelant.
+    int rebuildFromLegacy(ByteBuffer pageBuff, byte[][] contents) {
+        initPage(pageBuff);
+        int freeSlots = slotCount;
+        for (int i = 0; i < contents.length && i < slotCount; i++) {
+            if (contents[i] == null) continue;
+            setSlotBit(pageBuff, i);
+            pageBuff.position(recordsOffset + i * recordSize);
+            pageBuff.put(contents[i]);
+            freeSlots--;
+        }
+        pageBuff.putInt(FREE_SPACE_OFFSET, freeSlots);
+        return freeSlots;
+    }
+}
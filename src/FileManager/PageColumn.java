@@ -0,0 +1,86 @@
+package FileManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// Accès direct à une colonne dans les pages épinglées d'une relation, sans Record : utilisé
+// par les prédicats compilés (QueryManager.Predicate). Pour les layouts ROW et PAX la position
+// d'une valeur de taille fixe est base + slot * stride, calculée une fois par colonne.
+public final class PageColumn {
+
+    private final Relation relation;
+    private final int colIdx;
+    private final int base;
+    private final int stride; // 0 : position demandée au layout (SLOTTED)
+    private final int size;
+    private final boolean rawChars; // CHAR stocké tel quel (ni dictionnaire, ni VARCHAR variable)
+
+    PageColumn(Relation relation, int colIdx, int base, int stride) {
+        this.relation = relation;
+        this.colIdx = colIdx;
+        this.base = base;
+        this.stride = stride;
+        RecordCodec codec = relation.getCodec();
+        this.size = codec.getFieldSize(colIdx);
+        this.rawChars = relation.getColumns()[colIdx].getColumnType() != ColumnType.INT
+                && relation.getColumns()[colIdx].getColumnType() != ColumnType.FLOAT
+                && !codec.isVariable(colIdx) && !codec.isDictionaryEncoded(colIdx);
+    }
+
+    public Relation getRelation() {
+        return relation;
+    }
+
+    public int getInt(ByteBuffer pageBuff, int slotIdx) {
+        return pageBuff.getInt(position(pageBuff, slotIdx));
+    }
+
+    public float getFloat(ByteBuffer pageBuff, int slotIdx) {
+        return pageBuff.getFloat(position(pageBuff, slotIdx));
+    }
+
+    // Code d'une colonne encodée par dictionnaire
+    public int getCode(ByteBuffer pageBuff, int slotIdx) {
+        return pageBuff.getChar(position(pageBuff, slotIdx));
+    }
+
+    // Valeur décodée (toute colonne, y compris VARCHAR)
+    public Object getValue(ByteBuffer pageBuff, int slotIdx) {
+        return relation.readColumnValue(pageBuff, slotIdx, colIdx);
+    }
+
+    // Octets d'une constante que charsEqual peut comparer directement à la page, null si la
+    // colonne n'est pas un CHAR stocké tel quel ou si la constante doit passer par le décodage
+    // (vide, blancs en bordure, caractères non ASCII, plus longue que la colonne)
+    public byte[] encodeChars(String value) {
+        if (!rawChars || value.isEmpty() || value.length() > size
+                || value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ') {
+            return null;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) < ' ' || value.charAt(i) > '~') return null;
+        }
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // Égalité de la valeur du slot avec une constante de encodeChars, sur les octets de la page :
+    // la valeur lue est la chaîne bourrée d'espaces puis trim(). Une valeur stockée qui commence
+    // par un blanc est décodée.
+    public boolean charsEqual(ByteBuffer pageBuff, int slotIdx, byte[] chars) {
+        int pos = position(pageBuff, slotIdx);
+        if ((pageBuff.get(pos) & 0xFF) <= ' ') {
+            return getValue(pageBuff, slotIdx).equals(new String(chars, StandardCharsets.US_ASCII));
+        }
+        for (int i = 0; i < chars.length; i++) {
+            if (pageBuff.get(pos + i) != chars[i]) return false;
+        }
+        for (int i = chars.length; i < size; i++) {
+            if ((pageBuff.get(pos + i) & 0xFF) > ' ') return false;
+        }
+        return true;
+    }
+
+    private int position(ByteBuffer pageBuff, int slotIdx) {
+        return stride != 0 ? base + slotIdx * stride : relation.fieldPosition(pageBuff, slotIdx, colIdx);
+    }
+}
@@ -0,0 +1,341 @@
+package FileManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// Répertoire des pages de données d'une relation.
+// Chaque page de répertoire contient un tableau d'entrées (PageId, espace libre, zone map) ;
+// la première section vit dans la Header Page, les suivantes dans des pages chaînées.
+// Le répertoire est relu entièrement à l'ouverture (quelques pages) et gardé en
+// mémoire ; toute modification est écrite immédiatement dans la page concernée.
+public class PageDirectory {
+
+    // Section répertoire : [next dir page (8)][nb entrées (4)][padding (4)][entrées...]
+    private static final int NEXT_DIR_PAGE_OFFSET = 0;
+    private static final int ENTRY_COUNT_OFFSET = 8;
+    private static final int ENTRIES_OFFSET = 16;
+    private static final int ENTRY_HEADER_SIZE = 12; // fileIdx + pageIdx + espace libre, puis la zone map
+
+    private static final Comparator<PageId> PAGE_ORDER =
+            Comparator.comparingInt(PageId::getFileIdx).thenComparingInt(PageId::getPageIdx);
+
+    private final BufferManager bufferManager;
+    private final DiskManager diskManager;
+    private final int segment; // où allouer les pages de répertoire (DiskManager.SHARED ou un segment)
+    private final PageId headerPageId;
+    private final int headerSectionOffset;
+    private final int pageSize;
+    private final int minUsefulSpace; // seuil en dessous duquel une page n'est plus proposée
+    private final ZoneMap emptyZone;
+    private final int entrySize;
+
+    // Cache mémoire
+    private final List<PageId> dirPages; // dirPages[0] = Header Page
+    private final List<Entry> entries; // dans l'ordre des pages de répertoire
+    private final Map<PageId, Entry> entryByPage;
+    private final LinkedHashSet<Entry> pagesWithSpace;
+    private List<PageId> sortedPages;
+
+    private static class Entry {
+        PageId pageId;
+        int freeSpace;
+        ZoneMap zone;
+        int position; // index global dans le répertoire
+        int deletes; // suppressions depuis que la zone map a été posée (non persisté)
+
+        Entry(PageId pageId, int freeSpace, ZoneMap zone, int position) {
+            this.pageId = pageId;
+            this.freeSpace = freeSpace;
+            this.zone = zone;
+            this.position = position;
+        }
+    }
+
+    public PageDirectory(BufferManager bufferManager, DiskManager diskManager, int segment, PageId headerPageId,
+                         int headerSectionOffset, int pageSize, int minUsefulSpace, ZoneMap emptyZone) {
+        this.bufferManager = bufferManager;
+        this.diskManager = diskManager;
+        this.segment = segment;
+        this.headerPageId = headerPageId;
+        this.headerSectionOffset = headerSectionOffset;
+        this.pageSize = pageSize;
+        this.minUsefulSpace = Math.max(minUsefulSpace, 1);
+        this.emptyZone = emptyZone;
+        this.entrySize = ENTRY_HEADER_SIZE + emptyZone.getSerializedSize();
+        if (entriesPerPage(0) < 1) {
+            throw new IllegalArgumentException("Pages trop petites pour le répertoire de cette relation");
+        }
+        this.dirPages = new ArrayList<>();
+        this.entries = new ArrayList<>();
+        this.entryByPage = new HashMap<>();
+        this.pagesWithSpace = new LinkedHashSet<>();
+    }
+
+    // Initialise un répertoire vide dans la Header Page
+    public void init() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        writePageId(headerBuff, headerSectionOffset + NEXT_DIR_PAGE_OFFSET, Relation.DUMMY_PAGE_ID);
+        headerBuff.putInt(headerSectionOffset + ENTRY_COUNT_OFFSET, 0);
+        bufferManager.FreePage(headerPageId, true);
+        load();
+    }
+
+    // Relit toutes les pages de répertoire
+    public void load() {
+        dirPages.clear();
+        entries.clear();
+        entryByPage.clear();
+        pagesWithSpace.clear();
+        sortedPages = null;
+
+        PageId current = headerPageId;
+        while (!current.equals(Relation.DUMMY_PAGE_ID)) {
+            dirPages.add(current);
+            int section = sectionOffset(current);
+            ByteBuffer buff = bufferManager.GetPage(current);
+            int count = buff.getInt(section + ENTRY_COUNT_OFFSET);
+            for (int i = 0; i < count; i++) {
+                int pos = section + ENTRIES_OFFSET + i * entrySize;
+                PageId pageId = new PageId(buff.getInt(pos), buff.getInt(pos + 4));
+                ZoneMap zone = emptyZone.emptyCopy();
+                zone.read(buff, pos + ENTRY_HEADER_SIZE);
+                Entry entry = new Entry(pageId, buff.getInt(pos + 8), zone, entries.size());
+                entries.add(entry);
+                entryByPage.put(pageId, entry);
+                if (entry.freeSpace >= minUsefulSpace) {
+                    pagesWithSpace.add(entry);
+                }
+            }
+            PageId next = readPageId(buff, section + NEXT_DIR_PAGE_OFFSET);
+            bufferManager.FreePage(current, false);
+            current = next;
+        }
+    }
+
+    public void addPage(PageId pageId, int freeSpace) {
+        addPage(pageId, freeSpace, emptyZone.emptyCopy());
+    }
+
+    public void addPage(PageId pageId, int freeSpace, ZoneMap zone) {
+        int position = entries.size();
+        int dirIdx = dirIndex(position);
+        if (dirIdx == dirPages.size()) {
+            appendDirPage();
+        }
+
+        Entry entry = new Entry(pageId, freeSpace, zone, position);
+        entries.add(entry);
+        entryByPage.put(pageId, entry);
+        if (freeSpace >= minUsefulSpace) {
+            pagesWithSpace.add(entry);
+        }
+        sortedPages = null;
+
+        writeEntry(entry);
+        setEntryCount(dirIdx, localIndex(position) + 1);
+    }
+
+    // Retire une page : la dernière entrée prend sa place (O(1))
+    public void removePage(PageId pageId) {
+        Entry entry = entryByPage.remove(pageId);
+        if (entry == null) return;
+        pagesWithSpace.remove(entry);
+        sortedPages = null;
+
+        int lastPosition = entries.size() - 1;
+        Entry last = entries.remove(lastPosition);
+        if (last != entry) {
+            last.position = entry.position;
+            entries.set(entry.position, last);
+            writeEntry(last);
+        }
+
+        int lastDirIdx = dirIndex(lastPosition);
+        setEntryCount(lastDirIdx, localIndex(lastPosition));
+        if (lastDirIdx > 0 && localIndex(lastPosition) == 0) {
+            removeLastDirPage();
+        }
+    }
+
+    public void setFreeSpace(PageId pageId, int freeSpace) {
+        Entry entry = entryByPage.get(pageId);
+        if (entry == null || entry.freeSpace == freeSpace) return;
+        changeFreeSpace(entry, freeSpace);
+        writeEntry(entry);
+    }
+
+    // Après une insertion (ou une mise à jour sur place) : espace libre et zone map en une écriture
+    public void recordWritten(PageId pageId, int freeSpace, Record record) {
+        Entry entry = entryByPage.get(pageId);
+        if (entry == null) return;
+        boolean changed = entry.zone.add(record);
+        if (entry.freeSpace != freeSpace) {
+            changeFreeSpace(entry, freeSpace);
+            changed = true;
+        }
+        if (changed) {
+            writeEntry(entry);
+        }
+    }
+
+    // Remplace l'espace libre et la zone map d'une page (fin d'une session d'insertion en masse,
+    // zone recalculée)
+    public void updatePage(PageId pageId, int freeSpace, ZoneMap zone) {
+        Entry entry = entryByPage.get(pageId);
+        if (entry == null) return;
+        changeFreeSpace(entry, freeSpace);
+        entry.zone = zone;
+        entry.deletes = 0;
+        writeEntry(entry);
+    }
+
+    // Après une suppression : nouvel espace libre ; retourne le nombre de suppressions dans la
+    // page depuis que sa zone map a été posée (la zone n'est jamais resserrée ici)
+    public int recordDeleted(PageId pageId, int freeSpace) {
+        Entry entry = entryByPage.get(pageId);
+        if (entry == null) return 0;
+        setFreeSpace(pageId, freeSpace);
+        return ++entry.deletes;
+    }
+
+    // Zone map de la page, ou null si la page n'est pas dans le répertoire
+    public ZoneMap getZoneMap(PageId pageId) {
+        Entry entry = entryByPage.get(pageId);
+        return entry == null ? null : entry.zone;
+    }
+
+    public int getFreeSpace(PageId pageId) {
+        Entry entry = entryByPage.get(pageId);
+        return entry == null ? -1 : entry.freeSpace;
+    }
+
+    public boolean contains(PageId pageId) {
+        return entryByPage.containsKey(pageId);
+    }
+
+    // Une page avec au moins `needed` unités libres, sans lire aucune page de données ; DUMMY sinon
+    public PageId findPageWithSpace(int needed) {
+        for (Entry entry : pagesWithSpace) {
+            if (entry.freeSpace >= needed) {
+                return entry.pageId;
+            }
+        }
+        return Relation.DUMMY_PAGE_ID;
+    }
+
+    // Pages de données triées par (fichier, page) pour des lectures séquentielles
+    public List<PageId> getPageIds() {
+        if (sortedPages == null) {
+            List<PageId> pages = new ArrayList<>(entries.size());
+            for (Entry entry : entries) {
+                pages.add(entry.pageId);
+            }
+            pages.sort(PAGE_ORDER);
+            sortedPages = pages;
+        }
+        return new ArrayList<>(sortedPages);
+    }
+
+    public int getPageCount() {
+        return entries.size();
+    }
+
+    // Pages encore proposées à l'insertion (au moins minUsefulSpace libre)
+    public int getPagesWithSpaceCount() {
+        return pagesWithSpace.size();
+    }
+
+    // Pages de répertoire chaînées (sans la Header Page)
+    public List<PageId> getOverflowPages() {
+        return new ArrayList<>(dirPages.subList(1, dirPages.size()));
+    }
+
+    private void changeFreeSpace(Entry entry, int freeSpace) {
+        entry.freeSpace = freeSpace;
+        if (freeSpace >= minUsefulSpace) {
+            pagesWithSpace.add(entry);
+        } else {
+            pagesWithSpace.remove(entry);
+        }
+    }
+
+    private void appendDirPage() {
+        PageId newDirPage = diskManager.AllocPage(segment);
+        ByteBuffer buff = bufferManager.GetPage(newDirPage);
+        writePageId(buff, NEXT_DIR_PAGE_OFFSET, Relation.DUMMY_PAGE_ID);
+        buff.putInt(ENTRY_COUNT_OFFSET, 0);
+        bufferManager.FreePage(newDirPage, true);
+
+        PageId last = dirPages.get(dirPages.size() - 1);
+        ByteBuffer lastBuff = bufferManager.GetPage(last);
+        writePageId(lastBuff, sectionOffset(last) + NEXT_DIR_PAGE_OFFSET, newDirPage);
+        bufferManager.FreePage(last, true);
+
+        dirPages.add(newDirPage);
+    }
+
+    private void removeLastDirPage() {
+        PageId removed = dirPages.remove(dirPages.size() - 1);
+        PageId last = dirPages.get(dirPages.size() - 1);
+        ByteBuffer lastBuff = bufferManager.GetPage(last);
+        writePageId(lastBuff, sectionOffset(last) + NEXT_DIR_PAGE_OFFSET, Relation.DUMMY_PAGE_ID);
+        bufferManager.FreePage(last, true);
+        diskManager.DeallocPage(removed);
+    }
+
+    private void writeEntry(Entry entry) {
+        int dirIdx = dirIndex(entry.position);
+        PageId dirPage = dirPages.get(dirIdx);
+        int pos = sectionOffset(dirPage) + ENTRIES_OFFSET + localIndex(entry.position) * entrySize;
+        ByteBuffer buff = bufferManager.GetPage(dirPage);
+        buff.putInt(pos, entry.pageId.getFileIdx());
+        buff.putInt(pos + 4, entry.pageId.getPageIdx());
+        buff.putInt(pos + 8, entry.freeSpace);
+        entry.zone.write(buff, pos + ENTRY_HEADER_SIZE);
+        bufferManager.FreePage(dirPage, true);
+    }
+
+    private void setEntryCount(int dirIdx, int count) {
+        PageId dirPage = dirPages.get(dirIdx);
+        ByteBuffer buff = bufferManager.GetPage(dirPage);
+        buff.putInt(sectionOffset(dirPage) + ENTRY_COUNT_OFFSET, count);
+        bufferManager.FreePage(dirPage, true);
+    }
+
+    private int sectionOffset(PageId dirPage) {
+        return dirPage.equals(headerPageId) ? headerSectionOffset : 0;
+    }
+
+    private int entriesPerPage(int dirIdx) {
+        int section = dirIdx == 0 ? headerSectionOffset : 0;
+        return (pageSize - section - ENTRIES_OFFSET) / entrySize;
+    }
+
+    private int dirIndex(int position) {
+        int first = entriesPerPage(0);
+        return position < first ? 0 : 1 + (position - first) / entriesPerPage(1);
+    }
+
+    private int localIndex(int position) {
+        int first = entriesPerPage(0);
+        return position < first ? position : (position - first) % entriesPerPage(1);
+    }
+
+    private static PageId readPageId(ByteBuffer buff, int offset) {
+        return new PageId(buff.getInt(offset), buff.getInt(offset + 4));
+    }
+
+    private static void writePageId(ByteBuffer buff, int offset, PageId pageId) {
+        buff.putInt(offset, pageId.getFileIdx());
+        buff.putInt(offset + 4, pageId.getPageIdx());
+    }
+}
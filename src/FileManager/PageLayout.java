@@ -0,0 +1,19 @@
+package FileManager;
+
+// Organisation des records dans les pages de données d'une relation
+public enum PageLayout {
+    ROW, // records de taille fixe + Bitmap des slots
+    SLOTTED, // répertoire de slots (offset, longueur) + records de taille variable
+    PAX; // Bitmap des slots + une minipage par colonne
+
+    public static PageLayout fromString(String layoutString) {
+        String upper = layoutString.trim().toUpperCase();
+        for (PageLayout layout : values()) {
+            if (layout.name().equals(upper)) {
+                return layout;
+            }
+        }
+        throw new IllegalArgumentException("Layout non reconnu: " + layoutString
+                + " Utiliser un layout valide parmis ROW, SLOTTED, PAX.");
+    }
+}
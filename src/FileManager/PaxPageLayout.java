@@ -0,0 +1,72 @@
+package FileManager;
+
+import java.nio.ByteBuffer;
+
+// Layout PAX : même Bitmap des slots que le layout ROW, mais les valeurs sont rangées
+// colonne par colonne. La page contient une minipage par colonne, de slotCount valeurs
+// de taille fixe : la valeur de la colonne c du slot s est à minipageOffsets[c] + s * taille(c).
+// Un parcours qui n'a besoin que de quelques colonnes ne lit que leurs minipages.
+class PaxPageLayout extends FixedPageLayout {
+
+    private final int[] minipageOffsets;
+    private final int[] fieldSizes;
+
+    PaxPageLayout(Relation relation, int pageSize, int columnCount, int recordSize) {
+        super(relation, pageSize, recordSize);
+        this.minipageOffsets = new int[columnCount];
+        this.fieldSizes = new int[columnCount];
+        int offset = recordsOffset;
+        for (int i = 0; i < columnCount; i++) {
+            minipageOffsets[i] = offset;
+            fieldSizes[i] = codec.getFieldSize(i); // 2 octets pour une colonne encodée par dictionnaire
+            offset += slotCount * fieldSizes[i];
+        }
+    }
+
+    @Override
+    PageLayout getKind() {
+        return PageLayout.PAX;
+    }
+
+    @Override
+    protected void writeSlot(ByteBuffer pageBuff, int slotIdx, Record record) {
+        for (int i = 0; i < minipageOffsets.length; i++) {
+            codec.writeField(record, i, pageBuff, fieldPosition(pageBuff, slotIdx, i));
+        }
+    }
+
+    @Override
+    void read(ByteBuffer pageBuff, int slotIdx, Record record) {
+        for (int i = 0; i < minipageOffsets.length; i++) {
+            codec.readField(record, i, pageBuff, fieldPosition(pageBuff, slotIdx, i));
+        }
+    }
+
+    @Override
+    void readColumns(ByteBuffer pageBuff, int slotIdx, Record record, int[] columnIndexes) {
+        for (int colIdx : columnIndexes) {
+            codec.readField(record, colIdx, pageBuff, fieldPosition(pageBuff, slotIdx, colIdx));
+        }
+    }
+
+    // Les valeurs d'un record ne sont pas contiguës dans ce layout
+    @Override
+    int recordPosition(ByteBuffer pageBuff, int slotIdx) {
+        throw new UnsupportedOperationException("Layout PAX : pas de position de record");
+    }
+
+    @Override
+    int fieldPosition(ByteBuffer pageBuff, int slotIdx, int colIdx) {
+        return minipageOffsets[colIdx] + slotIdx * fieldSizes[colIdx];
+    }
+
+    @Override
+    protected int columnBase(int colIdx) {
+        return minipageOffsets[colIdx];
+    }
+
+    @Override
+    protected int columnStride(int colIdx) {
+        return fieldSizes[colIdx];
+    }
+}
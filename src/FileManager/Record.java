@@ -1,17 +1,33 @@
 package FileManager;
 
 import java.util.Arrays;
+import java.util.Objects;
 
+// Valeurs d'un record rangées par type : les INT et les FLOAT (leurs bits) dans un tableau
+// d'int, les chaînes dans un tableau d'objets. getInt/getFloat/setInt/setFloat travaillent
+// directement sur les valeurs primitives ; seul getValue crée un Integer/Float.
 public class Record {
-    private Object[] values;
+    private static final byte NULL = 0;
+    private static final byte INT = 1;
+    private static final byte FLOAT = 2;
+    private static final byte OBJECT = 3; // chaînes (ou valeur numérique d'un autre type)
+
+    private final byte[] kinds;
+    private final int[] numbers;
+    private final Object[] objects;
     private RecordId rid; // Ajout TP7 : Stocker le RID du record
 
     public Record(int capacity) {
-        this.values = new Object[capacity];
+        this.kinds = new byte[capacity];
+        this.numbers = new int[capacity];
+        this.objects = new Object[capacity];
     }
 
     public Record(Object[] values) {
-        this.values = Arrays.copyOf(values, values.length);
+        this(values.length);
+        for (int i = 0; i < values.length; i++) {
+            setValue(i, values[i]);
+        }
     }
 
     public void setRid(RecordId rid) {
@@ -23,29 +39,96 @@ public class Record {
     }
 
     public Object getValue(int index) {
-        if (index < 0 || index >= values.length) {
-            throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+        checkIndex(index);
+        switch (kinds[index]) {
+            case INT: return numbers[index];
+            case FLOAT: return Float.intBitsToFloat(numbers[index]);
+            default: return objects[index];
         }
-        return values[index];
     }
 
     public void setValue(int index, Object value) {
-        if (index < 0 || index >= values.length) {
-            throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+        checkIndex(index);
+        if (value instanceof Integer) {
+            setInt(index, (Integer) value);
+        } else if (value instanceof Float) {
+            setFloat(index, (Float) value);
+        } else {
+            kinds[index] = value == null ? NULL : OBJECT;
+            objects[index] = value;
         }
-        values[index] = value;
     }
 
     public int getValueCount() {
-        return values.length;
+        return kinds.length;
+    }
+
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return kinds[index] == NULL;
+    }
+
+    // Accès typés pour les colonnes INT et FLOAT (0 pour une valeur absente)
+    public int getInt(int index) {
+        checkIndex(index);
+        switch (kinds[index]) {
+            case INT: return numbers[index];
+            case FLOAT: return (int) Float.intBitsToFloat(numbers[index]);
+            case OBJECT: return ((Number) objects[index]).intValue();
+            default: return 0;
+        }
+    }
+
+    public float getFloat(int index) {
+        checkIndex(index);
+        switch (kinds[index]) {
+            case FLOAT: return Float.intBitsToFloat(numbers[index]);
+            case INT: return numbers[index];
+            case OBJECT: return ((Number) objects[index]).floatValue();
+            default: return 0.0f;
+        }
+    }
+
+    public void setInt(int index, int value) {
+        checkIndex(index);
+        kinds[index] = INT;
+        numbers[index] = value;
+        objects[index] = null;
+    }
+
+    public void setFloat(int index, float value) {
+        checkIndex(index);
+        kinds[index] = FLOAT;
+        numbers[index] = Float.floatToRawIntBits(value);
+        objects[index] = null;
+    }
+
+    // Remet toutes les valeurs à null (pour réutiliser le record)
+    public void clear() {
+        Arrays.fill(kinds, NULL);
+        Arrays.fill(objects, null);
+        rid = null;
+    }
+
+    // Record indépendant de toute page, à utiliser pour garder un record au-delà du
+    // prochain GetNextRecord (un RecordView est réutilisé d'un record à l'autre)
+    public Record materialize() {
+        return this;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= kinds.length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+        }
     }
 
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < values.length; i++) {
-            sb.append(values[i]);
-            if (i < values.length - 1) sb.append(" ; ");
+        int count = getValueCount();
+        for (int i = 0; i < count; i++) {
+            sb.append(getValue(i));
+            if (i < count - 1) sb.append(" ; ");
         }
         return sb.toString();
     }
@@ -53,7 +136,12 @@ public class Record {
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
-        if (obj == null || getClass() != obj.getClass()) return false;
-        return Arrays.equals(values, ((Record) obj).values);
+        if (!(obj instanceof Record)) return false;
+        Record other = (Record) obj;
+        if (getValueCount() != other.getValueCount()) return false;
+        for (int i = 0; i < getValueCount(); i++) {
+            if (!Objects.equals(getValue(i), other.getValue(i))) return false;
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
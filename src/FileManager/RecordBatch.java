@@ -0,0 +1,182 @@
+package FileManager;
+
+import DiskManager.PageId;
+
+import java.nio.ByteBuffer;
+
+// Lot de records d'une même page épinglée (au plus CAPACITY) pour l'exécution par lots.
+// Les valeurs d'une colonne sont décodées ensemble dans un vecteur à la première demande,
+// seulement pour les lignes encore sélectionnées. Le vecteur de sélection liste les lignes
+// retenues par les filtres : un filtre le compacte sans toucher aux vecteurs de valeurs.
+// Comme un RecordView, le lot n'est valide que jusqu'au prochain GetNextBatch.
+public class RecordBatch {
+
+    public static final int CAPACITY = 1024;
+
+    private final Relation relation;
+    private final ColumnType[] types;
+    private final RecordView view;
+
+    private PageId pageId;
+    private ByteBuffer pageBuff;
+    private final int[] slots = new int[CAPACITY];
+    private int rowCount;
+    private final int[] selection = new int[CAPACITY];
+    private int selectedCount;
+    private int[] projection; // colonnes visibles après une projection, null = toutes
+
+    // Vecteurs de valeurs par colonne, alloués à la première utilisation ; loadedIn[c] est
+    // le numéro du lot pour lequel la colonne c a été décodée
+    private final int[][] ints;
+    private final float[][] floats;
+    private final Object[][] values;
+    private final int[][] codes;
+    private final int[] loadedIn;
+    private final int[] codesLoadedIn;
+    private int batchNumber;
+
+    RecordBatch(Relation relation) {
+        this.relation = relation;
+        Column[] columns = relation.getColumns();
+        this.types = new ColumnType[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            types[i] = columns[i].getColumnType();
+        }
+        this.view = relation.newRecordView();
+        this.ints = new int[columns.length][];
+        this.floats = new float[columns.length][];
+        this.values = new Object[columns.length][];
+        this.codes = new int[columns.length][];
+        this.loadedIn = new int[columns.length];
+        this.codesLoadedIn = new int[columns.length];
+    }
+
+    // Vide le lot et le place sur une page déjà épinglée
+    public void start(PageId pageId, ByteBuffer pageBuff) {
+        this.pageId = pageId;
+        this.pageBuff = pageBuff;
+        this.rowCount = 0;
+        this.selectedCount = 0;
+        this.projection = null;
+        this.batchNumber++;
+    }
+
+    // Ajoute un slot occupé de la page ; la ligne est sélectionnée
+    public void add(int slotIdx) {
+        slots[rowCount] = slotIdx;
+        selection[rowCount] = rowCount;
+        rowCount++;
+        selectedCount = rowCount;
+    }
+
+    public boolean isFull() {
+        return rowCount == CAPACITY;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    // Lignes retenues : les selectedCount premières cases de getSelection()
+    public int getSelectedCount() {
+        return selectedCount;
+    }
+
+    public int[] getSelection() {
+        return selection;
+    }
+
+    // Après un filtre qui a réécrit les premières cases de la sélection
+    public void setSelectedCount(int count) {
+        this.selectedCount = count;
+    }
+
+    // Restreint les colonnes visibles (getColumnCount, getValue) ; se compose avec une
+    // projection précédente. Les vecteurs et getRecord gardent les colonnes de la relation.
+    public void project(int[] columns) {
+        if (projection == null) {
+            projection = columns;
+            return;
+        }
+        int[] composed = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            composed[i] = projection[columns[i]];
+        }
+        projection = composed;
+    }
+
+    public int getColumnCount() {
+        return projection != null ? projection.length : types.length;
+    }
+
+    // Valeur de la colonne visible col pour la ligne row (affichage)
+    public Object getValue(int row, int col) {
+        int colIdx = projection != null ? projection[col] : col;
+        switch (types[colIdx]) {
+            case INT: return getInts(colIdx)[row];
+            case FLOAT: return getFloats(colIdx)[row];
+            default: return getValues(colIdx)[row];
+        }
+    }
+
+    // Vecteur d'une colonne INT de la relation, indexé par ligne
+    public int[] getInts(int colIdx) {
+        if (loadedIn[colIdx] != batchNumber) {
+            if (ints[colIdx] == null) ints[colIdx] = new int[CAPACITY];
+            relation.readIntColumn(pageBuff, slots, selection, selectedCount, colIdx, ints[colIdx]);
+            loadedIn[colIdx] = batchNumber;
+        }
+        return ints[colIdx];
+    }
+
+    public float[] getFloats(int colIdx) {
+        if (loadedIn[colIdx] != batchNumber) {
+            if (floats[colIdx] == null) floats[colIdx] = new float[CAPACITY];
+            relation.readFloatColumn(pageBuff, slots, selection, selectedCount, colIdx, floats[colIdx]);
+            loadedIn[colIdx] = batchNumber;
+        }
+        return floats[colIdx];
+    }
+
+    // Vecteur des valeurs décodées (chaînes) d'une colonne CHAR ou VARCHAR
+    public Object[] getValues(int colIdx) {
+        if (loadedIn[colIdx] != batchNumber) {
+            if (values[colIdx] == null) values[colIdx] = new Object[CAPACITY];
+            Object[] vector = values[colIdx];
+            for (int i = 0; i < selectedCount; i++) {
+                int row = selection[i];
+                vector[row] = relation.readColumnValue(pageBuff, slots[row], colIdx);
+            }
+            loadedIn[colIdx] = batchNumber;
+        }
+        return values[colIdx];
+    }
+
+    // Vecteur des codes d'une colonne encodée par dictionnaire, sans décoder les chaînes
+    public int[] getCodes(int colIdx) {
+        if (codesLoadedIn[colIdx] != batchNumber) {
+            if (codes[colIdx] == null) codes[colIdx] = new int[CAPACITY];
+            int[] vector = codes[colIdx];
+            for (int i = 0; i < selectedCount; i++) {
+                int row = selection[i];
+                vector[row] = relation.readCode(pageBuff, slots[row], colIdx);
+            }
+            codesLoadedIn[colIdx] = batchNumber;
+        }
+        return codes[colIdx];
+    }
+
+    public boolean isDictionaryEncoded(int colIdx) {
+        return relation.isDictionaryEncoded(colIdx);
+    }
+
+    // Vue sur la ligne row, avec toutes les colonnes de la relation (réutilisée d'un appel à l'autre)
+    public Record getRecord(int row) {
+        view.moveTo(pageId, pageBuff, slots[row]);
+        return view;
+    }
+
+    public RecordId getRid(int row) {
+        return new RecordId(pageId, slots[row]);
+    }
+}
@@ -0,0 +1,281 @@
+package FileManager;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Encodage des records d'un schéma, précalculé une fois à l'ouverture de la relation.
+// Les colonnes sont regroupées par type (offsets des INT, des FLOAT, des chaînes) : encode et
+// decode enchaînent une boucle par type, sans switch par valeur ni position() sur le buffer,
+// uniquement des accès absolus getInt(pos + offset) que le JIT peut dérouler.
+//
+// Encodage fixe (ROW, PAX) : chaque colonne à un offset fixe, chaînes complétées par des espaces.
+// Encodage variable (SLOTTED) :
+// [colonnes de taille fixe][fin de chaque VARCHAR (u16, relative au record)][octets des VARCHAR]
+// Une colonne CHAR encodée par dictionnaire est stockée sur 2 octets (son code, u16).
+final class RecordCodec {
+
+    private final int columnCount;
+    private final ColumnType[] types;
+    private final int[] fieldOffsets; // offset d'une colonne de taille fixe dans le record, -1 sinon
+    private final int[] fieldSizes;
+    private final int[] varFieldIndexes; // rang d'une colonne VARCHAR parmi les VARCHAR, -1 sinon
+
+    // Colonnes de taille fixe par type
+    private final int[] intColumns;
+    private final int[] floatColumns;
+    private final int[] charColumns;
+    private final int[] dictColumns;
+    private final int[] varColumns; // dans l'ordre de leur rang
+
+    private final ValueDictionary dictionary; // null si aucune colonne n'est encodée
+    private final boolean[] dictEncoded;
+
+    private final int varCount;
+    private final int fixedPartSize;
+    private final int recordSize; // taille de l'encodage fixe
+
+    RecordCodec(Column[] columns, boolean variableLength) {
+        this(columns, variableLength, null);
+    }
+
+    RecordCodec(Column[] columns, boolean variableLength, ValueDictionary dictionary) {
+        this.columnCount = columns.length;
+        this.types = new ColumnType[columnCount];
+        this.fieldOffsets = new int[columnCount];
+        this.fieldSizes = new int[columnCount];
+        this.varFieldIndexes = new int[columnCount];
+        this.dictionary = dictionary;
+        this.dictEncoded = new boolean[columnCount];
+
+        int[] ints = new int[columnCount];
+        int[] floats = new int[columnCount];
+        int[] chars = new int[columnCount];
+        int[] dicts = new int[columnCount];
+        int[] vars = new int[columnCount];
+        int intCount = 0, floatCount = 0, charCount = 0, dictCount = 0, varCount = 0;
+        int offset = 0;
+        int fullSize = 0;
+        for (int i = 0; i < columnCount; i++) {
+            types[i] = columns[i].getColumnType();
+            dictEncoded[i] = dictionary != null && dictionary.isEncoded(i);
+            fieldSizes[i] = dictEncoded[i] ? ValueDictionary.CODE_SIZE : columns[i].getSizeInBytes();
+            fullSize += fieldSizes[i];
+            if (variableLength && types[i] == ColumnType.VARCHAR) {
+                varFieldIndexes[i] = varCount;
+                vars[varCount++] = i;
+                fieldOffsets[i] = -1;
+                continue;
+            }
+            varFieldIndexes[i] = -1;
+            fieldOffsets[i] = offset;
+            offset += fieldSizes[i];
+            if (dictEncoded[i]) {
+                dicts[dictCount++] = i;
+                continue;
+            }
+            switch (types[i]) {
+                case INT: ints[intCount++] = i; break;
+                case FLOAT: floats[floatCount++] = i; break;
+                default: chars[charCount++] = i; break;
+            }
+        }
+        this.intColumns = Arrays.copyOf(ints, intCount);
+        this.floatColumns = Arrays.copyOf(floats, floatCount);
+        this.charColumns = Arrays.copyOf(chars, charCount);
+        this.dictColumns = Arrays.copyOf(dicts, dictCount);
+        this.varColumns = Arrays.copyOf(vars, varCount);
+        this.varCount = varCount;
+        this.fixedPartSize = offset + 2 * varCount;
+        this.recordSize = fullSize;
+    }
+
+    // Code de chaque valeur des colonnes encodées, ajoutée au dictionnaire si elle est nouvelle :
+    // appelé avant de toucher à la page, un dictionnaire plein est refusé ici et encode ne peut
+    // plus échouer sur les codes
+    void prepare(Record record) {
+        for (int c : dictColumns) {
+            dictionary.encode(c, record.getValue(c));
+        }
+    }
+
+    void encode(Record record, ByteBuffer buffer, int pos) {
+        for (int c : intColumns) {
+            buffer.putInt(pos + fieldOffsets[c], record.getInt(c));
+        }
+        for (int c : floatColumns) {
+            buffer.putFloat(pos + fieldOffsets[c], record.getFloat(c));
+        }
+        for (int c : charColumns) {
+            writePaddedString(record.getValue(c), buffer, pos + fieldOffsets[c], fieldSizes[c]);
+        }
+        for (int c : dictColumns) {
+            buffer.putChar(pos + fieldOffsets[c], (char) dictionary.encode(c, record.getValue(c)));
+        }
+        if (varCount == 0) return;
+
+        int varPos = pos + fixedPartSize;
+        int endTable = pos + fixedPartSize - 2 * varCount;
+        for (int v = 0; v < varCount; v++) {
+            int c = varColumns[v];
+            Object value = record.getValue(c);
+            String str = value != null ? (String) value : "";
+            int length = Math.min(str.length(), fieldSizes[c]);
+            for (int j = 0; j < length; j++) {
+                buffer.put(varPos + j, (byte) str.charAt(j));
+            }
+            varPos += length;
+            buffer.putChar(endTable + 2 * v, (char) (varPos - pos));
+        }
+    }
+
+    void decode(Record record, ByteBuffer buffer, int pos) {
+        for (int c : intColumns) {
+            record.setInt(c, buffer.getInt(pos + fieldOffsets[c]));
+        }
+        for (int c : floatColumns) {
+            record.setFloat(c, buffer.getFloat(pos + fieldOffsets[c]));
+        }
+        for (int c : charColumns) {
+            record.setValue(c, readPaddedString(buffer, pos + fieldOffsets[c], fieldSizes[c]));
+        }
+        for (int c : dictColumns) {
+            record.setValue(c, dictionary.decode(c, buffer.getChar(pos + fieldOffsets[c])));
+        }
+        for (int v = 0; v < varCount; v++) {
+            record.setValue(varColumns[v], readVariableField(v, buffer, pos));
+        }
+    }
+
+    // Décode seulement les colonnes demandées du record situé à pos
+    void decodeColumns(Record record, ByteBuffer buffer, int pos, int[] columnIndexes) {
+        for (int c : columnIndexes) {
+            if (varFieldIndexes[c] == -1) {
+                readField(record, c, buffer, pos + fieldOffsets[c]);
+            } else {
+                record.setValue(c, readVariableField(varFieldIndexes[c], buffer, pos));
+            }
+        }
+    }
+
+    // Valeur d'une colonne du record situé à recordPos (fieldPos : position de la valeur
+    // pour une colonne de taille fixe, dans le layout de la page)
+    Object readValue(ByteBuffer buffer, int colIdx, int fieldPos, int recordPos) {
+        switch (types[colIdx]) {
+            case INT:
+                return buffer.getInt(fieldPos);
+            case FLOAT:
+                return buffer.getFloat(fieldPos);
+            default:
+                if (varFieldIndexes[colIdx] != -1) {
+                    return readVariableField(varFieldIndexes[colIdx], buffer, recordPos);
+                }
+                if (dictEncoded[colIdx]) {
+                    return dictionary.decode(colIdx, buffer.getChar(fieldPos));
+                }
+                return readPaddedString(buffer, fieldPos, fieldSizes[colIdx]);
+        }
+    }
+
+    // Accès à une seule valeur de taille fixe, à une position donnée (layout PAX)
+    void writeField(Record record, int colIdx, ByteBuffer buffer, int pos) {
+        switch (types[colIdx]) {
+            case INT:
+                buffer.putInt(pos, record.getInt(colIdx));
+                break;
+            case FLOAT:
+                buffer.putFloat(pos, record.getFloat(colIdx));
+                break;
+            default:
+                if (dictEncoded[colIdx]) {
+                    buffer.putChar(pos, (char) dictionary.encode(colIdx, record.getValue(colIdx)));
+                } else {
+                    writePaddedString(record.getValue(colIdx), buffer, pos, fieldSizes[colIdx]);
+                }
+                break;
+        }
+    }
+
+    void readField(Record record, int colIdx, ByteBuffer buffer, int pos) {
+        switch (types[colIdx]) {
+            case INT:
+                record.setInt(colIdx, buffer.getInt(pos));
+                break;
+            case FLOAT:
+                record.setFloat(colIdx, buffer.getFloat(pos));
+                break;
+            default:
+                if (dictEncoded[colIdx]) {
+                    record.setValue(colIdx, dictionary.decode(colIdx, buffer.getChar(pos)));
+                } else {
+                    record.setValue(colIdx, readPaddedString(buffer, pos, fieldSizes[colIdx]));
+                }
+                break;
+        }
+    }
+
+    boolean isVariable(int colIdx) {
+        return varFieldIndexes[colIdx] != -1;
+    }
+
+    boolean isDictionaryEncoded(int colIdx) {
+        return dictEncoded[colIdx];
+    }
+
+    int getFieldOffset(int colIdx) {
+        return fieldOffsets[colIdx];
+    }
+
+    // Taille stockée d'une colonne (taille maximale pour un VARCHAR)
+    int getFieldSize(int colIdx) {
+        return fieldSizes[colIdx];
+    }
+
+    // Taille de l'encodage fixe d'un record
+    int getRecordSize() {
+        return recordSize;
+    }
+
+    // Taille du record une fois encodé
+    int encodedSize(Record record) {
+        if (varCount == 0) {
+            return recordSize;
+        }
+        int size = fixedPartSize;
+        for (int c : varColumns) {
+            Object value = record.getValue(c);
+            size += value != null ? Math.min(((String) value).length(), fieldSizes[c]) : 0;
+        }
+        return size;
+    }
+
+    // Taille minimale d'un record encodé (tous les VARCHAR vides)
+    int getMinEncodedSize() {
+        return varCount == 0 ? recordSize : fixedPartSize;
+    }
+
+    private String readVariableField(int varIdx, ByteBuffer buffer, int pos) {
+        int endTable = pos + fixedPartSize - 2 * varCount;
+        int start = varIdx == 0 ? fixedPartSize : buffer.getChar(endTable + 2 * (varIdx - 1));
+        int end = buffer.getChar(endTable + 2 * varIdx);
+        byte[] bytes = new byte[end - start];
+        buffer.get(pos + start, bytes);
+        return new String(bytes);
+    }
+
+    private static void writePaddedString(Object value, ByteBuffer buffer, int pos, int size) {
+        String str = value != null ? (String) value : "";
+        int length = Math.min(str.length(), size);
+        for (int j = 0; j < length; j++) {
+            buffer.put(pos + j, (byte) str.charAt(j));
+        }
+        for (int j = length; j < size; j++) {
+            buffer.put(pos + j, (byte) ' '); // Padding simple
+        }
+    }
+
+    private static String readPaddedString(ByteBuffer buffer, int pos, int size) {
+        byte[] bytes = new byte[size];
+        buffer.get(pos, bytes);
+        return new String(bytes).trim(); // Trim padding
+    }
+}
@@ -0,0 +1,124 @@
+package FileManager;
+
+import java.nio.ByteBuffer;
+
+// Compare l'encodage précalculé (RecordCodec) avec l'ancien encodage (boucle sur les colonnes,
+// switch sur le type et position() pour chaque valeur), sur une table large.
+// Usage : java FileManager.RecordCodecBenchmark [nbColonnes] [nbRecords]
+public class RecordCodecBenchmark {
+
+  private static final int ROUNDS = 10;
+
+  public static void main(String[] args) {
+    int columnCount = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+    int recordCount = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+    // Schéma large : INT, FLOAT et CHAR(8) en alternance
+    Column[] columns = new Column[columnCount];
+    for (int i = 0; i < columnCount; i++) {
+      switch (i % 3) {
+        case 0: columns[i] = new Column("i" + i, ColumnType.INT); break;
+        case 1: columns[i] = new Column("f" + i, ColumnType.FLOAT); break;
+        default: columns[i] = new Column("c" + i, ColumnType.CHAR, 8); break;
+      }
+    }
+    RecordCodec codec = new RecordCodec(columns, false);
+    int recordSize = codec.getMinEncodedSize();
+
+    Record[] records = new Record[recordCount];
+    for (int r = 0; r < recordCount; r++) {
+      records[r] = new Record(columnCount);
+      for (int i = 0; i < columnCount; i++) {
+        switch (i % 3) {
+          case 0: records[r].setInt(i, r * i); break;
+          case 1: records[r].setFloat(i, r * 0.5f); break;
+          default: records[r].setValue(i, "v" + (r % 100)); break;
+        }
+      }
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(recordSize * recordCount);
+    Record target = new Record(columnCount);
+
+    System.out.println("=== Benchmark encodage : " + columnCount + " colonnes, " + recordCount
+        + " records de " + recordSize + " octets ===");
+    for (int round = 0; round < ROUNDS; round++) {
+      long t0 = System.nanoTime();
+      for (int r = 0; r < recordCount; r++) {
+        switchEncode(columns, records[r], buffer, r * recordSize);
+      }
+      long t1 = System.nanoTime();
+      for (int r = 0; r < recordCount; r++) {
+        switchDecode(columns, target, buffer, r * recordSize);
+      }
+      long t2 = System.nanoTime();
+      for (int r = 0; r < recordCount; r++) {
+        codec.encode(records[r], buffer, r * recordSize);
+      }
+      long t3 = System.nanoTime();
+      for (int r = 0; r < recordCount; r++) {
+        codec.decode(target, buffer, r * recordSize);
+      }
+      long t4 = System.nanoTime();
+
+      assert target.equals(records[recordCount - 1]) : "Erreur: décodage incorrect";
+      System.out.printf("Tour %d - switch : encode %.1f ns/record, decode %.1f ns/record | "
+          + "codec : encode %.1f ns/record, decode %.1f ns/record%n", round + 1,
+          (t1 - t0) / (double) recordCount, (t2 - t1) / (double) recordCount,
+          (t3 - t2) / (double) recordCount, (t4 - t3) / (double) recordCount);
+    }
+  }
+
+  // Ancien encodage de Relation.writeRecordToBuffer
+  private static void switchEncode(Column[] columns, Record record, ByteBuffer buffer, int pos) {
+    int currentPos = pos;
+    for (int i = 0; i < columns.length; i++) {
+      Column col = columns[i];
+      Object value = record.getValue(i);
+      buffer.position(currentPos);
+      switch (col.getColumnType()) {
+        case INT:
+          buffer.putInt(value != null ? (Integer) value : 0);
+          currentPos += 4;
+          break;
+        case FLOAT:
+          buffer.putFloat(value != null ? (Float) value : 0.0f);
+          currentPos += 4;
+          break;
+        default:
+          String str = value != null ? (String) value : "";
+          int size = col.getSizeInBytes();
+          for (int j = 0; j < size; j++) {
+            buffer.put((byte) (j < str.length() ? str.charAt(j) : ' '));
+          }
+          currentPos += size;
+          break;
+      }
+    }
+  }
+
+  // Ancien décodage de Relation.readFromBuffer
+  private static void switchDecode(Column[] columns, Record record, ByteBuffer buffer, int pos) {
+    int currentPos = pos;
+    for (int i = 0; i < columns.length; i++) {
+      Column col = columns[i];
+      buffer.position(currentPos);
+      switch (col.getColumnType()) {
+        case INT:
+          record.setValue(i, Integer.valueOf(buffer.getInt()));
+          currentPos += 4;
+          break;
+        case FLOAT:
+          record.setValue(i, Float.valueOf(buffer.getFloat()));
+          currentPos += 4;
+          break;
+        default:
+          int size = col.getSizeInBytes();
+          byte[] bytes = new byte[size];
+          buffer.get(bytes);
+          record.setValue(i, new String(bytes).trim());
+          currentPos += size;
+          break;
+      }
+    }
+  }
+}
@@ -33,4 +33,9 @@ public class RecordId {
         RecordId recordId = (RecordId) obj;
         return slotIdx == recordId.slotIdx && pageId.equals(recordId.pageId);
     }
+
+    @Override
+    public int hashCode() {
+        return 31 * pageId.hashCode() + slotIdx;
+    }
 }
\ No newline at end of file
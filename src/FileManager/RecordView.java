@@ -0,0 +1,150 @@
+package FileManager;
+
+import DiskManager.PageId;
+
+import java.nio.ByteBuffer;
+
+// Record en lecture seule qui pointe sur un slot d'une page épinglée : une valeur n'est
+// décodée que lorsqu'on la demande, et getInt/getFloat lisent directement les octets
+// de la page sans créer d'objet. Un parcours réutilise la même vue d'un record à l'autre ;
+// elle n'est valide que tant que la page reste épinglée (jusqu'au prochain GetNextRecord).
+// Pour garder le record plus longtemps, utiliser materialize().
+// Une vue projetée (projection poussée dans le parcours) n'expose que certaines colonnes de
+// la relation, dans l'ordre demandé ; materialize() ne décode alors que celles-là.
+public class RecordView extends Record {
+
+    private final Relation relation;
+    private final int columnCount;
+    private final int[] columns; // colonnes de la relation visibles, null = toutes
+
+    private PageId pageId;
+    private ByteBuffer pageBuff;
+    private int slotIdx;
+
+    RecordView(Relation relation) {
+        this(relation, null);
+    }
+
+    RecordView(Relation relation, int[] columns) {
+        super(0);
+        this.relation = relation;
+        this.columns = columns;
+        this.columnCount = columns != null ? columns.length : relation.getColumns().length;
+    }
+
+    // Place la vue sur le slot d'une page déjà épinglée
+    public void moveTo(PageId pageId, ByteBuffer pageBuff, int slotIdx) {
+        this.pageId = pageId;
+        this.pageBuff = pageBuff;
+        this.slotIdx = slotIdx;
+    }
+
+    @Override
+    public Object getValue(int index) {
+        return relation.readColumnValue(pageBuff, slotIdx, column(index));
+    }
+
+    @Override
+    public int getInt(int index) {
+        return relation.readInt(pageBuff, slotIdx, column(index));
+    }
+
+    @Override
+    public float getFloat(int index) {
+        return relation.readFloat(pageBuff, slotIdx, column(index));
+    }
+
+    // true si la vue n'expose qu'une partie des colonnes (ses index ne sont pas ceux de la relation)
+    public boolean isProjected() {
+        return columns != null;
+    }
+
+    // Page et slot sous la vue : un prédicat compilé pour la même relation les lit directement
+    public Relation getRelation() {
+        return relation;
+    }
+
+    public ByteBuffer getPageBuffer() {
+        return pageBuff;
+    }
+
+    public int getSlotIdx() {
+        return slotIdx;
+    }
+
+    // Code d'une colonne encodée par dictionnaire (comparaisons sans décoder la chaîne)
+    public int getCode(int index) {
+        return relation.readCode(pageBuff, slotIdx, column(index));
+    }
+
+    @Override
+    public boolean isNull(int index) {
+        checkIndex(index);
+        return false;
+    }
+
+    @Override
+    public void setValue(int index, Object value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setInt(int index, int value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setFloat(int index, float value) {
+        throw readOnly();
+    }
+
+    @Override
+    public void clear() {
+        throw readOnly();
+    }
+
+    @Override
+    public int getValueCount() {
+        return columnCount;
+    }
+
+    @Override
+    public RecordId getRid() {
+        return new RecordId(pageId, slotIdx);
+    }
+
+    @Override
+    public void setRid(RecordId rid) {
+        throw readOnly();
+    }
+
+    @Override
+    public Record materialize() {
+        Record record = new Record(columnCount);
+        if (columns == null) {
+            relation.readRecord(pageBuff, slotIdx, record);
+        } else {
+            for (int i = 0; i < columns.length; i++) {
+                record.setValue(i, relation.readColumnValue(pageBuff, slotIdx, columns[i]));
+            }
+        }
+        record.setRid(getRid());
+        return record;
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("RecordView en lecture seule, utiliser materialize()");
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= columnCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds");
+        }
+    }
+
+    // Colonne de la relation derrière la colonne visible index
+    private int column(int index) {
+        checkIndex(index);
+        return columns != null ? columns[index] : index;
+    }
+}
@@ -8,6 +8,7 @@ import Main.DBConfig;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 public class Relation {
@@ -19,52 +20,287 @@ public class Relation {
     private final DiskManager diskManager;
     private final BufferManager bufferManager;
     private final PageId headerPageId;
-    private final int slotCountPerDataPage;
+
+    private final int pageSize;
+    private final DataPageLayout layout;
+    private final PageDirectory directory;
+    private final ZoneMap emptyZone; // colonnes résumées dans les zone maps des pages
+
+    private final RecordCodec codec; // encodage des records, taille variable pour le layout SLOTTED
+    private final ValueDictionary dictionary; // codes des colonnes CHAR encodées par dictionnaire
+    private final int clusterColumn; // colonne de tri (CLUSTER BY), -1 si la table n'est pas triée
+    private final ClusterIndex clusterIndex; // null si la table n'est pas triée
+    private final int segment; // fichier propre à la relation (storage=SEGMENT), DiskManager.SHARED sinon
+    private long rowCount;
+    private final List<RelationIndex> indexes = new ArrayList<>(); // index à tenir à jour (catalogue)
 
     // Constantes
-    private static final PageId DUMMY_PAGE_ID = new PageId(-1, -1);
-    private static final int NEXT_PAGE_ID_OFFSET = 0;
-    private static final int PREV_PAGE_ID_OFFSET = 8;
-    private static final int DATA_PAGE_HEADER_SIZE = 16;
-    private final int BYTEMAP_OFFSET = DATA_PAGE_HEADER_SIZE;
-    private final int RECORDS_OFFSET;
+    static final PageId DUMMY_PAGE_ID = new PageId(-1, -1);
+    private static final int NEXT_PAGE_ID_OFFSET = 0; // ancien chaînage, utilisé seulement par la migration
+    private static final int LEGACY_DATA_PAGE_HEADER_SIZE = 16;
+
+    // Header Page : [anciennes têtes de listes (16)][magic (4)][version (4)][layout (4)]
+    //               [colonnes encodées par dictionnaire (8)][première page de dictionnaire (8)]
+    //               [colonne de tri + 1 (4)][nombre de records (8)][pages de données (4)]
+    //               [pages pleines (4)][segment (4)][colonnes à filtre de Bloom (8)]
+    //               [bits par filtre (4)][...][répertoire des pages]
+    // Une Header Page sans magic correspond à l'ancien format (ByteMap, 1 octet par slot).
     private static final int FREE_LIST_HEAD_OFFSET = 0;
     private static final int FULL_LIST_HEAD_OFFSET = 8;
+    private static final int FORMAT_MAGIC_OFFSET = 16;
+    private static final int FORMAT_VERSION_OFFSET = 20;
+    private static final int LAYOUT_OFFSET = 24;
+    private static final int DICTIONARY_MASK_OFFSET = 28; // bit i : colonne i encodée
+    private static final int DICTIONARY_HEAD_OFFSET = 36;
+    private static final int CLUSTER_COLUMN_OFFSET = 44; // 0 si la table n'est pas triée
+    private static final int ROW_COUNT_OFFSET = 48; // long
+    private static final int DATA_PAGE_COUNT_OFFSET = 56;
+    private static final int FULL_PAGE_COUNT_OFFSET = 60; // pages sous le seuil d'insertion du répertoire
+    private static final int SEGMENT_OFFSET = 64; // fileIdx du segment, 0 si les pages sont partagées
+    private static final int BLOOM_MASK_OFFSET = 68; // bit i : colonne i filtrée (zone maps)
+    private static final int BLOOM_BITS_OFFSET = 76;
+    private static final int HEADER_DIRECTORY_OFFSET = 128;
+    private static final int FORMAT_MAGIC = 0x524C5348; // "RLSH"
+    private static final int FORMAT_VERSION_LEGACY = 0; // ByteMap + listes chaînées
+    private static final int FORMAT_VERSION = 1; // format décrit ci-dessus
+
+    private static final int BLOOM_BITS_PER_RECORD = 8; // ~3 % de faux positifs avec 3 hachages
+    private static final int BLOOM_REBUILD_DELETES = 32; // suppressions avant de recalculer une zone
 
     public Relation(String relationName, Column[] columns, DBConfig config,
                     DiskManager diskManager, BufferManager bufferManager, PageId headerPageId) {
+        this(relationName, columns, config, diskManager, bufferManager, headerPageId, new TableOptions());
+    }
+
+    // Les options ne sont prises en compte que pour une relation neuve (Header Page vierge)
+    public Relation(String relationName, Column[] columns, DBConfig config,
+                    DiskManager diskManager, BufferManager bufferManager, PageId headerPageId,
+                    TableOptions options) {
         this.relationName = relationName;
         this.columns = Arrays.copyOf(columns, columns.length);
-        this.recordSize = calculateRecordSize();
         this.diskManager = diskManager;
         this.bufferManager = bufferManager;
         this.headerPageId = headerPageId;
+        this.pageSize = config.getPageSize();
+
+        int version = readFormatVersion();
+        PageLayout kind;
+        long dictionaryMask = 0;
+        int clusterCol = -1;
+        int seg = DiskManager.SHARED;
+        long bloomMask = 0;
+        int bloomBits = 0;
+        if (version == FORMAT_VERSION) {
+            kind = readLayout();
+            dictionaryMask = readDictionaryMask();
+            clusterCol = readClusterColumn();
+            seg = readSegment();
+            bloomMask = readBloomMask();
+            bloomBits = readBloomBits();
+        } else if (hasNoLegacyPages()) {
+            kind = chooseLayout(options);
+            dictionaryMask = chooseDictionaryColumns(options);
+            clusterCol = chooseClusterColumn(options);
+            bloomMask = chooseBloomColumns(options);
+            if (options.isSegmentStorage()) {
+                seg = diskManager.CreateSegment();
+            }
+        } else {
+            kind = PageLayout.ROW; // les pages existantes sont à taille fixe
+        }
 
-        int usableSpace = config.getPageSize() - DATA_PAGE_HEADER_SIZE;
-        this.slotCountPerDataPage = usableSpace / (1 + this.recordSize);
-        this.RECORDS_OFFSET = BYTEMAP_OFFSET + this.slotCountPerDataPage;
+        this.segment = seg;
+
+        boolean[] encoded = new boolean[this.columns.length];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = (dictionaryMask & (1L << i)) != 0;
+        }
+        this.dictionary = new ValueDictionary(bufferManager, diskManager, segment, headerPageId,
+                DICTIONARY_HEAD_OFFSET, pageSize, this.columns, encoded);
+        this.codec = new RecordCodec(this.columns, kind == PageLayout.SLOTTED,
+                dictionaryMask != 0 ? dictionary : null);
+        this.recordSize = codec.getRecordSize();
+
+        switch (kind) {
+            case SLOTTED:
+                this.layout = new SlottedPageLayout(this, pageSize);
+                break;
+            case PAX:
+                this.layout = new PaxPageLayout(this, pageSize, this.columns.length, recordSize);
+                break;
+            default:
+                this.layout = new FixedPageLayout(this, pageSize, recordSize);
+                break;
+        }
+        if (bloomMask != 0 && bloomBits == 0) {
+            bloomBits = chooseBloomBits();
+        }
+        this.emptyZone = ZoneMap.forColumns(this.columns, bloomMask, bloomBits);
+        this.directory = new PageDirectory(bufferManager, diskManager, segment, headerPageId,
+                HEADER_DIRECTORY_OFFSET, pageSize, layout.getMinInsertSpace(), emptyZone);
+        this.clusterColumn = clusterCol;
+        this.clusterIndex = clusterCol != -1 ? new ClusterIndex() : null;
+
+        if (version == FORMAT_VERSION) {
+            directory.load();
+            dictionary.load();
+        } else {
+            upgradeFormat();
+        }
+
+        if (clusterIndex != null) {
+            for (PageId pageId : directory.getPageIds()) {
+                clusterIndex.add(directory.getZoneMap(pageId).getMin(clusterColumn), pageId);
+            }
+        }
+
+        if (version == FORMAT_VERSION) {
+            this.rowCount = readRowCount();
+        } else {
+            // Ancien format : un seul parcours complet, les compteurs sont ensuite tenus à jour
+            this.rowCount = countRows();
+            writeCounts();
+        }
     }
 
-    private int calculateRecordSize() {
-        int size = 0;
+    // Prépare une Header Page vierge pour une nouvelle relation (la page peut être recyclée
+    // et contenir les restes d'une ancienne relation)
+    public static void formatHeaderPage(BufferManager bufferManager, PageId headerPageId) {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        for (int i = 0; i < HEADER_DIRECTORY_OFFSET; i += 4) {
+            headerBuff.putInt(i, 0);
+        }
+        headerBuff.putInt(0, -1);
+        headerBuff.putInt(4, -1);
+        headerBuff.putInt(8, -1);
+        headerBuff.putInt(12, -1);
+        bufferManager.FreePage(headerPageId, true);
+    }
+
+    private PageLayout chooseLayout(TableOptions options) {
+        PageLayout requested = options.getLayout();
+        if (requested == PageLayout.SLOTTED && pageSize > SlottedPageLayout.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Layout SLOTTED impossible avec des pages de plus de "
+                    + SlottedPageLayout.MAX_PAGE_SIZE + " octets");
+        }
+        // Une table triée garde ses mises à jour en place (records de taille fixe) : un split
+        // pendant un UPDATE déplacerait des records dont le RID est encore à traiter
+        if (options.getClusterColumn() != null) {
+            if (requested == PageLayout.SLOTTED) {
+                throw new IllegalArgumentException("CLUSTER BY impossible avec le layout SLOTTED");
+            }
+            return requested != null ? requested : PageLayout.ROW;
+        }
+        if (requested != null) {
+            return requested;
+        }
         for (Column col : columns) {
-            size += col.getSizeInBytes();
+            if (col.getColumnType() == ColumnType.VARCHAR && pageSize <= SlottedPageLayout.MAX_PAGE_SIZE) {
+                return PageLayout.SLOTTED;
+            }
+        }
+        return PageLayout.ROW;
+    }
+
+    // Masque des colonnes à encoder par dictionnaire (au plus 64 colonnes, CHAR uniquement)
+    private long chooseDictionaryColumns(TableOptions options) {
+        long mask = 0;
+        for (String colName : options.getDictionaryColumns()) {
+            int colIdx = getColumnIndex(colName);
+            if (colIdx == -1) {
+                throw new IllegalArgumentException("Colonne inconnue pour le dictionnaire: " + colName);
+            }
+            if (columns[colIdx].getColumnType() != ColumnType.CHAR || colIdx >= Long.SIZE) {
+                throw new IllegalArgumentException("Encodage par dictionnaire réservé aux colonnes CHAR: " + colName);
+            }
+            mask |= 1L << colIdx;
+        }
+        return mask;
+    }
+
+    // Masque des colonnes CHAR dont les zone maps gardent un filtre de Bloom
+    private long chooseBloomColumns(TableOptions options) {
+        long mask = 0;
+        for (String colName : options.getBloomColumns()) {
+            int colIdx = getColumnIndex(colName);
+            if (colIdx == -1) {
+                throw new IllegalArgumentException("Colonne inconnue pour le filtre de Bloom: " + colName);
+            }
+            if (columns[colIdx].getColumnType() != ColumnType.CHAR || colIdx >= Long.SIZE) {
+                throw new IllegalArgumentException("Filtre de Bloom réservé aux colonnes CHAR: " + colName);
+            }
+            mask |= 1L << colIdx;
+        }
+        if (Long.bitCount(mask) > ZoneMap.MAX_BLOOM_COLUMNS) {
+            throw new IllegalArgumentException("Au plus " + ZoneMap.MAX_BLOOM_COLUMNS + " colonnes avec filtre de Bloom");
+        }
+        return mask;
+    }
+
+    // Taille d'un filtre : BLOOM_BITS_PER_RECORD bits par record que peut contenir une page,
+    // sans dépasser 1/64 de la page par filtre (le répertoire doit garder des entrées compactes)
+    private int chooseBloomBits() {
+        int perPage = layout instanceof FixedPageLayout
+                ? ((FixedPageLayout) layout).getSlotCount()
+                : pageSize / Math.max(1, recordSize); // taille maximale pour le layout SLOTTED
+        int bits = perPage * BLOOM_BITS_PER_RECORD;
+        int maxBits = pageSize / 64 * Byte.SIZE;
+        bits = Math.min(bits, maxBits);
+        return Math.max(Long.SIZE, (bits + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+    }
+
+    // Colonne de tri : INT ou FLOAT résumée dans les zone maps (elles donnent les séparateurs)
+    private int chooseClusterColumn(TableOptions options) {
+        String colName = options.getClusterColumn();
+        if (colName == null) {
+            return -1;
+        }
+        int colIdx = getColumnIndex(colName);
+        if (colIdx == -1) {
+            throw new IllegalArgumentException("Colonne inconnue pour CLUSTER BY: " + colName);
         }
-        return size;
+        if (!ZoneMap.forColumns(columns).covers(colIdx)) {
+            throw new IllegalArgumentException("CLUSTER BY réservé aux " + ZoneMap.MAX_COLUMNS
+                    + " premières colonnes INT ou FLOAT: " + colName);
+        }
+        return colIdx;
     }
 
-    // Met à jour un record existant (sans changer son RID)
-    public void updateRecord(RecordId rid, Record newRecord) {
+    // Met à jour un record existant. Le RID est conservé quand le nouveau record tient
+    // dans sa page ; sinon le record est déplacé et son nouveau RID est retourné.
+    public RecordId updateRecord(RecordId rid, Record newRecord) {
         PageId pageId = rid.getPageId();
         int slotIdx = rid.getSlotIdx();
 
         ByteBuffer pageBuff = bufferManager.GetPage(pageId);
+        Record oldRecord;
+        boolean updated = false;
+        try {
+            oldRecord = readForIndexes(pageBuff, slotIdx);
+            updated = layout.update(pageBuff, slotIdx, newRecord);
+            if (updated) {
+                directory.recordWritten(pageId, layout.getFreeSpace(pageBuff), newRecord);
+            }
+        } finally {
+            bufferManager.FreePage(pageId, updated); // Dirty = true si écrit
+        }
 
-        // Calculer la position et écrire
-        int pos = RECORDS_OFFSET + (slotIdx * recordSize);
-        writeRecordToBuffer(newRecord, pageBuff, pos);
+        if (updated) {
+            notifyDeleted(oldRecord, rid);
+            notifyInserted(newRecord, rid);
+            return rid;
+        }
+        DeleteRecord(rid);
+        return InsertRecord(newRecord);
+    }
+
+    // Index secondaires (voir RelationIndex) : ajoutés par le catalogue à la création ou au chargement
+    public void addIndex(RelationIndex index) {
+        indexes.add(index);
+    }
 
-        bufferManager.FreePage(pageId, true); // Dirty = true
+    public void removeIndex(RelationIndex index) {
+        indexes.remove(index);
     }
 
     // Helper pour récupérer l'index d'une colonne par son nom
@@ -81,70 +317,101 @@ public class Relation {
     public Column[] getColumns() { return Arrays.copyOf(columns, columns.length); }
     public int getRecordSize() { return recordSize; }
     public PageId getHeaderPageId() { return headerPageId; }
-    public int getSlotCountPerDataPage() { return slotCountPerDataPage; }
+    public PageLayout getLayout() { return layout.getKind(); }
+
+    // Colonne de tri (CLUSTER BY), -1 si la table n'est pas triée
+    public int getClusterColumn() { return clusterColumn; }
+    public int getSegment() { return segment; }
 
+    // Nombre de slots par page pour le layout ROW ; 0 si le nombre de slots est variable
+    public int getSlotCountPerDataPage() {
+        return layout instanceof FixedPageLayout ? ((FixedPageLayout) layout).getSlotCount() : 0;
+    }
+
+    // Écrit le record à pos, dans l'encodage de la relation (taille fixe ou variable)
     public void writeRecordToBuffer(Record record, ByteBuffer buffer, int pos) {
-        int currentPos = pos;
+        codec.encode(record, buffer, pos);
+    }
+
+    // Lit le record situé à pos, dans l'encodage de la relation (taille fixe ou variable)
+    public void readFromBuffer(Record record, ByteBuffer buffer, int pos) {
+        codec.decode(record, buffer, pos);
+    }
+
+    // Accès à une seule valeur d'un record en page, sans décoder le reste (RecordView)
+    Object readColumnValue(ByteBuffer pageBuff, int slotIdx, int colIdx) {
+        if (codec.isVariable(colIdx)) {
+            return codec.readValue(pageBuff, colIdx, -1, layout.recordPosition(pageBuff, slotIdx));
+        }
+        return codec.readValue(pageBuff, colIdx, layout.fieldPosition(pageBuff, slotIdx, colIdx), -1);
+    }
+
+    // Vecteurs d'un lot (voir RecordBatch)
+    void readIntColumn(ByteBuffer pageBuff, int[] slots, int[] rows, int count, int colIdx, int[] out) {
+        layout.readIntColumn(pageBuff, slots, rows, count, colIdx, out);
+    }
+
+    void readFloatColumn(ByteBuffer pageBuff, int[] slots, int[] rows, int count, int colIdx, float[] out) {
+        layout.readFloatColumn(pageBuff, slots, rows, count, colIdx, out);
+    }
+
+    int fieldPosition(ByteBuffer pageBuff, int slotIdx, int colIdx) {
+        return layout.fieldPosition(pageBuff, slotIdx, colIdx);
+    }
+
+    int readInt(ByteBuffer pageBuff, int slotIdx, int colIdx) {
+        return pageBuff.getInt(layout.fieldPosition(pageBuff, slotIdx, colIdx));
+    }
+
+    float readFloat(ByteBuffer pageBuff, int slotIdx, int colIdx) {
+        return pageBuff.getFloat(layout.fieldPosition(pageBuff, slotIdx, colIdx));
+    }
+
+    RecordCodec getCodec() {
+        return codec;
+    }
+
+    public boolean isDictionaryEncoded(int colIdx) {
+        return codec.isDictionaryEncoded(colIdx);
+    }
+
+    // Code d'une valeur dans le dictionnaire de la colonne, -1 si aucun record ne la contient
+    public int lookupDictionaryCode(int colIdx, String value) {
+        return dictionary.lookup(colIdx, value);
+    }
+
+    // Code stocké pour une colonne encodée par dictionnaire, sans décoder la valeur
+    int readCode(ByteBuffer pageBuff, int slotIdx, int colIdx) {
+        return pageBuff.getChar(layout.fieldPosition(pageBuff, slotIdx, colIdx));
+    }
+
+    // Noms des colonnes CHAR dont les zone maps ont un filtre de Bloom
+    public List<String> getBloomColumns() {
+        List<String> names = new ArrayList<>();
         for (int i = 0; i < columns.length; i++) {
-            Column col = columns[i];
-            Object value = record.getValue(i);
-            buffer.position(currentPos);
-
-            switch (col.getColumnType()) {
-                case INT:
-                    buffer.putInt(value != null ? (Integer) value : 0);
-                    currentPos += 4;
-                    break;
-                case FLOAT:
-                    float floatVal = 0.0f;
-                    if (value != null) {
-                        floatVal = (value instanceof Float) ? (Float) value : ((Double) value).floatValue();
-                    }
-                    buffer.putFloat(floatVal);
-                    currentPos += 4;
-                    break;
-                case CHAR:
-                case VARCHAR:
-                    String str = value != null ? (String) value : "";
-                    int size = col.getSizeInBytes();
-                    for (int j = 0; j < size; j++) {
-                        buffer.put((byte) (j < str.length() ? str.charAt(j) : ' ')); // Padding simple
-                    }
-                    currentPos += size;
-                    break;
+            if (emptyZone.hasBloomFilter(i)) {
+                names.add(columns[i].getColumnName());
             }
         }
+        return names;
     }
 
-    public void readFromBuffer(Record record, ByteBuffer buffer, int pos) {
-        int currentPos = pos;
+    // Noms des colonnes encodées par dictionnaire
+    public List<String> getDictionaryColumns() {
+        List<String> names = new ArrayList<>();
         for (int i = 0; i < columns.length; i++) {
-            Column col = columns[i];
-            buffer.position(currentPos);
-
-            switch (col.getColumnType()) {
-                case INT:
-                    record.setValue(i, Integer.valueOf(buffer.getInt()));
-                    currentPos += 4;
-                    break;
-                case FLOAT:
-                    record.setValue(i, Float.valueOf(buffer.getFloat()));
-                    currentPos += 4;
-                    break;
-                case CHAR:
-                case VARCHAR:
-                    int size = col.getSizeInBytes();
-                    byte[] bytes = new byte[size];
-                    buffer.get(bytes);
-                    record.setValue(i, new String(bytes).trim()); // Trim padding
-                    currentPos += size;
-                    break;
+            if (codec.isDictionaryEncoded(i)) {
+                names.add(columns[i].getColumnName());
             }
         }
+        return names;
     }
 
     public RecordId InsertRecord(Record record) {
-        PageId pageIdToInsert = getFreeDataPageId();
+        if (clusterIndex != null) {
+            return insertClustered(record);
+        }
+        PageId pageIdToInsert = directory.findPageWithSpace(layout.spaceNeeded(record));
         if (pageIdToInsert.equals(DUMMY_PAGE_ID)) {
             pageIdToInsert = addDataPage();
         }
@@ -152,6 +419,43 @@ public class Relation {
         return rid;
     }
 
+    // Insertion en masse : une seule session BulkInserter pour tous les records
+    public List<RecordId> InsertRecords(Iterable<Record> records) {
+        List<RecordId> rids = new ArrayList<>();
+        BulkInserter inserter = newBulkInserter();
+        try {
+            for (Record record : records) {
+                rids.add(inserter.insert(record));
+            }
+        } finally {
+            inserter.close();
+        }
+        return rids;
+    }
+
+    public BulkInserter newBulkInserter() {
+        return new BulkInserter(this, diskManager, bufferManager);
+    }
+
+    // Nombre de records, tenu à jour dans la Header Page (aucune page de données n'est lue)
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public int getDataPageCount() {
+        return directory.getPageCount();
+    }
+
+    // Pages pleines : plus assez de place pour le plus petit record, le répertoire ne les
+    // propose plus à l'insertion
+    public int getFullPageCount() {
+        return directory.getPageCount() - directory.getPagesWithSpaceCount();
+    }
+
+    public int getFreePageCount() {
+        return directory.getPagesWithSpaceCount();
+    }
+
     public List<Record> GetAllRecords() {
         List<Record> allRecords = new ArrayList<>();
         List<PageId> allPages = getDataPages();
@@ -165,119 +469,325 @@ public class Relation {
         PageId pageId = rid.getPageId();
         int slotIdx = rid.getSlotIdx();
         ByteBuffer pageBuff = bufferManager.GetPage(pageId);
+        Record oldRecord = readForIndexes(pageBuff, slotIdx);
 
-        boolean wasFull = true;
-        for (int i = 0; i < slotCountPerDataPage; i++) {
-            if (pageBuff.get(BYTEMAP_OFFSET + i) == (byte) 0) {
-                wasFull = false;
-                break;
+        layout.delete(pageBuff, slotIdx);
+        int freeSpace = layout.getFreeSpace(pageBuff);
+
+        boolean rebuildZone = false;
+        boolean pageRemoved = freeSpace == layout.getEmptyPageSpace();
+        if (pageRemoved) {
+            directory.removePage(pageId);
+            if (clusterIndex != null) {
+                clusterIndex.remove(pageId);
             }
+            diskManager.DeallocPage(pageId);
+        } else {
+            // Les valeurs supprimées restent dans les filtres de Bloom : la zone est recalculée
+            // toutes les BLOOM_REBUILD_DELETES suppressions dans la page
+            int deletes = directory.recordDeleted(pageId, freeSpace);
+            rebuildZone = emptyZone.hasBloomFilters() && deletes >= BLOOM_REBUILD_DELETES;
         }
 
-        pageBuff.put(BYTEMAP_OFFSET + slotIdx, (byte) 0);
-
-        if (wasFull) {
-            movePageToFreeList(pageId);
+        bufferManager.FreePage(pageId, true);
+        if (rebuildZone) {
+            directory.updatePage(pageId, freeSpace, computeZoneMap(pageId));
         }
-
-        boolean pageEmpty = true;
-        for (int i = 0; i < slotCountPerDataPage; i++) {
-            if (pageBuff.get(BYTEMAP_OFFSET + i) == (byte) 1) {
-                pageEmpty = false;
-                break;
-            }
+        addRows(-1);
+        if (pageRemoved) {
+            writeCounts(); // page retirée du répertoire
         }
+        notifyDeleted(oldRecord, rid);
+    }
 
-        if (pageEmpty) {
-            unlinkPage(pageId, FREE_LIST_HEAD_OFFSET);
-            diskManager.DeallocPage(pageId);
+    // TRUNCATE : vide la relation en gardant son schéma, ses options et ses dictionnaires.
+    // Les pages de données et de répertoire sont rendues en un seul appel, d'après le
+    // répertoire en mémoire : aucune page de données n'est lue.
+    public void Truncate() {
+        List<PageId> pages = directory.getPageIds();
+        pages.addAll(directory.getOverflowPages());
+        directory.init();
+        if (clusterIndex != null) {
+            clusterIndex.clear();
         }
+        rowCount = 0;
+        writeCounts();
+        diskManager.DeallocPages(pages);
+        for (RelationIndex index : indexes) {
+            index.clear();
+        }
+    }
 
-        bufferManager.FreePage(pageId, true);
+    // DROP : rend toutes les pages de la relation, Header Page comprise. La relation ne doit
+    // plus être utilisée ensuite. Avec un segment, il suffit de supprimer son fichier.
+    public void Drop() {
+        if (segment != DiskManager.SHARED) {
+            bufferManager.DiscardFile(segment);
+            diskManager.DeleteSegment(segment);
+            diskManager.DeallocPage(headerPageId);
+            return;
+        }
+        List<PageId> pages = getDataPages();
+        pages.addAll(getMetadataPages());
+        pages.add(headerPageId);
+        diskManager.DeallocPages(pages);
     }
 
     private PageId addDataPage() {
-        PageId newDataPageId = diskManager.AllocPage();
+        PageId newDataPageId = diskManager.AllocPage(segment);
         ByteBuffer newPageBuff = bufferManager.GetPage(newDataPageId);
-        for (int i = 0; i < slotCountPerDataPage; i++) {
-            newPageBuff.put(BYTEMAP_OFFSET + i, (byte) 0);
-        }
-        linkPageToHead(newDataPageId, FREE_LIST_HEAD_OFFSET);
+        layout.initPage(newPageBuff);
+        directory.addPage(newDataPageId, layout.getEmptyPageSpace());
         bufferManager.FreePage(newDataPageId, true);
+        writeCounts(); // page ajoutée au répertoire
         return newDataPageId;
     }
 
-    private PageId getFreeDataPageId() {
-        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
-        PageId freeHeadId = readPageIdFromBuffer(headerBuff, FREE_LIST_HEAD_OFFSET);
-        bufferManager.FreePage(headerPageId, false);
-        return freeHeadId;
+    // Table triée : le record va dans la page dont l'intervalle de clés le contient ; si elle
+    // est pleine, elle est coupée en deux (voir splitPage). Les records restent ainsi à peu près
+    // triés d'une page à l'autre : une requête sur un intervalle de clés ne lit qu'une suite de
+    // pages, les autres étant écartées par leur zone map. (Une mise à jour en place ne déplace
+    // pas le record, elle ne fait qu'élargir la zone map de sa page.)
+    private RecordId insertClustered(Record record) {
+        double key = clusterKey(record);
+        PageId pageId = clusterIndex.pageForKey(key);
+        if (pageId.equals(DUMMY_PAGE_ID)) {
+            pageId = addDataPage();
+            clusterIndex.add(key, pageId);
+        } else if (directory.getFreeSpace(pageId) < layout.spaceNeeded(record)) {
+            pageId = splitPage(pageId, key);
+        }
+        return writeRecordToDataPage(record, pageId);
+    }
+
+    // Coupe une page pleine et retourne celle qui doit recevoir la clé : la moitié haute des
+    // records (par clé) part dans une nouvelle page, qui prend leur plus petite clé comme
+    // séparateur. Les records déplacés changent de RID. Si la clé dépasse toutes celles de la
+    // page (ajout en fin de table, cas des séries temporelles), rien n'est déplacé : la
+    // nouvelle page ne reçoit que les clés suivantes.
+    private PageId splitPage(PageId pageId, double key) {
+        List<Record> records = getRecordsInDataPage(pageId);
+        records.sort(Comparator.comparingDouble(this::clusterKey));
+        PageId newPageId = addDataPage();
+        if (key >= clusterKey(records.get(records.size() - 1))) {
+            clusterIndex.add(key, newPageId);
+            return newPageId;
+        }
+
+        int mid = records.size() / 2;
+        double separator = clusterKey(records.get(mid));
+        ByteBuffer oldBuff = bufferManager.GetPage(pageId);
+        ByteBuffer newBuff = bufferManager.GetPage(newPageId);
+        ZoneMap lowZone = newZoneMap();
+        ZoneMap highZone = newZoneMap();
+        for (int i = 0; i < records.size(); i++) {
+            Record rec = records.get(i);
+            if (i < mid) {
+                lowZone.add(rec);
+            } else {
+                layout.delete(oldBuff, rec.getRid().getSlotIdx());
+                int newSlot = layout.insert(newBuff, rec);
+                highZone.add(rec);
+                notifyDeleted(rec, rec.getRid());
+                notifyInserted(rec, new RecordId(newPageId, newSlot));
+            }
+        }
+        directory.updatePage(pageId, layout.getFreeSpace(oldBuff), lowZone);
+        directory.updatePage(newPageId, layout.getFreeSpace(newBuff), highZone);
+        bufferManager.FreePage(newPageId, true);
+        bufferManager.FreePage(pageId, true);
+
+        clusterIndex.add(separator, newPageId);
+        return key < separator ? pageId : newPageId;
+    }
+
+    private double clusterKey(Record record) {
+        return columns[clusterColumn].getColumnType() == ColumnType.FLOAT
+                ? record.getFloat(clusterColumn)
+                : record.getInt(clusterColumn);
+    }
+
+    PageDirectory getDirectory() {
+        return directory;
+    }
+
+    // Zone map (min/max des colonnes numériques) d'une page de données, lue dans le répertoire
+    public ZoneMap getZoneMap(PageId pageId) {
+        return directory.getZoneMap(pageId);
+    }
+
+    ZoneMap newZoneMap() {
+        return emptyZone.emptyCopy();
+    }
+
+    // Recalcule la zone map d'une page à partir de ses records
+    private ZoneMap computeZoneMap(PageId pageId) {
+        ZoneMap zone = newZoneMap();
+        for (Record rec : getRecordsInDataPage(pageId)) {
+            zone.add(rec);
+        }
+        return zone;
+    }
+
+    DataPageLayout getPageLayout() {
+        return layout;
     }
 
     private RecordId writeRecordToDataPage(Record record, PageId pageIdToInsert) {
         ByteBuffer pageBuff = bufferManager.GetPage(pageIdToInsert);
         int slotIdx = -1;
-        for (int i = 0; i < slotCountPerDataPage; i++) {
-            if (pageBuff.get(BYTEMAP_OFFSET + i) == (byte) 0) {
-                slotIdx = i;
-                break;
+        try {
+            slotIdx = layout.insert(pageBuff, record);
+            if (slotIdx == -1) {
+                throw new RuntimeException("Erreur: page pleine.");
             }
+            directory.recordWritten(pageIdToInsert, layout.getFreeSpace(pageBuff), record);
+        } finally {
+            // La page est libérée même si l'encodage échoue (valeur invalide, dictionnaire plein)
+            bufferManager.FreePage(pageIdToInsert, slotIdx != -1);
         }
+        addRows(1);
+        RecordId rid = new RecordId(pageIdToInsert, slotIdx);
+        notifyInserted(record, rid);
+        return rid;
+    }
 
-        if (slotIdx == -1) throw new RuntimeException("Erreur: page pleine.");
+    // Ancienne valeur d'un record, lue seulement si des index doivent retrouver sa clé
+    private Record readForIndexes(ByteBuffer pageBuff, int slotIdx) {
+        if (indexes.isEmpty()) {
+            return null;
+        }
+        Record record = new Record(columns.length);
+        layout.read(pageBuff, slotIdx, record);
+        return record;
+    }
 
-        pageBuff.put(BYTEMAP_OFFSET + slotIdx, (byte) 1);
-        int pos = RECORDS_OFFSET + (slotIdx * recordSize);
-        writeRecordToBuffer(record, pageBuff, pos);
+    void notifyInserted(Record record, RecordId rid) {
+        for (RelationIndex index : indexes) {
+            index.recordInserted(record, rid);
+        }
+    }
 
-        boolean pageFull = true;
-        for (int i = 0; i < slotCountPerDataPage; i++) {
-            if (pageBuff.get(BYTEMAP_OFFSET + i) == (byte) 0) {
-                pageFull = false;
-                break;
+    private void notifyDeleted(Record record, RecordId rid) {
+        for (RelationIndex index : indexes) {
+            index.recordDeleted(record, rid);
+        }
+    }
+
+    // Le nombre de records est tenu en mémoire : il n'est écrit dans la Header Page qu'avec le
+    // répertoire (page ajoutée ou retirée, voir writeCounts) et par flush()
+    void addRows(int delta) {
+        rowCount += delta;
+    }
+
+    // Écrit les compteurs dans la Header Page (sauvegarde de l'état, EXIT)
+    public void flush() {
+        writeCounts();
+    }
+
+    // Compteurs de records et de pages dans la Header Page
+    void writeCounts() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        headerBuff.putLong(ROW_COUNT_OFFSET, rowCount);
+        headerBuff.putInt(DATA_PAGE_COUNT_OFFSET, getDataPageCount());
+        headerBuff.putInt(FULL_PAGE_COUNT_OFFSET, getFullPageCount());
+        bufferManager.FreePage(headerPageId, true);
+    }
+
+    private long readRowCount() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        long count = headerBuff.getLong(ROW_COUNT_OFFSET);
+        bufferManager.FreePage(headerPageId, false);
+        return count;
+    }
+
+    // Compte les slots occupés de toutes les pages (migration depuis un format sans compteurs)
+    private long countRows() {
+        long count = 0;
+        for (PageId pageId : directory.getPageIds()) {
+            ByteBuffer pageBuff = bufferManager.GetPage(pageId);
+            for (int i = layout.nextUsedSlot(pageBuff, 0); i != -1; i = layout.nextUsedSlot(pageBuff, i + 1)) {
+                count++;
             }
+            bufferManager.FreePage(pageId, false);
         }
+        return count;
+    }
+
+    // Prochain slot occupé à partir de fromSlot (inclus), ou -1 s'il n'y en a plus
+    public int nextUsedSlot(ByteBuffer pageBuff, int fromSlot) {
+        return layout.nextUsedSlot(pageBuff, fromSlot);
+    }
 
-        if (pageFull) {
-            movePageToFullList(pageIdToInsert);
+    public boolean isSlotUsed(ByteBuffer pageBuff, int slotIdx) {
+        return layout.isSlotUsed(pageBuff, slotIdx);
+    }
+
+    // Lit le record du slot donné d'une page déjà épinglée
+    public void readRecord(ByteBuffer pageBuff, int slotIdx, Record record) {
+        layout.read(pageBuff, slotIdx, record);
+    }
+
+    // Vue réutilisable sur les records en page (voir RecordView)
+    public RecordView newRecordView() {
+        return new RecordView(this);
+    }
+
+    // Vue qui n'expose que les colonnes données, dans cet ordre (projection d'un parcours)
+    public RecordView newRecordView(int[] columns) {
+        return new RecordView(this, columns);
+    }
+
+    // Accès direct à une colonne dans les pages (voir PageColumn)
+    public PageColumn getPageColumn(int colIdx) {
+        if (layout instanceof FixedPageLayout) {
+            FixedPageLayout fixedLayout = (FixedPageLayout) layout;
+            return new PageColumn(this, colIdx, fixedLayout.columnBase(colIdx), fixedLayout.columnStride(colIdx));
         }
+        return new PageColumn(this, colIdx, 0, 0);
+    }
+
+    // Lot réutilisable de records en page, pour l'exécution par lots (voir RecordBatch)
+    public RecordBatch newRecordBatch() {
+        return new RecordBatch(this);
+    }
 
-        bufferManager.FreePage(pageIdToInsert, true);
-        return new RecordId(pageIdToInsert, slotIdx);
+    // Lit seulement les colonnes demandées du slot donné ; les autres valeurs restent à null
+    public void readRecordColumns(ByteBuffer pageBuff, int slotIdx, Record record, int[] columnIndexes) {
+        layout.readColumns(pageBuff, slotIdx, record, columnIndexes);
     }
 
     public List<Record> getRecordsInDataPage(PageId pageId) {
         List<Record> records = new ArrayList<>();
         ByteBuffer pageBuff = bufferManager.GetPage(pageId);
 
-        for (int i = 0; i < slotCountPerDataPage; i++) {
-            if (pageBuff.get(BYTEMAP_OFFSET + i) == (byte) 1) {
-                int pos = RECORDS_OFFSET + (i * recordSize);
-                Record rec = new Record(columns.length);
-                readFromBuffer(rec, pageBuff, pos);
-                rec.setRid(new RecordId(pageId, i));
-                records.add(rec);
-            }
+        for (int i = layout.nextUsedSlot(pageBuff, 0); i != -1; i = layout.nextUsedSlot(pageBuff, i + 1)) {
+            Record rec = new Record(columns.length);
+            layout.read(pageBuff, i, rec);
+            rec.setRid(new RecordId(pageId, i));
+            records.add(rec);
         }
 
         bufferManager.FreePage(pageId, false);
         return records;
     }
 
+    // Liste des pages de données, lue depuis le répertoire (aucune page de données n'est épinglée).
+    // Pour une table triée, les pages sont dans l'ordre des clés.
     public List<PageId> getDataPages() {
-        List<PageId> allPages = new ArrayList<>();
-        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
-        PageId freeHead = readPageIdFromBuffer(headerBuff, FREE_LIST_HEAD_OFFSET);
-        PageId fullHead = readPageIdFromBuffer(headerBuff, FULL_LIST_HEAD_OFFSET);
-        bufferManager.FreePage(headerPageId, false);
+        return clusterIndex != null ? clusterIndex.getPageIds() : directory.getPageIds();
+    }
 
-        traverseList(freeHead, allPages);
-        traverseList(fullHead, allPages);
-        return allPages;
+    // Pages de répertoire chaînées à la Header Page
+    public List<PageId> getDirectoryPages() {
+        return directory.getOverflowPages();
     }
 
-    public int getRecordsOffset() {
-        return RECORDS_OFFSET;
+    // Pages de métadonnées (répertoire, dictionnaires) à libérer avec la relation
+    public List<PageId> getMetadataPages() {
+        List<PageId> pages = directory.getOverflowPages();
+        pages.addAll(dictionary.getPages());
+        return pages;
     }
 
     private void traverseList(PageId head, List<PageId> results) {
@@ -297,56 +807,156 @@ public class Relation {
         }
     }
 
-    private void linkPageToHead(PageId pageId, int headerOffset) {
+    private int readFormatVersion() {
         ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
-        PageId oldHeadId = readPageIdFromBuffer(headerBuff, headerOffset);
+        int version = headerBuff.getInt(FORMAT_MAGIC_OFFSET) == FORMAT_MAGIC
+                ? headerBuff.getInt(FORMAT_VERSION_OFFSET)
+                : FORMAT_VERSION_LEGACY;
+        bufferManager.FreePage(headerPageId, false);
+        if (version != FORMAT_VERSION && version != FORMAT_VERSION_LEGACY) {
+            throw new IllegalStateException("Format de relation inconnu : version " + version);
+        }
+        return version;
+    }
 
-        writePageIdToBuffer(pageId, headerBuff, headerOffset);
-        bufferManager.FreePage(headerPageId, true);
+    private PageLayout readLayout() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        PageLayout kind = PageLayout.values()[headerBuff.getInt(LAYOUT_OFFSET)];
+        bufferManager.FreePage(headerPageId, false);
+        return kind;
+    }
 
-        ByteBuffer pageBuff = bufferManager.GetPage(pageId);
-        writePageIdToBuffer(oldHeadId, pageBuff, NEXT_PAGE_ID_OFFSET);
-        writePageIdToBuffer(DUMMY_PAGE_ID, pageBuff, PREV_PAGE_ID_OFFSET);
-        bufferManager.FreePage(pageId, true);
+    // Colonnes encodées par dictionnaire (bit i : colonne i)
+    private long readDictionaryMask() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        long mask = headerBuff.getLong(DICTIONARY_MASK_OFFSET);
+        bufferManager.FreePage(headerPageId, false);
+        return mask;
+    }
+
+    private int readClusterColumn() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        int clusterCol = headerBuff.getInt(CLUSTER_COLUMN_OFFSET) - 1;
+        bufferManager.FreePage(headerPageId, false);
+        return clusterCol;
+    }
+
+    private int readSegment() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        int seg = headerBuff.getInt(SEGMENT_OFFSET);
+        bufferManager.FreePage(headerPageId, false);
+        return seg == 0 ? DiskManager.SHARED : seg;
+    }
+
+    private long readBloomMask() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        long mask = headerBuff.getLong(BLOOM_MASK_OFFSET);
+        bufferManager.FreePage(headerPageId, false);
+        return mask;
+    }
+
+    private int readBloomBits() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        int bits = headerBuff.getInt(BLOOM_BITS_OFFSET);
+        bufferManager.FreePage(headerPageId, false);
+        return bits;
+    }
+
+    // true si les anciennes listes chaînées sont vides (relation neuve ou vide)
+    private boolean hasNoLegacyPages() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        boolean empty = readPageIdFromBuffer(headerBuff, FREE_LIST_HEAD_OFFSET).equals(DUMMY_PAGE_ID)
+                && readPageIdFromBuffer(headerBuff, FULL_LIST_HEAD_OFFSET).equals(DUMMY_PAGE_ID);
+        bufferManager.FreePage(headerPageId, false);
+        return empty;
+    }
 
-        if (!oldHeadId.equals(DUMMY_PAGE_ID)) {
-            ByteBuffer oldHeadBuff = bufferManager.GetPage(oldHeadId);
-            writePageIdToBuffer(pageId, oldHeadBuff, PREV_PAGE_ID_OFFSET);
-            bufferManager.FreePage(oldHeadId, true);
+    private void writeFormatHeader() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        writePageIdToBuffer(DUMMY_PAGE_ID, headerBuff, FREE_LIST_HEAD_OFFSET);
+        writePageIdToBuffer(DUMMY_PAGE_ID, headerBuff, FULL_LIST_HEAD_OFFSET);
+        headerBuff.putInt(FORMAT_MAGIC_OFFSET, FORMAT_MAGIC);
+        headerBuff.putInt(FORMAT_VERSION_OFFSET, FORMAT_VERSION);
+        headerBuff.putInt(LAYOUT_OFFSET, layout.getKind().ordinal());
+        long mask = 0;
+        for (int i = 0; i < columns.length; i++) {
+            if (codec.isDictionaryEncoded(i)) {
+                mask |= 1L << i;
+            }
         }
+        headerBuff.putLong(DICTIONARY_MASK_OFFSET, mask);
+        headerBuff.putInt(CLUSTER_COLUMN_OFFSET, clusterColumn + 1);
+        headerBuff.putInt(SEGMENT_OFFSET, segment == DiskManager.SHARED ? 0 : segment);
+        long bloomMask = 0;
+        for (int i = 0; i < columns.length && i < Long.SIZE; i++) {
+            if (emptyZone.hasBloomFilter(i)) {
+                bloomMask |= 1L << i;
+            }
+        }
+        headerBuff.putLong(BLOOM_MASK_OFFSET, bloomMask);
+        headerBuff.putInt(BLOOM_BITS_OFFSET, emptyZone.getBloomBits());
+        bufferManager.FreePage(headerPageId, true);
     }
 
-    private void unlinkPage(PageId pageId, int headerOffset) {
-        ByteBuffer pageBuff = bufferManager.GetPage(pageId);
-        PageId nextId = readPageIdFromBuffer(pageBuff, NEXT_PAGE_ID_OFFSET);
-        PageId prevId = readPageIdFromBuffer(pageBuff, PREV_PAGE_ID_OFFSET);
-        bufferManager.FreePage(pageId, false);
+    // Migration vers le format courant : les pages trouvées via les anciennes listes chaînées
+    // sont converties en Bitmap et inscrites dans le répertoire ; les records gardent leur slot
+    // quand c'est possible, ceux qui ne tiennent plus (la nouvelle page peut avoir moins de slots
+    // pour de très gros records) sont réinsérés. Une relation neuve n'a aucune page à convertir.
+    private void upgradeFormat() {
+        List<PageId> pages = new ArrayList<>();
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        PageId freeHead = readPageIdFromBuffer(headerBuff, FREE_LIST_HEAD_OFFSET);
+        PageId fullHead = readPageIdFromBuffer(headerBuff, FULL_LIST_HEAD_OFFSET);
+        bufferManager.FreePage(headerPageId, false);
+        traverseList(freeHead, pages);
+        traverseList(fullHead, pages);
+
+        writeFormatHeader();
+        directory.init();
+        dictionary.init();
+
+        List<Record> overflow = new ArrayList<>();
+        for (PageId pageId : pages) {
+            int freeSlots = convertBytemapPage(pageId, overflow);
 
-        if (!nextId.equals(DUMMY_PAGE_ID)) {
-            ByteBuffer nextBuff = bufferManager.GetPage(nextId);
-            writePageIdToBuffer(prevId, nextBuff, PREV_PAGE_ID_OFFSET);
-            bufferManager.FreePage(nextId, true);
+            if (freeSlots == layout.getEmptyPageSpace()) {
+                diskManager.DeallocPage(pageId);
+            } else {
+                directory.addPage(pageId, freeSlots, computeZoneMap(pageId));
+            }
         }
 
-        if (!prevId.equals(DUMMY_PAGE_ID)) {
-            ByteBuffer prevBuff = bufferManager.GetPage(prevId);
-            writePageIdToBuffer(nextId, prevBuff, NEXT_PAGE_ID_OFFSET);
-            bufferManager.FreePage(prevId, true);
-        } else {
-            ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
-            writePageIdToBuffer(nextId, headerBuff, headerOffset);
-            bufferManager.FreePage(headerPageId, true);
+        for (Record rec : overflow) {
+            InsertRecord(rec);
         }
     }
 
-    private void movePageToFullList(PageId pageId) {
-        unlinkPage(pageId, FREE_LIST_HEAD_OFFSET);
-        linkPageToHead(pageId, FULL_LIST_HEAD_OFFSET);
-    }
+    // Réécrit une page ByteMap au format Bitmap et retourne son nombre de slots libres
+    private int convertBytemapPage(PageId pageId, List<Record> overflow) {
+        FixedPageLayout fixedLayout = (FixedPageLayout) layout;
+        int legacySlots = (pageSize - LEGACY_DATA_PAGE_HEADER_SIZE) / (1 + recordSize);
+        int legacyRecordsOffset = LEGACY_DATA_PAGE_HEADER_SIZE + legacySlots;
 
-    private void movePageToFreeList(PageId pageId) {
-        unlinkPage(pageId, FULL_LIST_HEAD_OFFSET);
-        linkPageToHead(pageId, FREE_LIST_HEAD_OFFSET);
+        ByteBuffer pageBuff = bufferManager.GetPage(pageId);
+        byte[][] contents = new byte[legacySlots][];
+        for (int i = 0; i < legacySlots; i++) {
+            if (pageBuff.get(LEGACY_DATA_PAGE_HEADER_SIZE + i) == (byte) 1) {
+                contents[i] = new byte[recordSize];
+                pageBuff.position(legacyRecordsOffset + i * recordSize);
+                pageBuff.get(contents[i]);
+            }
+        }
+
+        int freeSlots = fixedLayout.rebuildFromLegacy(pageBuff, contents);
+        for (int i = fixedLayout.getSlotCount(); i < legacySlots; i++) {
+            if (contents[i] != null) {
+                Record rec = new Record(columns.length);
+                readFromBuffer(rec, ByteBuffer.wrap(contents[i]), 0);
+                overflow.add(rec);
+            }
+        }
+        bufferManager.FreePage(pageId, true);
+        return freeSlots;
     }
 
     private PageId readPageIdFromBuffer(ByteBuffer buffer, int offset) {
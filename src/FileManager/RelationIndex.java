@@ -0,0 +1,14 @@
+package FileManager;
+
+// Index secondaire tenu à jour par sa relation : chaque record écrit, effacé ou déplacé
+// (split d'une table triée, mise à jour qui ne tient plus dans sa page) lui est signalé.
+// Une mise à jour sur place est signalée comme un effacement suivi d'une insertion au même RID.
+public interface RelationIndex {
+
+    void recordInserted(Record record, RecordId rid);
+
+    void recordDeleted(Record record, RecordId rid);
+
+    // TRUNCATE : la relation est vidée d'un coup
+    void clear();
+}
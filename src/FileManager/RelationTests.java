@@ -4,6 +4,14 @@ import BufferManager.BufferManager;
 import DiskManager.DiskManager;
 import DiskManager.PageId;
 import Main.DBConfig;
+import QueryManager.Condition;
+import QueryManager.HashJoin;
+import QueryManager.IBatchIterator;
+import QueryManager.IRecordIterator;
+import QueryManager.ParallelScan;
+import QueryManager.ProjectOperator;
+import QueryManager.RelationScanner;
+import QueryManager.SelectOperator;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,8 +19,10 @@ import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class RelationTests {
 
@@ -22,8 +32,12 @@ public class RelationTests {
   private static BufferManager bm;
 
   private static void setup() {
+    setup(4);
+  }
+
+  private static void setup(int maxFileCount) {
     cleanup();
-    config = new DBConfig(TEST_DB_PATH, 1024, 4, 8, 5, "LRU");
+    config = new DBConfig(TEST_DB_PATH, 1024, maxFileCount, 8, 5, "LRU");
     dm = new DiskManager(config);
     dm.Init();
     bm = new BufferManager(config, dm);
@@ -54,6 +68,30 @@ public class RelationTests {
 
     testInsertAndGetAll();
     testDeleteRecord();
+    testBitmapFillsPages();
+    testLegacyBytemapUpgrade();
+    testBulkInsert();
+    testPageDirectoryOverflow();
+    testSlottedVarchar();
+    testPaxLayout();
+    testZoneMaps();
+    testRecordView();
+    testTypedRecord();
+
+    // Les tests suivants créent plus de relations (Header Pages, pages de métadonnées) que ne
+    // peuvent en tenir 4 fichiers de 8 pages : ils repartent d'un disque vide de 8 fichiers
+    setup(8);
+    testDictionaryEncoding();
+    testClusteredTable();
+    testRowCounts();
+    testTruncate();
+    testSegmentStorage();
+    testBloomFilters();
+    testRecordBatches();
+    testCompiledPredicates();
+    testScanPushdown();
+    testParallelScan();
+    testHashJoin();
 
     cleanup();
     System.out.println("\n=== TP5 Tests Passed ===");
@@ -138,4 +176,852 @@ public class RelationTests {
 
     System.out.println("✓ Delete réussi\n");
   }
-}
\ No newline at end of file
+
+  public static void testBitmapFillsPages() {
+    System.out.println("Test 3: Bitmap (remplissage de plusieurs pages)");
+
+    PageId headerPageId = newHeaderPage();
+    Column[] cols = { new Column("id", ColumnType.INT) };
+    Relation rel = new Relation("Many", cols, config, dm, bm, headerPageId);
+
+    int slots = rel.getSlotCountPerDataPage();
+    int total = slots * 2 + 10;
+    RecordId[] rids = new RecordId[total];
+    for (int i = 0; i < total; i++) {
+      rids[i] = rel.InsertRecord(new Record(new Object[] { i }));
+    }
+    System.out.println(slots + " slots par page, " + rel.getDataPages().size() + " pages de données");
+    assert rel.getDataPages().size() == 3 : "Erreur: nombre de pages incorrect";
+    assert rel.GetAllRecords().size() == total : "Erreur: records manquants";
+
+    // Libérer un slot dans la première page (pleine) : il doit être réutilisé
+    // une fois la dernière page remplie
+    rel.DeleteRecord(rids[5]);
+    for (int i = 0; i < slots - 10; i++) {
+      rel.InsertRecord(new Record(new Object[] { total + i }));
+    }
+    RecordId reused = rel.InsertRecord(new Record(new Object[] { -5 }));
+    assert reused.equals(rids[5]) : "Erreur: slot libéré non réutilisé";
+    assert rel.getDataPages().size() == 3 : "Erreur: page ajoutée alors qu'un slot était libre";
+
+    System.out.println("✓ Bitmap réussi\n");
+  }
+
+  public static void testLegacyBytemapUpgrade() {
+    System.out.println("Test 4: Migration d'une relation à l'ancien format (ByteMap)");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("name", ColumnType.CHAR, 8) };
+    int recordSize = 12;
+    int legacySlots = (config.getPageSize() - 16) / (1 + recordSize);
+
+    // Construire à la main une Header Page + une Data Page à l'ancien format
+    PageId headerPageId = dm.AllocPage();
+    PageId dataPageId = dm.AllocPage();
+    ByteBuffer headerBuf = bm.GetPage(headerPageId);
+    headerBuf.putInt(0, dataPageId.getFileIdx());
+    headerBuf.putInt(4, dataPageId.getPageIdx());
+    headerBuf.putInt(8, -1);
+    headerBuf.putInt(12, -1);
+    headerBuf.putInt(16, 0);
+    bm.FreePage(headerPageId, true);
+
+    ByteBuffer dataBuf = bm.GetPage(dataPageId);
+    dataBuf.putInt(0, -1); // Next
+    dataBuf.putInt(4, -1);
+    dataBuf.putInt(8, -1); // Prev
+    dataBuf.putInt(12, -1);
+    for (int i = 0; i < legacySlots; i++) {
+      dataBuf.put(16 + i, (byte) 0);
+    }
+    int[] usedSlots = { 0, 3, legacySlots - 1 };
+    for (int slot : usedSlots) {
+      dataBuf.put(16 + slot, (byte) 1);
+      int pos = 16 + legacySlots + slot * recordSize;
+      dataBuf.putInt(pos, slot * 10);
+      byte[] name = String.format("%-8s", "n" + slot).getBytes();
+      dataBuf.position(pos + 4);
+      dataBuf.put(name);
+    }
+    bm.FreePage(dataPageId, true);
+
+    Relation rel = new Relation("Legacy", cols, config, dm, bm, headerPageId);
+    List<Record> all = rel.GetAllRecords();
+    System.out.println("Après migration: " + all.size() + " records");
+    assert all.size() == usedSlots.length : "Erreur: records perdus pendant la migration";
+    for (int slot : usedSlots) {
+      assert all.contains(new Record(new Object[] { slot * 10, "n" + slot })) : "Record manquant: " + slot;
+    }
+
+    // Une seconde ouverture ne doit rien migrer à nouveau
+    Relation reopened = new Relation("Legacy", cols, config, dm, bm, headerPageId);
+    assert reopened.GetAllRecords().size() == usedSlots.length : "Erreur: seconde ouverture";
+
+    System.out.println("✓ Migration réussie\n");
+  }
+
+  public static void testBulkInsert() {
+    System.out.println("Test 5: InsertRecords (insertion en masse)");
+
+    PageId headerPageId = newHeaderPage();
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("tag", ColumnType.CHAR, 4) };
+    Relation rel = new Relation("Bulk", cols, config, dm, bm, headerPageId);
+
+    // Une page partiellement remplie par InsertRecord doit être complétée en premier
+    RecordId first = rel.InsertRecord(new Record(new Object[] { -1, "x" }));
+
+    int total = rel.getSlotCountPerDataPage() * 3 + 7;
+    List<Record> batch = new java.util.ArrayList<>();
+    for (int i = 0; i < total; i++) {
+      batch.add(new Record(new Object[] { i, "t" + (i % 10) }));
+    }
+    List<RecordId> rids = rel.InsertRecords(batch);
+
+    assert rids.size() == total : "Erreur: nombre de RID retournés";
+    assert rids.get(0).getPageId().equals(first.getPageId()) : "Erreur: la page libre existante n'a pas été utilisée";
+    assert rel.getDataPages().size() == 4 : "Erreur: nombre de pages incorrect (" + rel.getDataPages().size() + ")";
+    List<Record> all = rel.GetAllRecords();
+    assert all.size() == total + 1 : "Erreur: records manquants";
+    assert all.contains(batch.get(total - 1)) : "Erreur: dernier record manquant";
+
+    // Les insertions unitaires suivantes doivent retrouver la dernière page (non pleine)
+    rel.InsertRecord(new Record(new Object[] { -2, "y" }));
+    assert rel.getDataPages().size() == 4 : "Erreur: page libre non chaînée après la session";
+
+    System.out.println("✓ Insertion en masse réussie\n");
+  }
+
+  public static void testPageDirectoryOverflow() {
+    System.out.println("Test 6: Répertoire de pages chaîné sur plusieurs pages");
+
+    // Petites pages : la Header Page ne contient que quelques entrées
+    String path = TEST_DB_PATH + "_dir";
+    DBConfig smallConfig = new DBConfig(path, 256, 2, 200, 8, "LRU");
+    DiskManager smallDm = new DiskManager(smallConfig);
+    smallDm.Init();
+    BufferManager smallBm = new BufferManager(smallConfig, smallDm);
+
+    PageId headerPageId = smallDm.AllocPage();
+    Relation.formatHeaderPage(smallBm, headerPageId);
+    Column[] cols = { new Column("id", ColumnType.INT) };
+    Relation rel = new Relation("Dir", cols, smallConfig, smallDm, smallBm, headerPageId);
+
+    int pages = 30;
+    int total = rel.getSlotCountPerDataPage() * pages;
+    List<RecordId> rids = new java.util.ArrayList<>();
+    for (int i = 0; i < total; i++) {
+      rids.add(rel.InsertRecord(new Record(new Object[] { i })));
+    }
+    System.out.println(rel.getDataPages().size() + " pages de données, "
+        + rel.getDirectoryPages().size() + " pages de répertoire chaînées");
+    assert rel.getDataPages().size() == pages : "Erreur: nombre de pages de données";
+    assert !rel.getDirectoryPages().isEmpty() : "Erreur: le répertoire aurait dû déborder";
+
+    // Relecture depuis le disque
+    smallBm.FlushBuffers();
+    Relation reopened = new Relation("Dir", cols, smallConfig, smallDm, smallBm, headerPageId);
+    assert reopened.getDataPages().equals(rel.getDataPages()) : "Erreur: répertoire relu différent";
+    assert reopened.GetAllRecords().size() == total : "Erreur: records perdus après relecture";
+
+    // Vider la relation : les pages de répertoire chaînées sont rendues
+    for (RecordId rid : rids) {
+      reopened.DeleteRecord(rid);
+    }
+    assert reopened.getDataPages().isEmpty() : "Erreur: pages de données restantes";
+    assert reopened.getDirectoryPages().isEmpty() : "Erreur: pages de répertoire restantes";
+
+    smallDm.Finish();
+    try {
+      Files.walk(Paths.get(path)).sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+    } catch (IOException e) {
+      System.err.println("Erreur lors du nettoyage: " + e.getMessage());
+    }
+    System.out.println("✓ Répertoire de pages réussi\n");
+  }
+
+  public static void testSlottedVarchar() {
+    System.out.println("Test 7: Layout SLOTTED pour les VARCHAR");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("txt", ColumnType.VARCHAR, 200) };
+    Relation rel = new Relation("Var", cols, config, dm, bm, newHeaderPage());
+    Relation fixed = new Relation("VarRow", cols, config, dm, bm, newHeaderPage(), TableOptions.parse("layout=ROW"));
+    assert rel.getLayout() == PageLayout.SLOTTED : "Erreur: layout par défaut";
+    assert fixed.getLayout() == PageLayout.ROW : "Erreur: layout demandé";
+
+    List<RecordId> rids = new java.util.ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      rids.add(rel.InsertRecord(new Record(new Object[] { i, "v" + i })));
+    }
+    for (int i = 0; i < 8; i++) {
+      fixed.InsertRecord(new Record(new Object[] { i, "v" + i }));
+    }
+    System.out.println("40 records courts: " + rel.getDataPages().size() + " page(s) SLOTTED, "
+        + "8 records: " + fixed.getDataPages().size() + " page(s) ROW");
+    assert rel.getDataPages().size() == 1 : "Erreur: les VARCHAR courts devraient tenir dans une page";
+    assert rel.GetAllRecords().contains(new Record(new Object[] { 7, "v7" })) : "Erreur: relecture VARCHAR";
+
+    // Mise à jour plus courte : sur place
+    RecordId rid = rel.updateRecord(rids.get(3), new Record(new Object[] { 3, "" }));
+    assert rid.equals(rids.get(3)) : "Erreur: RID changé pour une mise à jour sur place";
+
+    // Mises à jour qui grossissent : compactage dans la page, puis déplacement quand elle est pleine
+    String longText = "x".repeat(200);
+    int moved = 0;
+    for (int i = 0; i < rids.size(); i++) {
+      RecordId newRid = rel.updateRecord(rids.get(i), new Record(new Object[] { i, longText }));
+      if (!newRid.equals(rids.get(i))) moved++;
+      rids.set(i, newRid);
+    }
+    List<Record> all = rel.GetAllRecords();
+    assert all.size() == 40 : "Erreur: records perdus pendant les mises à jour";
+    assert all.contains(new Record(new Object[] { 39, longText })) : "Erreur: VARCHAR long";
+    assert moved > 0 && rel.getDataPages().size() > 1 : "Erreur: les records auraient dû être déplacés";
+
+    for (RecordId r : rids) {
+      rel.DeleteRecord(r);
+    }
+    assert rel.getDataPages().isEmpty() : "Erreur: pages non libérées";
+
+    System.out.println("✓ Layout SLOTTED réussi\n");
+  }
+
+  public static void testPaxLayout() {
+    System.out.println("Test 8: Layout PAX (minipages par colonne)");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("nom", ColumnType.CHAR, 10),
+        new Column("prix", ColumnType.FLOAT) };
+    Relation rel = new Relation("Pax", cols, config, dm, bm, newHeaderPage(), TableOptions.parse("layout=PAX"));
+    assert rel.getLayout() == PageLayout.PAX : "Erreur: layout demandé";
+
+    int total = rel.getSlotCountPerDataPage() + 5;
+    List<RecordId> rids = rel.InsertRecords(() -> java.util.stream.IntStream.range(0, total)
+        .mapToObj(i -> new Record(new Object[] { i, "n" + i, i * 0.5f })).iterator());
+    assert rel.getDataPages().size() == 2 : "Erreur: nombre de pages PAX";
+
+    // Relecture après réouverture : le layout vient de la Header Page
+    Relation reopened = new Relation("Pax", cols, config, dm, bm, rel.getHeaderPageId());
+    assert reopened.getLayout() == PageLayout.PAX : "Erreur: layout non relu";
+    List<Record> all = reopened.GetAllRecords();
+    assert all.size() == total : "Erreur: records perdus";
+    assert all.contains(new Record(new Object[] { 12, "n12", 6.0f })) : "Erreur: record PAX";
+
+    // Lecture d'une seule colonne : les autres valeurs ne sont pas décodées
+    RecordId rid = rids.get(12);
+    ByteBuffer buff = bm.GetPage(rid.getPageId());
+    Record partial = new Record(cols.length);
+    reopened.readRecordColumns(buff, rid.getSlotIdx(), partial, new int[] { 2 });
+    bm.FreePage(rid.getPageId(), false);
+    assert partial.getValue(2).equals(6.0f) : "Erreur: lecture de colonne";
+    assert partial.getValue(0) == null && partial.getValue(1) == null : "Erreur: colonnes non demandées lues";
+
+    reopened.updateRecord(rid, new Record(new Object[] { 12, "douze", 1.0f }));
+    assert reopened.GetAllRecords().contains(new Record(new Object[] { 12, "douze", 1.0f })) : "Erreur: update PAX";
+
+    for (RecordId r : rids) {
+      reopened.DeleteRecord(r);
+    }
+    assert reopened.getDataPages().isEmpty() : "Erreur: pages non libérées";
+
+    System.out.println("✓ Layout PAX réussi\n");
+  }
+
+  public static void testZoneMaps() {
+    System.out.println("Test 9: Zone maps des pages et pages écartées au parcours");
+
+    Column[] cols = { new Column("cle", ColumnType.INT), new Column("nom", ColumnType.CHAR, 6),
+        new Column("val", ColumnType.FLOAT) };
+    Relation rel = new Relation("Zone", cols, config, dm, bm, newHeaderPage());
+    int total = rel.getSlotCountPerDataPage() * 4;
+    List<RecordId> rids = rel.InsertRecords(() -> java.util.stream.IntStream.range(0, total)
+        .mapToObj(i -> new Record(new Object[] { i, "n", i / 10.0f })).iterator());
+
+    ZoneMap first = rel.getZoneMap(rids.get(0).getPageId());
+    assert first.covers(0) && first.covers(2) && !first.covers(1) : "Erreur: colonnes résumées";
+    assert first.getMin(0) == 0 && first.getMax(0) == rel.getSlotCountPerDataPage() - 1 : "Erreur: bornes INT";
+
+    // Mise à jour : la zone s'élargit ; elle est relue depuis le répertoire à la réouverture
+    RecordId rid = rel.updateRecord(rids.get(1), new Record(new Object[] { 100000, "n", -5.0f }));
+    Relation reopened = new Relation("Zone", cols, config, dm, bm, rel.getHeaderPageId());
+    ZoneMap zone = reopened.getZoneMap(rid.getPageId());
+    assert zone.getMax(0) == 100000 && zone.getMin(2) == -5.0 : "Erreur: zone non élargie ou non relue";
+
+    // Filtre sur les clés de la dernière page : seules elle et la page élargie par la mise à jour sont lues
+    List<Condition> conds = List.of(new Condition(0, ">=", String.valueOf(total - 2), ColumnType.INT));
+    RelationScanner scanner = new RelationScanner(reopened, bm, conds);
+    int matches = 0;
+    for (Record rec = scanner.GetNextRecord(); rec != null; rec = scanner.GetNextRecord()) {
+      if (conds.get(0).evaluate(rec)) matches++;
+    }
+    System.out.println(scanner.getSkippedPageCount() + " page(s) écartée(s) sur " + reopened.getDataPages().size());
+    assert matches == 3 : "Erreur: records manquants";
+    assert scanner.getSkippedPageCount() == 2 : "Erreur: pages non écartées";
+
+    for (RecordId r : rids) {
+      reopened.DeleteRecord(r.equals(rids.get(1)) ? rid : r);
+    }
+    assert reopened.getDataPages().isEmpty() : "Erreur: pages non libérées";
+
+    System.out.println("✓ Zone maps réussies\n");
+  }
+
+  public static void testRecordView() {
+    System.out.println("Test 10: RecordView (décodage à la demande)");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("txt", ColumnType.VARCHAR, 12),
+        new Column("val", ColumnType.FLOAT) };
+    for (String options : new String[] { "layout=ROW", "layout=SLOTTED", "layout=PAX" }) {
+      Relation rel = new Relation("Vue", cols, config, dm, bm, newHeaderPage(), TableOptions.parse(options));
+      List<RecordId> rids = rel.InsertRecords(() -> java.util.stream.IntStream.range(0, 150)
+          .mapToObj(i -> new Record(new Object[] { i, "t" + i, i * 2.5f })).iterator());
+
+      RelationScanner scanner = new RelationScanner(rel, bm);
+      Record first = scanner.GetNextRecord();
+      Record kept = first.materialize();
+      int count = 1;
+      long sum = first.getInt(0);
+      for (Record rec = scanner.GetNextRecord(); rec != null; rec = scanner.GetNextRecord()) {
+        assert rec == first : "Erreur: la vue devrait être réutilisée";
+        assert rec.getFloat(2) == rec.getInt(0) * 2.5f : "Erreur: getFloat";
+        assert rec.getValue(1).equals("t" + rec.getInt(0)) : "Erreur: getValue";
+        sum += rec.getInt(0);
+        count++;
+      }
+      assert count == 150 && sum == 149 * 150 / 2 : "Erreur: parcours incomplet (" + options + ")";
+      assert rel.GetAllRecords().contains(kept) && kept.getRid() != null : "Erreur: materialize";
+
+      for (RecordId r : rids) {
+        rel.DeleteRecord(r);
+      }
+    }
+
+    System.out.println("✓ RecordView réussi\n");
+  }
+
+  public static void testTypedRecord() {
+    System.out.println("Test 11: Record typé (valeurs primitives)");
+
+    Record rec = new Record(3);
+    rec.setInt(0, 42);
+    rec.setFloat(1, 1.5f);
+    rec.setValue(2, "abc");
+    assert rec.getInt(0) == 42 && rec.getFloat(1) == 1.5f : "Erreur: accès typés";
+    assert rec.getValue(0).equals(42) && rec.getValue(1).equals(1.5f) : "Erreur: getValue sur valeur primitive";
+    assert rec.equals(new Record(new Object[] { 42, 1.5f, "abc" })) : "Erreur: equals";
+    assert rec.toString().equals("42 ; 1.5 ; abc") : "Erreur: toString";
+
+    rec.clear();
+    assert rec.isNull(0) && rec.getInt(0) == 0 && rec.getValue(2) == null : "Erreur: clear";
+
+    // Écriture puis relecture sans passer par des objets Integer/Float
+    Column[] cols = { new Column("a", ColumnType.INT), new Column("b", ColumnType.FLOAT),
+        new Column("c", ColumnType.CHAR, 4) };
+    Relation rel = new Relation("Typed", cols, config, dm, bm, newHeaderPage());
+    rec.setInt(0, -7);
+    rec.setFloat(1, 2.25f);
+    rec.setValue(2, "xy");
+    RecordId rid = rel.InsertRecord(rec);
+    Record read = rel.GetAllRecords().get(0);
+    assert read.getInt(0) == -7 && read.getFloat(1) == 2.25f && read.getValue(2).equals("xy") : "Erreur: relecture";
+    rel.DeleteRecord(rid);
+
+    System.out.println("✓ Record typé réussi\n");
+  }
+
+  public static void testDictionaryEncoding() {
+    System.out.println("Test 12: Encodage par dictionnaire des colonnes CHAR");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("pays", ColumnType.CHAR, 20),
+        new Column("statut", ColumnType.CHAR, 10) };
+    String[] pays = { "France", "Allemagne", "Espagne" };
+    Relation plain = new Relation("Plain", cols, config, dm, bm, newHeaderPage());
+    Relation rel = new Relation("Dico", cols, config, dm, bm, newHeaderPage(),
+        TableOptions.parse("dictionary=pays, dictionary=statut"));
+    assert rel.getRecordSize() == 8 : "Erreur: taille d'un record encodé";
+    assert rel.getSlotCountPerDataPage() > 3 * plain.getSlotCountPerDataPage() : "Erreur: pas plus de records par page";
+    assert rel.getDictionaryColumns().equals(List.of("pays", "statut")) : "Erreur: colonnes encodées";
+
+    int total = 150;
+    List<RecordId> rids = rel.InsertRecords(() -> java.util.stream.IntStream.range(0, total)
+        .mapToObj(i -> new Record(new Object[] { i, pays[i % 3], i % 2 == 0 ? "actif" : "inactif" })).iterator());
+
+    // Relecture après réouverture : le dictionnaire vient de ses pages de métadonnées
+    Relation reopened = new Relation("Dico", cols, config, dm, bm, rel.getHeaderPageId());
+    assert reopened.isDictionaryEncoded(1) && !reopened.isDictionaryEncoded(0) : "Erreur: masque non relu";
+    assert reopened.getMetadataPages().size() == 1 : "Erreur: pages de dictionnaire";
+    assert reopened.GetAllRecords().contains(new Record(new Object[] { 7, "Allemagne", "inactif" }))
+        : "Erreur: valeur décodée";
+
+    // Égalité et IN comparés sur les codes, sans décoder la chaîne
+    Condition eq = new Condition(1, "=", "\"Espagne\"", ColumnType.CHAR);
+    Condition in = new Condition(1, List.of("\"France\"", "\"Italie\""), ColumnType.CHAR);
+    Condition absent = new Condition(2, "<>", "\"suspendu\"", ColumnType.CHAR);
+    eq.bind(reopened);
+    in.bind(reopened);
+    absent.bind(reopened);
+    RelationScanner scanner = new RelationScanner(reopened, bm);
+    int eqCount = 0, inCount = 0, absentCount = 0;
+    for (Record rec = scanner.GetNextRecord(); rec != null; rec = scanner.GetNextRecord()) {
+      if (eq.evaluate(rec)) eqCount++;
+      if (in.evaluate(rec)) inCount++;
+      if (absent.evaluate(rec)) absentCount++;
+      assert in.evaluate(rec.materialize()) == in.evaluate(rec) : "Erreur: codes et valeurs divergent";
+    }
+    assert eqCount == 50 && inCount == 50 && absentCount == total : "Erreur: comparaison des codes";
+
+    for (RecordId r : rids) {
+      reopened.DeleteRecord(r);
+    }
+    assert reopened.getDataPages().isEmpty() : "Erreur: pages non libérées";
+    for (PageId pid : reopened.getMetadataPages()) {
+      dm.DeallocPage(pid);
+    }
+    dm.DeallocPage(reopened.getHeaderPageId());
+    dm.DeallocPage(plain.getHeaderPageId());
+
+    System.out.println("✓ Encodage par dictionnaire réussi\n");
+  }
+
+  public static void testClusteredTable() {
+    System.out.println("Test 13: Table triée (CLUSTER BY) et splits de pages");
+
+    Column[] cols = { new Column("ts", ColumnType.INT), new Column("val", ColumnType.FLOAT) };
+    TableOptions options = new TableOptions();
+    options.setClusterColumn("ts");
+    Relation rel = new Relation("Serie", cols, config, dm, bm, newHeaderPage(), options);
+    assert rel.getClusterColumn() == 0 : "Erreur: colonne de tri";
+
+    // Clés dans le désordre : les splits gardent des intervalles de clés disjoints d'une page à l'autre
+    List<Integer> keys = new java.util.ArrayList<>();
+    for (int i = 0; i < 400; i++) keys.add(i);
+    java.util.Collections.shuffle(keys, new java.util.Random(42));
+    for (int k : keys) {
+      rel.InsertRecord(new Record(new Object[] { k, k * 0.5f }));
+    }
+    Relation reopened = new Relation("Serie", cols, config, dm, bm, rel.getHeaderPageId());
+    assert reopened.getClusterColumn() == 0 : "Erreur: colonne de tri non relue";
+    List<PageId> pages = reopened.getDataPages();
+    assert pages.equals(rel.getDataPages()) : "Erreur: ordre des pages non reconstruit";
+    System.out.println(pages.size() + " pages pour 400 records (" + reopened.getSlotCountPerDataPage() + " slots/page)");
+    assert pages.size() > 3 : "Erreur: aucun split";
+    for (int p = 1; p < pages.size(); p++) {
+      assert reopened.getZoneMap(pages.get(p - 1)).getMax(0) < reopened.getZoneMap(pages.get(p)).getMin(0)
+          : "Erreur: pages non triées";
+    }
+
+    // Intervalle de clés : une seule suite de pages est lue
+    List<Condition> conds = List.of(new Condition(0, ">=", "100", ColumnType.INT),
+        new Condition(0, "<", "130", ColumnType.INT));
+    RelationScanner scanner = new RelationScanner(reopened, bm, conds);
+    int matches = 0;
+    for (Record rec = scanner.GetNextRecord(); rec != null; rec = scanner.GetNextRecord()) {
+      if (conds.get(0).evaluate(rec) && conds.get(1).evaluate(rec)) matches++;
+    }
+    assert matches == 30 : "Erreur: records manquants";
+    assert scanner.getSkippedPageCount() >= pages.size() - 2 : "Erreur: pages non écartées";
+
+    // Ajout en fin de table (clés croissantes) : les pages se remplissent sans split
+    int before = reopened.getDataPages().size();
+    int appended = 2 * reopened.getSlotCountPerDataPage();
+    for (int k = 1000; k < 1000 + appended; k++) {
+      reopened.InsertRecord(new Record(new Object[] { k, 0.0f }));
+    }
+    assert reopened.getDataPages().size() <= before + 2 : "Erreur: pages à moitié vides en fin de table";
+
+    // Les splits déplacent des records : les RID à jour viennent d'un parcours
+    for (Record rec : reopened.GetAllRecords()) {
+      reopened.DeleteRecord(rec.getRid());
+    }
+    assert reopened.getDataPages().isEmpty() : "Erreur: pages non libérées";
+    dm.DeallocPage(reopened.getHeaderPageId());
+
+    System.out.println("✓ Table triée réussie\n");
+  }
+
+  public static void testRowCounts() {
+    System.out.println("Test 14: Compteurs de records et de pages dans la Header Page");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("nom", ColumnType.CHAR, 20) };
+    Relation rel = new Relation("Compteurs", cols, config, dm, bm, newHeaderPage());
+    assert rel.getRowCount() == 0 && rel.getDataPageCount() == 0 : "Erreur: table neuve non vide";
+
+    int slots = rel.getSlotCountPerDataPage();
+    List<RecordId> rids = new java.util.ArrayList<>();
+    for (int i = 0; i < slots + 5; i++) {
+      rids.add(rel.InsertRecord(new Record(new Object[] { i, "r" + i })));
+    }
+    List<Record> bulk = new java.util.ArrayList<>();
+    for (int i = 0; i < 2 * slots; i++) {
+      bulk.add(new Record(new Object[] { i, "b" + i }));
+    }
+    rel.InsertRecords(bulk);
+    for (int i = 0; i < 5; i++) {
+      rel.DeleteRecord(rids.get(i));
+    }
+
+    long expected = 3L * slots;
+    assert rel.getRowCount() == expected : "Erreur: nombre de records " + rel.getRowCount();
+    assert rel.getDataPageCount() == rel.getDataPages().size() : "Erreur: nombre de pages";
+    assert rel.getFullPageCount() + rel.getFreePageCount() == rel.getDataPageCount() : "Erreur: pages pleines/libres";
+
+    // Les compteurs sont écrits à la sauvegarde, puis relus tels quels, sans parcours
+    rel.flush();
+    Relation reopened = new Relation("Compteurs", cols, config, dm, bm, rel.getHeaderPageId());
+    assert reopened.getRowCount() == expected : "Erreur: compteur non relu";
+    assert reopened.GetAllRecords().size() == expected : "Erreur: compteur différent du parcours";
+    assert reopened.getFullPageCount() == rel.getFullPageCount() : "Erreur: pages pleines non relues";
+    System.out.println(reopened.getRowCount() + " records, " + reopened.getDataPageCount() + " pages ("
+        + reopened.getFullPageCount() + " pleines)");
+
+    for (Record rec : reopened.GetAllRecords()) {
+      reopened.DeleteRecord(rec.getRid());
+    }
+    assert reopened.getRowCount() == 0 && reopened.getDataPageCount() == 0 : "Erreur: compteurs après suppression";
+    dm.DeallocPage(reopened.getHeaderPageId());
+
+    System.out.println("✓ Compteurs réussis\n");
+  }
+
+  public static void testTruncate() {
+    System.out.println("Test 15: TRUNCATE (pages rendues en bloc)");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("nom", ColumnType.CHAR, 20) };
+    Relation rel = new Relation("Vidage", cols, config, dm, bm, newHeaderPage(), TableOptions.parse("dictionary=nom"));
+    List<Record> records = new java.util.ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      records.add(new Record(new Object[] { i, "n" + (i % 4) }));
+    }
+    rel.InsertRecords(records);
+    int dataPages = rel.getDataPageCount();
+    int dirPages = rel.getDirectoryPages().size();
+    int freeBefore = dm.getFreePageCount();
+
+    rel.Truncate();
+    assert rel.getRowCount() == 0 && rel.getDataPages().isEmpty() : "Erreur: table non vidée";
+    assert dm.getFreePageCount() == freeBefore + dataPages + dirPages : "Erreur: pages non rendues";
+    assert rel.getDirectoryPages().isEmpty() : "Erreur: pages de répertoire gardées";
+
+    // Schéma et dictionnaire gardés : la table se remplit à nouveau normalement
+    rel.InsertRecord(new Record(new Object[] { 7, "n3" }));
+    rel.flush();
+    Relation reopened = new Relation("Vidage", cols, config, dm, bm, rel.getHeaderPageId());
+    assert reopened.isDictionaryEncoded(1) : "Erreur: dictionnaire perdu";
+    assert reopened.getRowCount() == 1 : "Erreur: compteur après TRUNCATE";
+    assert reopened.GetAllRecords().get(0).equals(new Record(new Object[] { 7, "n3" })) : "Erreur: record relu";
+
+    reopened.Drop();
+    System.out.println("✓ TRUNCATE réussi\n");
+  }
+
+  public static void testSegmentStorage() {
+    System.out.println("Test 16: Relation dans son propre fichier segment");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("nom", ColumnType.CHAR, 20) };
+    Relation other = new Relation("Voisine", cols, config, dm, bm, newHeaderPage());
+    Relation rel = new Relation("Segment", cols, config, dm, bm, newHeaderPage(), TableOptions.parse("storage=SEGMENT"));
+    int segment = rel.getSegment();
+    assert DiskManager.isSegment(segment) : "Erreur: pas de segment";
+
+    // Insertions entrelacées avec une autre table : les pages du segment restent contiguës
+    for (int i = 0; i < 300; i++) {
+      rel.InsertRecord(new Record(new Object[] { i, "s" + i }));
+      other.InsertRecord(new Record(new Object[] { i, "o" + i }));
+    }
+    List<PageId> pages = rel.getDataPages();
+    for (int p = 0; p < pages.size(); p++) {
+      assert pages.get(p).getFileIdx() == segment : "Erreur: page hors du segment";
+    }
+    for (PageId pid : rel.getDirectoryPages()) {
+      assert pid.getFileIdx() == segment : "Erreur: page de répertoire hors du segment";
+    }
+    assert pages.get(pages.size() - 1).getPageIdx() - pages.get(0).getPageIdx() < pages.size() + rel.getDirectoryPages().size()
+        : "Erreur: pages non contiguës";
+
+    Relation reopened = new Relation("Segment", cols, config, dm, bm, rel.getHeaderPageId());
+    assert reopened.getSegment() == segment : "Erreur: segment non relu";
+    assert reopened.GetAllRecords().size() == 300 : "Erreur: records du segment";
+
+    // DROP : le fichier du segment est supprimé, sans rien ajouter aux pages libres partagées
+    int freeBefore = dm.getFreePageCount();
+    reopened.Drop();
+    File segmentFile = new File(TEST_DB_PATH + File.separator + "BinData" + File.separator
+        + "Seg" + (segment - DiskManager.SEGMENT_FILE_BASE) + ".bin");
+    assert !segmentFile.exists() : "Erreur: fichier segment non supprimé";
+    assert dm.getFreePageCount() == freeBefore + 1 : "Erreur: seule la Header Page doit être rendue";
+    assert other.GetAllRecords().size() == 300 : "Erreur: table voisine abîmée";
+    other.Drop();
+
+    System.out.println(pages.size() + " pages dans le segment " + segment);
+    System.out.println("✓ Segment réussi\n");
+  }
+
+  public static void testBloomFilters() {
+    System.out.println("Test 17: Filtres de Bloom des colonnes CHAR dans les zone maps");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("code", ColumnType.CHAR, 8) };
+    Relation rel = new Relation("Bloom", cols, config, dm, bm, newHeaderPage(), TableOptions.parse("bloom=code"));
+    assert rel.getBloomColumns().equals(List.of("code")) : "Erreur: colonnes filtrées";
+    int perPage = rel.getSlotCountPerDataPage();
+    int total = perPage * 6;
+    // 10 records consécutifs par code : chaque code n'est que dans une ou deux pages
+    List<RecordId> rids = rel.InsertRecords(() -> java.util.stream.IntStream.range(0, total)
+        .mapToObj(i -> new Record(new Object[] { i, "v" + (i / 10) })).iterator());
+    rel.InsertRecord(new Record(new Object[] { total, "tropLongueValeur" })); // tronquée à 8 en page
+
+    Relation reopened = new Relation("Bloom", cols, config, dm, bm, rel.getHeaderPageId());
+    ZoneMap first = reopened.getZoneMap(rids.get(0).getPageId());
+    assert first.hasBloomFilter(1) && !first.hasBloomFilter(0) : "Erreur: filtre non relu";
+    assert first.mightContain(1, "v0") : "Erreur: faux négatif";
+
+    String target = "v" + (total / 20);
+    List<Condition> conds = List.of(new Condition(1, "=", "\"" + target + "\"", ColumnType.CHAR));
+    RelationScanner scanner = new RelationScanner(reopened, bm, conds);
+    int matches = 0;
+    for (Record rec = scanner.GetNextRecord(); rec != null; rec = scanner.GetNextRecord()) {
+      if (conds.get(0).evaluate(rec)) matches++;
+    }
+    int pages = reopened.getDataPages().size();
+    System.out.println(scanner.getSkippedPageCount() + " page(s) écartée(s) sur " + pages);
+    assert matches == 10 : "Erreur: records manquants";
+    assert scanner.getSkippedPageCount() >= pages - 3 : "Erreur: pages non écartées";
+
+    List<Condition> truncated = List.of(new Condition(1, List.of("\"tropLong\""), ColumnType.CHAR));
+    scanner = new RelationScanner(reopened, bm, truncated);
+    matches = 0;
+    for (Record rec = scanner.GetNextRecord(); rec != null; rec = scanner.GetNextRecord()) {
+      if (truncated.get(0).evaluate(rec)) matches++;
+    }
+    assert matches == 1 : "Erreur: valeur tronquée absente du filtre";
+
+    // Après assez de suppressions dans la page, sa zone est recalculée sans les valeurs supprimées
+    for (int i = 0; i < perPage - 1; i++) {
+      reopened.DeleteRecord(rids.get(i));
+    }
+    ZoneMap rebuilt = reopened.getZoneMap(rids.get(0).getPageId());
+    assert !rebuilt.mightContain(1, "v0") : "Erreur: filtre non recalculé";
+    assert rebuilt.mightContain(1, "v" + ((perPage - 1) / 10)) : "Erreur: valeur restante perdue";
+
+    reopened.Truncate();
+    System.out.println("✓ Filtres de Bloom réussis\n");
+  }
+
+  public static void testRecordBatches() {
+    System.out.println("Test 18: Exécution par lots (RecordBatch)");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("prix", ColumnType.FLOAT),
+        new Column("pays", ColumnType.CHAR, 4) };
+    for (String options : List.of("", "layout=pax, dictionary=pays")) {
+      Relation rel = new Relation("Lots", cols, config, dm, bm, newHeaderPage(), TableOptions.parse(options));
+      int total = rel.getSlotCountPerDataPage() * 3 + 7;
+      String[] pays = { "FR", "DZ", "ES" };
+      rel.InsertRecords(() -> java.util.stream.IntStream.range(0, total)
+          .mapToObj(i -> new Record(new Object[] { i, i * 0.5f, pays[i % 3] })).iterator());
+      rel.DeleteRecord(rel.GetAllRecords().get(1).getRid());
+
+      List<Condition> conds = List.of(new Condition(0, "<", String.valueOf(total - 5), ColumnType.INT),
+          new Condition(1, ">", "10.0", ColumnType.FLOAT),
+          new Condition(2, "=", "\"DZ\"", ColumnType.CHAR));
+      int expected = 0;
+      for (Record rec : rel.GetAllRecords()) {
+        if (conds.stream().allMatch(c -> c.evaluate(rec))) expected++;
+      }
+
+      // Sélection puis projection sur (pays, id) : les valeurs visibles suivent la projection
+      IBatchIterator plan = new ProjectOperator.Batched(new SelectOperator.Batched(new RelationScanner(rel, bm), conds), List.of(2, 0));
+      int rows = 0;
+      for (RecordBatch batch = plan.GetNextBatch(); batch != null; batch = plan.GetNextBatch()) {
+        assert batch.getColumnCount() == 2 : "Erreur: projection du lot";
+        int[] sel = batch.getSelection();
+        for (int i = 0; i < batch.getSelectedCount(); i++) {
+          int id = (Integer) batch.getValue(sel[i], 1);
+          assert "DZ".equals(batch.getValue(sel[i], 0)) && id % 3 == 1 && id > 20 && id < total - 5
+              : "Erreur: ligne " + id + " retenue à tort";
+          assert batch.getRecord(sel[i]).getValue(0).equals(id) : "Erreur: vue du lot";
+          rows++;
+        }
+      }
+      plan.Close();
+      assert rows == expected : "Erreur: " + rows + " lignes par lots au lieu de " + expected;
+
+      // Sur un enfant sans lots, les opérateurs ne proposent que GetNextRecord
+      IRecordIterator records = new ProjectOperator(new SelectOperator(new ParallelScan(List.of(rel), bm, conds,
+          null, ForkJoinPool.commonPool()), null), List.of(0));
+      assert !(records instanceof IBatchIterator) : "Erreur: lots proposés sans enfant IBatchIterator";
+      rows = 0;
+      while (records.GetNextRecord() != null) rows++;
+      records.Close();
+      assert rows == expected : "Erreur: " + rows + " lignes par records au lieu de " + expected;
+      rel.Truncate();
+    }
+    System.out.println("✓ Exécution par lots réussie\n");
+  }
+
+  public static void testCompiledPredicates() {
+    System.out.println("Test 19: Prédicats compilés évalués sur les octets des pages");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("prix", ColumnType.FLOAT),
+        new Column("pays", ColumnType.CHAR, 4), new Column("nom", ColumnType.VARCHAR, 12) };
+    for (String options : List.of("layout=row", "layout=pax", "dictionary=pays")) { // dernier : SLOTTED
+      Relation rel = new Relation("Predicats", cols, config, dm, bm, newHeaderPage(), TableOptions.parse(options));
+      String[] pays = { "FR", "DZ", " DZ", "DZA" }; // " DZ" est relu "DZ" (trim), "DZA" ne l'est pas
+      rel.InsertRecords(() -> java.util.stream.IntStream.range(0, 40)
+          .mapToObj(i -> new Record(new Object[] { i, i * 0.25f, pays[i % 4], "n" + i })).iterator());
+      List<Record> records = new java.util.ArrayList<>();
+      for (Record rec : rel.GetAllRecords()) records.add(rec);
+
+      List<Condition> conds = List.of(new Condition(0, ">=", "10", ColumnType.INT),
+          new Condition(1, "<>", "5.0", ColumnType.FLOAT),
+          new Condition(2, "=", "\"DZ\"", ColumnType.CHAR),
+          new Condition(2, "<>", "\"FR\"", ColumnType.CHAR),
+          new Condition(3, "LIKE", "n1%", ColumnType.VARCHAR),
+          new Condition(0, List.of("3", "7", "150"), ColumnType.INT),
+          new Condition(2, "<", 3, ColumnType.CHAR));
+      for (Condition cond : conds) {
+        cond.bind(rel);
+      }
+
+      // Même résultat sur la vue en page (octets de la page) que sur le record décodé
+      int matches = 0;
+      RelationScanner scanner = new RelationScanner(rel, bm);
+      for (Record view = scanner.GetNextRecord(); view != null; view = scanner.GetNextRecord()) {
+        Record decoded = view.materialize();
+        for (Condition cond : conds) {
+          assert cond.evaluate(view) == cond.evaluate(decoded) : "Erreur: " + options + " record " + decoded;
+        }
+        if (QueryManager.Predicate.and(conds.subList(0, 3)).test(view)) matches++;
+      }
+      scanner.Close();
+      assert matches == 15 : "Erreur: conjonction (" + matches + ")";
+      rel.Truncate();
+    }
+
+    try {
+      new Condition(0, "=", "abc", ColumnType.INT);
+      assert false : "Erreur: constante invalide acceptée";
+    } catch (RuntimeException e) {
+      System.out.println("Refusé : " + e.getMessage());
+    }
+    System.out.println("✓ Prédicats compilés réussis\n");
+  }
+
+  public static void testScanPushdown() {
+    System.out.println("Test 20: Sélection et projection poussées dans RelationScanner");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("prix", ColumnType.FLOAT),
+        new Column("pays", ColumnType.CHAR, 4) };
+    Relation rel = new Relation("Pushdown", cols, config, dm, bm, newHeaderPage());
+    String[] pays = { "FR", "DZ", "ES" };
+    rel.InsertRecords(() -> java.util.stream.IntStream.range(0, 60)
+        .mapToObj(i -> new Record(new Object[] { i, i * 0.5f, pays[i % 3] })).iterator());
+    List<Condition> conds = List.of(new Condition(2, "=", "\"DZ\"", ColumnType.CHAR),
+        new Condition(0, ">=", "30", ColumnType.INT));
+
+    // Par records : seules les lignes retenues, vues sur (pays, id)
+    RelationScanner scanner = new RelationScanner(rel, bm, conds, List.of(2, 0));
+    int rows = 0;
+    for (Record rec = scanner.GetNextRecord(); rec != null; rec = scanner.GetNextRecord()) {
+      Record copy = rec.materialize();
+      int id = copy.getInt(1);
+      assert copy.getValueCount() == 2 && "DZ".equals(copy.getValue(0)) && id >= 30 && id % 3 == 1
+          : "Erreur: record " + copy;
+      assert rec.getRid().equals(copy.getRid()) : "Erreur: RID";
+      rows++;
+    }
+    scanner.Close();
+    assert rows == 10 : "Erreur: " + rows + " records au lieu de 10";
+
+    // Par lots : même sélection, colonnes visibles projetées
+    scanner = new RelationScanner(rel, bm, conds, List.of(2, 0));
+    rows = 0;
+    for (RecordBatch batch = scanner.GetNextBatch(); batch != null; batch = scanner.GetNextBatch()) {
+      assert batch.getColumnCount() == 2 : "Erreur: projection du lot";
+      for (int i = 0; i < batch.getSelectedCount(); i++) {
+        assert "DZ".equals(batch.getValue(batch.getSelection()[i], 0)) : "Erreur: ligne du lot";
+        rows++;
+      }
+    }
+    scanner.Close();
+    assert rows == 10 : "Erreur: " + rows + " lignes par lots au lieu de 10";
+
+    rel.Truncate();
+    System.out.println("✓ Sélection et projection poussées réussies\n");
+  }
+
+  public static void testParallelScan() {
+    System.out.println("Test 21: Parcours parallèle par morsels");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("pays", ColumnType.CHAR, 4),
+        new Column("nom", ColumnType.CHAR, 40) };
+    Relation rel = new Relation("Morsels", cols, config, dm, bm, newHeaderPage());
+    String[] pays = { "FR", "DZ", "ES" };
+    rel.InsertRecords(() -> java.util.stream.IntStream.range(0, 300)
+        .mapToObj(i -> new Record(new Object[] { i, pays[i % 3], "nom" + i })).iterator());
+    assert rel.getDataPages().size() > 8 : "Erreur: un seul morsel";
+    List<Condition> conds = List.of(new Condition(1, "=", "\"DZ\"", ColumnType.CHAR),
+        new Condition(0, "<", "250", ColumnType.INT));
+
+    List<String> expected = new ArrayList<>();
+    RelationScanner scanner = new RelationScanner(rel, bm, conds, List.of(0, 1));
+    for (Record rec = scanner.GetNextRecord(); rec != null; rec = scanner.GetNextRecord()) {
+      expected.add(rec.getRid() + " " + rec.materialize());
+    }
+    scanner.Close();
+    assert expected.size() == 83 : "Erreur: " + expected.size() + " records au lieu de 83";
+
+    // 4 workers pour 5 buffers : mêmes records, dans le même ordre
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ParallelScan parallel = new ParallelScan(List.of(rel), bm, conds, List.of(0, 1), pool);
+    List<String> actual = new ArrayList<>();
+    for (Record rec = parallel.GetNextRecord(); rec != null; rec = parallel.GetNextRecord()) {
+      actual.add(rec.getRid() + " " + rec);
+    }
+    assert actual.equals(expected) : "Erreur: records du parcours parallèle";
+    assert parallel.count() == 83 : "Erreur: COUNT parallèle";
+    List<RecordId> rids = parallel.collectRids();
+    assert rids.size() == 83 && expected.get(0).startsWith(rids.get(0) + " ") : "Erreur: RID parallèles";
+    parallel.Close();
+    pool.shutdown();
+
+    rel.Truncate();
+    System.out.println("✓ Parcours parallèle réussi\n");
+  }
+
+  public static void testHashJoin() {
+    System.out.println("Test 22: Jointure par hachage, en mémoire et répartie sur disque");
+
+    Column[] rCols = { new Column("id", ColumnType.INT), new Column("g", ColumnType.INT) };
+    Column[] sCols = { new Column("g", ColumnType.INT), new Column("label", ColumnType.CHAR, 4) };
+    Relation r = new Relation("JoinR", rCols, config, dm, bm, newHeaderPage());
+    Relation s = new Relation("JoinS", sCols, config, dm, bm, newHeaderPage());
+    r.InsertRecords(() -> java.util.stream.IntStream.range(0, 30)
+        .mapToObj(i -> new Record(new Object[] { i, i % 5 })).iterator());
+    s.InsertRecords(() -> java.util.stream.IntStream.range(0, 10)
+        .mapToObj(i -> new Record(new Object[] { i % 5, "L" + i })).iterator());
+    File binData = new File(TEST_DB_PATH, "BinData");
+    int filesBefore = binData.list().length;
+
+    // Budget large : build en mémoire ; budget d'un record : répartition jusqu'au chargement par tranches
+    for (long budget : new long[] { 1 << 20, 1 }) {
+      HashJoin join = new HashJoin(new RelationScanner(r, bm), rCols, 1, new RelationScanner(s, bm), sCols, 0,
+          false, budget, config, dm, bm);
+      int rows = 0;
+      for (Record rec = join.GetNextRecord(); rec != null; rec = join.GetNextRecord()) {
+        assert rec.getValueCount() == 4 && rec.getInt(1) == rec.getInt(2) : "Erreur: record joint " + rec;
+        assert ((String) rec.getValue(3)).startsWith("L") : "Erreur: colonnes de droite " + rec;
+        rows++;
+      }
+      join.Close();
+      assert rows == 60 : "Erreur: " + rows + " records joints au lieu de 60 (budget " + budget + ")";
+      assert (join.getPartitionCount() > 0) == (budget == 1) : "Erreur: répartition sur disque";
+      assert binData.list().length == filesBefore : "Erreur: partitions temporaires non supprimées";
+    }
+
+    r.Truncate();
+    s.Truncate();
+    System.out.println("✓ Jointure par hachage réussie\n");
+  }
+
+  private static PageId newHeaderPage() {
+    PageId headerPageId = dm.AllocPage();
+    Relation.formatHeaderPage(bm, headerPageId);
+    return headerPageId;
+  }
+}
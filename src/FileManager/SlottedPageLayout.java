@@ -0,0 +1,210 @@
+package FileManager;
+
+import java.nio.ByteBuffer;
+
+// Layout SLOTTED : répertoire de slots en début de page, records de taille variable
+// rangés depuis la fin de la page. L'espace libre est compté en octets (après compactage).
+//
+// En-tête : [nb slots (4)][début zone records (4)][octets vivants (4)][-][espace libre (4)][-]
+// Slot i à SLOT_DIRECTORY_OFFSET + 4*i : [offset (u16)][longueur (u16)], offset 0 = slot libre.
+class SlottedPageLayout extends DataPageLayout {
+
+    static final int MAX_PAGE_SIZE = 65536; // offsets sur 16 bits
+
+    private static final int SLOT_COUNT_OFFSET = 0;
+    private static final int DATA_START_OFFSET = 4;
+    private static final int LIVE_BYTES_OFFSET = 8;
+    private static final int SLOT_DIRECTORY_OFFSET = PAGE_HEADER_SIZE;
+    private static final int SLOT_ENTRY_SIZE = 4;
+
+    SlottedPageLayout(Relation relation, int pageSize) {
+        super(relation, pageSize);
+    }
+
+    @Override
+    PageLayout getKind() {
+        return PageLayout.SLOTTED;
+    }
+
+    @Override
+    void initPage(ByteBuffer pageBuff) {
+        pageBuff.putInt(SLOT_COUNT_OFFSET, 0);
+        pageBuff.putInt(DATA_START_OFFSET, pageSize);
+        pageBuff.putInt(LIVE_BYTES_OFFSET, 0);
+        pageBuff.putInt(FREE_SPACE_OFFSET, getEmptyPageSpace());
+    }
+
+    @Override
+    int getEmptyPageSpace() {
+        return pageSize - SLOT_DIRECTORY_OFFSET;
+    }
+
+    @Override
+    int getMinInsertSpace() {
+        return codec.getMinEncodedSize() + SLOT_ENTRY_SIZE;
+    }
+
+    @Override
+    int spaceNeeded(Record record) {
+        return codec.encodedSize(record) + SLOT_ENTRY_SIZE;
+    }
+
+    @Override
+    int insert(ByteBuffer pageBuff, Record record) {
+        codec.prepare(record);
+        int size = codec.encodedSize(record);
+        int slotCount = pageBuff.getInt(SLOT_COUNT_OFFSET);
+
+        int slotIdx = slotCount;
+        for (int i = 0; i < slotCount; i++) {
+            if (slotOffset(pageBuff, i) == 0) {
+                slotIdx = i;
+                break;
+            }
+        }
+        int needed = size + (slotIdx == slotCount ? SLOT_ENTRY_SIZE : 0);
+        if (pageBuff.getInt(FREE_SPACE_OFFSET) < needed) return -1;
+
+        if (slotIdx == slotCount) {
+            // La nouvelle entrée du répertoire ne doit pas écraser le record le plus bas
+            if (pageBuff.getInt(DATA_START_OFFSET) - size < directoryEnd(slotCount + 1)) {
+                compact(pageBuff);
+            }
+            slotCount++;
+            pageBuff.putInt(SLOT_COUNT_OFFSET, slotCount);
+            setSlot(pageBuff, slotIdx, 0, 0);
+        }
+        writeInFreeArea(pageBuff, slotIdx, record, size);
+        updateFreeSpace(pageBuff);
+        return slotIdx;
+    }
+
+    @Override
+    boolean update(ByteBuffer pageBuff, int slotIdx, Record record) {
+        codec.prepare(record);
+        int newSize = codec.encodedSize(record);
+        int oldOffset = slotOffset(pageBuff, slotIdx);
+        int oldSize = slotLength(pageBuff, slotIdx);
+
+        if (newSize <= oldSize) {
+            // Sur place : la fin de l'ancien record devient un trou récupéré au prochain compactage
+            codec.encode(record, pageBuff, oldOffset);
+            setSlot(pageBuff, slotIdx, oldOffset, newSize);
+            addLiveBytes(pageBuff, newSize - oldSize);
+            updateFreeSpace(pageBuff);
+            return true;
+        }
+
+        if (pageBuff.getInt(FREE_SPACE_OFFSET) + oldSize < newSize) {
+            return false;
+        }
+
+        setSlot(pageBuff, slotIdx, 0, 0);
+        addLiveBytes(pageBuff, -oldSize);
+        writeInFreeArea(pageBuff, slotIdx, record, newSize);
+        updateFreeSpace(pageBuff);
+        return true;
+    }
+
+    @Override
+    void delete(ByteBuffer pageBuff, int slotIdx) {
+        addLiveBytes(pageBuff, -slotLength(pageBuff, slotIdx));
+        setSlot(pageBuff, slotIdx, 0, 0);
+
+        // Les slots libres en fin de répertoire sont rendus
+        int slotCount = pageBuff.getInt(SLOT_COUNT_OFFSET);
+        while (slotCount > 0 && slotOffset(pageBuff, slotCount - 1) == 0) {
+            slotCount--;
+        }
+        pageBuff.putInt(SLOT_COUNT_OFFSET, slotCount);
+        if (slotCount == 0) {
+            pageBuff.putInt(DATA_START_OFFSET, pageSize);
+        }
+        updateFreeSpace(pageBuff);
+
+        // Compactage quand les trous représentent une part importante de la page
+        int contiguous = pageBuff.getInt(DATA_START_OFFSET) - directoryEnd(slotCount);
+        if (pageBuff.getInt(FREE_SPACE_OFFSET) - contiguous > pageSize / 4) {
+            compact(pageBuff);
+        }
+    }
+
+    @Override
+    int nextUsedSlot(ByteBuffer pageBuff, int fromSlot) {
+        int slotCount = pageBuff.getInt(SLOT_COUNT_OFFSET);
+        for (int i = Math.max(fromSlot, 0); i < slotCount; i++) {
+            if (slotOffset(pageBuff, i) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    boolean isSlotUsed(ByteBuffer pageBuff, int slotIdx) {
+        return slotIdx >= 0 && slotIdx < pageBuff.getInt(SLOT_COUNT_OFFSET) && slotOffset(pageBuff, slotIdx) != 0;
+    }
+
+    @Override
+    int recordPosition(ByteBuffer pageBuff, int slotIdx) {
+        return slotOffset(pageBuff, slotIdx);
+    }
+
+    // Écrit le record juste avant la zone des records, en compactant d'abord si nécessaire
+    private void writeInFreeArea(ByteBuffer pageBuff, int slotIdx, Record record, int size) {
+        int slotCount = pageBuff.getInt(SLOT_COUNT_OFFSET);
+        if (pageBuff.getInt(DATA_START_OFFSET) - size < directoryEnd(slotCount)) {
+            compact(pageBuff);
+        }
+        int offset = pageBuff.getInt(DATA_START_OFFSET) - size;
+        codec.encode(record, pageBuff, offset);
+        pageBuff.putInt(DATA_START_OFFSET, offset);
+        setSlot(pageBuff, slotIdx, offset, size);
+        addLiveBytes(pageBuff, size);
+    }
+
+    // Regroupe les records vivants en fin de page (les slots ne changent pas)
+    private void compact(ByteBuffer pageBuff) {
+        byte[] copy = new byte[pageSize];
+        pageBuff.get(0, copy);
+
+        int slotCount = pageBuff.getInt(SLOT_COUNT_OFFSET);
+        int dataStart = pageSize;
+        for (int i = 0; i < slotCount; i++) {
+            int offset = slotOffset(pageBuff, i);
+            if (offset == 0) continue;
+            int length = slotLength(pageBuff, i);
+            dataStart -= length;
+            pageBuff.put(dataStart, copy, offset, length);
+            setSlot(pageBuff, i, dataStart, length);
+        }
+        pageBuff.putInt(DATA_START_OFFSET, dataStart);
+    }
+
+    private void updateFreeSpace(ByteBuffer pageBuff) {
+        int slotCount = pageBuff.getInt(SLOT_COUNT_OFFSET);
+        pageBuff.putInt(FREE_SPACE_OFFSET, pageSize - directoryEnd(slotCount) - pageBuff.getInt(LIVE_BYTES_OFFSET));
+    }
+
+    private void addLiveBytes(ByteBuffer pageBuff, int delta) {
+        pageBuff.putInt(LIVE_BYTES_OFFSET, pageBuff.getInt(LIVE_BYTES_OFFSET) + delta);
+    }
+
+    private static int directoryEnd(int slotCount) {
+        return SLOT_DIRECTORY_OFFSET + slotCount * SLOT_ENTRY_SIZE;
+    }
+
+    private static int slotOffset(ByteBuffer pageBuff, int slotIdx) {
+        return pageBuff.getChar(SLOT_DIRECTORY_OFFSET + slotIdx * SLOT_ENTRY_SIZE);
+    }
+
+    private static int slotLength(ByteBuffer pageBuff, int slotIdx) {
+        return pageBuff.getChar(SLOT_DIRECTORY_OFFSET + slotIdx * SLOT_ENTRY_SIZE + 2);
+    }
+
+    private static void setSlot(ByteBuffer pageBuff, int slotIdx, int offset, int length) {
+        int pos = SLOT_DIRECTORY_OFFSET + slotIdx * SLOT_ENTRY_SIZE;
+        pageBuff.putChar(pos, (char) offset);
+        pageBuff.putChar(pos + 2, (char) length);
+    }
+}
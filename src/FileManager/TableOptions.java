@@ -0,0 +1,134 @@
+package FileManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Options physiques d'une table, données par la clause WITH (...) de CREATE TABLE.
+// Elles ne servent qu'à la création : ensuite la Header Page fait foi.
+public class TableOptions {
+
+    private PageLayout layout; // null = choix automatique
+    private final List<String> dictionaryColumns; // colonnes CHAR encodées par dictionnaire
+    private final List<String> bloomColumns; // colonnes CHAR avec un filtre de Bloom par page
+    private String clusterColumn; // clause CLUSTER BY (col), null si la table n'est pas triée
+    private boolean segmentStorage; // storage=SEGMENT : pages dans un fichier propre à la relation
+
+    // Clause PARTITION BY RANGE(col) (b1, ...) ou HASH(col, n) ; appliquée par le catalogue
+    // (DBManager), chaque partition étant créée avec les autres options
+    private String partitionKind; // "RANGE", "HASH" ou null
+    private String partitionColumn;
+    private final List<Double> partitionBounds;
+    private int partitionCount;
+
+    public TableOptions() {
+        this.layout = null;
+        this.dictionaryColumns = new ArrayList<>();
+        this.bloomColumns = new ArrayList<>();
+        this.clusterColumn = null;
+        this.segmentStorage = false;
+        this.partitionKind = null;
+        this.partitionColumn = null;
+        this.partitionBounds = new ArrayList<>();
+        this.partitionCount = 0;
+    }
+
+    // Parse une liste "cle=valeur, cle=valeur"
+    public static TableOptions parse(String optionsString) {
+        TableOptions options = new TableOptions();
+        if (optionsString == null || optionsString.trim().isEmpty()) {
+            return options;
+        }
+        for (String option : optionsString.split(",")) {
+            String[] keyValue = option.split("=");
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Option de table invalide: " + option.trim());
+            }
+            String key = keyValue[0].trim().toLowerCase();
+            String value = keyValue[1].trim();
+            switch (key) {
+                case "layout":
+                    options.layout = PageLayout.fromString(value);
+                    break;
+                case "dictionary": // peut être répétée : dictionary=pays, dictionary=statut
+                    options.dictionaryColumns.add(value);
+                    break;
+                case "bloom": // peut être répétée, comme dictionary
+                    options.bloomColumns.add(value);
+                    break;
+                case "storage":
+                    if (value.equalsIgnoreCase("SEGMENT")) {
+                        options.segmentStorage = true;
+                    } else if (value.equalsIgnoreCase("SHARED")) {
+                        options.segmentStorage = false;
+                    } else {
+                        throw new IllegalArgumentException("Stockage inconnu: " + value + " (SHARED ou SEGMENT)");
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Option de table inconnue: " + key);
+            }
+        }
+        return options;
+    }
+
+    public PageLayout getLayout() {
+        return layout;
+    }
+
+    public void setLayout(PageLayout layout) {
+        this.layout = layout;
+    }
+
+    public List<String> getDictionaryColumns() {
+        return dictionaryColumns;
+    }
+
+    public List<String> getBloomColumns() {
+        return bloomColumns;
+    }
+
+    public String getClusterColumn() {
+        return clusterColumn;
+    }
+
+    public void setClusterColumn(String clusterColumn) {
+        this.clusterColumn = clusterColumn;
+    }
+
+    public boolean isSegmentStorage() {
+        return segmentStorage;
+    }
+
+    public void setSegmentStorage(boolean segmentStorage) {
+        this.segmentStorage = segmentStorage;
+    }
+
+    public String getPartitionKind() {
+        return partitionKind;
+    }
+
+    public String getPartitionColumn() {
+        return partitionColumn;
+    }
+
+    public List<Double> getPartitionBounds() {
+        return partitionBounds;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    public void setRangePartitioning(String column, List<Double> bounds) {
+        this.partitionKind = "RANGE";
+        this.partitionColumn = column;
+        this.partitionBounds.clear();
+        this.partitionBounds.addAll(bounds);
+    }
+
+    public void setHashPartitioning(String column, int count) {
+        this.partitionKind = "HASH";
+        this.partitionColumn = column;
+        this.partitionCount = count;
+    }
+}
@@ -0,0 +1,197 @@
+package FileManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Dictionnaires des colonnes CHAR encodées d'une relation : chaque valeur distincte reçoit un
+// code sur 16 bits, stocké dans les records à la place des T octets de la valeur.
+// Les entrées sont ajoutées à la suite dans des pages de métadonnées chaînées depuis la
+// Header Page ; elles ne sont jamais retirées, les codes restent donc stables.
+// Tout le dictionnaire est gardé en mémoire : le décodage rend la chaîne déjà construite.
+class ValueDictionary {
+
+    static final int CODE_SIZE = 2;
+    static final int MAX_CODES = 65536;
+
+    // Page de dictionnaire : [next page (8)][octets utilisés (4)][padding (4)][entrées...]
+    // Entrée : [colonne (u16)][longueur (u16)][octets de la valeur]
+    private static final int NEXT_PAGE_OFFSET = 0;
+    private static final int USED_BYTES_OFFSET = 8;
+    private static final int ENTRIES_OFFSET = 16;
+    private static final int ENTRY_HEADER_SIZE = 4;
+
+    private final BufferManager bufferManager;
+    private final DiskManager diskManager;
+    private final int segment;
+    private final PageId headerPageId;
+    private final int headPointerOffset; // chaînage vers la première page, dans la Header Page
+    private final int pageSize;
+    private final Column[] columns;
+    private final boolean[] encoded;
+
+    private final List<List<String>> valuesByColumn;
+    private final List<Map<String, Integer>> codesByColumn;
+    private final List<PageId> pages;
+    private int lastPageUsedBytes;
+
+    ValueDictionary(BufferManager bufferManager, DiskManager diskManager, int segment, PageId headerPageId,
+                    int headPointerOffset, int pageSize, Column[] columns, boolean[] encoded) {
+        this.bufferManager = bufferManager;
+        this.diskManager = diskManager;
+        this.segment = segment;
+        this.headerPageId = headerPageId;
+        this.headPointerOffset = headPointerOffset;
+        this.pageSize = pageSize;
+        this.columns = columns;
+        this.encoded = encoded;
+        this.valuesByColumn = new ArrayList<>();
+        this.codesByColumn = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            valuesByColumn.add(new ArrayList<>());
+            codesByColumn.add(new HashMap<>());
+        }
+        this.pages = new ArrayList<>();
+    }
+
+    // Dictionnaire vide : aucune page de métadonnées pour l'instant
+    void init() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        writePageId(headerBuff, headPointerOffset, Relation.DUMMY_PAGE_ID);
+        bufferManager.FreePage(headerPageId, true);
+    }
+
+    void load() {
+        ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+        PageId current = readPageId(headerBuff, headPointerOffset);
+        bufferManager.FreePage(headerPageId, false);
+
+        while (!current.equals(Relation.DUMMY_PAGE_ID)) {
+            pages.add(current);
+            ByteBuffer buff = bufferManager.GetPage(current);
+            int used = buff.getInt(USED_BYTES_OFFSET);
+            int pos = ENTRIES_OFFSET;
+            while (pos < used) {
+                int colIdx = buff.getChar(pos);
+                byte[] bytes = new byte[buff.getChar(pos + 2)];
+                buff.get(pos + ENTRY_HEADER_SIZE, bytes);
+                addInMemory(colIdx, new String(bytes));
+                pos += ENTRY_HEADER_SIZE + bytes.length;
+            }
+            lastPageUsedBytes = used;
+            PageId next = readPageId(buff, NEXT_PAGE_OFFSET);
+            bufferManager.FreePage(current, false);
+            current = next;
+        }
+    }
+
+    boolean isEncoded(int colIdx) {
+        return encoded[colIdx];
+    }
+
+    // Code de la valeur, ajoutée au dictionnaire si elle est nouvelle
+    int encode(int colIdx, Object value) {
+        String normalized = normalize(colIdx, value);
+        Integer code = codesByColumn.get(colIdx).get(normalized);
+        if (code != null) {
+            return code;
+        }
+        if (valuesByColumn.get(colIdx).size() >= MAX_CODES) {
+            throw new RuntimeException("Erreur: dictionnaire plein pour la colonne "
+                    + columns[colIdx].getColumnName() + " (" + MAX_CODES + " valeurs distinctes)");
+        }
+        appendEntry(colIdx, normalized);
+        return addInMemory(colIdx, normalized);
+    }
+
+    // Code de la valeur telle qu'elle est relue (sans espaces de fin), ou -1 si aucun record
+    // ne peut l'avoir
+    int lookup(int colIdx, String value) {
+        Integer code = codesByColumn.get(colIdx).get(value);
+        return code == null ? -1 : code;
+    }
+
+    String decode(int colIdx, int code) {
+        return valuesByColumn.get(colIdx).get(code);
+    }
+
+    List<PageId> getPages() {
+        return new ArrayList<>(pages);
+    }
+
+    // Même normalisation qu'une valeur CHAR écrite puis relue (tronquée à T octets, sans espaces)
+    private String normalize(int colIdx, Object value) {
+        String str = value != null ? (String) value : "";
+        int length = Math.min(str.length(), columns[colIdx].getSizeInBytes());
+        byte[] bytes = new byte[length];
+        for (int j = 0; j < length; j++) {
+            bytes[j] = (byte) str.charAt(j);
+        }
+        return new String(bytes).trim();
+    }
+
+    private int addInMemory(int colIdx, String value) {
+        List<String> values = valuesByColumn.get(colIdx);
+        int code = values.size();
+        values.add(value);
+        codesByColumn.get(colIdx).put(value, code);
+        return code;
+    }
+
+    private void appendEntry(int colIdx, String value) {
+        byte[] bytes = new byte[value.length()];
+        for (int j = 0; j < bytes.length; j++) {
+            bytes[j] = (byte) value.charAt(j);
+        }
+        int entrySize = ENTRY_HEADER_SIZE + bytes.length;
+        if (pages.isEmpty() || lastPageUsedBytes + entrySize > pageSize) {
+            appendPage();
+        }
+
+        PageId last = pages.get(pages.size() - 1);
+        ByteBuffer buff = bufferManager.GetPage(last);
+        int pos = lastPageUsedBytes;
+        buff.putChar(pos, (char) colIdx);
+        buff.putChar(pos + 2, (char) bytes.length);
+        buff.put(pos + ENTRY_HEADER_SIZE, bytes);
+        lastPageUsedBytes += entrySize;
+        buff.putInt(USED_BYTES_OFFSET, lastPageUsedBytes);
+        bufferManager.FreePage(last, true);
+    }
+
+    private void appendPage() {
+        PageId newPage = diskManager.AllocPage(segment);
+        ByteBuffer buff = bufferManager.GetPage(newPage);
+        writePageId(buff, NEXT_PAGE_OFFSET, Relation.DUMMY_PAGE_ID);
+        buff.putInt(USED_BYTES_OFFSET, ENTRIES_OFFSET);
+        bufferManager.FreePage(newPage, true);
+
+        if (pages.isEmpty()) {
+            ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
+            writePageId(headerBuff, headPointerOffset, newPage);
+            bufferManager.FreePage(headerPageId, true);
+        } else {
+            PageId last = pages.get(pages.size() - 1);
+            ByteBuffer lastBuff = bufferManager.GetPage(last);
+            writePageId(lastBuff, NEXT_PAGE_OFFSET, newPage);
+            bufferManager.FreePage(last, true);
+        }
+        pages.add(newPage);
+        lastPageUsedBytes = ENTRIES_OFFSET;
+    }
+
+    private static PageId readPageId(ByteBuffer buff, int offset) {
+        return new PageId(buff.getInt(offset), buff.getInt(offset + 4));
+    }
+
+    private static void writePageId(ByteBuffer buff, int offset, PageId pageId) {
+        buff.putInt(offset, pageId.getFileIdx());
+        buff.putInt(offset + 4, pageId.getPageIdx());
+    }
+}
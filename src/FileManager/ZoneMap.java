@@ -0,0 +1,250 @@
+package FileManager;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Résumé (min, max) des colonnes numériques d'une page de données, gardé dans son
+// entrée du répertoire. Les bornes sont élargies à chaque insertion ou mise à jour et ne
+// sont resserrées que lorsque la zone est recalculée (voir Relation.DeleteRecord) : elles
+// restent un encadrement valide. Seules les colonnes INT et FLOAT sont résumées (au plus
+// MAX_COLUMNS, pour garder des entrées de répertoire compactes).
+// Les colonnes CHAR choisies à la création (option bloom=) ont en plus un filtre de Bloom
+// des valeurs de la page : une égalité sur une valeur absente du filtre écarte la page.
+public class ZoneMap {
+
+    static final int MAX_COLUMNS = 8;
+    static final int MAX_BLOOM_COLUMNS = 4;
+    private static final int BOUND_SIZE = 4; // un int ou un float
+    private static final int BLOOM_HASHES = 3; // positions testées par valeur
+
+    private final int[] zoneIndexByColumn; // -1 si la colonne n'est pas résumée
+    private final int[] columnIndexes;
+    private final boolean[] isFloat;
+    private final double[] mins;
+    private final double[] maxs;
+
+    private final int[] bloomIndexByColumn; // -1 si la colonne n'a pas de filtre
+    private final int[] bloomColumns;
+    private final int[] charSizes; // taille CHAR des colonnes filtrées (valeurs tronquées comme en page)
+    private final long[][] blooms; // un filtre de bloomWords mots par colonne filtrée
+
+    private ZoneMap(int[] zoneIndexByColumn, int[] columnIndexes, boolean[] isFloat,
+                    int[] bloomIndexByColumn, int[] bloomColumns, int[] charSizes, int bloomWords) {
+        this.zoneIndexByColumn = zoneIndexByColumn;
+        this.columnIndexes = columnIndexes;
+        this.isFloat = isFloat;
+        this.mins = new double[columnIndexes.length];
+        this.maxs = new double[columnIndexes.length];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        this.bloomIndexByColumn = bloomIndexByColumn;
+        this.bloomColumns = bloomColumns;
+        this.charSizes = charSizes;
+        this.blooms = new long[bloomColumns.length][bloomWords];
+    }
+
+    // Zone vide pour les colonnes numériques du schéma
+    static ZoneMap forColumns(Column[] columns) {
+        return forColumns(columns, 0, 0);
+    }
+
+    // Zone vide pour les colonnes numériques du schéma, avec un filtre de Bloom de bloomBits
+    // bits (multiple de 64) pour chaque colonne CHAR du masque
+    static ZoneMap forColumns(Column[] columns, long bloomMask, int bloomBits) {
+        int[] zoneIndexByColumn = new int[columns.length];
+        int[] selected = new int[Math.min(columns.length, MAX_COLUMNS)];
+        int count = 0;
+        for (int i = 0; i < columns.length; i++) {
+            ColumnType type = columns[i].getColumnType();
+            if (count < MAX_COLUMNS && (type == ColumnType.INT || type == ColumnType.FLOAT)) {
+                zoneIndexByColumn[i] = count;
+                selected[count++] = i;
+            } else {
+                zoneIndexByColumn[i] = -1;
+            }
+        }
+        int[] columnIndexes = Arrays.copyOf(selected, count);
+        boolean[] isFloat = new boolean[count];
+        for (int z = 0; z < count; z++) {
+            isFloat[z] = columns[columnIndexes[z]].getColumnType() == ColumnType.FLOAT;
+        }
+
+        int[] bloomIndexByColumn = new int[columns.length];
+        int[] bloomSelected = new int[Long.bitCount(bloomMask)];
+        int bloomCount = 0;
+        for (int i = 0; i < columns.length; i++) {
+            bloomIndexByColumn[i] = -1;
+            if (i < Long.SIZE && (bloomMask & (1L << i)) != 0) {
+                bloomIndexByColumn[i] = bloomCount;
+                bloomSelected[bloomCount++] = i;
+            }
+        }
+        int[] charSizes = new int[bloomCount];
+        for (int b = 0; b < bloomCount; b++) {
+            charSizes[b] = columns[bloomSelected[b]].getSizeInBytes();
+        }
+        return new ZoneMap(zoneIndexByColumn, columnIndexes, isFloat,
+                bloomIndexByColumn, bloomSelected, charSizes, bloomBits / Long.SIZE);
+    }
+
+    ZoneMap emptyCopy() {
+        return new ZoneMap(zoneIndexByColumn, columnIndexes, isFloat,
+                bloomIndexByColumn, bloomColumns, charSizes, getBloomWords());
+    }
+
+    ZoneMap copy() {
+        ZoneMap copy = emptyCopy();
+        System.arraycopy(mins, 0, copy.mins, 0, mins.length);
+        System.arraycopy(maxs, 0, copy.maxs, 0, maxs.length);
+        for (int b = 0; b < blooms.length; b++) {
+            System.arraycopy(blooms[b], 0, copy.blooms[b], 0, blooms[b].length);
+        }
+        return copy;
+    }
+
+    // Élargit les bornes avec les valeurs du record ; true si une borne a changé
+    boolean add(Record record) {
+        boolean changed = false;
+        for (int z = 0; z < columnIndexes.length; z++) {
+            int colIdx = columnIndexes[z];
+            if (record.isNull(colIdx)) continue;
+            double v = isFloat[z] ? record.getFloat(colIdx) : record.getInt(colIdx);
+            if (v < mins[z]) {
+                mins[z] = v;
+                changed = true;
+            }
+            if (v > maxs[z]) {
+                maxs[z] = v;
+                changed = true;
+            }
+        }
+        for (int b = 0; b < bloomColumns.length; b++) {
+            int colIdx = bloomColumns[b];
+            if (record.isNull(colIdx)) continue;
+            String value = (String) record.getValue(colIdx);
+            if (value.length() > charSizes[b]) {
+                value = value.substring(0, charSizes[b]);
+            }
+            changed |= addToBloom(blooms[b], value.trim()); // valeur telle que relue en page
+        }
+        return changed;
+    }
+
+    int getSerializedSize() {
+        return columnIndexes.length * 2 * BOUND_SIZE + bloomColumns.length * getBloomWords() * Long.BYTES;
+    }
+
+    void write(ByteBuffer buffer, int pos) {
+        for (int z = 0; z < columnIndexes.length; z++) {
+            int p = pos + z * 2 * BOUND_SIZE;
+            if (isFloat[z]) {
+                buffer.putFloat(p, (float) mins[z]);
+                buffer.putFloat(p + BOUND_SIZE, (float) maxs[z]);
+            } else {
+                buffer.putInt(p, (int) mins[z]); // +/- infini -> Integer.MAX_VALUE / MIN_VALUE
+                buffer.putInt(p + BOUND_SIZE, (int) maxs[z]);
+            }
+        }
+        int p = pos + columnIndexes.length * 2 * BOUND_SIZE;
+        for (long[] bloom : blooms) {
+            for (long word : bloom) {
+                buffer.putLong(p, word);
+                p += Long.BYTES;
+            }
+        }
+    }
+
+    void read(ByteBuffer buffer, int pos) {
+        for (int z = 0; z < columnIndexes.length; z++) {
+            int p = pos + z * 2 * BOUND_SIZE;
+            if (isFloat[z]) {
+                mins[z] = buffer.getFloat(p);
+                maxs[z] = buffer.getFloat(p + BOUND_SIZE);
+            } else {
+                mins[z] = buffer.getInt(p);
+                maxs[z] = buffer.getInt(p + BOUND_SIZE);
+            }
+        }
+        int p = pos + columnIndexes.length * 2 * BOUND_SIZE;
+        for (long[] bloom : blooms) {
+            for (int w = 0; w < bloom.length; w++) {
+                bloom[w] = buffer.getLong(p);
+                p += Long.BYTES;
+            }
+        }
+    }
+
+    // true si la colonne du schéma est résumée dans la zone
+    public boolean covers(int colIdx) {
+        return colIdx >= 0 && colIdx < zoneIndexByColumn.length && zoneIndexByColumn[colIdx] != -1;
+    }
+
+    // Bornes de la colonne (min > max si la page n'a jamais contenu de record)
+    public double getMin(int colIdx) {
+        return mins[zoneIndexByColumn[colIdx]];
+    }
+
+    public double getMax(int colIdx) {
+        return maxs[zoneIndexByColumn[colIdx]];
+    }
+
+    // true si la colonne du schéma a un filtre de Bloom dans la zone
+    public boolean hasBloomFilter(int colIdx) {
+        return colIdx >= 0 && colIdx < bloomIndexByColumn.length && bloomIndexByColumn[colIdx] != -1;
+    }
+
+    boolean hasBloomFilters() {
+        return bloomColumns.length > 0;
+    }
+
+    // false si aucun record de la page n'a cette valeur dans la colonne ; true peut être un
+    // faux positif (ou une valeur supprimée depuis le dernier recalcul de la zone)
+    public boolean mightContain(int colIdx, String value) {
+        long[] bloom = blooms[bloomIndexByColumn[colIdx]];
+        int bits = bloom.length * Long.SIZE;
+        int h1 = mix(value.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Bits par filtre, 0 si aucune colonne n'est filtrée
+    int getBloomBits() {
+        return getBloomWords() * Long.SIZE;
+    }
+
+    private int getBloomWords() {
+        return blooms.length > 0 ? blooms[0].length : 0;
+    }
+
+    // Positionne les bits de la valeur ; true si un bit a changé
+    private static boolean addToBloom(long[] bloom, String value) {
+        int bits = bloom.length * Long.SIZE;
+        int h1 = mix(value.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+        boolean changed = false;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bits);
+            long mask = 1L << bit;
+            if ((bloom[bit >>> 6] & mask) == 0) {
+                bloom[bit >>> 6] |= mask;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // Brassage final de MurmurHash3 (String.hashCode seul varie peu sur les bits hauts)
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
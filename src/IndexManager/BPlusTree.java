@@ -0,0 +1,519 @@
+package IndexManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+import FileManager.RecordId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Arbre B+ stocké dans des pages du BufferManager. Une entrée est une clé encodée (IndexKey)
+// suivie du RID du record : les entrées sont toutes distinctes, même quand la clé se répète,
+// et une suppression retrouve exactement son entrée. Les feuilles sont chaînées dans l'ordre
+// des clés pour les parcours d'intervalles.
+// Les nœuds ne sont pas fusionnés après une suppression (une feuille peut rester vide) : la
+// place est reprise par les insertions suivantes ou par une reconstruction (CREATE INDEX).
+public class BPlusTree {
+
+    // Meta page : [magic (4)][taille des clés (4)][racine (8)][hauteur (4)]
+    private static final int MAGIC = 0x42505452; // "BPTR"
+    private static final int META_MAGIC_OFFSET = 0;
+    private static final int META_KEY_SIZE_OFFSET = 4;
+    private static final int META_ROOT_OFFSET = 8;
+    private static final int META_HEIGHT_OFFSET = 16;
+
+    // Nœud : [feuille (4)][nombre d'entrées (4)][feuille suivante (8)][contenu]
+    // Feuille : n entrées [clé][RID], triées
+    // Nœud interne : [enfant 0 (8)] puis n x [séparateur (une entrée)][enfant (8)] ; l'enfant i
+    // contient les entrées >= séparateur i-1 et < séparateur i
+    private static final int NODE_LEAF_OFFSET = 0;
+    private static final int NODE_COUNT_OFFSET = 4;
+    private static final int NODE_NEXT_OFFSET = 8;
+    private static final int NODE_CONTENT_OFFSET = 16;
+    private static final int CHILD_SIZE = 8;
+    private static final int BULK_FILL_PERCENT = 90; // place laissée dans les nœuds d'une construction en masse
+
+    private static final PageId NO_PAGE = new PageId(-1, -1);
+
+    private final BufferManager bufferManager;
+    private final DiskManager diskManager;
+    private final PageId metaPageId;
+    private final int keySize;
+    private final int entrySize;
+    private final int leafCapacity;
+    private final int innerCapacity; // nombre maximum de séparateurs
+
+    private PageId root;
+    private int height; // 1 : la racine est une feuille
+
+    private BPlusTree(BufferManager bufferManager, DiskManager diskManager, PageId metaPageId,
+                      int keySize, int pageSize) {
+        this.bufferManager = bufferManager;
+        this.diskManager = diskManager;
+        this.metaPageId = metaPageId;
+        this.keySize = keySize;
+        this.entrySize = keySize + IndexKey.RID_SIZE;
+        this.leafCapacity = (pageSize - NODE_CONTENT_OFFSET) / entrySize;
+        this.innerCapacity = (pageSize - NODE_CONTENT_OFFSET - CHILD_SIZE) / (entrySize + CHILD_SIZE);
+        if (innerCapacity < 2) {
+            throw new IllegalArgumentException("Clé de " + keySize + " octets trop grande pour un index avec des pages de "
+                    + pageSize + " octets");
+        }
+    }
+
+    // Nouvel arbre vide (une feuille racine)
+    public static BPlusTree create(BufferManager bufferManager, DiskManager diskManager, int keySize, int pageSize) {
+        PageId metaPageId = diskManager.AllocPage();
+        BPlusTree tree = new BPlusTree(bufferManager, diskManager, metaPageId, keySize, pageSize);
+        tree.root = tree.newNode(true);
+        tree.height = 1;
+        tree.writeMeta();
+        return tree;
+    }
+
+    public static BPlusTree open(BufferManager bufferManager, DiskManager diskManager, PageId metaPageId, int pageSize) {
+        ByteBuffer meta = bufferManager.GetPage(metaPageId);
+        int magic = meta.getInt(META_MAGIC_OFFSET);
+        int keySize = meta.getInt(META_KEY_SIZE_OFFSET);
+        PageId root = readPageId(meta, META_ROOT_OFFSET);
+        int height = meta.getInt(META_HEIGHT_OFFSET);
+        bufferManager.FreePage(metaPageId, false);
+        if (magic != MAGIC) {
+            throw new IllegalStateException("Page " + metaPageId + " : ce n'est pas un arbre B+");
+        }
+        BPlusTree tree = new BPlusTree(bufferManager, diskManager, metaPageId, keySize, pageSize);
+        tree.root = root;
+        tree.height = height;
+        return tree;
+    }
+
+    public PageId getMetaPageId() {
+        return metaPageId;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void insert(byte[] key, RecordId rid) {
+        byte[] entry = IndexKey.entry(key, rid);
+        List<PageId> path = new ArrayList<>();
+        List<Integer> childIndexes = new ArrayList<>();
+        PageId node = root;
+        for (int level = height; level > 1; level--) {
+            ByteBuffer buff = bufferManager.GetPage(node);
+            int idx = childIndexFor(buff, entry);
+            PageId child = readPageId(buff, innerChildPos(idx));
+            bufferManager.FreePage(node, false);
+            path.add(node);
+            childIndexes.add(idx);
+            node = child;
+        }
+
+        ByteBuffer leaf = bufferManager.GetPage(node);
+        int count = leaf.getInt(NODE_COUNT_OFFSET);
+        int pos = leafLowerBound(leaf, count, entry);
+        if (pos < count && compare(leaf, leafPos(pos), entry, entrySize) == 0) {
+            bufferManager.FreePage(node, false); // entrée déjà présente
+            return;
+        }
+        if (count < leafCapacity) {
+            moveBytes(leaf, leafPos(pos), leafPos(pos + 1), (count - pos) * entrySize);
+            leaf.put(leafPos(pos), entry);
+            leaf.putInt(NODE_COUNT_OFFSET, count + 1);
+            bufferManager.FreePage(node, true);
+            return;
+        }
+
+        // Feuille pleine : les entrées sont coupées en deux (ou, pour un ajout après la dernière
+        // entrée, la nouvelle feuille ne reçoit que celle-ci : des clés croissantes remplissent
+        // les feuilles au lieu de les laisser à moitié vides)
+        byte[] all = new byte[(count + 1) * entrySize];
+        leaf.get(leafPos(0), all, 0, pos * entrySize);
+        System.arraycopy(entry, 0, all, pos * entrySize, entrySize);
+        leaf.get(leafPos(pos), all, (pos + 1) * entrySize, (count - pos) * entrySize);
+        int leftCount = (pos == count) ? count : (count + 1) / 2;
+
+        PageId rightId = newNode(true);
+        ByteBuffer right = bufferManager.GetPage(rightId);
+        right.put(leafPos(0), all, leftCount * entrySize, (count + 1 - leftCount) * entrySize);
+        right.putInt(NODE_COUNT_OFFSET, count + 1 - leftCount);
+        writePageId(right, NODE_NEXT_OFFSET, readPageId(leaf, NODE_NEXT_OFFSET));
+        leaf.put(leafPos(0), all, 0, leftCount * entrySize);
+        leaf.putInt(NODE_COUNT_OFFSET, leftCount);
+        writePageId(leaf, NODE_NEXT_OFFSET, rightId);
+        bufferManager.FreePage(rightId, true);
+        bufferManager.FreePage(node, true);
+
+        byte[] separator = new byte[entrySize];
+        System.arraycopy(all, leftCount * entrySize, separator, 0, entrySize);
+        insertInParents(path, childIndexes, separator, rightId);
+    }
+
+    // Retire l'entrée (clé, RID) ; false si elle n'est pas dans l'arbre
+    public boolean delete(byte[] key, RecordId rid) {
+        byte[] entry = IndexKey.entry(key, rid);
+        PageId node = findLeaf(entry);
+        ByteBuffer leaf = bufferManager.GetPage(node);
+        int count = leaf.getInt(NODE_COUNT_OFFSET);
+        int pos = leafLowerBound(leaf, count, entry);
+        if (pos == count || compare(leaf, leafPos(pos), entry, entrySize) != 0) {
+            bufferManager.FreePage(node, false);
+            return false;
+        }
+        moveBytes(leaf, leafPos(pos + 1), leafPos(pos), (count - pos - 1) * entrySize);
+        leaf.putInt(NODE_COUNT_OFFSET, count - 1);
+        bufferManager.FreePage(node, true);
+        return true;
+    }
+
+    // RID des entrées dont la clé est dans [low, high] (bornes incluses, null = pas de borne),
+    // dans l'ordre des clés. Les feuilles sont lues au fur et à mesure.
+    public Iterator<RecordId> range(byte[] low, byte[] high) {
+        return new RangeIterator(low, high);
+    }
+
+    // Construction en masse d'un arbre vide à partir d'entrées (clé + RID) déjà triées :
+    // les feuilles sont remplies de gauche à droite, puis chaque niveau interne au-dessus
+    public void bulkLoad(List<byte[]> sortedEntries) {
+        if (sortedEntries.isEmpty()) {
+            return;
+        }
+        diskManager.DeallocPage(root);
+
+        int perLeaf = Math.max(1, leafCapacity * BULK_FILL_PERCENT / 100);
+        List<PageId> level = new ArrayList<>();
+        List<byte[]> firstEntries = new ArrayList<>();
+        PageId previous = null;
+        for (int start = 0; start < sortedEntries.size(); start += perLeaf) {
+            int end = Math.min(start + perLeaf, sortedEntries.size());
+            PageId leafId = newNode(true);
+            ByteBuffer leaf = bufferManager.GetPage(leafId);
+            for (int i = start; i < end; i++) {
+                leaf.put(leafPos(i - start), sortedEntries.get(i));
+            }
+            leaf.putInt(NODE_COUNT_OFFSET, end - start);
+            bufferManager.FreePage(leafId, true);
+            if (previous != null) {
+                ByteBuffer prev = bufferManager.GetPage(previous);
+                writePageId(prev, NODE_NEXT_OFFSET, leafId);
+                bufferManager.FreePage(previous, true);
+            }
+            previous = leafId;
+            level.add(leafId);
+            firstEntries.add(sortedEntries.get(start));
+        }
+
+        int levels = 1;
+        int perInner = Math.max(2, (innerCapacity + 1) * BULK_FILL_PERCENT / 100);
+        while (level.size() > 1) {
+            List<PageId> upper = new ArrayList<>();
+            List<byte[]> upperFirsts = new ArrayList<>();
+            for (int start = 0; start < level.size(); start += perInner) {
+                int end = Math.min(start + perInner, level.size());
+                PageId nodeId = newNode(false);
+                ByteBuffer node = bufferManager.GetPage(nodeId);
+                writePageId(node, innerChildPos(0), level.get(start));
+                for (int i = start + 1; i < end; i++) {
+                    node.put(innerSepPos(i - start - 1), firstEntries.get(i));
+                    writePageId(node, innerChildPos(i - start), level.get(i));
+                }
+                node.putInt(NODE_COUNT_OFFSET, end - start - 1);
+                bufferManager.FreePage(nodeId, true);
+                upper.add(nodeId);
+                upperFirsts.add(firstEntries.get(start));
+            }
+            level = upper;
+            firstEntries = upperFirsts;
+            levels++;
+        }
+        root = level.get(0);
+        height = levels;
+        writeMeta();
+    }
+
+    // Vide l'arbre (TRUNCATE de la relation) : ne reste qu'une feuille racine vide
+    public void clear() {
+        diskManager.DeallocPages(getNodePages());
+        root = newNode(true);
+        height = 1;
+        writeMeta();
+    }
+
+    // Rend toutes les pages de l'arbre, meta page comprise
+    public void drop() {
+        List<PageId> pages = getNodePages();
+        pages.add(metaPageId);
+        diskManager.DeallocPages(pages);
+    }
+
+    // Pages des nœuds, niveau par niveau depuis la racine
+    public List<PageId> getNodePages() {
+        List<PageId> pages = new ArrayList<>();
+        List<PageId> level = List.of(root);
+        for (int depth = height; depth > 1; depth--) {
+            List<PageId> children = new ArrayList<>();
+            for (PageId nodeId : level) {
+                ByteBuffer node = bufferManager.GetPage(nodeId);
+                int count = node.getInt(NODE_COUNT_OFFSET);
+                for (int i = 0; i <= count; i++) {
+                    children.add(readPageId(node, innerChildPos(i)));
+                }
+                bufferManager.FreePage(nodeId, false);
+            }
+            pages.addAll(level);
+            level = children;
+        }
+        pages.addAll(level);
+        return pages;
+    }
+
+    // Remonte un séparateur (et le nouveau nœud à sa droite) après un split, en coupant à leur
+    // tour les nœuds internes pleins ; une nouvelle racine est créée si la racine a été coupée
+    private void insertInParents(List<PageId> path, List<Integer> childIndexes, byte[] separator, PageId rightChild) {
+        for (int level = path.size() - 1; level >= 0; level--) {
+            PageId nodeId = path.get(level);
+            int idx = childIndexes.get(level);
+            ByteBuffer node = bufferManager.GetPage(nodeId);
+            int count = node.getInt(NODE_COUNT_OFFSET);
+            if (count < innerCapacity) {
+                moveBytes(node, innerSepPos(idx), innerSepPos(idx + 1), (count - idx) * (entrySize + CHILD_SIZE));
+                node.put(innerSepPos(idx), separator);
+                writePageId(node, innerChildPos(idx + 1), rightChild);
+                node.putInt(NODE_COUNT_OFFSET, count + 1);
+                bufferManager.FreePage(nodeId, true);
+                return;
+            }
+
+            // Nœud plein : séparateurs et enfants avec le nouveau, puis coupe autour de celui qui monte
+            int total = count + 1;
+            byte[][] separators = new byte[total][];
+            PageId[] children = new PageId[total + 1];
+            children[0] = readPageId(node, innerChildPos(0));
+            for (int i = 0, src = 0; i < total; i++) {
+                if (i == idx) {
+                    separators[i] = separator;
+                    children[i + 1] = rightChild;
+                } else {
+                    separators[i] = new byte[entrySize];
+                    node.get(innerSepPos(src), separators[i]);
+                    children[i + 1] = readPageId(node, innerChildPos(src + 1));
+                    src++;
+                }
+            }
+            int mid = (idx == count) ? total - 1 : total / 2;
+
+            PageId newNodeId = newNode(false);
+            ByteBuffer newNode = bufferManager.GetPage(newNodeId);
+            writeInner(node, separators, children, 0, mid);
+            writeInner(newNode, separators, children, mid + 1, total);
+            bufferManager.FreePage(newNodeId, true);
+            bufferManager.FreePage(nodeId, true);
+
+            separator = separators[mid];
+            rightChild = newNodeId;
+        }
+
+        PageId newRoot = newNode(false);
+        ByteBuffer rootBuff = bufferManager.GetPage(newRoot);
+        writePageId(rootBuff, innerChildPos(0), root);
+        rootBuff.put(innerSepPos(0), separator);
+        writePageId(rootBuff, innerChildPos(1), rightChild);
+        rootBuff.putInt(NODE_COUNT_OFFSET, 1);
+        bufferManager.FreePage(newRoot, true);
+        root = newRoot;
+        height++;
+        writeMeta();
+    }
+
+    // Écrit les séparateurs [from, to) et les enfants [from, to] dans un nœud interne
+    private void writeInner(ByteBuffer node, byte[][] separators, PageId[] children, int from, int to) {
+        writePageId(node, innerChildPos(0), children[from]);
+        for (int i = from; i < to; i++) {
+            node.put(innerSepPos(i - from), separators[i]);
+            writePageId(node, innerChildPos(i - from + 1), children[i + 1]);
+        }
+        node.putInt(NODE_COUNT_OFFSET, to - from);
+    }
+
+    // Feuille qui contient (ou recevrait) cette entrée ou cette clé
+    private PageId findLeaf(byte[] probe) {
+        PageId node = root;
+        for (int level = height; level > 1; level--) {
+            ByteBuffer buff = bufferManager.GetPage(node);
+            PageId child = readPageId(buff, innerChildPos(childIndexFor(buff, probe)));
+            bufferManager.FreePage(node, false);
+            node = child;
+        }
+        return node;
+    }
+
+    // Nombre de séparateurs <= probe
+    private int childIndexFor(ByteBuffer node, byte[] probe) {
+        int low = 0;
+        int high = node.getInt(NODE_COUNT_OFFSET);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(node, innerSepPos(mid), probe, probe.length) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Première entrée >= probe
+    private int leafLowerBound(ByteBuffer leaf, int count, byte[] probe) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(leaf, leafPos(mid), probe, probe.length) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private PageId newNode(boolean leaf) {
+        PageId pageId = diskManager.AllocPage();
+        ByteBuffer buff = bufferManager.GetPage(pageId);
+        buff.putInt(NODE_LEAF_OFFSET, leaf ? 1 : 0);
+        buff.putInt(NODE_COUNT_OFFSET, 0);
+        writePageId(buff, NODE_NEXT_OFFSET, NO_PAGE);
+        bufferManager.FreePage(pageId, true);
+        return pageId;
+    }
+
+    private void writeMeta() {
+        ByteBuffer meta = bufferManager.GetPage(metaPageId);
+        meta.putInt(META_MAGIC_OFFSET, MAGIC);
+        meta.putInt(META_KEY_SIZE_OFFSET, keySize);
+        writePageId(meta, META_ROOT_OFFSET, root);
+        meta.putInt(META_HEIGHT_OFFSET, height);
+        bufferManager.FreePage(metaPageId, true);
+    }
+
+    private int leafPos(int i) {
+        return NODE_CONTENT_OFFSET + i * entrySize;
+    }
+
+    private int innerSepPos(int i) {
+        return NODE_CONTENT_OFFSET + CHILD_SIZE + i * (entrySize + CHILD_SIZE);
+    }
+
+    private int innerChildPos(int i) {
+        return i == 0 ? NODE_CONTENT_OFFSET : innerSepPos(i - 1) + entrySize;
+    }
+
+    // Comparaison non signée des len octets de la page à partir de pos avec probe
+    private static int compare(ByteBuffer buff, int pos, byte[] probe, int len) {
+        for (int i = 0; i < len; i++) {
+            int diff = (buff.get(pos + i) & 0xFF) - (probe[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static void moveBytes(ByteBuffer buff, int from, int to, int length) {
+        if (length <= 0) return;
+        byte[] tmp = new byte[length];
+        buff.get(from, tmp);
+        buff.put(to, tmp);
+    }
+
+    private static PageId readPageId(ByteBuffer buff, int offset) {
+        return new PageId(buff.getInt(offset), buff.getInt(offset + 4));
+    }
+
+    private static void writePageId(ByteBuffer buff, int offset, PageId pageId) {
+        buff.putInt(offset, pageId.getFileIdx());
+        buff.putInt(offset + 4, pageId.getPageIdx());
+    }
+
+    // Parcours des feuilles à partir de la première entrée >= low : les RID d'une feuille sont
+    // lus d'un coup, aucune page n'est épinglée entre deux appels. La descente n'a lieu
+    // qu'au premier hasNext().
+    private class RangeIterator implements Iterator<RecordId> {
+        private final byte[] low;
+        private final byte[] high;
+        private final ArrayDeque<RecordId> pending = new ArrayDeque<>();
+        private PageId leafId; // prochaine feuille à lire, null en fin de parcours
+        private int pos;
+        private boolean started;
+
+        RangeIterator(byte[] low, byte[] high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!started) {
+                started = true;
+                seek();
+            }
+            while (pending.isEmpty() && leafId != null) {
+                readLeaf();
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public RecordId next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+
+        private void seek() {
+            byte[] probe = low != null ? IndexKey.lowestEntry(low) : null;
+            PageId node = root;
+            for (int level = height; level > 1; level--) {
+                ByteBuffer buff = bufferManager.GetPage(node);
+                PageId child = readPageId(buff, innerChildPos(probe != null ? childIndexFor(buff, probe) : 0));
+                bufferManager.FreePage(node, false);
+                node = child;
+            }
+            leafId = node;
+            pos = 0;
+            if (probe != null) {
+                ByteBuffer leaf = bufferManager.GetPage(leafId);
+                pos = leafLowerBound(leaf, leaf.getInt(NODE_COUNT_OFFSET), probe);
+                bufferManager.FreePage(leafId, false);
+            }
+        }
+
+        private void readLeaf() {
+            PageId current = leafId;
+            ByteBuffer leaf = bufferManager.GetPage(current);
+            int count = leaf.getInt(NODE_COUNT_OFFSET);
+            byte[] rid = new byte[IndexKey.RID_SIZE];
+            for (; pos < count; pos++) {
+                int entryPos = leafPos(pos);
+                if (high != null && compare(leaf, entryPos, high, keySize) > 0) {
+                    bufferManager.FreePage(current, false);
+                    leafId = null;
+                    return;
+                }
+                leaf.get(entryPos + keySize, rid);
+                pending.add(IndexKey.readRid(rid, 0));
+            }
+            PageId next = readPageId(leaf, NODE_NEXT_OFFSET);
+            bufferManager.FreePage(current, false);
+            leafId = next.equals(NO_PAGE) ? null : next;
+            pos = 0;
+        }
+    }
+}
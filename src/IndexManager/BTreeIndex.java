@@ -0,0 +1,187 @@
+package IndexManager;
+
+import BufferManager.BufferManager;
+import DiskManager.PageId;
+import FileManager.ColumnType;
+import FileManager.Record;
+import FileManager.RecordId;
+import FileManager.Relation;
+import QueryManager.Condition;
+import QueryManager.IRecordIterator;
+import QueryManager.RelationScanner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Index par arbre B+ (USING BTREE, par défaut) : égalités et IN sur toutes les colonnes
+// indexables, intervalles (<, <=, >, >=) sur les colonnes INT et FLOAT.
+// Les clés CHAR sont complétées par des espaces : leur ordre d'octets ne suit pas toujours
+// String.compareTo, les intervalles sur une colonne CHAR passent donc par un parcours.
+public class BTreeIndex extends Index {
+
+    private final BPlusTree tree;
+
+    BTreeIndex(String name, Relation relation, int colIdx, BufferManager bufferManager, BPlusTree tree) {
+        super(name, relation, colIdx, bufferManager);
+        this.tree = tree;
+    }
+
+    @Override
+    public String getKind() {
+        return BTREE;
+    }
+
+    @Override
+    public PageId getMetaPageId() {
+        return tree.getMetaPageId();
+    }
+
+    BPlusTree getTree() {
+        return tree;
+    }
+
+    @Override
+    public void recordInserted(Record record, RecordId rid) {
+        tree.insert(IndexKey.fromRecord(record, getColumnIndex(), getColumn()), rid);
+    }
+
+    @Override
+    public void recordDeleted(Record record, RecordId rid) {
+        tree.delete(IndexKey.fromRecord(record, getColumnIndex(), getColumn()), rid);
+    }
+
+    @Override
+    public void clear() {
+        tree.clear();
+    }
+
+    @Override
+    protected void dropPages() {
+        tree.drop();
+    }
+
+    // Les entrées des records existants sont triées en mémoire puis chargées feuille par feuille
+    @Override
+    public void build() {
+        List<byte[]> entries = new ArrayList<>();
+        IRecordIterator scanner = new RelationScanner(getRelation(), getBufferManager());
+        Record record;
+        while ((record = scanner.GetNextRecord()) != null) {
+            entries.add(IndexKey.entry(IndexKey.fromRecord(record, getColumnIndex(), getColumn()), record.getRid()));
+        }
+        scanner.Close();
+        entries.sort((a, b) -> IndexKey.compare(a, 0, b, 0, a.length));
+        tree.bulkLoad(entries);
+        getRelation().addIndex(this);
+    }
+
+    @Override
+    public Iterator<RecordId> lookup(List<Condition> conditions) {
+        if (conditions == null) {
+            return null;
+        }
+        ColumnType type = getColumn().getColumnType();
+        int col = getColumnIndex();
+
+        // Valeurs fixées par = ou IN (pas pour FLOAT : l'égalité y tolère un écart de 0.0001)
+        List<Object> values = null;
+        double[] range = {Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY};
+        for (Condition cond : conditions) {
+            if (type != ColumnType.FLOAT) {
+                List<Object> possible = cond.getPossibleValues(col);
+                if (possible != null) {
+                    values = (values == null) ? new ArrayList<>(possible) : intersect(values, possible);
+                }
+            }
+            if (type != ColumnType.CHAR) {
+                cond.narrowRange(col, range);
+            }
+        }
+
+        if (values != null) {
+            List<byte[]> keys = new ArrayList<>();
+            for (Object value : values) {
+                if (type == ColumnType.INT) {
+                    int v = ((Number) value).intValue();
+                    if (v < range[0] || v > range[1]) continue;
+                }
+                byte[] key = IndexKey.fromValue(value, getColumn());
+                if (!containsKey(keys, key)) {
+                    keys.add(key);
+                }
+            }
+            keys.sort((a, b) -> IndexKey.compare(a, 0, b, 0, a.length));
+            return new PointIterator(keys);
+        }
+        if (range[0] == Double.NEGATIVE_INFINITY && range[1] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        if (range[0] > range[1]) {
+            return Collections.emptyIterator();
+        }
+        byte[] low = null;
+        byte[] high = null;
+        if (type == ColumnType.INT) {
+            if (range[0] > Integer.MAX_VALUE || range[1] < Integer.MIN_VALUE) {
+                return Collections.emptyIterator();
+            }
+            if (range[0] > Integer.MIN_VALUE) low = IndexKey.encodeInt((int) Math.ceil(range[0]));
+            if (range[1] < Integer.MAX_VALUE) high = IndexKey.encodeInt((int) Math.floor(range[1]));
+        } else {
+            // Bornes élargies d'un cran : la conversion en float ne doit écarter aucune valeur
+            if (range[0] != Double.NEGATIVE_INFINITY) low = IndexKey.encodeFloat(Math.nextDown((float) range[0]));
+            if (range[1] != Double.POSITIVE_INFINITY) high = IndexKey.encodeFloat(Math.nextUp((float) range[1]));
+        }
+        return tree.range(low, high);
+    }
+
+    private static List<Object> intersect(List<Object> values, List<Object> others) {
+        List<Object> result = new ArrayList<>();
+        for (Object value : values) {
+            if (others.contains(value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private static boolean containsKey(List<byte[]> keys, byte[] key) {
+        for (byte[] k : keys) {
+            if (IndexKey.compare(k, 0, key, 0, key.length) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Enchaîne les recherches des clés, dans l'ordre, sans les lancer d'avance
+    private class PointIterator implements Iterator<RecordId> {
+        private final List<byte[]> keys;
+        private int nextKey;
+        private Iterator<RecordId> current = Collections.emptyIterator();
+
+        PointIterator(List<byte[]> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && nextKey < keys.size()) {
+                byte[] key = keys.get(nextKey++);
+                current = tree.range(key, key);
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public RecordId next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package IndexManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+import FileManager.Record;
+import FileManager.RecordId;
+import FileManager.Relation;
+import QueryManager.Condition;
+import QueryManager.IRecordIterator;
+import QueryManager.RelationScanner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Index bitmap (CREATE BITMAP INDEX) pour une colonne à peu de valeurs distinctes : une
+// RowBitmap des RID par valeur. Les conditions = et IN se résolvent en combinant les bitmaps
+// (OR des valeurs d'un IN, AND des conditions), et plusieurs index bitmap d'une même table se
+// combinent avant de lire la moindre page de données (voir intersect).
+// Les bitmaps sont gardées en mémoire et écrites dans une chaîne de pages par flush() (à la
+// sauvegarde du catalogue) ; la meta page désigne la première page de la chaîne.
+// TrigramIndex réutilise ce stockage avec plusieurs clés (trigrammes) par record.
+public class BitmapIndex extends Index {
+
+    // Meta page : [magic (4)][taille des clés (4)][première page de données (8)][octets écrits (4)]
+    // Page de données : [page suivante (8)][octets]
+    private static final int MAGIC = 0x424D4958; // "BMIX"
+    private static final int META_MAGIC_OFFSET = 0;
+    private static final int META_KEY_SIZE_OFFSET = 4;
+    private static final int META_FIRST_PAGE_OFFSET = 8;
+    private static final int META_LENGTH_OFFSET = 16;
+    private static final int DATA_NEXT_OFFSET = 0;
+    private static final int DATA_CONTENT_OFFSET = 8;
+    private static final PageId NO_PAGE = new PageId(-1, -1);
+
+    private final DiskManager diskManager;
+    private final PageId metaPageId;
+    private final int pageSize;
+    private final TreeMap<byte[], RowBitmap> bitmaps = new TreeMap<>((a, b) -> IndexKey.compare(a, 0, b, 0, a.length));
+    private final List<PageId> dataPages = new ArrayList<>();
+    private boolean dirty;
+
+    BitmapIndex(String name, Relation relation, int colIdx, BufferManager bufferManager,
+                DiskManager diskManager, PageId metaPageId, int pageSize) {
+        super(name, relation, colIdx, bufferManager);
+        this.diskManager = diskManager;
+        this.metaPageId = metaPageId;
+        this.pageSize = pageSize;
+    }
+
+    static BitmapIndex create(String name, Relation relation, int colIdx, BufferManager bufferManager,
+                              DiskManager diskManager, int pageSize) {
+        BitmapIndex index = new BitmapIndex(name, relation, colIdx, bufferManager, diskManager,
+                diskManager.AllocPage(), pageSize);
+        index.init();
+        return index;
+    }
+
+    static BitmapIndex open(String name, Relation relation, int colIdx, BufferManager bufferManager,
+                            DiskManager diskManager, PageId metaPageId, int pageSize) {
+        BitmapIndex index = new BitmapIndex(name, relation, colIdx, bufferManager, diskManager, metaPageId, pageSize);
+        index.load();
+        return index;
+    }
+
+    @Override
+    public String getKind() {
+        return BITMAP;
+    }
+
+    @Override
+    public PageId getMetaPageId() {
+        return metaPageId;
+    }
+
+    // Nombre de valeurs distinctes indexées
+    public int getValueCount() {
+        return bitmaps.size();
+    }
+
+    // Clés d'un record : sa valeur dans la colonne
+    List<byte[]> keysOf(Record record) {
+        return List.of(IndexKey.fromRecord(record, getColumnIndex(), getColumn()));
+    }
+
+    int getKeySize() {
+        return IndexKey.size(getColumn());
+    }
+
+    // Bitmap d'une clé, null si aucun record ne l'a
+    RowBitmap getBitmap(byte[] key) {
+        return bitmaps.get(key);
+    }
+
+    @Override
+    public void recordInserted(Record record, RecordId rid) {
+        for (byte[] key : keysOf(record)) {
+            RowBitmap bitmap = bitmaps.get(key);
+            if (bitmap == null) {
+                bitmap = new RowBitmap();
+                bitmaps.put(key, bitmap);
+            }
+            bitmap.add(rid);
+        }
+        dirty = true;
+    }
+
+    @Override
+    public void recordDeleted(Record record, RecordId rid) {
+        for (byte[] key : keysOf(record)) {
+            RowBitmap bitmap = bitmaps.get(key);
+            if (bitmap != null) {
+                bitmap.remove(rid);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(key);
+                }
+                dirty = true;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        bitmaps.clear();
+        dirty = true;
+    }
+
+    @Override
+    public void build() {
+        IRecordIterator scanner = new RelationScanner(getRelation(), getBufferManager());
+        Record record;
+        while ((record = scanner.GetNextRecord()) != null) {
+            recordInserted(record, record.getRid());
+        }
+        scanner.Close();
+        getRelation().addIndex(this);
+        flush();
+    }
+
+    @Override
+    public Iterator<RecordId> lookup(List<Condition> conditions) {
+        RowBitmap matches = matching(conditions);
+        return matches != null ? matches.iterator() : null;
+    }
+
+    // RID possibles d'après les conditions sur la colonne, null si aucune ne la fixe
+    public RowBitmap matching(List<Condition> conditions) {
+        if (conditions == null) {
+            return null;
+        }
+        RowBitmap result = null;
+        for (Condition cond : conditions) {
+            List<Object> values = cond.getPossibleValues(getColumnIndex());
+            if (values == null) continue;
+            RowBitmap union = new RowBitmap();
+            for (Object value : values) {
+                RowBitmap bitmap = getBitmap(IndexKey.fromValue(value, getColumn()));
+                if (bitmap != null) {
+                    union = union.or(bitmap);
+                }
+            }
+            result = (result == null) ? union : result.and(union);
+        }
+        return result;
+    }
+
+    // AND des bitmaps de tous les index qui s'appliquent aux conditions (index d'une même
+    // relation), null si aucun ne s'applique
+    public static RowBitmap intersect(List<BitmapIndex> indexes, List<Condition> conditions) {
+        RowBitmap result = null;
+        for (BitmapIndex index : indexes) {
+            RowBitmap matches = index.matching(conditions);
+            if (matches != null) {
+                result = (result == null) ? matches : result.and(matches);
+            }
+        }
+        return result;
+    }
+
+    // Réécrit les bitmaps dans la chaîne de pages si elles ont changé depuis la dernière écriture
+    @Override
+    public void flush() {
+        if (!dirty) {
+            return;
+        }
+        byte[] bytes;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(bitmaps.size());
+            for (Map.Entry<byte[], RowBitmap> entry : bitmaps.entrySet()) {
+                out.write(entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+            out.flush();
+            bytes = buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int perPage = pageSize - DATA_CONTENT_OFFSET;
+        int pagesNeeded = (bytes.length + perPage - 1) / perPage;
+        while (dataPages.size() < pagesNeeded) {
+            dataPages.add(diskManager.AllocPage());
+        }
+        if (dataPages.size() > pagesNeeded) {
+            List<PageId> extra = dataPages.subList(pagesNeeded, dataPages.size());
+            diskManager.DeallocPages(new ArrayList<>(extra));
+            extra.clear();
+        }
+        for (int p = 0; p < pagesNeeded; p++) {
+            PageId pageId = dataPages.get(p);
+            ByteBuffer page = getBufferManager().GetPage(pageId);
+            writePageId(page, DATA_NEXT_OFFSET, p + 1 < pagesNeeded ? dataPages.get(p + 1) : NO_PAGE);
+            int from = p * perPage;
+            page.put(DATA_CONTENT_OFFSET, bytes, from, Math.min(perPage, bytes.length - from));
+            getBufferManager().FreePage(pageId, true);
+        }
+
+        ByteBuffer meta = getBufferManager().GetPage(metaPageId);
+        meta.putInt(META_MAGIC_OFFSET, MAGIC);
+        meta.putInt(META_KEY_SIZE_OFFSET, getKeySize());
+        writePageId(meta, META_FIRST_PAGE_OFFSET, dataPages.isEmpty() ? NO_PAGE : dataPages.get(0));
+        meta.putInt(META_LENGTH_OFFSET, bytes.length);
+        getBufferManager().FreePage(metaPageId, true);
+        dirty = false;
+    }
+
+    // Meta page d'un nouvel index (aucune bitmap)
+    void init() {
+        dirty = true;
+        flush();
+    }
+
+    @Override
+    protected void dropPages() {
+        List<PageId> pages = new ArrayList<>(dataPages);
+        pages.add(metaPageId);
+        diskManager.DeallocPages(pages);
+        dataPages.clear();
+        bitmaps.clear();
+        dirty = false;
+    }
+
+    void load() {
+        ByteBuffer meta = getBufferManager().GetPage(metaPageId);
+        int magic = meta.getInt(META_MAGIC_OFFSET);
+        int keySize = meta.getInt(META_KEY_SIZE_OFFSET);
+        PageId pageId = readPageId(meta, META_FIRST_PAGE_OFFSET);
+        int length = meta.getInt(META_LENGTH_OFFSET);
+        getBufferManager().FreePage(metaPageId, false);
+        if (magic != MAGIC || keySize != getKeySize()) {
+            throw new IllegalStateException("Page " + metaPageId + " : ce n'est pas un index bitmap");
+        }
+
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (!pageId.equals(NO_PAGE)) {
+            dataPages.add(pageId);
+            ByteBuffer page = getBufferManager().GetPage(pageId);
+            int chunk = Math.min(pageSize - DATA_CONTENT_OFFSET, length - read);
+            page.get(DATA_CONTENT_OFFSET, bytes, read, chunk);
+            read += chunk;
+            PageId next = readPageId(page, DATA_NEXT_OFFSET);
+            getBufferManager().FreePage(pageId, false);
+            pageId = next;
+        }
+
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                byte[] key = new byte[keySize];
+                in.readFully(key);
+                bitmaps.put(key, RowBitmap.readFrom(in));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PageId readPageId(ByteBuffer buff, int offset) {
+        return new PageId(buff.getInt(offset), buff.getInt(offset + 4));
+    }
+
+    private static void writePageId(ByteBuffer buff, int offset, PageId pageId) {
+        buff.putInt(offset, pageId.getFileIdx());
+        buff.putInt(offset + 4, pageId.getPageIdx());
+    }
+}
@@ -0,0 +1,429 @@
+package IndexManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+import FileManager.RecordId;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Hachage extensible dans des pages du BufferManager. Le répertoire (2^profondeur globale
+// pointeurs de buckets) est gardé en mémoire et écrit dans des pages chaînées : une recherche
+// ne lit que le bucket de la clé. Un bucket plein est coupé en deux selon un bit de plus du
+// hachage, et seul le répertoire double quand sa profondeur ne suffit plus (pas de rehachage
+// complet). Les entrées d'une même clé ne peuvent pas être séparées : quand toutes les entrées
+// d'un bucket plein ont le même hachage, il est prolongé par des pages de débordement.
+public class ExtendibleHash {
+
+    // Meta page : [magic (4)][taille des clés (4)][profondeur globale (4)][première page du répertoire (8)]
+    private static final int MAGIC = 0x45485348; // "EHSH"
+    private static final int META_MAGIC_OFFSET = 0;
+    private static final int META_KEY_SIZE_OFFSET = 4;
+    private static final int META_DEPTH_OFFSET = 8;
+    private static final int META_DIRECTORY_OFFSET = 12;
+
+    // Page du répertoire : [page suivante (8)][pointeurs de buckets (8 chacun)]
+    private static final int DIR_NEXT_OFFSET = 0;
+    private static final int DIR_ENTRIES_OFFSET = 8;
+
+    // Bucket : [profondeur locale (4)][nombre d'entrées (4)][page de débordement (8)][entrées clé + RID]
+    private static final int BUCKET_DEPTH_OFFSET = 0;
+    private static final int BUCKET_COUNT_OFFSET = 4;
+    private static final int BUCKET_OVERFLOW_OFFSET = 8;
+    private static final int BUCKET_ENTRIES_OFFSET = 16;
+
+    private static final int MAX_DEPTH = 24; // au-delà, débordement plutôt que doubler le répertoire
+    private static final PageId NO_PAGE = new PageId(-1, -1);
+
+    private final BufferManager bufferManager;
+    private final DiskManager diskManager;
+    private final PageId metaPageId;
+    private final int keySize;
+    private final int entrySize;
+    private final int bucketCapacity;
+    private final int pointersPerDirectoryPage;
+
+    private int globalDepth;
+    private PageId[] directory; // bucket de chaque valeur des globalDepth bits de poids faible du hachage
+    private final List<PageId> directoryPages = new ArrayList<>();
+
+    private ExtendibleHash(BufferManager bufferManager, DiskManager diskManager, PageId metaPageId,
+                           int keySize, int pageSize) {
+        this.bufferManager = bufferManager;
+        this.diskManager = diskManager;
+        this.metaPageId = metaPageId;
+        this.keySize = keySize;
+        this.entrySize = keySize + IndexKey.RID_SIZE;
+        this.bucketCapacity = (pageSize - BUCKET_ENTRIES_OFFSET) / entrySize;
+        this.pointersPerDirectoryPage = (pageSize - DIR_ENTRIES_OFFSET) / 8;
+        if (bucketCapacity < 2) {
+            throw new IllegalArgumentException("Clé de " + keySize + " octets trop grande pour un index avec des pages de "
+                    + pageSize + " octets");
+        }
+    }
+
+    // Nouvel index vide : un seul bucket, profondeur 0
+    public static ExtendibleHash create(BufferManager bufferManager, DiskManager diskManager, int keySize, int pageSize) {
+        PageId metaPageId = diskManager.AllocPage();
+        ExtendibleHash hash = new ExtendibleHash(bufferManager, diskManager, metaPageId, keySize, pageSize);
+        hash.init();
+        return hash;
+    }
+
+    public static ExtendibleHash open(BufferManager bufferManager, DiskManager diskManager, PageId metaPageId, int pageSize) {
+        ByteBuffer meta = bufferManager.GetPage(metaPageId);
+        int magic = meta.getInt(META_MAGIC_OFFSET);
+        int keySize = meta.getInt(META_KEY_SIZE_OFFSET);
+        int depth = meta.getInt(META_DEPTH_OFFSET);
+        PageId firstDirectoryPage = readPageId(meta, META_DIRECTORY_OFFSET);
+        bufferManager.FreePage(metaPageId, false);
+        if (magic != MAGIC) {
+            throw new IllegalStateException("Page " + metaPageId + " : ce n'est pas un index par hachage");
+        }
+        ExtendibleHash hash = new ExtendibleHash(bufferManager, diskManager, metaPageId, keySize, pageSize);
+        hash.globalDepth = depth;
+        hash.loadDirectory(firstDirectoryPage);
+        return hash;
+    }
+
+    public PageId getMetaPageId() {
+        return metaPageId;
+    }
+
+    public int getGlobalDepth() {
+        return globalDepth;
+    }
+
+    public void insert(byte[] key, RecordId rid) {
+        insertEntry(IndexKey.entry(key, rid));
+    }
+
+    // Insertion en masse d'entrées (clé + RID) : triées sur les bits de poids faible de leur
+    // hachage, celles d'un même bucket arrivent à la suite et chaque bucket n'est lu qu'une fois
+    public void insertAll(List<byte[]> entries) {
+        List<byte[]> sorted = new ArrayList<>(entries);
+        sorted.sort((a, b) -> Integer.compareUnsigned(Integer.reverse(hash(a)), Integer.reverse(hash(b))));
+        for (byte[] entry : sorted) {
+            insertEntry(entry);
+        }
+    }
+
+    private void insertEntry(byte[] entry) {
+        int hash = hash(entry);
+        while (true) {
+            PageId bucketId = directory[hash & mask()];
+            ByteBuffer bucket = bufferManager.GetPage(bucketId);
+            int count = bucket.getInt(BUCKET_COUNT_OFFSET);
+            if (tryAppend(bucket, entry)) {
+                bufferManager.FreePage(bucketId, true);
+                return;
+            }
+            int localDepth = bucket.getInt(BUCKET_DEPTH_OFFSET);
+            boolean splittable = localDepth < MAX_DEPTH && !allSameHash(bucket, count, hash);
+            bufferManager.FreePage(bucketId, false);
+            if (!splittable) {
+                appendOverflow(bucketId, entry);
+                return;
+            }
+            split(bucketId, localDepth, hash);
+        }
+    }
+
+    // Retire l'entrée (clé, RID) ; false si elle n'est pas dans l'index
+    public boolean delete(byte[] key, RecordId rid) {
+        byte[] entry = IndexKey.entry(key, rid);
+        PageId pageId = directory[hash(key) & mask()];
+        while (!pageId.equals(NO_PAGE)) {
+            ByteBuffer page = bufferManager.GetPage(pageId);
+            int count = page.getInt(BUCKET_COUNT_OFFSET);
+            for (int i = 0; i < count; i++) {
+                if (compare(page, entryPos(i), entry, entrySize) == 0) {
+                    // La dernière entrée prend sa place : l'ordre dans un bucket n'a pas d'importance
+                    byte[] last = new byte[entrySize];
+                    page.get(entryPos(count - 1), last);
+                    page.put(entryPos(i), last);
+                    page.putInt(BUCKET_COUNT_OFFSET, count - 1);
+                    bufferManager.FreePage(pageId, true);
+                    return true;
+                }
+            }
+            PageId next = readPageId(page, BUCKET_OVERFLOW_OFFSET);
+            bufferManager.FreePage(pageId, false);
+            pageId = next;
+        }
+        return false;
+    }
+
+    // RID des entrées de cette clé : le bucket (et ses éventuels débordements) seulement
+    public List<RecordId> lookup(byte[] key) {
+        List<RecordId> rids = new ArrayList<>();
+        byte[] rid = new byte[IndexKey.RID_SIZE];
+        PageId pageId = directory[hash(key) & mask()];
+        while (!pageId.equals(NO_PAGE)) {
+            ByteBuffer page = bufferManager.GetPage(pageId);
+            int count = page.getInt(BUCKET_COUNT_OFFSET);
+            for (int i = 0; i < count; i++) {
+                int pos = entryPos(i);
+                if (compare(page, pos, key, keySize) == 0) {
+                    page.get(pos + keySize, rid);
+                    rids.add(IndexKey.readRid(rid, 0));
+                }
+            }
+            PageId next = readPageId(page, BUCKET_OVERFLOW_OFFSET);
+            bufferManager.FreePage(pageId, false);
+            pageId = next;
+        }
+        return rids;
+    }
+
+    // Vide l'index (TRUNCATE de la relation)
+    public void clear() {
+        diskManager.DeallocPages(getPages());
+        directoryPages.clear();
+        init();
+    }
+
+    // Rend toutes les pages de l'index, meta page comprise
+    public void drop() {
+        List<PageId> pages = getPages();
+        pages.add(metaPageId);
+        diskManager.DeallocPages(pages);
+    }
+
+    // Buckets (débordements compris) et pages du répertoire
+    public List<PageId> getPages() {
+        List<PageId> pages = new ArrayList<>();
+        for (PageId bucketId : new LinkedHashSet<>(Arrays.asList(directory))) { // un bucket peut avoir plusieurs pointeurs
+            PageId pageId = bucketId;
+            while (!pageId.equals(NO_PAGE)) {
+                pages.add(pageId);
+                ByteBuffer page = bufferManager.GetPage(pageId);
+                PageId next = readPageId(page, BUCKET_OVERFLOW_OFFSET);
+                bufferManager.FreePage(pageId, false);
+                pageId = next;
+            }
+        }
+        pages.addAll(directoryPages);
+        return pages;
+    }
+
+    private void init() {
+        globalDepth = 0;
+        directory = new PageId[] { newBucket(0) };
+        writeDirectory(null);
+    }
+
+    // Coupe un bucket plein : ses entrées (débordements compris) dont le bit localDepth du
+    // hachage vaut 1 passent dans un nouveau bucket, et les pointeurs du répertoire
+    // correspondants sont mis à jour
+    private void split(PageId bucketId, int localDepth, int hash) {
+        boolean doubled = localDepth == globalDepth;
+        if (doubled) {
+            PageId[] larger = new PageId[directory.length * 2];
+            System.arraycopy(directory, 0, larger, 0, directory.length);
+            System.arraycopy(directory, 0, larger, directory.length, directory.length);
+            directory = larger;
+            globalDepth++;
+        }
+
+        List<byte[]> entries = new ArrayList<>();
+        List<PageId> overflowPages = new ArrayList<>();
+        PageId pageId = bucketId;
+        while (!pageId.equals(NO_PAGE)) {
+            ByteBuffer page = bufferManager.GetPage(pageId);
+            int count = page.getInt(BUCKET_COUNT_OFFSET);
+            for (int i = 0; i < count; i++) {
+                byte[] entry = new byte[entrySize];
+                page.get(entryPos(i), entry);
+                entries.add(entry);
+            }
+            PageId next = readPageId(page, BUCKET_OVERFLOW_OFFSET);
+            if (pageId.equals(bucketId)) {
+                page.putInt(BUCKET_DEPTH_OFFSET, localDepth + 1);
+                page.putInt(BUCKET_COUNT_OFFSET, 0);
+                writePageId(page, BUCKET_OVERFLOW_OFFSET, NO_PAGE);
+                bufferManager.FreePage(pageId, true);
+            } else {
+                overflowPages.add(pageId);
+                bufferManager.FreePage(pageId, false);
+            }
+            pageId = next;
+        }
+        diskManager.DeallocPages(overflowPages);
+
+        PageId newBucketId = newBucket(localDepth + 1);
+        for (byte[] entry : entries) {
+            appendOverflow((hash(entry) >>> localDepth & 1) == 0 ? bucketId : newBucketId, entry);
+        }
+
+        // Pointeurs du bucket : mêmes localDepth bits de poids faible que le hachage de la clé ;
+        // ceux dont le bit suivant vaut 1 désignent maintenant le nouveau bucket
+        int first = (hash & ((1 << localDepth) - 1)) | (1 << localDepth);
+        Set<Integer> changedPages = new HashSet<>();
+        for (int i = first; i < directory.length; i += 1 << (localDepth + 1)) {
+            directory[i] = newBucketId;
+            changedPages.add(i / pointersPerDirectoryPage);
+        }
+        writeDirectory(doubled ? null : changedPages);
+    }
+
+    // Entrée ajoutée dans le bucket ou dans sa première page de débordement ; quand les deux
+    // sont pleines, une nouvelle page est insérée en tête de la chaîne (ajout sans la parcourir)
+    private void appendOverflow(PageId bucketId, byte[] entry) {
+        ByteBuffer bucket = bufferManager.GetPage(bucketId);
+        if (tryAppend(bucket, entry)) {
+            bufferManager.FreePage(bucketId, true);
+            return;
+        }
+        PageId first = readPageId(bucket, BUCKET_OVERFLOW_OFFSET);
+        if (!first.equals(NO_PAGE)) {
+            ByteBuffer page = bufferManager.GetPage(first);
+            boolean added = tryAppend(page, entry);
+            bufferManager.FreePage(first, added);
+            if (added) {
+                bufferManager.FreePage(bucketId, false);
+                return;
+            }
+        }
+        PageId pageId = newBucket(bucket.getInt(BUCKET_DEPTH_OFFSET));
+        ByteBuffer page = bufferManager.GetPage(pageId);
+        writePageId(page, BUCKET_OVERFLOW_OFFSET, first);
+        tryAppend(page, entry);
+        bufferManager.FreePage(pageId, true);
+        writePageId(bucket, BUCKET_OVERFLOW_OFFSET, pageId);
+        bufferManager.FreePage(bucketId, true);
+    }
+
+    private boolean tryAppend(ByteBuffer page, byte[] entry) {
+        int count = page.getInt(BUCKET_COUNT_OFFSET);
+        if (count == bucketCapacity) {
+            return false;
+        }
+        page.put(entryPos(count), entry);
+        page.putInt(BUCKET_COUNT_OFFSET, count + 1);
+        return true;
+    }
+
+    // true si un split ne séparerait rien : les entrées du bucket et la nouvelle ont le même hachage
+    private boolean allSameHash(ByteBuffer bucket, int count, int first) {
+        byte[] key = new byte[keySize];
+        for (int i = 0; i < count; i++) {
+            bucket.get(entryPos(i), key);
+            if (hash(key) != first) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Écrit les pages du répertoire qui ont changé (toutes si null) ; les pages manquantes sont
+    // ajoutées à la chaîne
+    private void writeDirectory(Set<Integer> changedPages) {
+        int pagesNeeded = (directory.length + pointersPerDirectoryPage - 1) / pointersPerDirectoryPage;
+        while (directoryPages.size() < pagesNeeded) {
+            PageId pageId = diskManager.AllocPage();
+            if (!directoryPages.isEmpty()) {
+                PageId last = directoryPages.get(directoryPages.size() - 1);
+                ByteBuffer lastPage = bufferManager.GetPage(last);
+                writePageId(lastPage, DIR_NEXT_OFFSET, pageId);
+                bufferManager.FreePage(last, true);
+            }
+            directoryPages.add(pageId);
+            ByteBuffer page = bufferManager.GetPage(pageId);
+            writePageId(page, DIR_NEXT_OFFSET, NO_PAGE);
+            bufferManager.FreePage(pageId, true);
+        }
+        for (int p = 0; p < pagesNeeded; p++) {
+            if (changedPages != null && !changedPages.contains(p)) continue;
+            PageId pageId = directoryPages.get(p);
+            ByteBuffer page = bufferManager.GetPage(pageId);
+            int from = p * pointersPerDirectoryPage;
+            int to = Math.min(from + pointersPerDirectoryPage, directory.length);
+            for (int i = from; i < to; i++) {
+                writePageId(page, DIR_ENTRIES_OFFSET + (i - from) * 8, directory[i]);
+            }
+            bufferManager.FreePage(pageId, true);
+        }
+
+        ByteBuffer meta = bufferManager.GetPage(metaPageId);
+        meta.putInt(META_MAGIC_OFFSET, MAGIC);
+        meta.putInt(META_KEY_SIZE_OFFSET, keySize);
+        meta.putInt(META_DEPTH_OFFSET, globalDepth);
+        writePageId(meta, META_DIRECTORY_OFFSET, directoryPages.get(0));
+        bufferManager.FreePage(metaPageId, true);
+    }
+
+    private void loadDirectory(PageId firstPage) {
+        directory = new PageId[1 << globalDepth];
+        PageId pageId = firstPage;
+        int loaded = 0;
+        while (!pageId.equals(NO_PAGE)) {
+            directoryPages.add(pageId);
+            ByteBuffer page = bufferManager.GetPage(pageId);
+            for (int j = 0; j < pointersPerDirectoryPage && loaded < directory.length; j++) {
+                directory[loaded++] = readPageId(page, DIR_ENTRIES_OFFSET + j * 8);
+            }
+            PageId next = readPageId(page, DIR_NEXT_OFFSET);
+            bufferManager.FreePage(pageId, false);
+            pageId = next;
+        }
+    }
+
+    private PageId newBucket(int localDepth) {
+        PageId pageId = diskManager.AllocPage();
+        ByteBuffer page = bufferManager.GetPage(pageId);
+        page.putInt(BUCKET_DEPTH_OFFSET, localDepth);
+        page.putInt(BUCKET_COUNT_OFFSET, 0);
+        writePageId(page, BUCKET_OVERFLOW_OFFSET, NO_PAGE);
+        bufferManager.FreePage(pageId, true);
+        return pageId;
+    }
+
+    private int mask() {
+        return (1 << globalDepth) - 1;
+    }
+
+    private int entryPos(int i) {
+        return BUCKET_ENTRIES_OFFSET + i * entrySize;
+    }
+
+    // Hachage des keySize premiers octets (clé seule ou entrée complète), bits bien mélangés
+    // pour que les bits de poids faible suffisent à répartir les clés
+    private int hash(byte[] keyOrEntry) {
+        int h = 0;
+        for (int i = 0; i < keySize; i++) {
+            h = 31 * h + keyOrEntry[i];
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int compare(ByteBuffer buff, int pos, byte[] probe, int len) {
+        for (int i = 0; i < len; i++) {
+            int diff = (buff.get(pos + i) & 0xFF) - (probe[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static PageId readPageId(ByteBuffer buff, int offset) {
+        return new PageId(buff.getInt(offset), buff.getInt(offset + 4));
+    }
+
+    private static void writePageId(ByteBuffer buff, int offset, PageId pageId) {
+        buff.putInt(offset, pageId.getFileIdx());
+        buff.putInt(offset + 4, pageId.getPageIdx());
+    }
+}
@@ -0,0 +1,137 @@
+package IndexManager;
+
+import BufferManager.BufferManager;
+import DiskManager.PageId;
+import FileManager.Record;
+import FileManager.RecordId;
+import FileManager.Relation;
+import QueryManager.Condition;
+import QueryManager.IRecordIterator;
+import QueryManager.RelationScanner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Index par hachage extensible (USING HASH) : égalités et IN seulement, une page lue par
+// valeur cherchée. Pas de colonne FLOAT : l'égalité y tolère un écart de 0.0001, que le
+// hachage ne peut pas retrouver.
+public class HashIndex extends Index {
+
+    private final ExtendibleHash hash;
+
+    HashIndex(String name, Relation relation, int colIdx, BufferManager bufferManager, ExtendibleHash hash) {
+        super(name, relation, colIdx, bufferManager);
+        this.hash = hash;
+    }
+
+    @Override
+    public String getKind() {
+        return HASH;
+    }
+
+    @Override
+    public PageId getMetaPageId() {
+        return hash.getMetaPageId();
+    }
+
+    @Override
+    public void recordInserted(Record record, RecordId rid) {
+        hash.insert(IndexKey.fromRecord(record, getColumnIndex(), getColumn()), rid);
+    }
+
+    @Override
+    public void recordDeleted(Record record, RecordId rid) {
+        hash.delete(IndexKey.fromRecord(record, getColumnIndex(), getColumn()), rid);
+    }
+
+    @Override
+    public void clear() {
+        hash.clear();
+    }
+
+    @Override
+    protected void dropPages() {
+        hash.drop();
+    }
+
+    @Override
+    public void build() {
+        List<byte[]> entries = new ArrayList<>();
+        IRecordIterator scanner = new RelationScanner(getRelation(), getBufferManager());
+        Record record;
+        while ((record = scanner.GetNextRecord()) != null) {
+            entries.add(IndexKey.entry(IndexKey.fromRecord(record, getColumnIndex(), getColumn()), record.getRid()));
+        }
+        scanner.Close();
+        hash.insertAll(entries);
+        getRelation().addIndex(this);
+    }
+
+    @Override
+    public Iterator<RecordId> lookup(List<Condition> conditions) {
+        if (conditions == null) {
+            return null;
+        }
+        List<Object> values = null;
+        for (Condition cond : conditions) {
+            List<Object> possible = cond.getPossibleValues(getColumnIndex());
+            if (possible != null) {
+                values = (values == null) ? new ArrayList<>(possible) : retain(values, possible);
+            }
+        }
+        if (values == null) {
+            return null;
+        }
+        if (values.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+        List<byte[]> keys = new ArrayList<>();
+        for (Object value : values) {
+            byte[] key = IndexKey.fromValue(value, getColumn());
+            boolean seen = false;
+            for (byte[] k : keys) {
+                seen |= IndexKey.compare(k, 0, key, 0, key.length) == 0;
+            }
+            if (!seen) {
+                keys.add(key);
+            }
+        }
+        return new KeysIterator(keys);
+    }
+
+    private static List<Object> retain(List<Object> values, List<Object> others) {
+        List<Object> result = new ArrayList<>(values);
+        result.retainAll(others);
+        return result;
+    }
+
+    // Un bucket lu par clé, au fur et à mesure
+    private class KeysIterator implements Iterator<RecordId> {
+        private final List<byte[]> keys;
+        private int nextKey;
+        private Iterator<RecordId> current = Collections.emptyIterator();
+
+        KeysIterator(List<byte[]> keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && nextKey < keys.size()) {
+                current = hash.lookup(keys.get(nextKey++)).iterator();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public RecordId next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package IndexManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+import FileManager.Column;
+import FileManager.ColumnType;
+import FileManager.RecordId;
+import FileManager.Relation;
+import FileManager.RelationIndex;
+import Main.DBConfig;
+import QueryManager.Condition;
+
+import java.util.Iterator;
+import java.util.List;
+
+// Index secondaire sur une colonne d'une relation (CREATE INDEX). Ses pages sont dans les
+// fichiers partagés du DiskManager ; le catalogue (DBManager) garde son nom, sa colonne, son
+// type et sa meta page. Une fois attaché à la relation, il est tenu à jour à chaque écriture.
+public abstract class Index implements RelationIndex {
+
+    public static final String BTREE = "BTREE";
+    public static final String HASH = "HASH";
+    public static final String BITMAP = "BITMAP";
+    public static final String TRIGRAM = "TRIGRAM";
+
+    private final String name;
+    private final Relation relation;
+    private final int colIdx;
+    private final Column column;
+    private final BufferManager bufferManager;
+
+    protected Index(String name, Relation relation, int colIdx, BufferManager bufferManager) {
+        this.name = name;
+        this.relation = relation;
+        this.colIdx = colIdx;
+        this.column = relation.getColumns()[colIdx];
+        this.bufferManager = bufferManager;
+    }
+
+    // Nouvel index vide, à remplir avec build()
+    public static Index create(String kind, String name, Relation relation, int colIdx, DBConfig config,
+                               DiskManager diskManager, BufferManager bufferManager) {
+        checkColumn(relation, colIdx, kind);
+        Column column = relation.getColumns()[colIdx];
+        switch (kind.toUpperCase()) {
+            case BTREE:
+                return new BTreeIndex(name, relation, colIdx, bufferManager,
+                        BPlusTree.create(bufferManager, diskManager, IndexKey.size(column), config.getPageSize()));
+            case HASH:
+                checkEquality(kind, column);
+                return new HashIndex(name, relation, colIdx, bufferManager,
+                        ExtendibleHash.create(bufferManager, diskManager, IndexKey.size(column), config.getPageSize()));
+            case BITMAP:
+                checkEquality(kind, column);
+                return BitmapIndex.create(name, relation, colIdx, bufferManager, diskManager, config.getPageSize());
+            case TRIGRAM:
+                return TrigramIndex.create(name, relation, colIdx, bufferManager, diskManager, config.getPageSize());
+            default:
+                throw new IllegalArgumentException("Type d'index inconnu : " + kind);
+        }
+    }
+
+    // Index existant (chargement du catalogue)
+    public static Index open(String kind, String name, Relation relation, int colIdx, PageId metaPageId,
+                             DBConfig config, DiskManager diskManager, BufferManager bufferManager) {
+        switch (kind.toUpperCase()) {
+            case BTREE:
+                return new BTreeIndex(name, relation, colIdx, bufferManager,
+                        BPlusTree.open(bufferManager, diskManager, metaPageId, config.getPageSize()));
+            case HASH:
+                return new HashIndex(name, relation, colIdx, bufferManager,
+                        ExtendibleHash.open(bufferManager, diskManager, metaPageId, config.getPageSize()));
+            case BITMAP:
+                return BitmapIndex.open(name, relation, colIdx, bufferManager, diskManager, metaPageId,
+                        config.getPageSize());
+            case TRIGRAM:
+                return TrigramIndex.open(name, relation, colIdx, bufferManager, diskManager, metaPageId,
+                        config.getPageSize());
+            default:
+                throw new IllegalArgumentException("Type d'index inconnu : " + kind);
+        }
+    }
+
+    // Les clés des index trigrammes sont des morceaux de la valeur : les VARCHAR sont acceptés
+    private static void checkColumn(Relation relation, int colIdx, String kind) {
+        if (colIdx < 0 || colIdx >= relation.getColumns().length) {
+            throw new IllegalArgumentException("Colonne inconnue dans " + relation.getRelationName());
+        }
+        if (!kind.equalsIgnoreCase(TRIGRAM) && !IndexKey.isIndexable(relation.getColumns()[colIdx])) {
+            throw new IllegalArgumentException("Colonne " + relation.getColumns()[colIdx].getColumnName()
+                    + " : index non supporté sur une colonne VARCHAR");
+        }
+    }
+
+    // Index qui ne servent qu'aux égalités : l'égalité FLOAT tolère un écart de 0.0001 qu'ils ne peuvent pas retrouver
+    private static void checkEquality(String kind, Column column) {
+        if (column.getColumnType() == ColumnType.FLOAT) {
+            throw new IllegalArgumentException("Colonne " + column.getColumnName() + " : index " + kind.toUpperCase()
+                    + " non supporté sur une colonne FLOAT (égalité à 0.0001 près)");
+        }
+    }
+
+    public String getName() { return name; }
+    public Relation getRelation() { return relation; }
+    public int getColumnIndex() { return colIdx; }
+    public Column getColumn() { return column; }
+    protected BufferManager getBufferManager() { return bufferManager; }
+
+    public abstract String getKind();
+
+    public abstract PageId getMetaPageId();
+
+    // RID des records qui peuvent vérifier les conditions (un sur-ensemble : les conditions sont
+    // ensuite appliquées aux records), ou null si l'index ne permet pas de restreindre le parcours
+    public abstract Iterator<RecordId> lookup(List<Condition> conditions);
+
+    // Remplit l'index avec les records déjà présents et l'attache à la relation
+    public abstract void build();
+
+    // Écrit sur disque ce que l'index garde en mémoire (sauvegarde du catalogue)
+    public void flush() {
+    }
+
+    // Détache l'index de sa relation et rend ses pages
+    public void drop() {
+        relation.removeIndex(this);
+        dropPages();
+    }
+
+    protected abstract void dropPages();
+}
@@ -0,0 +1,127 @@
+package IndexManager;
+
+import DiskManager.PageId;
+import FileManager.Column;
+import FileManager.ColumnType;
+import FileManager.Record;
+import FileManager.RecordId;
+
+// Encodage des clés d'index sur une taille fixe, tel que l'ordre des octets (comparés non
+// signés, de gauche à droite) soit l'ordre des valeurs : les index comparent et hachent des
+// tableaux d'octets sans connaître le type de la colonne.
+//   INT   : 4 octets big-endian, bit de signe inversé
+//   FLOAT : bits IEEE 754, tous inversés pour un négatif, bit de signe inversé sinon
+//   CHAR  : la valeur telle qu'elle est relue (tronquée à T octets, sans espaces de fin),
+//           complétée par des espaces
+// Un RID s'encode de la même façon sur 12 octets (fichier, page, slot).
+public final class IndexKey {
+
+    public static final int RID_SIZE = 12;
+
+    private IndexKey() {
+    }
+
+    public static boolean isIndexable(Column column) {
+        return column.getColumnType() != ColumnType.VARCHAR;
+    }
+
+    public static int size(Column column) {
+        return column.getColumnType() == ColumnType.CHAR ? column.getSizeInBytes() : 4;
+    }
+
+    // Clé du record pour la colonne colIdx
+    public static byte[] fromRecord(Record record, int colIdx, Column column) {
+        switch (column.getColumnType()) {
+            case INT:
+                return encodeInt(record.getInt(colIdx));
+            case FLOAT:
+                return encodeFloat(record.getFloat(colIdx));
+            default:
+                return encodeChar((String) record.getValue(colIdx), column.getSizeInBytes());
+        }
+    }
+
+    // Clé d'une constante déjà convertie au type de la colonne (Integer, Float ou String)
+    public static byte[] fromValue(Object value, Column column) {
+        switch (column.getColumnType()) {
+            case INT:
+                return encodeInt(((Number) value).intValue());
+            case FLOAT:
+                return encodeFloat(((Number) value).floatValue());
+            default:
+                return encodeChar((String) value, column.getSizeInBytes());
+        }
+    }
+
+    public static byte[] encodeInt(int value) {
+        byte[] key = new byte[4];
+        putInt(key, 0, value ^ Integer.MIN_VALUE);
+        return key;
+    }
+
+    public static byte[] encodeFloat(float value) {
+        int bits = Float.floatToIntBits(value);
+        byte[] key = new byte[4];
+        putInt(key, 0, bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE);
+        return key;
+    }
+
+    public static byte[] encodeChar(String value, int size) {
+        String str = value != null ? value : "";
+        String stored = str.substring(0, Math.min(str.length(), size)).trim();
+        byte[] key = new byte[size];
+        for (int j = 0; j < size; j++) {
+            key[j] = (byte) (j < stored.length() ? stored.charAt(j) : ' ');
+        }
+        return key;
+    }
+
+    // Clé suivie du RID : l'entrée complète, unique même si la clé se répète
+    public static byte[] entry(byte[] key, RecordId rid) {
+        byte[] entry = new byte[key.length + RID_SIZE];
+        System.arraycopy(key, 0, entry, 0, key.length);
+        writeRid(entry, key.length, rid);
+        return entry;
+    }
+
+    // Plus petite entrée possible pour cette clé (RID minimal)
+    public static byte[] lowestEntry(byte[] key) {
+        byte[] entry = new byte[key.length + RID_SIZE];
+        System.arraycopy(key, 0, entry, 0, key.length);
+        return entry;
+    }
+
+    public static void writeRid(byte[] dest, int pos, RecordId rid) {
+        putInt(dest, pos, rid.getPageId().getFileIdx() ^ Integer.MIN_VALUE);
+        putInt(dest, pos + 4, rid.getPageId().getPageIdx() ^ Integer.MIN_VALUE);
+        putInt(dest, pos + 8, rid.getSlotIdx() ^ Integer.MIN_VALUE);
+    }
+
+    public static RecordId readRid(byte[] src, int pos) {
+        PageId pageId = new PageId(getInt(src, pos) ^ Integer.MIN_VALUE, getInt(src, pos + 4) ^ Integer.MIN_VALUE);
+        return new RecordId(pageId, getInt(src, pos + 8) ^ Integer.MIN_VALUE);
+    }
+
+    // Comparaison non signée de a[aPos..aPos+len) et b[bPos..bPos+len)
+    public static int compare(byte[] a, int aPos, byte[] b, int bPos, int len) {
+        for (int i = 0; i < len; i++) {
+            int diff = (a[aPos + i] & 0xFF) - (b[bPos + i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private static void putInt(byte[] dest, int pos, int value) {
+        dest[pos] = (byte) (value >>> 24);
+        dest[pos + 1] = (byte) (value >>> 16);
+        dest[pos + 2] = (byte) (value >>> 8);
+        dest[pos + 3] = (byte) value;
+    }
+
+    private static int getInt(byte[] src, int pos) {
+        return ((src[pos] & 0xFF) << 24) | ((src[pos + 1] & 0xFF) << 16)
+                | ((src[pos + 2] & 0xFF) << 8) | (src[pos + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,495 @@
+package IndexManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+import FileManager.Column;
+import FileManager.ColumnType;
+import FileManager.Record;
+import FileManager.RecordId;
+import FileManager.Relation;
+import Main.DBConfig;
+import QueryManager.Condition;
+import QueryManager.IRecordIterator;
+import QueryManager.IndexScanner;
+import QueryManager.LikePattern;
+import QueryManager.RelationScanner;
+import QueryManager.SelectOperator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class IndexTests {
+
+  private static final String TEST_DB_PATH = "test_index_data";
+  private static DBConfig config;
+  private static DiskManager dm;
+  private static BufferManager bm;
+
+  private static void setup() {
+    cleanup();
+    // Petites pages : beaucoup de splits et plusieurs niveaux avec peu de records
+    config = new DBConfig(TEST_DB_PATH, 256, 4, 4000, 8, "LRU");
+    dm = new DiskManager(config);
+    dm.Init();
+    bm = new BufferManager(config, dm);
+  }
+
+  private static void cleanup() {
+    try {
+      if (bm != null)
+        bm.FlushBuffers();
+      if (dm != null)
+        dm.Finish();
+
+      Path path = Paths.get(TEST_DB_PATH);
+      if (Files.exists(path)) {
+        Files.walk(path)
+            .sorted(Comparator.reverseOrder())
+            .map(Path::toFile)
+            .forEach(File::delete);
+      }
+    } catch (IOException e) {
+      System.err.println("Erreur lors du nettoyage: " + e.getMessage());
+    }
+  }
+
+  public static void main(String[] args) {
+    System.out.println("=== Index Tests ===\n");
+    setup();
+
+    testKeyEncoding();
+    testBPlusTree();
+    testBTreeIndex();
+    testExtendibleHash();
+    testHashIndex();
+    testRowBitmap();
+    testBitmapIndex();
+    testTrigramIndex();
+
+    cleanup();
+    System.out.println("\n=== Index Tests Passed ===");
+  }
+
+  public static void testKeyEncoding() {
+    System.out.println("Test 1: Encodage des clés (ordre des octets = ordre des valeurs)");
+
+    int[] ints = { Integer.MIN_VALUE, -5, -1, 0, 1, 42, Integer.MAX_VALUE };
+    for (int i = 1; i < ints.length; i++) {
+      assert IndexKey.compare(IndexKey.encodeInt(ints[i - 1]), 0, IndexKey.encodeInt(ints[i]), 0, 4) < 0
+          : "Erreur: ordre INT " + ints[i];
+    }
+    float[] floats = { Float.NEGATIVE_INFINITY, -2.5f, -0.1f, 0f, 0.1f, 3.75f, Float.POSITIVE_INFINITY };
+    for (int i = 1; i < floats.length; i++) {
+      assert IndexKey.compare(IndexKey.encodeFloat(floats[i - 1]), 0, IndexKey.encodeFloat(floats[i]), 0, 4) < 0
+          : "Erreur: ordre FLOAT " + floats[i];
+    }
+    assert IndexKey.compare(IndexKey.encodeChar("abc", 5), 0, IndexKey.encodeChar("abc  ", 5), 0, 5) == 0
+        : "Erreur: espaces de fin";
+    RecordId rid = new RecordId(new PageId(2, 17), 5);
+    assert IndexKey.readRid(IndexKey.entry(IndexKey.encodeInt(3), rid), 4).equals(rid) : "Erreur: RID relu";
+
+    System.out.println("✓ Encodage réussi\n");
+  }
+
+  public static void testBPlusTree() {
+    System.out.println("Test 2: Arbre B+ (insertions, doublons, intervalles, suppressions)");
+
+    BPlusTree tree = BPlusTree.create(bm, dm, 4, config.getPageSize());
+    Random random = new Random(7);
+    int n = 3000;
+    int[] keys = new int[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = random.nextInt(500) - 250; // beaucoup de doublons
+      tree.insert(IndexKey.encodeInt(keys[i]), ridOf(i));
+    }
+    assert tree.getHeight() >= 3 : "Erreur: arbre trop bas " + tree.getHeight();
+    checkRange(tree, keys, -10, 10);
+    checkRange(tree, keys, 200, 1000);
+
+    // Parcours complet dans l'ordre des clés
+    int count = 0;
+    Iterator<RecordId> all = tree.range(null, null);
+    int previous = Integer.MIN_VALUE;
+    while (all.hasNext()) {
+      int key = keys[all.next().getSlotIdx()];
+      assert key >= previous : "Erreur: parcours non trié";
+      previous = key;
+      count++;
+    }
+    assert count == n : "Erreur: parcours complet " + count;
+
+    for (int i = 0; i < n; i += 2) {
+      boolean deleted = tree.delete(IndexKey.encodeInt(keys[i]), ridOf(i));
+      assert deleted : "Erreur: entrée introuvable " + i;
+      keys[i] = Integer.MIN_VALUE; // plus dans l'arbre
+    }
+    boolean deletedMissing = tree.delete(IndexKey.encodeInt(keys[1] + 1000), ridOf(1));
+    assert !deletedMissing : "Erreur: suppression d'une entrée absente";
+
+    // Relu depuis sa meta page
+    BPlusTree reopened = BPlusTree.open(bm, dm, tree.getMetaPageId(), config.getPageSize());
+    checkRange(reopened, keys, -10, 10);
+    checkRange(reopened, keys, -250, -200);
+
+    int freeBefore = dm.getFreePageCount();
+    int pages = reopened.getNodePages().size();
+    reopened.drop();
+    assert dm.getFreePageCount() == freeBefore + pages + 1 : "Erreur: pages de l'arbre non rendues";
+
+    System.out.println(n + " entrées, hauteur " + tree.getHeight() + ", " + pages + " nœuds");
+    System.out.println("✓ Arbre B+ réussi\n");
+  }
+
+  public static void testBTreeIndex() {
+    System.out.println("Test 3: Index BTREE tenu à jour par la relation");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("nom", ColumnType.CHAR, 8),
+        new Column("prix", ColumnType.FLOAT) };
+    PageId headerPageId = dm.AllocPage();
+    Relation.formatHeaderPage(bm, headerPageId);
+    Relation rel = new Relation("Articles", cols, config, dm, bm, headerPageId);
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 1500; i++) {
+      records.add(new Record(new Object[] { i % 300, "n" + (i % 11), (i % 97) / 4.0f }));
+    }
+    rel.InsertRecords(records);
+
+    // Construction sur les records existants, puis maintenance
+    Index byId = Index.create(Index.BTREE, "idx_id", rel, 0, config, dm, bm);
+    byId.build();
+    Index byName = Index.create(Index.BTREE, "idx_nom", rel, 1, config, dm, bm);
+    byName.build();
+    Index byPrice = Index.create(Index.BTREE, "idx_prix", rel, 2, config, dm, bm);
+    byPrice.build();
+    for (int i = 0; i < 200; i++) {
+      rel.InsertRecord(new Record(new Object[] { 1000 + i, "x" + (i % 3), 50.5f }));
+    }
+    List<Record> all = rel.GetAllRecords();
+    for (int i = 0; i < all.size(); i += 3) {
+      rel.DeleteRecord(all.get(i).getRid());
+    }
+    for (int i = 1; i < all.size(); i += 7) {
+      Record rec = all.get(i);
+      rec.setValue(0, rec.getInt(0) + 5);
+      rel.updateRecord(rec.getRid(), rec);
+    }
+
+    checkLookup(byId, rel, new Condition(0, "=", "42", ColumnType.INT));
+    checkLookup(byId, rel, new Condition(0, "=", "7", ColumnType.INT),
+        new Condition(0, List.of("7", "8", "1005"), ColumnType.INT));
+    checkLookup(byId, rel, new Condition(0, ">=", "100", ColumnType.INT), new Condition(0, "<", "120", ColumnType.INT));
+    checkLookup(byId, rel, new Condition(0, ">", "1190", ColumnType.INT));
+    checkLookup(byName, rel, new Condition(1, "=", "\"n3\"", ColumnType.CHAR));
+    checkLookup(byPrice, rel, new Condition(2, "=", "5.25", ColumnType.FLOAT));
+    checkLookup(byPrice, rel, new Condition(2, "<=", "1.5", ColumnType.FLOAT));
+    assert byName.lookup(List.of(new Condition(1, ">", "\"n3\"", ColumnType.CHAR))) == null
+        : "Erreur: intervalle CHAR par l'index";
+    assert byId.lookup(List.of(new Condition(1, "=", "\"n3\"", ColumnType.CHAR))) == null
+        : "Erreur: index utilisé pour une autre colonne";
+
+    // Rouvert depuis sa meta page (catalogue), puis vidé avec la relation
+    Index reopened = Index.open(Index.BTREE, "idx_id", rel, 0, byId.getMetaPageId(), config, dm, bm);
+    rel.removeIndex(byId);
+    rel.addIndex(reopened);
+    checkLookup(reopened, rel, new Condition(0, "=", "1005", ColumnType.INT));
+    rel.Truncate();
+    assert !reopened.lookup(List.of(new Condition(0, "=", "42", ColumnType.INT))).hasNext() : "Erreur: index non vidé";
+    rel.InsertRecord(new Record(new Object[] { 42, "z", 1f }));
+    checkLookup(reopened, rel, new Condition(0, "=", "42", ColumnType.INT));
+
+    reopened.drop();
+    byName.drop();
+    byPrice.drop();
+    rel.InsertRecord(new Record(new Object[] { 43, "z", 1f })); // plus d'index à tenir à jour
+    rel.Drop();
+
+    System.out.println("✓ Index BTREE réussi\n");
+  }
+
+  public static void testExtendibleHash() {
+    System.out.println("Test 4: Hachage extensible (splits, débordements, suppressions)");
+
+    ExtendibleHash hash = ExtendibleHash.create(bm, dm, 8, config.getPageSize());
+    int n = 4000;
+    String[] keys = new String[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = (i % 5 == 0) ? "chaud" : "k" + (i % 1500); // une clé très fréquente : débordements
+      hash.insert(IndexKey.encodeChar(keys[i], 8), ridOf(i));
+    }
+    assert hash.getGlobalDepth() >= 5 : "Erreur: répertoire non agrandi " + hash.getGlobalDepth();
+    checkHashLookup(hash, keys, "chaud");
+    checkHashLookup(hash, keys, "k7");
+    checkHashLookup(hash, keys, "absente");
+
+    for (int i = 0; i < n; i += 3) {
+      boolean deleted = hash.delete(IndexKey.encodeChar(keys[i], 8), ridOf(i));
+      assert deleted : "Erreur: entrée introuvable " + i;
+      keys[i] = null;
+    }
+    boolean deletedMissing = hash.delete(IndexKey.encodeChar("k7", 8), ridOf(n + 1));
+    assert !deletedMissing : "Erreur: suppression d'une entrée absente";
+
+    // Relu depuis sa meta page : le répertoire est rechargé
+    ExtendibleHash reopened = ExtendibleHash.open(bm, dm, hash.getMetaPageId(), config.getPageSize());
+    assert reopened.getGlobalDepth() == hash.getGlobalDepth() : "Erreur: profondeur relue";
+    checkHashLookup(reopened, keys, "chaud");
+    checkHashLookup(reopened, keys, "k8");
+    reopened.insert(IndexKey.encodeChar("k8", 8), ridOf(n + 2));
+    assert reopened.lookup(IndexKey.encodeChar("k8", 8)).contains(ridOf(n + 2)) : "Erreur: insertion après réouverture";
+
+    int freeBefore = dm.getFreePageCount();
+    int pages = reopened.getPages().size();
+    reopened.drop();
+    assert dm.getFreePageCount() == freeBefore + pages + 1 : "Erreur: pages de l'index non rendues";
+
+    System.out.println(n + " entrées, profondeur " + hash.getGlobalDepth() + ", " + pages + " pages");
+    System.out.println("✓ Hachage extensible réussi\n");
+  }
+
+  public static void testHashIndex() {
+    System.out.println("Test 5: Index HASH tenu à jour par la relation");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("code", ColumnType.CHAR, 8) };
+    PageId headerPageId = dm.AllocPage();
+    Relation.formatHeaderPage(bm, headerPageId);
+    Relation rel = new Relation("Codes", cols, config, dm, bm, headerPageId);
+    for (int i = 0; i < 800; i++) {
+      rel.InsertRecord(new Record(new Object[] { i, "c" + (i % 200) }));
+    }
+    Index byCode = Index.create(Index.HASH, "idx_code", rel, 1, config, dm, bm);
+    byCode.build();
+    for (Record rec : rel.GetAllRecords()) {
+      if (rec.getInt(0) % 4 == 0) rel.DeleteRecord(rec.getRid());
+    }
+    rel.InsertRecord(new Record(new Object[] { 5000, "c17" }));
+
+    checkLookup(byCode, rel, new Condition(1, "=", "\"c17\"", ColumnType.CHAR));
+    checkLookup(byCode, rel, new Condition(1, List.of("\"c1\"", "\"c2\"", "\"zz\""), ColumnType.CHAR));
+    assert byCode.lookup(List.of(new Condition(1, "<", "\"c5\"", ColumnType.CHAR))) == null
+        : "Erreur: intervalle par un index HASH";
+    try {
+      Index.create(Index.HASH, "idx_float", rel, 0, config, dm, bm);
+      Column[] floats = { new Column("f", ColumnType.FLOAT) };
+      PageId other = dm.AllocPage();
+      Relation.formatHeaderPage(bm, other);
+      Index.create(Index.HASH, "idx_f", new Relation("Reels", floats, config, dm, bm, other), 0, config, dm, bm);
+      assert false : "Erreur: index HASH accepté sur une colonne FLOAT";
+    } catch (IllegalArgumentException e) {
+      System.out.println("Refusé : " + e.getMessage());
+    }
+
+    byCode.drop();
+    rel.Drop();
+    System.out.println("✓ Index HASH réussi\n");
+  }
+
+  public static void testRowBitmap() {
+    System.out.println("Test 6: RowBitmap (listes et bitmaps par page, AND/OR)");
+
+    RowBitmap evens = new RowBitmap();
+    RowBitmap threes = new RowBitmap();
+    for (int i = 0; i < 2000; i++) {
+      RecordId rid = new RecordId(new PageId(0, i / 500), i % 500); // pages denses : bitmaps
+      if (i % 2 == 0) evens.add(rid);
+      if (i % 3 == 0) threes.add(rid);
+    }
+    threes.add(new RecordId(new PageId(DiskManager.SEGMENT_FILE_BASE, 3), 1)); // fichier segment
+    RowBitmap sixes = evens.and(threes);
+    RowBitmap both = evens.or(threes);
+    assert sixes.cardinality() == 334 : "Erreur: AND " + sixes.cardinality();
+    assert both.cardinality() == 1000 + 667 - 334 + 1 : "Erreur: OR " + both.cardinality();
+    RecordId first = new RecordId(new PageId(0, 0), 0);
+    evens.remove(first);
+    assert !evens.contains(first) && sixes.contains(first) : "Erreur: ensembles partagés";
+    RowBitmap sparse = new RowBitmap();
+    sparse.add(new RecordId(new PageId(0, 1), 4));
+    sparse.add(new RecordId(new PageId(0, 9), 6));
+    assert sparse.and(sixes).cardinality() == 1 && sparse.or(sixes).cardinality() == 335 : "Erreur: liste et bitmap";
+
+    // Ordre (fichier, page, slot) et relecture
+    try {
+      java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+      both.writeTo(new java.io.DataOutputStream(bytes));
+      RowBitmap reread = RowBitmap.readFrom(new java.io.DataInputStream(new java.io.ByteArrayInputStream(bytes.toByteArray())));
+      Iterator<RecordId> a = both.iterator();
+      Iterator<RecordId> b = reread.iterator();
+      RecordId previous = null;
+      while (a.hasNext()) {
+        RecordId rid = a.next();
+        RecordId rereadRid = b.next();
+        assert rid.equals(rereadRid) : "Erreur: relecture";
+        assert previous == null || previous.getPageId().getFileIdx() < rid.getPageId().getFileIdx()
+            || previous.getPageId().getPageIdx() < rid.getPageId().getPageIdx()
+            || previous.getSlotIdx() < rid.getSlotIdx() : "Erreur: ordre des RID";
+        previous = rid;
+      }
+      assert !b.hasNext() : "Erreur: RID en trop";
+    } catch (IOException e) {
+      throw new java.io.UncheckedIOException(e);
+    }
+
+    System.out.println("✓ RowBitmap réussi\n");
+  }
+
+  public static void testBitmapIndex() {
+    System.out.println("Test 7: Index BITMAP (conditions combinées avant de lire les pages)");
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("region", ColumnType.CHAR, 6),
+        new Column("statut", ColumnType.INT) };
+    PageId headerPageId = dm.AllocPage();
+    Relation.formatHeaderPage(bm, headerPageId);
+    Relation rel = new Relation("Ventes", cols, config, dm, bm, headerPageId);
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 1200; i++) {
+      records.add(new Record(new Object[] { i, "r" + (i % 5), i % 4 }));
+    }
+    rel.InsertRecords(records);
+    BitmapIndex byRegion = (BitmapIndex) Index.create(Index.BITMAP, "bm_region", rel, 1, config, dm, bm);
+    byRegion.build();
+    BitmapIndex byStatus = (BitmapIndex) Index.create(Index.BITMAP, "bm_statut", rel, 2, config, dm, bm);
+    byStatus.build();
+    assert byRegion.getValueCount() == 5 : "Erreur: valeurs distinctes";
+    for (Record rec : rel.GetAllRecords()) {
+      if (rec.getInt(0) % 7 == 0) rel.DeleteRecord(rec.getRid());
+    }
+    rel.InsertRecord(new Record(new Object[] { 5000, "r2", 3 }));
+
+    List<Condition> conds = List.of(new Condition(1, "=", "\"r2\"", ColumnType.CHAR),
+        new Condition(2, List.of("1", "3"), ColumnType.INT), new Condition(0, ">", "100", ColumnType.INT));
+    RowBitmap matches = BitmapIndex.intersect(List.of(byRegion, byStatus), conds);
+    Set<String> expected = select(new RelationScanner(rel, bm, conds), conds);
+    Set<String> actual = select(new IndexScanner(rel, bm, matches::iterator, conds), conds);
+    assert actual.equals(expected) && !expected.isEmpty() : "Erreur: " + actual.size() + " au lieu de " + expected.size();
+    assert matches.cardinality() < byRegion.matching(conds).cardinality() : "Erreur: bitmaps non combinées";
+    checkLookup(byStatus, rel, new Condition(2, "=", "0", ColumnType.INT));
+
+    // Écrites par flush() (sauvegarde du catalogue), relues depuis la meta page
+    byRegion.flush();
+    Index reopened = Index.open(Index.BITMAP, "bm_region", rel, 1, byRegion.getMetaPageId(), config, dm, bm);
+    rel.removeIndex(byRegion);
+    rel.addIndex(reopened);
+    checkLookup(reopened, rel, new Condition(1, List.of("\"r0\"", "\"r4\""), ColumnType.CHAR));
+
+    reopened.drop();
+    byStatus.drop();
+    rel.Drop();
+    System.out.println(expected.size() + " records par AND de bitmaps");
+    System.out.println("✓ Index BITMAP réussi\n");
+  }
+
+  public static void testTrigramIndex() {
+    System.out.println("Test 8: LIKE et index TRIGRAM (listes de RID par trigramme)");
+
+    LikePattern pattern = new LikePattern("ab%c_d%");
+    assert pattern.matches("abXXcYd") && pattern.matches("abcxd!") && !pattern.matches("abcd") : "Erreur: motif";
+    assert new LikePattern("%lle").matches("Bruxelle") && !new LikePattern("%lle").matches("lle ") : "Erreur: suffixe";
+    assert new LikePattern("a_c").matches("abc") && !new LikePattern("a_c").matches("abcc") : "Erreur: motif exact";
+    assert pattern.getLiterals().equals(List.of("ab", "c", "d")) : "Erreur: morceaux sans joker";
+
+    Column[] cols = { new Column("id", ColumnType.INT), new Column("ville", ColumnType.VARCHAR, 16) };
+    PageId headerPageId = dm.AllocPage();
+    Relation.formatHeaderPage(bm, headerPageId);
+    Relation rel = new Relation("Villes", cols, config, dm, bm, headerPageId);
+    String[] villes = { "Paris", "Marseille", "Lyon", "Toulouse", "Nice", "Nantes", "Montpellier", "Lille" };
+    for (int i = 0; i < 900; i++) {
+      rel.InsertRecord(new Record(new Object[] { i, villes[i % villes.length] + (i % 13) }));
+    }
+    TrigramIndex byCity = (TrigramIndex) Index.create(Index.TRIGRAM, "tg_ville", rel, 1, config, dm, bm);
+    byCity.build();
+    for (Record rec : rel.GetAllRecords()) {
+      if (rec.getInt(0) % 5 == 0) rel.DeleteRecord(rec.getRid());
+    }
+    rel.InsertRecord(new Record(new Object[] { 5000, "Montauban" }));
+
+    checkLookup(byCity, rel, new Condition(1, "LIKE", "\"%ill%\"", ColumnType.VARCHAR));
+    checkLookup(byCity, rel, new Condition(1, "LIKE", "\"Mon%\"", ColumnType.VARCHAR));
+    checkLookup(byCity, rel, new Condition(1, "LIKE", "\"%ant%1_\"", ColumnType.VARCHAR),
+        new Condition(0, "<", "500", ColumnType.INT));
+    assert byCity.matching(List.of(new Condition(1, "LIKE", "\"Mon%\"", ColumnType.VARCHAR))).cardinality()
+        < rel.getRowCount() / 4 : "Erreur: trop de candidats";
+    assert !byCity.lookup(List.of(new Condition(1, "LIKE", "\"%Bordeaux%\"", ColumnType.VARCHAR))).hasNext()
+        : "Erreur: trigramme absent";
+    assert byCity.lookup(List.of(new Condition(1, "LIKE", "\"%e_%\"", ColumnType.VARCHAR))) == null
+        : "Erreur: motif trop court par l'index";
+    try {
+      Index.create(Index.TRIGRAM, "tg_id", rel, 0, config, dm, bm);
+      assert false : "Erreur: index TRIGRAM sur une colonne INT";
+    } catch (IllegalArgumentException e) {
+      System.out.println("Refusé : " + e.getMessage());
+    }
+
+    byCity.flush();
+    Index reopened = Index.open(Index.TRIGRAM, "tg_ville", rel, 1, byCity.getMetaPageId(), config, dm, bm);
+    rel.removeIndex(byCity);
+    rel.addIndex(reopened);
+    checkLookup(reopened, rel, new Condition(1, "LIKE", "\"%uban\"", ColumnType.VARCHAR));
+
+    reopened.drop();
+    rel.Drop();
+    System.out.println(byCity.getValueCount() + " trigrammes");
+    System.out.println("✓ Index TRIGRAM réussi\n");
+  }
+
+  private static void checkHashLookup(ExtendibleHash hash, String[] keys, String key) {
+    Set<RecordId> expected = new HashSet<>();
+    for (int i = 0; i < keys.length; i++) {
+      if (key.equals(keys[i])) expected.add(ridOf(i));
+    }
+    List<RecordId> actual = hash.lookup(IndexKey.encodeChar(key, 8));
+    assert actual.size() == expected.size() && expected.containsAll(actual)
+        : "Erreur: " + actual.size() + " entrées pour " + key + " au lieu de " + expected.size();
+  }
+
+  // Le parcours par l'index et le parcours complet sélectionnent les mêmes records
+  private static void checkLookup(Index index, Relation rel, Condition... conditions) {
+    List<Condition> conds = List.of(conditions);
+    assert index.lookup(conds) != null : "Erreur: index non utilisé";
+    Set<String> expected = select(new RelationScanner(rel, bm, conds), conds);
+    Set<String> actual = select(new IndexScanner(rel, bm, () -> index.lookup(conds), conds), conds);
+    assert actual.equals(expected) : "Erreur: " + actual.size() + " records par l'index, " + expected.size() + " attendus";
+    assert !expected.isEmpty() : "Erreur: test sans résultat";
+  }
+
+  private static Set<String> select(IRecordIterator scanner, List<Condition> conds) {
+    IRecordIterator iterator = new SelectOperator(scanner, conds);
+    Set<String> result = new HashSet<>();
+    Record rec;
+    while ((rec = iterator.GetNextRecord()) != null) {
+      result.add(rec.getRid() + " " + rec.materialize());
+    }
+    iterator.Close();
+    return result;
+  }
+
+  private static void checkRange(BPlusTree tree, int[] keys, int low, int high) {
+    Set<Integer> expected = new HashSet<>();
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != Integer.MIN_VALUE && keys[i] >= low && keys[i] <= high) {
+        expected.add(i);
+      }
+    }
+    Set<Integer> actual = new HashSet<>();
+    Iterator<RecordId> it = tree.range(IndexKey.encodeInt(low), IndexKey.encodeInt(high));
+    while (it.hasNext()) {
+      boolean added = actual.add(it.next().getSlotIdx());
+      assert added : "Erreur: RID en double";
+    }
+    assert actual.equals(expected) : "Erreur: intervalle [" + low + ", " + high + "] " + actual.size()
+        + " au lieu de " + expected.size();
+  }
+
+  private static RecordId ridOf(int i) {
+    return new RecordId(new PageId(0, i / 50), i);
+  }
+}
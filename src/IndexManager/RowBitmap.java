@@ -0,0 +1,317 @@
+package IndexManager;
+
+import DiskManager.PageId;
+import FileManager.RecordId;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+// Ensemble de RID compressé à la manière des roaring bitmaps : un conteneur par page de
+// données (clé fichier << 32 | page), qui est une liste triée de slots tant que la page a peu
+// de records dans l'ensemble, puis une bitmap des slots. Les pages absentes n'occupent rien, et
+// deux ensembles d'une même relation se combinent page par page (AND, OR).
+public class RowBitmap {
+
+    private static final int ARRAY_MAX = 32; // au-delà, la liste devient une bitmap
+
+    private final TreeMap<Long, Container> containers = new TreeMap<>();
+
+    public void add(RecordId rid) {
+        long page = pageKey(rid.getPageId());
+        Container container = containers.get(page);
+        if (container == null) {
+            container = new Container();
+            containers.put(page, container);
+        }
+        container.add(rid.getSlotIdx());
+    }
+
+    public void remove(RecordId rid) {
+        long page = pageKey(rid.getPageId());
+        Container container = containers.get(page);
+        if (container != null) {
+            container.remove(rid.getSlotIdx());
+            if (container.size == 0) {
+                containers.remove(page);
+            }
+        }
+    }
+
+    public boolean contains(RecordId rid) {
+        Container container = containers.get(pageKey(rid.getPageId()));
+        return container != null && container.contains(rid.getSlotIdx());
+    }
+
+    public boolean isEmpty() {
+        return containers.isEmpty();
+    }
+
+    public long cardinality() {
+        long count = 0;
+        for (Container container : containers.values()) {
+            count += container.size;
+        }
+        return count;
+    }
+
+    public int getPageCount() {
+        return containers.size();
+    }
+
+    // Positions communes : seules les pages présentes dans les deux ensembles sont comparées
+    public RowBitmap and(RowBitmap other) {
+        RowBitmap result = new RowBitmap();
+        RowBitmap small = containers.size() <= other.containers.size() ? this : other;
+        RowBitmap large = small == this ? other : this;
+        for (Map.Entry<Long, Container> entry : small.containers.entrySet()) {
+            Container match = large.containers.get(entry.getKey());
+            if (match != null) {
+                Container common = entry.getValue().and(match);
+                if (common.size > 0) {
+                    result.containers.put(entry.getKey(), common);
+                }
+            }
+        }
+        return result;
+    }
+
+    public RowBitmap or(RowBitmap other) {
+        RowBitmap result = copy();
+        for (Map.Entry<Long, Container> entry : other.containers.entrySet()) {
+            Container mine = result.containers.get(entry.getKey());
+            result.containers.put(entry.getKey(), mine == null ? entry.getValue().copy() : mine.or(entry.getValue()));
+        }
+        return result;
+    }
+
+    public RowBitmap copy() {
+        RowBitmap result = new RowBitmap();
+        for (Map.Entry<Long, Container> entry : containers.entrySet()) {
+            result.containers.put(entry.getKey(), entry.getValue().copy());
+        }
+        return result;
+    }
+
+    // RID dans l'ordre des pages (fichier, page) puis des slots
+    public Iterator<RecordId> iterator() {
+        Iterator<Map.Entry<Long, Container>> pages = containers.entrySet().iterator();
+        return new Iterator<RecordId>() {
+            private PageId page;
+            private Container current;
+            private int next = -1; // prochain slot de current, -1 s'il faut passer à la page suivante
+
+            @Override
+            public boolean hasNext() {
+                while (next == -1) {
+                    if (!pages.hasNext()) {
+                        return false;
+                    }
+                    Map.Entry<Long, Container> entry = pages.next();
+                    page = new PageId((int) (entry.getKey() >> 32), (int) (long) entry.getKey());
+                    current = entry.getValue();
+                    next = current.nextSlot(0);
+                }
+                return true;
+            }
+
+            @Override
+            public RecordId next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                RecordId rid = new RecordId(page, next);
+                next = current.nextSlot(next + 1);
+                return rid;
+            }
+        };
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(containers.size());
+        for (Map.Entry<Long, Container> entry : containers.entrySet()) {
+            out.writeLong(entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+    }
+
+    public static RowBitmap readFrom(DataInputStream in) throws IOException {
+        RowBitmap bitmap = new RowBitmap();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            long page = in.readLong();
+            bitmap.containers.put(page, Container.readFrom(in));
+        }
+        return bitmap;
+    }
+
+    // Clé d'une page : même ordre que (fichier, page), fichiers segments compris
+    private static long pageKey(PageId pageId) {
+        return ((long) pageId.getFileIdx() << 32) | (pageId.getPageIdx() & 0xFFFFFFFFL);
+    }
+
+    // Slots d'une page : liste triée (slots != null) ou bitmap (bits != null)
+    private static final class Container {
+        private int[] slots = new int[4];
+        private long[] bits;
+        private int size;
+
+        void add(int slot) {
+            if (bits != null) {
+                ensureBits(slot);
+                long mask = 1L << slot;
+                if ((bits[slot >>> 6] & mask) == 0) {
+                    bits[slot >>> 6] |= mask;
+                    size++;
+                }
+                return;
+            }
+            int pos = Arrays.binarySearch(slots, 0, size, slot);
+            if (pos >= 0) return;
+            pos = -pos - 1;
+            if (size == ARRAY_MAX) {
+                toBits();
+                add(slot);
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, Math.min(ARRAY_MAX, size * 2));
+            }
+            System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+            slots[pos] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            if (bits != null) {
+                if (slot >>> 6 < bits.length && (bits[slot >>> 6] & (1L << slot)) != 0) {
+                    bits[slot >>> 6] &= ~(1L << slot);
+                    size--;
+                }
+                return;
+            }
+            int pos = Arrays.binarySearch(slots, 0, size, slot);
+            if (pos >= 0) {
+                System.arraycopy(slots, pos + 1, slots, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        boolean contains(int slot) {
+            if (bits != null) {
+                return slot >>> 6 < bits.length && (bits[slot >>> 6] & (1L << slot)) != 0;
+            }
+            return Arrays.binarySearch(slots, 0, size, slot) >= 0;
+        }
+
+        // Premier slot >= from, -1 s'il n'y en a pas
+        int nextSlot(int from) {
+            if (bits != null) {
+                int word = from >>> 6;
+                if (word >= bits.length) return -1;
+                long current = bits[word] & (-1L << from);
+                while (true) {
+                    if (current != 0) {
+                        return word * 64 + Long.numberOfTrailingZeros(current);
+                    }
+                    if (++word == bits.length) return -1;
+                    current = bits[word];
+                }
+            }
+            int pos = Arrays.binarySearch(slots, 0, size, from);
+            if (pos < 0) pos = -pos - 1;
+            return pos < size ? slots[pos] : -1;
+        }
+
+        Container and(Container other) {
+            Container result = new Container();
+            if (bits != null && other.bits != null) {
+                result.bits = new long[Math.min(bits.length, other.bits.length)];
+                result.slots = null;
+                for (int i = 0; i < result.bits.length; i++) {
+                    result.bits[i] = bits[i] & other.bits[i];
+                    result.size += Long.bitCount(result.bits[i]);
+                }
+                return result;
+            }
+            Container list = bits == null ? this : other;
+            Container test = list == this ? other : this;
+            for (int i = 0; i < list.size; i++) {
+                if (test.contains(list.slots[i])) {
+                    result.add(list.slots[i]);
+                }
+            }
+            return result;
+        }
+
+        Container or(Container other) {
+            Container result = copy();
+            for (int slot = other.nextSlot(0); slot != -1; slot = other.nextSlot(slot + 1)) {
+                result.add(slot);
+            }
+            return result;
+        }
+
+        Container copy() {
+            Container result = new Container();
+            result.slots = slots != null ? slots.clone() : null;
+            result.bits = bits != null ? bits.clone() : null;
+            result.size = size;
+            return result;
+        }
+
+        private void ensureBits(int slot) {
+            if (slot >>> 6 >= bits.length) {
+                bits = Arrays.copyOf(bits, (slot >>> 6) + 1);
+            }
+        }
+
+        private void toBits() {
+            bits = new long[(slots[size - 1] >>> 6) + 1];
+            for (int i = 0; i < size; i++) {
+                bits[slots[i] >>> 6] |= 1L << slots[i];
+            }
+            slots = null;
+        }
+
+        // [type (1) : 0 liste, 1 bitmap][taille (4)][slots (2 chacun) | mots (4 + 8 chacun)]
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeByte(bits == null ? 0 : 1);
+            out.writeInt(size);
+            if (bits == null) {
+                for (int i = 0; i < size; i++) {
+                    out.writeShort(slots[i]);
+                }
+            } else {
+                out.writeInt(bits.length);
+                for (long word : bits) {
+                    out.writeLong(word);
+                }
+            }
+        }
+
+        static Container readFrom(DataInputStream in) throws IOException {
+            Container container = new Container();
+            int type = in.readByte();
+            container.size = in.readInt();
+            if (type == 0) {
+                container.slots = new int[Math.max(4, container.size)];
+                for (int i = 0; i < container.size; i++) {
+                    container.slots[i] = in.readUnsignedShort();
+                }
+            } else {
+                container.slots = null;
+                container.bits = new long[in.readInt()];
+                for (int i = 0; i < container.bits.length; i++) {
+                    container.bits[i] = in.readLong();
+                }
+            }
+            return container;
+        }
+    }
+}
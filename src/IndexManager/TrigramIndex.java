@@ -0,0 +1,114 @@
+package IndexManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+import FileManager.ColumnType;
+import FileManager.Record;
+import FileManager.Relation;
+import QueryManager.Condition;
+import QueryManager.LikePattern;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Index trigrammes (CREATE INDEX ... USING TRIGRAM) pour les LIKE sur une colonne CHAR ou
+// VARCHAR : une liste des RID (RowBitmap) par suite de 3 caractères présente dans les valeurs,
+// stockée comme celles d'un index bitmap. Un LIKE dont le motif contient un morceau d'au moins
+// 3 caractères sans joker ne lit que les records qui ont tous ses trigrammes ; ils sont ensuite
+// vérifiés par la condition. Les motifs plus courts retombent sur un parcours complet.
+public class TrigramIndex extends BitmapIndex {
+
+    private static final int GRAM = 3;
+
+    private TrigramIndex(String name, Relation relation, int colIdx, BufferManager bufferManager,
+                         DiskManager diskManager, PageId metaPageId, int pageSize) {
+        super(name, relation, colIdx, bufferManager, diskManager, metaPageId, pageSize);
+    }
+
+    static TrigramIndex create(String name, Relation relation, int colIdx, BufferManager bufferManager,
+                               DiskManager diskManager, int pageSize) {
+        ColumnType type = relation.getColumns()[colIdx].getColumnType();
+        if (type != ColumnType.CHAR && type != ColumnType.VARCHAR) {
+            throw new IllegalArgumentException("Colonne " + relation.getColumns()[colIdx].getColumnName()
+                    + " : index TRIGRAM réservé aux colonnes CHAR et VARCHAR");
+        }
+        TrigramIndex index = new TrigramIndex(name, relation, colIdx, bufferManager, diskManager,
+                diskManager.AllocPage(), pageSize);
+        index.init();
+        return index;
+    }
+
+    static TrigramIndex open(String name, Relation relation, int colIdx, BufferManager bufferManager,
+                             DiskManager diskManager, PageId metaPageId, int pageSize) {
+        TrigramIndex index = new TrigramIndex(name, relation, colIdx, bufferManager, diskManager, metaPageId, pageSize);
+        index.load();
+        return index;
+    }
+
+    @Override
+    public String getKind() {
+        return TRIGRAM;
+    }
+
+    // Trigrammes distincts de la valeur, tronquée à la taille de la colonne comme en page. Les
+    // espaces de fin sont gardés : la valeur relue (sans eux) n'a que des trigrammes indexés.
+    @Override
+    List<byte[]> keysOf(Record record) {
+        String value = (String) record.getValue(getColumnIndex());
+        if (value == null) {
+            return List.of();
+        }
+        int size = getColumn().getSizeInBytes();
+        return trigrams(value.length() > size ? value.substring(0, size) : value);
+    }
+
+    @Override
+    int getKeySize() {
+        return GRAM;
+    }
+
+    // Records qui ont tous les trigrammes des morceaux sans joker des LIKE sur la colonne,
+    // null si aucun LIKE n'a de morceau assez long
+    @Override
+    public RowBitmap matching(List<Condition> conditions) {
+        if (conditions == null) {
+            return null;
+        }
+        RowBitmap result = null;
+        for (Condition cond : conditions) {
+            LikePattern pattern = cond.getLikePattern(getColumnIndex());
+            if (pattern == null) continue;
+            for (String literal : pattern.getLiterals()) {
+                for (byte[] gram : trigrams(literal)) {
+                    RowBitmap bitmap = getBitmap(gram);
+                    if (bitmap == null) {
+                        return new RowBitmap(); // trigramme absent : aucun record ne peut correspondre
+                    }
+                    result = (result == null) ? bitmap.copy() : result.and(bitmap);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Octets comme dans les pages : un caractère par octet
+    private static List<byte[]> trigrams(String value) {
+        List<byte[]> grams = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            byte[] gram = new byte[GRAM];
+            int packed = 0;
+            for (int j = 0; j < GRAM; j++) {
+                gram[j] = (byte) value.charAt(i + j);
+                packed = (packed << 8) | (gram[j] & 0xFF);
+            }
+            if (seen.add(packed)) {
+                grams.add(gram);
+            }
+        }
+        return grams;
+    }
+}
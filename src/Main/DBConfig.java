@@ -11,14 +11,31 @@ public class DBConfig {
     private final int dm_maxpagesperfile;
     private final int bm_buffercount;
     private final String bm_policy;
+    private final int qm_parallelism; // workers des parcours parallèles, 1 = exécution séquentielle
+    private final long qm_joinmemory; // octets de la table de hachage d'une jointure avant répartition sur disque
+
+    public static final long DEFAULT_JOIN_MEMORY = 64L * 1024 * 1024;
 
     public DBConfig(String dbpath, int pagesize, int dm_maxfilecount, int dm_maxpagesperfile, int bm_buffercount, String bm_policy) {
+        this(dbpath, pagesize, dm_maxfilecount, dm_maxpagesperfile, bm_buffercount, bm_policy, 1);
+    }
+
+    public DBConfig(String dbpath, int pagesize, int dm_maxfilecount, int dm_maxpagesperfile, int bm_buffercount,
+                    String bm_policy, int qm_parallelism) {
+        this(dbpath, pagesize, dm_maxfilecount, dm_maxpagesperfile, bm_buffercount, bm_policy, qm_parallelism,
+                DEFAULT_JOIN_MEMORY);
+    }
+
+    public DBConfig(String dbpath, int pagesize, int dm_maxfilecount, int dm_maxpagesperfile, int bm_buffercount,
+                    String bm_policy, int qm_parallelism, long qm_joinmemory) {
         this.dbpath = dbpath;
         this.pagesize = pagesize;
         this.dm_maxfilecount = dm_maxfilecount;
         this.dm_maxpagesperfile = dm_maxpagesperfile;
         this.bm_buffercount = bm_buffercount;
         this.bm_policy = bm_policy;
+        this.qm_parallelism = Math.max(1, qm_parallelism);
+        this.qm_joinmemory = Math.max(1, qm_joinmemory);
     }
 
     public String getDbPath() { return dbpath; }
@@ -27,6 +44,8 @@ public class DBConfig {
     public int getDmMaxPagesPerFile() { return dm_maxpagesperfile; }
     public int getBm_buffercount() { return bm_buffercount; }
     public String getBm_policy() { return bm_policy; }
+    public int getQm_parallelism() { return qm_parallelism; }
+    public long getQm_joinmemory() { return qm_joinmemory; }
 
     public static DBConfig loadFromFile(String filename) {
         String dbpath = null;
@@ -35,6 +54,8 @@ public class DBConfig {
         int dm_maxpagesperfile = 0;
         int bm_buffercount = 0;
         String bm_policy = null;
+        int qm_parallelism = 1; // optionnel
+        long qm_joinmemory = DEFAULT_JOIN_MEMORY; // optionnel
 
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             StringBuilder json = new StringBuilder();
@@ -76,10 +97,17 @@ public class DBConfig {
                         case "bm_policy":
                             bm_policy = value;
                             break;
+                        case "qm_parallelism":
+                            qm_parallelism = Integer.parseInt(value);
+                            break;
+                        case "qm_joinmemory":
+                            qm_joinmemory = Long.parseLong(value);
+                            break;
                     }
                 }
             }
-            return new DBConfig(dbpath, pagesize, dm_maxfilecount, dm_maxpagesperfile, bm_buffercount, bm_policy);
+            return new DBConfig(dbpath, pagesize, dm_maxfilecount, dm_maxpagesperfile, bm_buffercount, bm_policy,
+                    qm_parallelism, qm_joinmemory);
         } catch (IOException e) {
             System.out.println("Erreur lecture config: " + e.getMessage());
             return null;
@@ -4,20 +4,32 @@ import BufferManager.BufferManager;
 import DBManager.DBManager;
 import DiskManager.DiskManager;
 import DiskManager.PageId;
+import DBManager.PartitionedTable;
+import FileManager.BulkInserter;
 import FileManager.Column;
 import FileManager.Relation;
 import FileManager.Record;
+import FileManager.RecordBatch;
 import FileManager.RecordId;
 import FileManager.ColumnType;
+import FileManager.TableOptions;
+import IndexManager.BitmapIndex;
+import IndexManager.Index;
+import IndexManager.RowBitmap;
 import QueryManager.*;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 public class SGBD {
 
@@ -25,12 +37,18 @@ public class SGBD {
     private DiskManager diskManager;
     private BufferManager bufferManager;
     private DBManager dbManager;
+    private ForkJoinPool pool; // workers des parcours parallèles, null si qm_parallelism = 1
 
     public SGBD(DBConfig config) {
         this.config = config;
         this.diskManager = new DiskManager(config);
         this.bufferManager = new BufferManager(config, diskManager);
         this.dbManager = new DBManager(config);
+        // Chaque worker épingle une page à la fois : il en reste une pour le reste de la commande
+        int parallelism = Math.min(config.getQm_parallelism(), config.getBm_buffercount() - 1);
+        if (parallelism > 1) {
+            this.pool = new ForkJoinPool(parallelism);
+        }
     }
 
     public static void main(String[] args) {
@@ -66,6 +84,11 @@ public class SGBD {
                     case "CREATE":
                         if (tokens.length > 1 && tokens[1].equalsIgnoreCase("TABLE")) {
                             ProcessCreateTableCommand(commandLine);
+                        } else if (tokens.length > 1 && tokens[1].equalsIgnoreCase("INDEX")) {
+                            ProcessCreateIndexCommand(commandLine, null);
+                        } else if (tokens.length > 2 && tokens[1].equalsIgnoreCase("BITMAP")
+                                && tokens[2].equalsIgnoreCase("INDEX")) {
+                            ProcessCreateIndexCommand(commandLine.replaceFirst("(?i)BITMAP\\s+", ""), Index.BITMAP);
                         }
                         break;
                     case "DROP":
@@ -73,6 +96,8 @@ public class SGBD {
                             ProcessDropTableCommand(commandLine);
                         } else if (tokens.length > 1 && tokens[1].equalsIgnoreCase("TABLES")) {
                             ProcessDropTablesCommand();
+                        } else if (tokens.length > 2 && tokens[1].equalsIgnoreCase("INDEX")) {
+                            dbManager.RemoveIndex(tokens[2]);
                         }
                         break;
                     case "DESCRIBE":
@@ -82,6 +107,14 @@ public class SGBD {
                             dbManager.DescribeAllTables();
                         }
                         break;
+                    case "ALTER":
+                        ProcessAlterTableCommand(commandLine);
+                        break;
+                    case "TRUNCATE":
+                        if (tokens.length > 1 && tokens[1].equalsIgnoreCase("TABLE")) {
+                            ProcessTruncateTableCommand(commandLine);
+                        }
+                        break;
                     case "INSERT":
                         ProcessInsertCommand(commandLine);
                         break;
@@ -107,6 +140,7 @@ public class SGBD {
         scanner.close();
     }
 
+    // CREATE TABLE Nom (Col1:Type1, ...) [CLUSTER BY (col)] [PARTITION BY ...] [WITH (option=valeur, ...)]
     private void ProcessCreateTableCommand(String command) {
         try {
             int openParenIndex = command.indexOf('(');
@@ -116,7 +150,7 @@ public class SGBD {
             String beforeParen = command.substring(0, openParenIndex).trim();
             String tableName = beforeParen.substring("CREATE TABLE".length()).trim();
 
-            int closeParenIndex = command.lastIndexOf(')');
+            int closeParenIndex = findClosingParen(command, openParenIndex);
             String columnsStr = command.substring(openParenIndex + 1, closeParenIndex);
 
             String[] colDefs = columnsStr.split(",");
@@ -130,45 +164,218 @@ public class SGBD {
             }
 
             Column[] columns = columnsList.toArray(new Column[0]);
+            TableOptions options = parseTableOptions(command.substring(closeParenIndex + 1).trim());
+
+            if (dbManager.GetSchema(tableName) != null) {
+                System.err.println("Erreur : La table " + tableName + " existe déjà.");
+                return;
+            }
+            if ("RANGE".equals(options.getPartitionKind())) {
+                dbManager.AddPartitionedTable(PartitionedTable.createRange(tableName, columns,
+                        options.getPartitionColumn(), options.getPartitionBounds(), options,
+                        config, diskManager, bufferManager));
+                return;
+            }
+            if ("HASH".equals(options.getPartitionKind())) {
+                dbManager.AddPartitionedTable(PartitionedTable.createHash(tableName, columns,
+                        options.getPartitionColumn(), options.getPartitionCount(), options,
+                        config, diskManager, bufferManager));
+                return;
+            }
 
             PageId headerPageId = diskManager.AllocPage();
-            ByteBuffer headerBuff = bufferManager.GetPage(headerPageId);
-            headerBuff.putInt(0, -1);
-            headerBuff.putInt(4, -1);
-            headerBuff.putInt(8, -1);
-            headerBuff.putInt(12, -1);
-            bufferManager.FreePage(headerPageId, true);
-
-            Relation rel = new Relation(tableName, columns, config, diskManager, bufferManager, headerPageId);
+            Relation.formatHeaderPage(bufferManager, headerPageId);
+
+            Relation rel = new Relation(tableName, columns, config, diskManager, bufferManager, headerPageId, options);
             dbManager.AddTable(rel);
         } catch (Exception e) {
             System.err.println("Erreur creation table : " + e.getMessage());
         }
     }
 
+    // Parenthèse fermante associée à celle de openIdx (les types CHAR(T) contiennent des parenthèses)
+    private int findClosingParen(String str, int openIdx) {
+        int depth = 0;
+        for (int i = openIdx; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '(') depth++;
+            else if (c == ')' && --depth == 0) return i;
+        }
+        throw new IllegalArgumentException("Parenthèse fermante manquante");
+    }
+
+    // Clauses après les colonnes, dans n'importe quel ordre : [CLUSTER BY (col)]
+    // [PARTITION BY RANGE(col) (b1, b2, ...) | PARTITION BY HASH(col, n)] [WITH (option=valeur, ...)]
+    private TableOptions parseTableOptions(String rest) {
+        TableOptions options = new TableOptions();
+        String clusterColumn = null;
+        String partitionColumn = null;
+        List<Double> partitionBounds = null;
+        int partitionCount = 0;
+        while (!rest.isEmpty()) {
+            int openIdx = rest.indexOf('(');
+            if (openIdx == -1)
+                throw new IllegalArgumentException("Clause inattendue: " + rest);
+            String keyword = rest.substring(0, openIdx).trim().toUpperCase().replaceAll("\\s+", " ");
+            int closeIdx = findClosingParen(rest, openIdx);
+            String inside = rest.substring(openIdx + 1, closeIdx).trim();
+            if (keyword.equals("WITH")) {
+                options = TableOptions.parse(inside);
+            } else if (keyword.equals("CLUSTER BY")) {
+                clusterColumn = inside;
+            } else if (keyword.equals("PARTITION BY RANGE")) {
+                // Colonne puis liste des bornes entre parenthèses
+                partitionColumn = inside;
+                rest = rest.substring(closeIdx + 1).trim();
+                if (!rest.startsWith("("))
+                    throw new IllegalArgumentException("Bornes de partitions attendues après RANGE(" + inside + ")");
+                closeIdx = findClosingParen(rest, 0);
+                partitionBounds = new ArrayList<>();
+                for (String bound : rest.substring(1, closeIdx).split(",")) {
+                    if (!bound.trim().isEmpty())
+                        partitionBounds.add(Double.parseDouble(bound.trim()));
+                }
+            } else if (keyword.equals("PARTITION BY HASH")) {
+                String[] parts = inside.split(",");
+                if (parts.length != 2)
+                    throw new IllegalArgumentException("Syntaxe attendue: PARTITION BY HASH(col, n)");
+                partitionColumn = parts[0].trim();
+                partitionCount = Integer.parseInt(parts[1].trim());
+            } else {
+                throw new IllegalArgumentException("Clause inattendue: " + rest);
+            }
+            rest = rest.substring(closeIdx + 1).trim();
+        }
+        options.setClusterColumn(clusterColumn);
+        if (partitionBounds != null) {
+            options.setRangePartitioning(partitionColumn, partitionBounds);
+        } else if (partitionColumn != null) {
+            options.setHashPartitioning(partitionColumn, partitionCount);
+        }
+        return options;
+    }
+
     private void ProcessDropTableCommand(String command) {
         String[] tokens = command.split("\\s+");
         if (tokens.length < 3)
             return;
         String tableName = tokens[2];
         Relation rel = dbManager.GetTable(tableName);
+        PartitionedTable partitioned = dbManager.GetPartitionedTable(tableName);
         if (rel != null) {
-            for (PageId pid : rel.getDataPages())
-                diskManager.DeallocPage(pid);
-            diskManager.DeallocPage(rel.getHeaderPageId());
+            rel.Drop();
+            dbManager.RemoveTable(tableName);
+        } else if (partitioned != null) {
+            partitioned.drop();
             dbManager.RemoveTable(tableName);
         }
     }
 
+    // CREATE INDEX Nom ON Table(Col) [USING BTREE|HASH|BITMAP|TRIGRAM] / CREATE BITMAP INDEX Nom ON Table(Col) :
+    // l'index est construit à partir des records existants puis tenu à jour par la relation
+    private void ProcessCreateIndexCommand(String command, String forcedKind) {
+        try {
+            String[] tokens = command.split("\\s+");
+            int openParen = command.indexOf('(');
+            int closeParen = command.indexOf(')', openParen + 1);
+            if (tokens.length < 4 || !tokens[3].equalsIgnoreCase("ON") || openParen == -1 || closeParen == -1) {
+                System.err.println("Erreur CREATE INDEX : syntaxe attendue CREATE INDEX Nom ON Table(Col) [USING Type]");
+                return;
+            }
+            String indexName = tokens[2];
+            int onIdx = command.toUpperCase().indexOf(" ON ");
+            String tableName = command.substring(onIdx + " ON ".length(), openParen).trim();
+            String colName = command.substring(openParen + 1, closeParen).trim();
+            String rest = command.substring(closeParen + 1).trim();
+            String kind = forcedKind != null ? forcedKind : Index.BTREE;
+            if (forcedKind == null && !rest.isEmpty()) {
+                String[] using = rest.split("\\s+");
+                if (using.length != 2 || !using[0].equalsIgnoreCase("USING")) {
+                    System.err.println("Erreur CREATE INDEX : USING Type attendu après la colonne");
+                    return;
+                }
+                kind = using[1].toUpperCase();
+            }
+
+            if (dbManager.GetIndex(indexName) != null) {
+                System.err.println("Erreur CREATE INDEX : l'index " + indexName + " existe déjà");
+                return;
+            }
+            if (dbManager.GetPartitionedTable(tableName) != null) {
+                System.err.println("Erreur CREATE INDEX : index non supporté sur une table partitionnée");
+                return;
+            }
+            Relation rel = dbManager.GetTable(tableName);
+            if (rel == null) {
+                System.err.println("Erreur CREATE INDEX : table " + tableName + " introuvable");
+                return;
+            }
+            int colIdx = rel.getColumnIndex(colName);
+            if (colIdx == -1) {
+                System.err.println("Erreur CREATE INDEX : colonne " + colName + " introuvable");
+                return;
+            }
+
+            Index index = Index.create(kind, indexName, rel, colIdx, config, diskManager, bufferManager);
+            index.build();
+            dbManager.AddIndex(index);
+        } catch (Exception e) {
+            System.err.println("Erreur CREATE INDEX : " + e.getMessage());
+        }
+    }
+
+    // TRUNCATE TABLE Nom : vide la table sans parcourir ses records
+    private void ProcessTruncateTableCommand(String command) {
+        String[] tokens = command.split("\\s+");
+        if (tokens.length < 3)
+            return;
+        String tableName = tokens[2];
+        Relation rel = dbManager.GetTable(tableName);
+        PartitionedTable partitioned = dbManager.GetPartitionedTable(tableName);
+        if (rel != null) {
+            rel.Truncate();
+        } else if (partitioned != null) {
+            partitioned.truncate();
+        } else {
+            System.err.println("Erreur TRUNCATE : table " + tableName + " introuvable");
+        }
+    }
+
+    // ALTER TABLE Nom DROP PARTITION p | ALTER TABLE Nom ADD PARTITION (borne)
+    private void ProcessAlterTableCommand(String command) {
+        try {
+            String[] tokens = command.split("\\s+");
+            if (tokens.length < 5 || !tokens[1].equalsIgnoreCase("TABLE")
+                    || !tokens[4].toUpperCase().startsWith("PARTITION")) {
+                System.err.println("Erreur ALTER : syntaxe attendue ALTER TABLE Nom DROP|ADD PARTITION ...");
+                return;
+            }
+            PartitionedTable partitioned = dbManager.GetPartitionedTable(tokens[2]);
+            if (partitioned == null) {
+                System.err.println("Erreur ALTER : " + tokens[2] + " n'est pas une table partitionnée");
+                return;
+            }
+            String argument = command.substring(command.toUpperCase().indexOf("PARTITION") + "PARTITION".length()).trim();
+            if (tokens[3].equalsIgnoreCase("DROP")) {
+                partitioned.dropPartition(argument);
+            } else if (tokens[3].equalsIgnoreCase("ADD")) {
+                partitioned.addPartition(Double.parseDouble(argument.replace("(", "").replace(")", "").trim()));
+            }
+        } catch (Exception e) {
+            System.err.println("Erreur ALTER : " + e.getMessage());
+        }
+    }
+
     private void ProcessDropTablesCommand() {
         for (String tableName : dbManager.GetTableNames()) {
             Relation rel = dbManager.GetTable(tableName);
             if (rel != null) {
-                for (PageId pid : rel.getDataPages())
-                    diskManager.DeallocPage(pid);
-                diskManager.DeallocPage(rel.getHeaderPageId());
+                rel.Drop();
             }
         }
+        for (String tableName : dbManager.GetPartitionedTableNames()) {
+            dbManager.GetPartitionedTable(tableName).drop();
+        }
         dbManager.RemoveAllTables();
     }
 
@@ -189,7 +396,7 @@ public class SGBD {
             String valuesPart = temp.substring(valuesIdx + "VALUES".length()).trim();
             valuesPart = valuesPart.substring(1, valuesPart.length() - 1); // enlever ()
 
-            Relation rel = dbManager.GetTable(tableName);
+            Relation rel = dbManager.GetSchema(tableName);
             if (rel == null) {
                 System.out.println("Table inconnue");
                 return;
@@ -202,7 +409,7 @@ public class SGBD {
                 parseAndSetRecordValue(record, i, rawValues[i].trim(), rel.getColumns()[i].getColumnType());
             }
 
-            rel.InsertRecord(record);
+            dbManager.GetInsertTarget(tableName, record).InsertRecord(record);
 
         } catch (Exception e) {
             System.err.println("Erreur INSERT: " + e.getMessage());
@@ -219,7 +426,7 @@ public class SGBD {
             String filePart = temp.substring(allRecIdx + "ALLRECORDS".length()).trim();
             filePart = filePart.substring(1, filePart.length() - 1); // enlever ()
 
-            Relation rel = dbManager.GetTable(tableName);
+            Relation rel = dbManager.GetSchema(tableName);
             if (rel == null)
                 return;
 
@@ -230,20 +437,29 @@ public class SGBD {
             }
 
             BufferedReader br = new BufferedReader(new FileReader(csvFile));
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty())
-                    continue;
-                String[] parts = line.split(",");
+            // Une session d'insertion par relation cible (par partition pour une table partitionnée)
+            Map<Relation, BulkInserter> inserters = new HashMap<>();
+            try {
+                // Un seul record réutilisé : l'insertion copie ses valeurs dans la page
                 Record record = new Record(rel.getColumns().length);
-                for (int i = 0; i < parts.length; i++) {
-                    parseAndSetRecordValue(record, i, parts[i].trim(), rel.getColumns()[i].getColumnType());
+                String line;
+                while ((line = br.readLine()) != null) {
+                    if (line.trim().isEmpty())
+                        continue;
+                    String[] parts = line.split(",");
+                    record.clear();
+                    for (int i = 0; i < parts.length; i++) {
+                        parseAndSetRecordValue(record, i, parts[i].trim(), rel.getColumns()[i].getColumnType());
+                    }
+                    Relation target = dbManager.GetInsertTarget(tableName, record);
+                    inserters.computeIfAbsent(target, Relation::newBulkInserter).insert(record);
                 }
-                rel.InsertRecord(record);
-                count++;
+            } finally {
+                for (BulkInserter inserter : inserters.values()) {
+                    inserter.close();
+                }
+                br.close();
             }
-            br.close();
 
         } catch (Exception e) {
             System.err.println("Erreur APPEND : " + e.getMessage());
@@ -253,10 +469,10 @@ public class SGBD {
     private void parseAndSetRecordValue(Record rec, int index, String val, ColumnType type) {
         switch (type) {
             case INT:
-                rec.setValue(index, Integer.parseInt(val));
+                rec.setInt(index, Integer.parseInt(val));
                 break;
             case FLOAT:
-                rec.setValue(index, Float.parseFloat(val));
+                rec.setFloat(index, Float.parseFloat(val));
                 break;
             case CHAR:
             case VARCHAR:
@@ -282,23 +498,52 @@ public class SGBD {
             String fromPart = (whereIdx == -1) ? rest : rest.substring(0, whereIdx).trim();
             String wherePart = (whereIdx == -1) ? null : rest.substring(whereIdx + " WHERE ".length()).trim();
 
+            if (fromPart.contains(",")) {
+                ProcessJoinSelectCommand(selectPart, fromPart, wherePart);
+                return;
+            }
+
             String[] tableAlias = fromPart.split("\\s+");
             String tableName = tableAlias[0];
             String alias = (tableAlias.length > 1) ? tableAlias[1] : "";
 
-            Relation rel = dbManager.GetTable(tableName);
+            Relation rel = dbManager.GetSchema(tableName);
             if (rel == null) {
                 System.out.println("Table inconnue");
                 return;
             }
 
-            // Construire l'itérateur de base
-            IRecordIterator iterator = new RelationScanner(rel, bufferManager);
-
-            // Gestion WHERE
-            if (wherePart != null) {
-                List<Condition> conditions = parseConditions(wherePart, rel, alias);
-                iterator = new SelectOperator(iterator, conditions);
+            List<Condition> conditions = (wherePart == null) ? null : parseConditions(wherePart, rel, alias);
+
+            if (selectPart.replace(" ", "").equalsIgnoreCase("COUNT(*)")) {
+                // Sans WHERE, le nombre de records est lu dans les Header Pages, sans parcours
+                long count;
+                if (conditions == null) {
+                    count = dbManager.GetRowCount(tableName);
+                } else {
+                    IRecordIterator matches = newScanner(tableName, conditions, null);
+                    count = 0;
+                    try {
+                        if (matches instanceof ParallelScan) {
+                            count = ((ParallelScan) matches).count();
+                        } else if (matches instanceof IBatchIterator) {
+                            // Par lots : seule la taille de la sélection de chaque lot est lue
+                            RecordBatch batch;
+                            while ((batch = ((IBatchIterator) matches).GetNextBatch()) != null) {
+                                count += batch.getSelectedCount();
+                            }
+                        } else {
+                            while (matches.GetNextRecord() != null) {
+                                count++;
+                            }
+                        }
+                    } finally {
+                        matches.Close();
+                    }
+                }
+                System.out.println(count);
+                System.out.println("Total selected records = 1");
+                return;
             }
 
             // Gestion SELECT (Projection)
@@ -313,11 +558,25 @@ public class SGBD {
                     if (idx != -1)
                         projIndices.add(idx);
                 }
-                iterator = new ProjectOperator(iterator, projIndices);
             }
 
+            // Le parcours applique lui-même le WHERE et la projection : les conditions sont testées
+            // sur les octets des pages et les records retenus sont des vues sur les seules colonnes
+            // projetées ; les pages écartées par leur zone map ne sont pas lues du tout, et un index
+            // utilisable limite la lecture aux records désignés
+            IRecordIterator iterator = newScanner(tableName, conditions, projIndices);
+            boolean batched = iterator instanceof IBatchIterator; // parcours séquentiel : exécution par lots
+
             // Affichage
-            new RecordPrinter(iterator).print();
+            try {
+                if (batched) {
+                    new RecordPrinter(iterator).printBatches();
+                } else {
+                    new RecordPrinter(iterator).print();
+                }
+            } finally {
+                iterator.Close();
+            }
 
         } catch (Exception e) {
             System.err.println("Erreur SELECT: " + e.getMessage());
@@ -325,6 +584,211 @@ public class SGBD {
         }
     }
 
+    // Table du FROM d'une jointure : son alias (à défaut son nom), les conditions du WHERE qui ne
+    // portent que sur elle, et la position de ses colonnes dans les records joints
+    private static class JoinTable {
+        final String name;
+        final String alias;
+        final Relation schema;
+        final List<String> where = new ArrayList<>();
+        int offset = -1; // -1 tant qu'elle n'est pas jointe
+
+        JoinTable(String name, String alias, Relation schema) {
+            this.name = name;
+            this.alias = alias;
+            this.schema = schema;
+        }
+    }
+
+    // Comparaison du WHERE entre colonnes de deux tables du FROM
+    private static class JoinTerm {
+        final int leftTable;
+        final int leftCol;
+        final String op;
+        final int rightTable;
+        final int rightCol;
+        boolean applied;
+
+        JoinTerm(int leftTable, int leftCol, String op, int rightTable, int rightCol) {
+            this.leftTable = leftTable;
+            this.leftCol = leftCol;
+            this.op = op;
+            this.rightTable = rightTable;
+            this.rightCol = rightCol;
+        }
+    }
+
+    // SELECT ... FROM R r, S s WHERE r.a = s.b AND ...
+    // Les conditions sur une seule table sont appliquées par son parcours. Les tables sont jointes
+    // une à une (HashJoin, build sur l'entrée estimée la plus petite) par une égalité avec une table
+    // déjà jointe ; les autres conditions entre tables filtrent ensuite les records joints.
+    private void ProcessJoinSelectCommand(String selectPart, String fromPart, String wherePart) {
+        List<JoinTable> tables = new ArrayList<>();
+        for (String item : fromPart.split(",")) {
+            String[] tableAlias = item.trim().split("\\s+");
+            Relation schema = dbManager.GetSchema(tableAlias[0]);
+            if (schema == null) {
+                System.out.println("Table inconnue");
+                return;
+            }
+            tables.add(new JoinTable(tableAlias[0], (tableAlias.length > 1) ? tableAlias[1] : tableAlias[0], schema));
+        }
+
+        // Répartition des conditions : par table, ou entre deux tables
+        List<JoinTerm> terms = new ArrayList<>();
+        if (wherePart != null) {
+            for (String c : wherePart.split(" AND ")) {
+                c = c.trim();
+                String upper = c.toUpperCase();
+                int likeIdx = upper.indexOf(" LIKE ");
+                int inIdx = upper.indexOf(" IN ");
+                int leftEnd = (likeIdx != -1) ? likeIdx : (inIdx != -1 && c.endsWith(")")) ? inIdx : -1;
+                if (leftEnd != -1) {
+                    int[] col = resolveColumn(c.substring(0, leftEnd).trim(), tables);
+                    if (col != null) tables.get(col[0]).where.add(c);
+                    continue;
+                }
+                String op = comparisonOperator(c);
+                if (op.isEmpty()) continue;
+
+                int opIdx = c.indexOf(op);
+                int[] left = resolveColumn(c.substring(0, opIdx).trim(), tables);
+                int[] right = resolveColumn(c.substring(opIdx + op.length()).trim(), tables);
+                if (left != null && right != null && left[0] != right[0]) {
+                    terms.add(new JoinTerm(left[0], left[1], op, right[0], right[1]));
+                } else if (left != null || right != null) {
+                    tables.get((left != null ? left : right)[0]).where.add(c);
+                }
+            }
+        }
+
+        JoinTable first = tables.get(0);
+        first.offset = 0;
+        List<Column> columns = new ArrayList<>(Arrays.asList(first.schema.getColumns()));
+        long rows = dbManager.GetRowCount(first.name);
+        IRecordIterator iterator = newScanner(first.name, localConditions(first), null);
+        try {
+            for (int joined = 1; joined < tables.size(); joined++) {
+                // Égalité entre une table jointe et une qui ne l'est pas encore
+                JoinTerm key = null;
+                for (JoinTerm term : terms) {
+                    if (!term.applied && term.op.equals("=")
+                            && (tables.get(term.leftTable).offset == -1) != (tables.get(term.rightTable).offset == -1)) {
+                        key = term;
+                        break;
+                    }
+                }
+                if (key == null) {
+                    throw new RuntimeException("Jointure sans égalité entre les tables (produit cartésien non supporté)");
+                }
+                boolean nextOnRight = tables.get(key.rightTable).offset == -1;
+                JoinTable prev = tables.get(nextOnRight ? key.leftTable : key.rightTable);
+                int prevCol = nextOnRight ? key.leftCol : key.rightCol;
+                JoinTable next = tables.get(nextOnRight ? key.rightTable : key.leftTable);
+                int nextCol = nextOnRight ? key.rightCol : key.leftCol;
+                checkJoinTypes(prev.schema.getColumns()[prevCol], next.schema.getColumns()[nextCol]);
+
+                long nextRows = dbManager.GetRowCount(next.name);
+                Column[] nextColumns = next.schema.getColumns();
+                iterator = new HashJoin(iterator, columns.toArray(new Column[0]), prev.offset + prevCol,
+                        newScanner(next.name, localConditions(next), null), nextColumns, nextCol,
+                        rows <= nextRows, config.getQm_joinmemory(), config, diskManager, bufferManager);
+                key.applied = true;
+                next.offset = columns.size();
+                columns.addAll(Arrays.asList(nextColumns));
+                rows = Math.max(rows, nextRows); // estimation : jointure sur une clé de l'une des deux tables
+
+                // Conditions entre tables maintenant toutes jointes
+                List<Condition> residual = new ArrayList<>();
+                for (JoinTerm term : terms) {
+                    JoinTable l = tables.get(term.leftTable);
+                    JoinTable r = tables.get(term.rightTable);
+                    if (!term.applied && l.offset != -1 && r.offset != -1) {
+                        ColumnType type = l.schema.getColumns()[term.leftCol].getColumnType();
+                        residual.add(new Condition(l.offset + term.leftCol, term.op, r.offset + term.rightCol, type));
+                        term.applied = true;
+                    }
+                }
+                if (!residual.isEmpty()) {
+                    iterator = new SelectOperator(iterator, residual);
+                }
+            }
+
+            if (selectPart.replace(" ", "").equalsIgnoreCase("COUNT(*)")) {
+                long count = 0;
+                while (iterator.GetNextRecord() != null) {
+                    count++;
+                }
+                System.out.println(count);
+                System.out.println("Total selected records = 1");
+                return;
+            }
+
+            // Projection : colonnes des tables dans l'ordre du FROM pour SELECT *
+            List<Integer> projIndices = new ArrayList<>();
+            if (selectPart.equals("*")) {
+                for (JoinTable table : tables) {
+                    for (int c = 0; c < table.schema.getColumns().length; c++) {
+                        projIndices.add(table.offset + c);
+                    }
+                }
+            } else {
+                for (String col : selectPart.split(",")) {
+                    int[] ref = resolveColumn(col.trim(), tables);
+                    if (ref != null)
+                        projIndices.add(tables.get(ref[0]).offset + ref[1]);
+                }
+            }
+            new RecordPrinter(new ProjectOperator(iterator, projIndices)).print();
+        } finally {
+            iterator.Close(); // rend les partitions temporaires d'une jointure interrompue
+        }
+    }
+
+    private List<Condition> localConditions(JoinTable table) {
+        return table.where.isEmpty() ? null : parseConditions(String.join(" AND ", table.where), table.schema, table.alias);
+    }
+
+    // Table et colonne désignées par ref (alias.col, table.col ou col seule), null si ref n'est
+    // pas une colonne des tables du FROM (constante)
+    private int[] resolveColumn(String ref, List<JoinTable> tables) {
+        int dot = ref.indexOf('.');
+        if (dot != -1) {
+            String qualifier = ref.substring(0, dot);
+            for (int t = 0; t < tables.size(); t++) {
+                JoinTable table = tables.get(t);
+                if (table.alias.equals(qualifier) || table.name.equals(qualifier)) {
+                    int idx = table.schema.getColumnIndex(ref.substring(dot + 1));
+                    return (idx == -1) ? null : new int[] { t, idx };
+                }
+            }
+            return null;
+        }
+        int[] found = null;
+        for (int t = 0; t < tables.size(); t++) {
+            int idx = tables.get(t).schema.getColumnIndex(ref);
+            if (idx != -1) {
+                if (found != null) {
+                    throw new RuntimeException("Colonne ambiguë : " + ref);
+                }
+                found = new int[] { t, idx };
+            }
+        }
+        return found;
+    }
+
+    // Les clés d'une jointure sont comparées par égalité de leurs valeurs : deux colonnes
+    // numériques du même type, ou deux colonnes de chaînes (CHAR/VARCHAR)
+    private static void checkJoinTypes(Column left, Column right) {
+        ColumnType a = left.getColumnType();
+        ColumnType b = right.getColumnType();
+        boolean numeric = a == ColumnType.INT || a == ColumnType.FLOAT;
+        if (numeric ? a != b : (b == ColumnType.INT || b == ColumnType.FLOAT)) {
+            throw new RuntimeException("Jointure entre colonnes de types différents : "
+                    + left.getColumnName() + " et " + right.getColumnName());
+        }
+    }
+
     // DELETE Rel Alias WHERE ...
     private void ProcessDeleteCommand(String command) {
         try {
@@ -337,29 +801,42 @@ public class SGBD {
             String tableName = tableAlias[0];
             String alias = (tableAlias.length > 1) ? tableAlias[1] : "";
 
-            Relation rel = dbManager.GetTable(tableName);
-            if (rel == null)
+            Relation schema = dbManager.GetSchema(tableName);
+            if (schema == null)
                 return;
 
-            IRecordIterator iterator = new RelationScanner(rel, bufferManager);
-            if (wherePart != null) {
-                List<Condition> conds = parseConditions(wherePart, rel, alias);
-                iterator = new SelectOperator(iterator, conds);
-            }
-
-            List<RecordId> toDelete = new ArrayList<>();
-            Record rec;
-            while ((rec = iterator.GetNextRecord()) != null) {
-                toDelete.add(rec.getRid());
-            }
+            // Seules les colonnes de la clause WHERE sont lues, le RID suffit pour supprimer
+            List<Condition> conds = (wherePart == null) ? null : parseConditions(wherePart, schema, alias);
+            int count = 0;
+            for (Relation rel : dbManager.GetRelations(tableName, conds)) {
+                IRecordIterator iterator = newRelationScanner(tableName, rel, conds, null);
+
+                // Les suppressions restent séquentielles : la relation, son répertoire de pages et
+                // ses index n'acceptent qu'un écrivain à la fois
+                List<RecordId> toDelete;
+                try {
+                    if (iterator instanceof ParallelScan) {
+                        toDelete = ((ParallelScan) iterator).collectRids();
+                    } else {
+                        toDelete = new ArrayList<>();
+                        Record rec;
+                        while ((rec = iterator.GetNextRecord()) != null) {
+                            toDelete.add(rec.getRid());
+                        }
+                    }
+                } finally {
+                    iterator.Close();
+                }
 
-            // a l'inverse pour évité les problèmes d'index ou de désallocation séquentielle
-            // sur une même page
-            for (int i = toDelete.size() - 1; i >= 0; i--) {
-                rel.DeleteRecord(toDelete.get(i));
+                // a l'inverse pour évité les problèmes d'index ou de désallocation séquentielle
+                // sur une même page
+                for (int i = toDelete.size() - 1; i >= 0; i--) {
+                    rel.DeleteRecord(toDelete.get(i));
+                }
+                count += toDelete.size();
             }
 
-            System.out.println("Total deleted records = " + toDelete.size());
+            System.out.println("Total deleted records = " + count);
 
         } catch (Exception e) {
             System.err.println("Erreur DELETE: " + e.getMessage());
@@ -382,7 +859,7 @@ public class SGBD {
             String tableName = tableAlias[0];
             String alias = (tableAlias.length > 1) ? tableAlias[1] : "";
 
-            Relation rel = dbManager.GetTable(tableName);
+            Relation rel = dbManager.GetSchema(tableName);
             if (rel == null)
                 return;
 
@@ -400,29 +877,51 @@ public class SGBD {
                 updateVals.add(kv[1].trim());
             }
 
-            IRecordIterator iterator = new RelationScanner(rel, bufferManager);
-            if (wherePart != null) {
-                List<Condition> conds = parseConditions(wherePart, rel, alias);
-                iterator = new SelectOperator(iterator, conds);
-            }
+            List<Condition> conds = (wherePart == null) ? null : parseConditions(wherePart, rel, alias);
 
+            // Tous les records à modifier sont collectés (avec leur partition) avant la première
+            // écriture : un record déplacé vers une autre partition n'est pas traité deux fois
             int count = 0;
-            Record rec;
             List<Record> recordsToUpdate = new ArrayList<>();
-            while ((rec = iterator.GetNextRecord()) != null) {
-                recordsToUpdate.add(rec);
+            List<Relation> sources = new ArrayList<>();
+            for (Relation source : dbManager.GetRelations(tableName, conds)) {
+                IRecordIterator iterator = newRelationScanner(tableName, source, conds, null);
+                try {
+                    Record rec;
+                    while ((rec = iterator.GetNextRecord()) != null) {
+                        recordsToUpdate.add(rec.materialize());
+                        sources.add(source);
+                    }
+                } finally {
+                    iterator.Close(); // page courante désépinglée, morsels en cours terminés
+                }
             }
 
-            for (Record r : recordsToUpdate) {
+            List<Record> movedRecords = new ArrayList<>();
+            for (int r = 0; r < recordsToUpdate.size(); r++) {
+                Record record = recordsToUpdate.get(r);
+                Relation source = sources.get(r);
                 // Appliquer les modifs
                 for (int i = 0; i < updateCols.size(); i++) {
                     int colIdx = updateCols.get(i);
                     String valStr = updateVals.get(i);
-                    parseAndSetRecordValue(r, colIdx, valStr, rel.getColumns()[colIdx].getColumnType());
+                    parseAndSetRecordValue(record, colIdx, valStr, rel.getColumns()[colIdx].getColumnType());
+                }
+                Relation target = dbManager.GetInsertTarget(tableName, record);
+                if (target == source) {
+                    source.updateRecord(record.getRid(), record);
+                } else {
+                    // La clé de partitionnement a changé : le record change de partition
+                    source.DeleteRecord(record.getRid());
+                    movedRecords.add(record);
                 }
-                rel.updateRecord(r.getRid(), r);
                 count++;
             }
+            // Insérés en dernier : une insertion dans une table triée peut déplacer des records
+            // (split) dont le RID serait encore à traiter
+            for (Record record : movedRecords) {
+                dbManager.GetInsertTarget(tableName, record).InsertRecord(record);
+            }
             System.out.println("Total updated records = " + count);
 
         } catch (Exception e) {
@@ -430,6 +929,59 @@ public class SGBD {
         }
     }
 
+    // Parcours d'une table : la relation elle-même, ou ses partitions retenues les unes après les autres.
+    // Seuls les records qui vérifient les conditions sont retournés, réduits aux colonnes données
+    // (null ou vide : toutes).
+    private IRecordIterator newScanner(String tableName, List<Condition> conditions, List<Integer> columns) {
+        List<Relation> relations = dbManager.GetRelations(tableName, conditions);
+        if (relations.size() == 1) {
+            return newRelationScanner(tableName, relations.get(0), conditions, columns);
+        }
+        if (pool != null) {
+            return new ParallelScan(relations, bufferManager, conditions, columns, pool);
+        }
+        return new PartitionScanner(relations, bufferManager, conditions, columns);
+    }
+
+    // Parcours d'une relation : par les index qui s'appliquent aux conditions, sinon séquentiel
+    // (parallèle si qm_parallelism > 1)
+    private IRecordIterator newRelationScanner(String tableName, Relation rel, List<Condition> conditions,
+                                               List<Integer> columns) {
+        Supplier<Iterator<RecordId>> lookup = indexLookup(tableName, rel, conditions);
+        if (lookup != null) {
+            return new IndexScanner(rel, bufferManager, lookup, conditions, columns);
+        }
+        if (pool != null) {
+            return new ParallelScan(List.of(rel), bufferManager, conditions, columns, pool);
+        }
+        return new RelationScanner(rel, bufferManager, conditions, columns);
+    }
+
+    // RID désignés par les index bitmap et trigrammes qui s'appliquent aux conditions (leurs
+    // bitmaps combinées avant de lire une page), sinon par le premier index de la table qui
+    // s'applique ; null si aucun ne s'applique
+    private Supplier<Iterator<RecordId>> indexLookup(String tableName, Relation rel, List<Condition> conditions) {
+        if (conditions == null || dbManager.GetTable(tableName) != rel) {
+            return null;
+        }
+        List<BitmapIndex> bitmapIndexes = new ArrayList<>();
+        for (Index index : dbManager.GetIndexes(tableName)) {
+            if (index instanceof BitmapIndex) {
+                bitmapIndexes.add((BitmapIndex) index);
+            }
+        }
+        RowBitmap matches = BitmapIndex.intersect(bitmapIndexes, conditions);
+        if (matches != null) {
+            return matches::iterator;
+        }
+        for (Index index : dbManager.GetIndexes(tableName)) {
+            if (index.lookup(conditions) != null) {
+                return () -> index.lookup(conditions);
+            }
+        }
+        return null;
+    }
+
     // Helper pour parser les conditions
     private List<Condition> parseConditions(String wherePart, Relation rel, String alias) {
         List<Condition> conditions = new ArrayList<>();
@@ -438,15 +990,44 @@ public class SGBD {
 
         for (String c : condsStr) {
             c = c.trim();
+            // Cas LIKE : colonne LIKE "motif" ou 'motif' (jokers % et _)
+            int likeIdx = c.toUpperCase().indexOf(" LIKE ");
+            if (likeIdx != -1) {
+                String left = c.substring(0, likeIdx).trim();
+                String pattern = c.substring(likeIdx + " LIKE ".length()).trim();
+                String cleanLeft = left.contains(".") ? left.split("\\.")[1] : left;
+                int colIdx = rel.getColumnIndex(cleanLeft);
+                if (colIdx == -1) continue;
+
+                ColumnType type = rel.getColumns()[colIdx].getColumnType();
+                if (type != ColumnType.CHAR && type != ColumnType.VARCHAR) {
+                    throw new RuntimeException("LIKE réservé aux colonnes CHAR et VARCHAR : " + cleanLeft);
+                }
+                if (pattern.length() >= 2 && pattern.startsWith("'") && pattern.endsWith("'")) {
+                    pattern = pattern.substring(1, pattern.length() - 1);
+                }
+                conditions.add(new Condition(colIdx, "LIKE", pattern, type));
+                continue;
+            }
+            // Cas IN : colonne IN (v1, v2, ...)
+            int inIdx = c.toUpperCase().indexOf(" IN ");
+            if (inIdx != -1 && c.endsWith(")")) {
+                String left = c.substring(0, inIdx).trim();
+                String list = c.substring(inIdx + " IN ".length()).trim();
+                String cleanLeft = left.contains(".") ? left.split("\\.")[1] : left;
+                int colIdx = rel.getColumnIndex(cleanLeft);
+                if (colIdx == -1 || !list.startsWith("(")) continue;
+
+                List<String> values = new ArrayList<>();
+                for (String v : list.substring(1, list.length() - 1).split(",")) {
+                    values.add(v.trim());
+                }
+                ColumnType type = rel.getColumns()[colIdx].getColumnType();
+                conditions.add(new Condition(colIdx, values, type));
+                continue;
+            }
             // Identification de l'opérateur de comparaison
-            String op = "";
-            if (c.contains("<=")) op = "<=";
-            else if (c.contains(">=")) op = ">=";
-            else if (c.contains("<>")) op = "<>";
-            else if (c.contains("=")) op = "=";
-            else if (c.contains("<")) op = "<";
-            else if (c.contains(">")) op = ">";
-
+            String op = comparisonOperator(c);
             if (op.isEmpty()) continue;
 
             // Découpage entre la partie gauche et droite de l'opérateur
@@ -491,7 +1072,21 @@ public class SGBD {
         return conditions;
     }
 
+    // Opérateur de comparaison d'une condition, "" s'il n'y en a pas
+    private static String comparisonOperator(String c) {
+        if (c.contains("<=")) return "<=";
+        if (c.contains(">=")) return ">=";
+        if (c.contains("<>")) return "<>";
+        if (c.contains("=")) return "=";
+        if (c.contains("<")) return "<";
+        if (c.contains(">")) return ">";
+        return "";
+    }
+
     private void ProcessExitCommand() {
+        if (pool != null) {
+            pool.shutdown();
+        }
         dbManager.SaveState();
         bufferManager.FlushBuffers();
         diskManager.Finish();
@@ -1,24 +1,59 @@
 package QueryManager;
 
 import FileManager.ColumnType;
+import FileManager.PageColumn;
 import FileManager.Record;
+import FileManager.RecordBatch;
+import FileManager.Relation;
+import FileManager.ZoneMap;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Condition du WHERE. Les constantes sont converties dès la construction (une constante du
+// mauvais type est refusée avant tout parcours) et la condition est compilée en un Predicate :
+// evaluate ne fait plus qu'une lecture et une comparaison par record. bind() recompile le
+// prédicat pour une relation donnée (codes du dictionnaire, lecture directe des pages).
 public class Condition {
 
     private int colIndex;
     private String operator;
-    private String valConst; // Stocké en String, converti à la volée
+    private Object constant; // Constante convertie au type de la colonne
     private int colIndexRight; // Si comparaison col vs col, sinon -1
     private boolean isRightConstant;
     private ColumnType type; // Type de la colonne de gauche (juste pour le casting)
+    private Object[] inValues; // Constantes converties de l'opérateur IN
+    private int[] dictionaryCodes; // Codes des constantes (=, <>, IN sur une colonne encodée par dictionnaire)
+    private LikePattern likePattern; // Motif de l'opérateur LIKE
+    private Predicate predicate;
 
     public Condition(int colIndex, String operator, String valConst, ColumnType type) {
         this.colIndex = colIndex;
         this.operator = operator;
-        this.valConst = valConst;
+        this.constant = parseConstant(valConst, type);
+        this.isRightConstant = true;
+        this.type = type;
+        this.colIndexRight = -1;
+        if (operator.equals("LIKE")) {
+            this.likePattern = new LikePattern((String) constant);
+        }
+        this.predicate = compile(null);
+    }
+
+    // col IN (v1, v2, ...)
+    public Condition(int colIndex, List<String> inValues, ColumnType type) {
+        this.colIndex = colIndex;
+        this.operator = "IN";
+        this.inValues = new Object[inValues.size()];
+        for (int i = 0; i < this.inValues.length; i++) {
+            this.inValues[i] = parseConstant(inValues.get(i), type);
+        }
         this.isRightConstant = true;
         this.type = type;
         this.colIndexRight = -1;
+        this.predicate = compile(null);
     }
 
     public Condition(int colIndex, String operator, int colIndexRight, ColumnType type) {
@@ -27,36 +62,334 @@ public class Condition {
         this.colIndexRight = colIndexRight;
         this.isRightConstant = false;
         this.type = type;
-        this.valConst = null;
+        this.predicate = compile(null);
+    }
+
+    // false si aucun record d'une page résumée par cette zone map ne peut vérifier la condition.
+    // Seules les comparaisons colonne/constante sur une colonne résumée permettent d'écarter une
+    // page : bornes min/max des colonnes numériques, filtre de Bloom (= et IN) des colonnes CHAR.
+    public boolean mayMatch(ZoneMap zone) {
+        if (!isRightConstant || zone == null) {
+            return true;
+        }
+        if (zone.hasBloomFilter(colIndex)) {
+            return mayMatchBloom(zone);
+        }
+        if (!zone.covers(colIndex)) {
+            return true;
+        }
+        double min = zone.getMin(colIndex);
+        double max = zone.getMax(colIndex);
+        double eps = (type == ColumnType.FLOAT) ? 0.0001 : 0; // même tolérance que compareFloat
+        if (operator.equals("IN")) {
+            for (Object value : inValues) {
+                double c = ((Number) value).doubleValue();
+                if (min - eps <= c && c <= max + eps) return true;
+            }
+            return false;
+        }
+        double c = ((Number) constant).doubleValue();
+
+        switch (operator) {
+            case "=": return min - eps <= c && c <= max + eps;
+            case "<": return min < c;
+            case ">": return max > c;
+            case "<=": return min <= c;
+            case ">=": return max >= c;
+            case "<>": return !(min >= c - eps && max <= c + eps);
+            default: return true;
+        }
+    }
+
+    private boolean mayMatchBloom(ZoneMap zone) {
+        if (operator.equals("=")) {
+            return zone.mightContain(colIndex, (String) constant);
+        }
+        if (operator.equals("LIKE") && likePattern.isExact()) {
+            return zone.mightContain(colIndex, likePattern.getPattern());
+        }
+        if (operator.equals("IN")) {
+            for (Object value : inValues) {
+                if (zone.mightContain(colIndex, (String) value)) return true;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    // Lie la condition à une relation (chaque partition d'une table a la sienne) : le prédicat
+    // est recompilé pour lire directement ses pages. Pour =, <> et IN sur une colonne encodée
+    // par dictionnaire, les constantes sont traduites une fois en codes : les records en page sont
+    // comparés sur leur code, sans décoder la chaîne. Une constante absente du dictionnaire n'a
+    // pas de code (aucun record ne l'a).
+    public void bind(Relation relation) {
+        dictionaryCodes = dictionaryCodes(relation); // remplace la liaison précédente (autre partition)
+        predicate = compile(relation);
+    }
+
+    // Codes des constantes dans le dictionnaire de la colonne, null si la condition ne se
+    // résout pas sur les codes
+    private int[] dictionaryCodes(Relation relation) {
+        if (!isRightConstant || !relation.isDictionaryEncoded(colIndex)) return null;
+        Object[] constants;
+        switch (operator) {
+            case "=":
+            case "<>":
+                constants = new Object[] { constant };
+                break;
+            case "IN":
+                constants = inValues;
+                break;
+            default:
+                return null; // comparaison d'ordre : les codes ne suivent pas l'ordre des chaînes
+        }
+        int[] codes = new int[constants.length];
+        int count = 0;
+        for (Object value : constants) {
+            int code = relation.lookupDictionaryCode(colIndex, (String) value);
+            if (code != -1) codes[count++] = code;
+        }
+        return Arrays.copyOf(codes, count);
+    }
+
+    // Nouveau prédicat de la condition pour une relation (null : évaluable seulement sur des
+    // records). Il ne modifie pas la condition : chaque worker d'un parcours parallèle compile
+    // le sien.
+    public Predicate compile(Relation relation) {
+        PageColumn column = relation != null ? relation.getPageColumn(colIndex) : null;
+        int[] codes = relation != null ? dictionaryCodes(relation) : null;
+        if (!isRightConstant) {
+            return Predicate.onRecords(relation, this::compareColumns);
+        }
+        switch (type) {
+            case INT:
+                return Predicate.onInts(colIndex, column, intTest());
+            case FLOAT:
+                return Predicate.onFloats(colIndex, column, floatTest());
+            default:
+                Predicate onValues = Predicate.onValues(colIndex, column, valueTest());
+                boolean negate = operator.equals("<>");
+                if (codes != null) {
+                    return Predicate.onCodes(column, codes, negate, onValues);
+                }
+                if (column != null && (negate || operator.equals("="))) {
+                    byte[] chars = column.encodeChars((String) constant);
+                    if (chars != null) return Predicate.onChars(column, chars, negate, onValues);
+                }
+                return onValues;
+        }
+    }
+
+    // Prédicat courant (celui de la dernière liaison)
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    // Resserre l'intervalle [range[0], range[1]] des valeurs de la colonne numérique col
+    // qui peuvent vérifier la condition (élagage des partitions par intervalle)
+    public void narrowRange(int col, double[] range) {
+        if (!isRightConstant || colIndex != col || (type != ColumnType.INT && type != ColumnType.FLOAT)) return;
+        double eps = (type == ColumnType.FLOAT) ? 0.0001 : 0;
+        double lo = Double.NEGATIVE_INFINITY;
+        double hi = Double.POSITIVE_INFINITY;
+        if (operator.equals("IN")) {
+            lo = Double.POSITIVE_INFINITY;
+            hi = Double.NEGATIVE_INFINITY;
+            for (Object value : inValues) {
+                double c = ((Number) value).doubleValue();
+                lo = Math.min(lo, c - eps);
+                hi = Math.max(hi, c + eps);
+            }
+        } else {
+            double c = ((Number) constant).doubleValue();
+            switch (operator) {
+                case "=": lo = c - eps; hi = c + eps; break;
+                case "<": case "<=": hi = c; break;
+                case ">": case ">=": lo = c; break;
+                default: return;
+            }
+        }
+        range[0] = Math.max(range[0], lo);
+        range[1] = Math.min(range[1], hi);
+    }
+
+    // Valeurs possibles de la colonne col si la condition les fixe (= ou IN sur des constantes),
+    // null sinon (élagage des partitions par hachage)
+    public List<Object> getPossibleValues(int col) {
+        if (!isRightConstant || colIndex != col) return null;
+        if (operator.equals("=")) return List.of(constant);
+        if (operator.equals("IN")) return Arrays.asList(inValues);
+        return null;
+    }
+
+    // Motif de la condition si c'est un LIKE sur la colonne col, null sinon (index trigrammes)
+    public LikePattern getLikePattern(int col) {
+        if (!isRightConstant || colIndex != col || !operator.equals("LIKE")) return null;
+        return likePattern;
     }
 
     public boolean evaluate(Record record) {
-        Object v1 = record.getValue(colIndex);
-        Object v2;
+        return predicate.test(record);
+    }
 
-        if (isRightConstant) {
-            v2 = parseConstant(valConst, type);
+    // Filtre vectorisé : garde dans la sélection du lot les lignes qui vérifient la condition.
+    // Les comparaisons colonne/constante (=, <>, <, >, <=, >=) sur une colonne INT ou FLOAT et
+    // les codes de dictionnaire sont évaluées sur les vecteurs du lot, une boucle par opérateur ;
+    // les autres conditions sont évaluées ligne par ligne sur la vue du lot.
+    public void filter(RecordBatch batch) {
+        int[] sel = batch.getSelection();
+        int n = batch.getSelectedCount();
+        int kept;
+        if (dictionaryCodes != null) {
+            kept = filterCodes(batch.getCodes(colIndex), sel, n);
+        } else if (isRightConstant && type == ColumnType.INT && !operator.equals("IN")) {
+            kept = filterInts(batch.getInts(colIndex), (Integer) constant, sel, n);
+        } else if (isRightConstant && type == ColumnType.FLOAT && !operator.equals("IN")) {
+            kept = filterFloats(batch.getFloats(colIndex), (Float) constant, sel, n);
         } else {
-            v2 = record.getValue(colIndexRight);
+            kept = 0;
+            for (int i = 0; i < n; i++) {
+                if (predicate.test(batch.getRecord(sel[i]))) sel[kept++] = sel[i];
+            }
+        }
+        batch.setSelectedCount(kept);
+    }
+
+    private int filterCodes(int[] codes, int[] sel, int n) {
+        boolean negate = operator.equals("<>");
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            int code = codes[sel[i]];
+            boolean found = false;
+            for (int c : dictionaryCodes) {
+                if (c == code) {
+                    found = true;
+                    break;
+                }
+            }
+            if (found != negate) sel[kept++] = sel[i];
+        }
+        return kept;
+    }
+
+    private int filterInts(int[] v, int c, int[] sel, int n) {
+        int kept = 0;
+        switch (operator) {
+            case "=":  for (int i = 0; i < n; i++) if (v[sel[i]] == c) sel[kept++] = sel[i]; break;
+            case "<>": for (int i = 0; i < n; i++) if (v[sel[i]] != c) sel[kept++] = sel[i]; break;
+            case "<":  for (int i = 0; i < n; i++) if (v[sel[i]] < c) sel[kept++] = sel[i]; break;
+            case ">":  for (int i = 0; i < n; i++) if (v[sel[i]] > c) sel[kept++] = sel[i]; break;
+            case "<=": for (int i = 0; i < n; i++) if (v[sel[i]] <= c) sel[kept++] = sel[i]; break;
+            case ">=": for (int i = 0; i < n; i++) if (v[sel[i]] >= c) sel[kept++] = sel[i]; break;
+            default: break;
+        }
+        return kept;
+    }
+
+    // Même tolérance que compareFloat pour = et <>
+    private int filterFloats(float[] v, float c, int[] sel, int n) {
+        int kept = 0;
+        switch (operator) {
+            case "=":  for (int i = 0; i < n; i++) if (Math.abs(v[sel[i]] - c) < 0.0001) sel[kept++] = sel[i]; break;
+            case "<>": for (int i = 0; i < n; i++) if (Math.abs(v[sel[i]] - c) > 0.0001) sel[kept++] = sel[i]; break;
+            case "<":  for (int i = 0; i < n; i++) if (v[sel[i]] < c) sel[kept++] = sel[i]; break;
+            case ">":  for (int i = 0; i < n; i++) if (v[sel[i]] > c) sel[kept++] = sel[i]; break;
+            case "<=": for (int i = 0; i < n; i++) if (v[sel[i]] <= c) sel[kept++] = sel[i]; break;
+            case ">=": for (int i = 0; i < n; i++) if (v[sel[i]] >= c) sel[kept++] = sel[i]; break;
+            default: break;
+        }
+        return kept;
+    }
+
+    // Test compilé d'une colonne INT avec la constante : un lambda par opérateur
+    private Predicate.IntTest intTest() {
+        if (operator.equals("IN")) {
+            int[] values = new int[inValues.length];
+            for (int i = 0; i < values.length; i++) values[i] = (Integer) inValues[i];
+            return v -> {
+                for (int c : values) {
+                    if (v == c) return true;
+                }
+                return false;
+            };
+        }
+        int c = (Integer) constant;
+        switch (operator) {
+            case "=": return v -> v == c;
+            case "<": return v -> v < c;
+            case ">": return v -> v > c;
+            case "<=": return v -> v <= c;
+            case ">=": return v -> v >= c;
+            case "<>": return v -> v != c;
+            default: return v -> false;
+        }
+    }
+
+    // Même tolérance que compareFloat pour =, <> et IN
+    private Predicate.FloatTest floatTest() {
+        if (operator.equals("IN")) {
+            float[] values = new float[inValues.length];
+            for (int i = 0; i < values.length; i++) values[i] = (Float) inValues[i];
+            return v -> {
+                for (float c : values) {
+                    if (Math.abs(v - c) < 0.0001) return true;
+                }
+                return false;
+            };
         }
+        float c = (Float) constant;
+        switch (operator) {
+            case "=": return v -> Math.abs(v - c) < 0.0001;
+            case "<": return v -> v < c;
+            case ">": return v -> v > c;
+            case "<=": return v -> v <= c;
+            case ">=": return v -> v >= c;
+            case "<>": return v -> Math.abs(v - c) > 0.0001;
+            default: return v -> false;
+        }
+    }
+
+    private Predicate.ValueTest valueTest() {
+        if (operator.equals("IN")) {
+            if (inValues.length > 8) {
+                Set<Object> values = new HashSet<>(Arrays.asList(inValues));
+                return values::contains;
+            }
+            Object[] values = inValues; // peu de valeurs : plus rapide que le hachage
+            return v -> {
+                for (Object c : values) {
+                    if (c.equals(v)) return true;
+                }
+                return false;
+            };
+        }
+        if (operator.equals("LIKE")) {
+            return likePattern::matches;
+        }
+        String c = (String) constant;
+        switch (operator) {
+            case "=": return c::equals;
+            case "<": return v -> v.compareTo(c) < 0;
+            case ">": return v -> v.compareTo(c) > 0;
+            case "<=": return v -> v.compareTo(c) <= 0;
+            case ">=": return v -> v.compareTo(c) >= 0;
+            case "<>": return v -> !c.equals(v);
+            default: return v -> false;
+        }
+    }
 
-        // Comparaison
+    // Comparaison entre deux colonnes du record
+    private boolean compareColumns(Record record) {
         if (type == ColumnType.INT) {
-            int i1 = (Integer) v1;
-            int i2 = (Integer) v2;
-            return compareInt(i1, i2);
+            return compareInt(record.getInt(colIndex), record.getInt(colIndexRight));
         } else if (type == ColumnType.FLOAT) {
-            float f1 = (Float) v1;
-            float f2 = (Float) v2;
-            return compareFloat(f1, f2);
+            return compareFloat(record.getFloat(colIndex), record.getFloat(colIndexRight));
         } else {
-            String s1 = (String) v1;
-            String s2 = (String) v2;
-            return compareString(s1, s2);
+            return compareString((String) record.getValue(colIndex), (String) record.getValue(colIndexRight));
         }
     }
 
-    private Object parseConstant(String val, ColumnType t) {
+    private static Object parseConstant(String val, ColumnType t) {
         try {
             switch (t) {
                 case INT: return Integer.parseInt(val);
@@ -0,0 +1,354 @@
+package QueryManager;
+
+import BufferManager.BufferManager;
+import DiskManager.DiskManager;
+import DiskManager.PageId;
+import FileManager.Column;
+import FileManager.Record;
+import FileManager.Relation;
+import FileManager.TableOptions;
+import Main.DBConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Jointure par hachage sur l'égalité d'une colonne de chaque entrée (left.leftKey = right.rightKey).
+// L'entrée la plus petite (build) est chargée dans une table de hachage sur sa clé, l'autre (probe)
+// est ensuite lue record par record. Un record produit contient les colonnes de gauche puis celles
+// de droite, quel que soit le côté chargé.
+// Si le build dépasse le budget mémoire, les deux entrées sont réparties (Grace) par hachage de
+// leur clé en FANOUT partitions, écrites dans des relations temporaires : leurs pages sont allouées
+// par le DiskManager dans un segment propre et évincées par le BufferManager comme les autres.
+// Chaque paire de partitions est ensuite jointe de la même façon ; une partition encore trop grosse
+// est répartie à nouveau, avec une autre fonction de hachage. Après MAX_LEVEL répartitions (clé très
+// fréquente), le build est chargé par tranches du budget et sa partition de probe relue pour chacune.
+// Une paire de partitions est rendue au DiskManager dès qu'elle est jointe, les autres par Close().
+public class HashJoin implements IRecordIterator {
+
+    static final int FANOUT = 8;
+    static final int MAX_LEVEL = 3;
+
+    private final IRecordIterator left;
+    private final IRecordIterator right;
+    private final Column[] leftColumns;
+    private final Column[] rightColumns;
+    private final int leftKey;
+    private final int rightKey;
+    private final boolean buildLeft;
+    private final long budgetRecords; // records du build gardés en mémoire à la fois
+    private final DBConfig config;
+    private final DiskManager dm;
+    private final BufferManager bm;
+
+    private final ArrayDeque<Pass> passes = new ArrayDeque<>(); // paires restant à joindre
+    private Pass pass; // paire en cours : table chargée, probe en lecture
+    private Map<Object, List<Record>> table;
+    private Record probeRecord;
+    private List<Record> matches;
+    private int matchIdx;
+    private int partitionCount; // partitions écrites sur disque depuis le début
+
+    public HashJoin(IRecordIterator left, Column[] leftColumns, int leftKey,
+                    IRecordIterator right, Column[] rightColumns, int rightKey,
+                    boolean buildLeft, long memoryBudget, DBConfig config, DiskManager dm, BufferManager bm) {
+        this.left = left;
+        this.right = right;
+        this.leftColumns = leftColumns;
+        this.rightColumns = rightColumns;
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.buildLeft = buildLeft;
+        this.budgetRecords = Math.max(1, memoryBudget / estimateRecordBytes(buildLeft ? leftColumns : rightColumns));
+        this.config = config;
+        this.dm = dm;
+        this.bm = bm;
+        Reset();
+    }
+
+    // Jointure d'un build et d'un probe : les entrées de départ, ou une paire de partitions
+    private static class Pass {
+        final IRecordIterator build;
+        final IRecordIterator probe;
+        final Relation buildRel; // partitions temporaires, null pour les entrées de départ
+        final Relation probeRel;
+        final int level; // répartitions déjà subies
+        Record pending; // premier record du build au-delà du budget, pas encore chargé
+
+        Pass(IRecordIterator build, IRecordIterator probe, Relation buildRel, Relation probeRel, int level) {
+            this.build = build;
+            this.probe = probe;
+            this.buildRel = buildRel;
+            this.probeRel = probeRel;
+            this.level = level;
+        }
+    }
+
+    // Nombre de partitions écrites sur disque (0 si le build a tenu en mémoire)
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    @Override
+    public Record GetNextRecord() {
+        while (true) {
+            if (matches != null && matchIdx < matches.size()) {
+                return combine(matches.get(matchIdx++), probeRecord);
+            }
+            matches = null;
+            if (pass != null) {
+                Record rec = pass.probe.GetNextRecord();
+                if (rec != null) {
+                    // Le record du probe n'est lu qu'avant le GetNextRecord suivant : pas de copie
+                    List<Record> found = table.get(key(rec, probeKey()));
+                    if (found != null) {
+                        probeRecord = rec;
+                        matches = found;
+                        matchIdx = 0;
+                    }
+                    continue;
+                }
+                if (pass.pending != null) {
+                    // Tranche suivante du build, puis nouvelle lecture du probe
+                    table.clear();
+                    load(pass);
+                    pass.probe.Reset();
+                    continue;
+                }
+                finish(pass);
+                pass = null;
+                table = null;
+            }
+            if (passes.isEmpty()) {
+                return null;
+            }
+            start(passes.pop());
+        }
+    }
+
+    @Override
+    public void Close() {
+        if (pass != null) {
+            finish(pass);
+            pass = null;
+        }
+        while (!passes.isEmpty()) {
+            finish(passes.pop());
+        }
+        table = null;
+        matches = null;
+        probeRecord = null;
+    }
+
+    @Override
+    public void Reset() {
+        Close();
+        left.Reset();
+        right.Reset();
+        passes.push(buildLeft ? new Pass(left, right, null, null, 0) : new Pass(right, left, null, null, 0));
+    }
+
+    // Charge le build de la paire, ou le répartit avec son probe s'il dépasse le budget
+    private void start(Pass p) {
+        table = new HashMap<>();
+        load(p);
+        if (p.pending != null && p.level < MAX_LEVEL) {
+            partition(p);
+            table = null;
+            return;
+        }
+        pass = p;
+    }
+
+    // Charge le build dans la table jusqu'au budget ; p.pending garde le premier record restant
+    private void load(Pass p) {
+        int buildKey = buildKey();
+        long count = 0;
+        Record rec = p.pending;
+        p.pending = null;
+        if (rec == null) {
+            rec = p.build.GetNextRecord();
+        }
+        while (rec != null) {
+            if (count == budgetRecords) {
+                p.pending = rec.materialize();
+                return;
+            }
+            rec = rec.materialize();
+            table.computeIfAbsent(key(rec, buildKey), k -> new ArrayList<>(1)).add(rec);
+            count++;
+            rec = p.build.GetNextRecord();
+        }
+    }
+
+    // Répartit le build (déjà chargé, puis le reste) et le probe de la paire en FANOUT paires de
+    // partitions, jointes ensuite une à une. Une partition vide d'un côté ne produit rien.
+    private void partition(Pass p) {
+        int level = p.level + 1;
+        Spill build = new Spill(buildLeft ? leftColumns : rightColumns, buildKey(), level);
+        Spill probe = new Spill(buildLeft ? rightColumns : leftColumns, probeKey(), level);
+        try {
+            for (List<Record> records : table.values()) {
+                for (Record rec : records) {
+                    build.add(rec);
+                }
+            }
+            table.clear();
+            build.add(p.pending);
+            p.pending = null;
+            for (Record rec = p.build.GetNextRecord(); rec != null; rec = p.build.GetNextRecord()) {
+                build.add(rec);
+            }
+            for (Record rec = p.probe.GetNextRecord(); rec != null; rec = p.probe.GetNextRecord()) {
+                probe.add(rec);
+            }
+            build.flush();
+            probe.flush();
+        } catch (RuntimeException e) {
+            build.drop();
+            probe.drop();
+            throw e;
+        } finally {
+            finish(p);
+        }
+
+        for (int i = 0; i < FANOUT; i++) {
+            Relation buildRel = build.partitions[i];
+            Relation probeRel = probe.partitions[i];
+            if (buildRel == null || probeRel == null) {
+                if (buildRel != null) buildRel.Drop();
+                if (probeRel != null) probeRel.Drop();
+                continue;
+            }
+            partitionCount++;
+            passes.push(new Pass(new RelationScanner(buildRel, bm, null), new RelationScanner(probeRel, bm, null),
+                    buildRel, probeRel, level));
+        }
+    }
+
+    // Termine une paire : ses parcours sont fermés et ses partitions rendues au DiskManager
+    private void finish(Pass p) {
+        p.build.Close();
+        p.probe.Close();
+        if (p.buildRel != null) p.buildRel.Drop();
+        if (p.probeRel != null) p.probeRel.Drop();
+    }
+
+    private Record combine(Record buildRec, Record probeRec) {
+        Record leftRec = buildLeft ? buildRec : probeRec;
+        Record rightRec = buildLeft ? probeRec : buildRec;
+        Record out = new Record(leftColumns.length + rightColumns.length);
+        for (int i = 0; i < leftColumns.length; i++) {
+            out.setValue(i, leftRec.getValue(i));
+        }
+        for (int i = 0; i < rightColumns.length; i++) {
+            out.setValue(leftColumns.length + i, rightRec.getValue(i));
+        }
+        return out;
+    }
+
+    private int buildKey() {
+        return buildLeft ? leftKey : rightKey;
+    }
+
+    private int probeKey() {
+        return buildLeft ? rightKey : leftKey;
+    }
+
+    // Clé de hachage : -0.0 et 0.0 sont la même clé. Les FLOAT sont comparés exactement, sans la
+    // tolérance des comparaisons du WHERE.
+    private static Object key(Record rec, int colIdx) {
+        Object value = rec.getValue(colIdx);
+        if (value instanceof Float) {
+            return (Float) value + 0.0f;
+        }
+        return value;
+    }
+
+    // Partition d'une clé : le niveau change la fonction de hachage, pour qu'une partition trop
+    // grosse se répartisse à nouveau
+    static int partitionOf(Object key, int level) {
+        int h = key.hashCode() ^ (level * 0x9E3779B9);
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return (h & 0x7FFFFFFF) % FANOUT;
+    }
+
+    // Place occupée en mémoire par un record chargé (estimation : tableaux du Record, entrée de la
+    // table, valeurs)
+    private static long estimateRecordBytes(Column[] columns) {
+        long bytes = 96;
+        for (Column column : columns) {
+            bytes += 16 + column.getSizeInBytes();
+        }
+        return bytes;
+    }
+
+    // Répartition d'une entrée en partitions temporaires, créées au premier record qui leur
+    // revient. Les records sont écrits par paquets d'une page environ : la mémoire utilisée reste
+    // de l'ordre de FANOUT pages.
+    private class Spill {
+        final Column[] columns;
+        final int keyIdx;
+        final int level;
+        final Relation[] partitions = new Relation[FANOUT];
+        final List<List<Record>> buffers = new ArrayList<>();
+        int flushSize;
+
+        Spill(Column[] columns, int keyIdx, int level) {
+            this.columns = columns;
+            this.keyIdx = keyIdx;
+            this.level = level;
+            for (int i = 0; i < FANOUT; i++) {
+                buffers.add(new ArrayList<>());
+            }
+        }
+
+        void add(Record rec) {
+            if (rec == null) return;
+            int idx = partitionOf(key(rec, keyIdx), level);
+            List<Record> buffer = buffers.get(idx);
+            buffer.add(rec.materialize());
+            if (partitions[idx] == null) {
+                partitions[idx] = newTemporaryRelation(columns);
+                flushSize = Math.max(1, partitions[idx].getSlotCountPerDataPage());
+            }
+            if (buffer.size() >= flushSize) {
+                partitions[idx].InsertRecords(buffer);
+                buffer.clear();
+            }
+        }
+
+        void flush() {
+            for (int i = 0; i < FANOUT; i++) {
+                if (!buffers.get(i).isEmpty()) {
+                    partitions[i].InsertRecords(buffers.get(i));
+                    buffers.get(i).clear();
+                }
+            }
+        }
+
+        void drop() {
+            for (int i = 0; i < FANOUT; i++) {
+                if (partitions[i] != null) {
+                    partitions[i].Drop();
+                    partitions[i] = null;
+                }
+            }
+        }
+    }
+
+    // Relation temporaire d'une partition, dans un segment : Drop() supprime son fichier sans
+    // écrire ses pages encore dans le buffer pool
+    private Relation newTemporaryRelation(Column[] columns) {
+        PageId headerPageId = dm.AllocPage();
+        Relation.formatHeaderPage(bm, headerPageId);
+        return new Relation("#jointure", columns, config, dm, bm, headerPageId,
+                TableOptions.parse("storage=SEGMENT"));
+    }
+}
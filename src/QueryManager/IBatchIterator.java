@@ -0,0 +1,12 @@
+package QueryManager;
+
+import FileManager.RecordBatch;
+
+// Exécution par lots : chaque appel retourne un lot de records (jusqu'à RecordBatch.CAPACITY
+// lignes d'une page) valide jusqu'à l'appel suivant, ou null à la fin. Les filtres et les
+// projections traitent un lot entier par appel au lieu d'un record par GetNextRecord.
+public interface IBatchIterator {
+    RecordBatch GetNextBatch();
+    void Close();
+    void Reset();
+}
@@ -3,6 +3,8 @@ package QueryManager;
 import FileManager.Record;
 
 public interface IRecordIterator {
+    // Le record retourné peut être une vue réutilisée (RecordView) : il n'est valide que
+    // jusqu'au prochain appel, appeler materialize() pour le garder.
     Record GetNextRecord();
     void Close();
     void Reset();
@@ -0,0 +1,91 @@
+package QueryManager;
+
+import BufferManager.BufferManager;
+import DiskManager.PageId;
+import FileManager.Record;
+import FileManager.RecordId;
+import FileManager.RecordView;
+import FileManager.Relation;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Parcours d'une relation dans l'ordre des RID donnés par un index. Comme RelationScanner,
+// les records retournés sont un même RecordView ; la page reste épinglée tant que les RID
+// suivants y pointent. L'index ne donne qu'un sur-ensemble des records qui vérifient les
+// conditions : elles sont testées sur les octets de la page de chaque RID avant de placer la vue.
+// Comme pour RelationScanner, la vue peut n'exposer que certaines colonnes.
+public class IndexScanner implements IRecordIterator {
+    private final Relation relation;
+    private final BufferManager bm;
+    private final Supplier<Iterator<RecordId>> lookup; // relancé à chaque Reset
+    private final List<Condition> conditions;
+    private final Predicate filter; // null = aucune condition
+    private final RecordView view;
+    private Iterator<RecordId> rids;
+    private PageId currentPageId; // page épinglée, null entre deux pages
+    private ByteBuffer currentBuff;
+
+    public IndexScanner(Relation relation, BufferManager bm, Supplier<Iterator<RecordId>> lookup,
+                        List<Condition> conditions) {
+        this(relation, bm, lookup, conditions, null);
+    }
+
+    // columns : indices (dans la relation) des colonnes des records retournés, null ou vide = toutes
+    public IndexScanner(Relation relation, BufferManager bm, Supplier<Iterator<RecordId>> lookup,
+                        List<Condition> conditions, List<Integer> columns) {
+        this.relation = relation;
+        this.bm = bm;
+        this.lookup = lookup;
+        this.conditions = conditions;
+        this.filter = (conditions == null || conditions.isEmpty()) ? null : Predicate.and(conditions);
+        this.view = (columns == null || columns.isEmpty()) ? relation.newRecordView()
+                : relation.newRecordView(columns.stream().mapToInt(Integer::intValue).toArray());
+        Reset();
+    }
+
+    @Override
+    public void Reset() {
+        releaseCurrentPage();
+        this.rids = lookup.get();
+        if (conditions != null) {
+            for (Condition cond : conditions) {
+                cond.bind(relation);
+            }
+        }
+    }
+
+    @Override
+    public void Close() {
+        releaseCurrentPage();
+    }
+
+    @Override
+    public Record GetNextRecord() {
+        while (rids.hasNext()) {
+            RecordId rid = rids.next();
+            if (!rid.getPageId().equals(currentPageId)) {
+                releaseCurrentPage();
+                currentPageId = rid.getPageId();
+                currentBuff = bm.GetPage(currentPageId);
+            }
+            if (relation.isSlotUsed(currentBuff, rid.getSlotIdx())
+                    && (filter == null || filter.test(currentBuff, rid.getSlotIdx()))) {
+                view.moveTo(currentPageId, currentBuff, rid.getSlotIdx());
+                return view;
+            }
+        }
+        releaseCurrentPage();
+        return null;
+    }
+
+    private void releaseCurrentPage() {
+        if (currentBuff != null) {
+            bm.FreePage(currentPageId, false);
+            currentPageId = null;
+            currentBuff = null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package QueryManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Motif d'une condition LIKE : % remplace une suite de caractères (éventuellement vide),
+// _ un seul caractère ; le reste est comparé tel quel (sensible à la casse, sans échappement).
+// Le motif est découpé une fois sur les % : le premier morceau est ancré au début de la valeur,
+// le dernier à la fin, et ceux du milieu sont cherchés de gauche à droite.
+public class LikePattern {
+
+    private final String pattern;
+    private final String[] segments; // morceaux entre les %, un seul si le motif n'en a pas
+
+    public LikePattern(String pattern) {
+        this.pattern = pattern;
+        this.segments = pattern.split("%", -1);
+    }
+
+    public boolean matches(String value) {
+        if (value == null) return false;
+        if (segments.length == 1) {
+            return value.length() == pattern.length() && matchesAt(value, 0, pattern);
+        }
+        String first = segments[0];
+        String last = segments[segments.length - 1];
+        int end = value.length() - last.length();
+        if (end < first.length() || !matchesAt(value, 0, first) || !matchesAt(value, end, last)) {
+            return false;
+        }
+        int pos = first.length();
+        for (int i = 1; i < segments.length - 1; i++) {
+            String segment = segments[i];
+            int found = indexOf(value, segment, pos, end);
+            if (found == -1) return false;
+            pos = found + segment.length();
+        }
+        return true;
+    }
+
+    // true si le motif n'a aucun joker (LIKE équivaut alors à =)
+    public boolean isExact() {
+        return segments.length == 1 && pattern.indexOf('_') == -1;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    // Morceaux sans joker du motif : toute valeur qui vérifie le LIKE les contient tous
+    public List<String> getLiterals() {
+        List<String> literals = new ArrayList<>();
+        for (String segment : segments) {
+            for (String literal : segment.split("_")) {
+                if (!literal.isEmpty()) literals.add(literal);
+            }
+        }
+        return literals;
+    }
+
+    // Première position >= from où segment commence, en finissant au plus tard à end
+    private static int indexOf(String value, String segment, int from, int end) {
+        for (int pos = from; pos + segment.length() <= end; pos++) {
+            if (matchesAt(value, pos, segment)) return pos;
+        }
+        return -1;
+    }
+
+    private static boolean matchesAt(String value, int pos, String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c != '_' && value.charAt(pos + i) != c) return false;
+        }
+        return true;
+    }
+}
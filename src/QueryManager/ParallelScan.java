@@ -0,0 +1,185 @@
+package QueryManager;
+
+import BufferManager.BufferManager;
+import DiskManager.PageId;
+import FileManager.Record;
+import FileManager.RecordId;
+import FileManager.RecordView;
+import FileManager.Relation;
+import FileManager.ZoneMap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Parcours parallèle (qm_parallelism > 1) des relations d'une table, sans index applicable :
+// leurs pages de données sont découpées en morsels de MORSEL_PAGES pages, traités par les
+// workers d'un ForkJoinPool. Chaque worker compile ses propres prédicats (les conditions ne sont
+// pas liées, elles restent partagées en lecture seule), teste les slots sur les octets des pages
+// et matérialise les records retenus avec les seules colonnes demandées. Les résultats des
+// morsels sont rendus dans l'ordre des pages : la sortie est celle d'un RelationScanner.
+// Au plus 2 morsels par worker sont en cours ou en attente de lecture à la fois.
+public class ParallelScan implements IRecordIterator {
+
+    static final int MORSEL_PAGES = 8;
+
+    private final List<Relation> relations;
+    private final BufferManager bm;
+    private final List<Condition> conditions; // null = aucune
+    private final int[] columns; // null = toutes
+    private final ForkJoinPool pool;
+
+    private List<Morsel> morsels;
+    private int nextMorsel; // prochain morsel à soumettre
+    private final ArrayDeque<ForkJoinTask<List<Record>>> pending = new ArrayDeque<>();
+    private Iterator<Record> current = Collections.emptyIterator();
+
+    public ParallelScan(List<Relation> relations, BufferManager bm, List<Condition> conditions,
+                        List<Integer> columns, ForkJoinPool pool) {
+        this.relations = relations;
+        this.bm = bm;
+        this.conditions = (conditions == null || conditions.isEmpty()) ? null : conditions;
+        this.columns = (columns == null || columns.isEmpty()) ? null
+                : columns.stream().mapToInt(Integer::intValue).toArray();
+        this.pool = pool;
+        Reset();
+    }
+
+    // Pages d'une relation traitées par un même worker
+    private static class Morsel {
+        final Relation relation;
+        final List<PageId> pages;
+
+        Morsel(Relation relation, List<PageId> pages) {
+            this.relation = relation;
+            this.pages = pages;
+        }
+    }
+
+    private interface SlotVisitor {
+        void visit(RecordView view);
+    }
+
+    @Override
+    public void Reset() {
+        Close();
+        morsels = new ArrayList<>();
+        for (Relation relation : relations) {
+            List<PageId> pages = relation.getDataPages();
+            for (int from = 0; from < pages.size(); from += MORSEL_PAGES) {
+                morsels.add(new Morsel(relation, pages.subList(from, Math.min(from + MORSEL_PAGES, pages.size()))));
+            }
+        }
+        nextMorsel = 0;
+    }
+
+    // Les morsels déjà soumis finissent leur parcours (leurs pages sont libérées) avant de rendre la main
+    @Override
+    public void Close() {
+        for (ForkJoinTask<List<Record>> task : pending) {
+            task.join();
+        }
+        pending.clear();
+        current = Collections.emptyIterator();
+    }
+
+    @Override
+    public Record GetNextRecord() {
+        while (!current.hasNext()) {
+            fillWindow();
+            if (pending.isEmpty()) {
+                return null;
+            }
+            current = pending.poll().join().iterator();
+        }
+        return current.next();
+    }
+
+    // Nombre de records retenus (COUNT) : chaque morsel compte de son côté, rien n'est matérialisé
+    public long count() {
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+        for (Morsel morsel : morsels) {
+            tasks.add(pool.submit(() -> {
+                long[] count = { 0 };
+                scan(morsel, view -> count[0]++);
+                return count[0];
+            }));
+        }
+        long total = 0;
+        for (ForkJoinTask<Long> task : tasks) {
+            total += task.join();
+        }
+        return total;
+    }
+
+    // RID des records retenus, dans l'ordre des pages (DELETE) : aucune valeur n'est décodée
+    public List<RecordId> collectRids() {
+        List<ForkJoinTask<List<RecordId>>> tasks = new ArrayList<>();
+        for (Morsel morsel : morsels) {
+            tasks.add(pool.submit(() -> {
+                List<RecordId> rids = new ArrayList<>();
+                scan(morsel, view -> rids.add(view.getRid()));
+                return rids;
+            }));
+        }
+        List<RecordId> rids = new ArrayList<>();
+        for (ForkJoinTask<List<RecordId>> task : tasks) {
+            rids.addAll(task.join());
+        }
+        return rids;
+    }
+
+    private void fillWindow() {
+        while (pending.size() < 2 * pool.getParallelism() && nextMorsel < morsels.size()) {
+            Morsel morsel = morsels.get(nextMorsel++);
+            pending.add(pool.submit(() -> {
+                List<Record> records = new ArrayList<>();
+                scan(morsel, view -> records.add(view.materialize()));
+                return records;
+            }));
+        }
+    }
+
+    // Parcours d'un morsel par un worker : pages écartées par leur zone map, slots testés sur
+    // les octets de la page avec les prédicats compilés pour ce worker
+    private void scan(Morsel morsel, SlotVisitor visitor) {
+        Relation relation = morsel.relation;
+        Predicate filter = null;
+        if (conditions != null) {
+            List<Predicate> predicates = new ArrayList<>();
+            for (Condition cond : conditions) {
+                predicates.add(cond.compile(relation));
+            }
+            filter = Predicate.allOf(predicates);
+        }
+        RecordView view = columns != null ? relation.newRecordView(columns) : relation.newRecordView();
+
+        for (PageId pageId : morsel.pages) {
+            if (!pageMayMatch(relation.getZoneMap(pageId))) continue;
+            ByteBuffer pageBuff = bm.GetPage(pageId);
+            try {
+                for (int slot = relation.nextUsedSlot(pageBuff, 0); slot != -1; slot = relation.nextUsedSlot(pageBuff, slot + 1)) {
+                    if (filter == null || filter.test(pageBuff, slot)) {
+                        view.moveTo(pageId, pageBuff, slot);
+                        visitor.visit(view);
+                    }
+                }
+            } finally {
+                bm.FreePage(pageId, false);
+            }
+        }
+    }
+
+    private boolean pageMayMatch(ZoneMap zone) {
+        if (conditions == null) return true;
+        for (Condition cond : conditions) {
+            if (!cond.mayMatch(zone)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package QueryManager;
+
+import BufferManager.BufferManager;
+import FileManager.Record;
+import FileManager.RecordBatch;
+import FileManager.Relation;
+
+import java.util.List;
+
+// Parcours de plusieurs relations à la suite (les partitions retenues d'une table) : un
+// RelationScanner par relation, créé quand le précédent est épuisé. Les conditions sont
+// alors liées à la nouvelle partition avant d'évaluer ses records ; comme pour un
+// RelationScanner, seuls les records qui les vérifient sont retournés, avec les colonnes demandées.
+public class PartitionScanner implements IRecordIterator, IBatchIterator {
+    private final List<Relation> relations;
+    private final BufferManager bm;
+    private final List<Condition> conditions;
+    private final List<Integer> columns;
+    private int currentIdx;
+    private RelationScanner current;
+
+    public PartitionScanner(List<Relation> relations, BufferManager bm, List<Condition> conditions) {
+        this(relations, bm, conditions, null);
+    }
+
+    public PartitionScanner(List<Relation> relations, BufferManager bm, List<Condition> conditions,
+                            List<Integer> columns) {
+        this.relations = relations;
+        this.bm = bm;
+        this.conditions = conditions;
+        this.columns = columns;
+        Reset();
+    }
+
+    @Override
+    public Record GetNextRecord() {
+        while (currentIdx < relations.size()) {
+            if (current == null) {
+                current = new RelationScanner(relations.get(currentIdx), bm, conditions, columns);
+            }
+            Record rec = current.GetNextRecord();
+            if (rec != null) {
+                return rec;
+            }
+            current.Close();
+            current = null;
+            currentIdx++;
+        }
+        return null;
+    }
+
+    @Override
+    public RecordBatch GetNextBatch() {
+        while (currentIdx < relations.size()) {
+            if (current == null) {
+                current = new RelationScanner(relations.get(currentIdx), bm, conditions, columns);
+            }
+            RecordBatch batch = current.GetNextBatch();
+            if (batch != null) {
+                return batch;
+            }
+            current.Close();
+            current = null;
+            currentIdx++;
+        }
+        return null;
+    }
+
+    @Override
+    public void Close() {
+        if (current != null) {
+            current.Close();
+            current = null;
+        }
+    }
+
+    @Override
+    public void Reset() {
+        Close();
+        currentIdx = 0;
+    }
+}
@@ -0,0 +1,308 @@
+package QueryManager;
+
+import FileManager.PageColumn;
+import FileManager.Record;
+import FileManager.RecordView;
+import FileManager.Relation;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+// Condition compilée (voir Condition.compile) : la constante est déjà convertie et l'opérateur
+// résolu en un test propre au type de la colonne ; il ne reste par record qu'une lecture et une
+// comparaison. Un prédicat lié à une relation s'évalue aussi sur les octets d'une page épinglée
+// (test(pageBuff, slotIdx)), sans Record ; une RecordView de cette relation passe par ce chemin.
+public abstract class Predicate {
+
+    public abstract boolean test(Record record);
+
+    public abstract boolean test(ByteBuffer pageBuff, int slotIdx);
+
+    interface IntTest {
+        boolean test(int value);
+    }
+
+    interface FloatTest {
+        boolean test(float value);
+    }
+
+    interface ValueTest {
+        boolean test(String value);
+    }
+
+    interface RecordTest {
+        boolean test(Record record);
+    }
+
+    static Predicate onInts(int colIdx, PageColumn column, IntTest test) {
+        return new IntColumn(colIdx, column, test);
+    }
+
+    static Predicate onFloats(int colIdx, PageColumn column, FloatTest test) {
+        return new FloatColumn(colIdx, column, test);
+    }
+
+    static Predicate onValues(int colIdx, PageColumn column, ValueTest test) {
+        return new ValueColumn(colIdx, column, test);
+    }
+
+    // = / <> (negate) / IN sur les codes d'une colonne encodée par dictionnaire ; decoded sert
+    // pour les records qui ne sont pas en page
+    static Predicate onCodes(PageColumn column, int[] codes, boolean negate, Predicate decoded) {
+        return new CodeColumn(column, codes, negate, decoded);
+    }
+
+    // = / <> (negate) d'une colonne CHAR avec une constante, sur les octets de la page
+    static Predicate onChars(PageColumn column, byte[] chars, boolean negate, Predicate decoded) {
+        return new CharColumn(column, chars, negate, decoded);
+    }
+
+    // Test quelconque sur le record (comparaison entre deux colonnes) ; en page, via une vue
+    static Predicate onRecords(Relation relation, RecordTest test) {
+        return new RecordPredicate(relation, test);
+    }
+
+    // Conjonction des conditions en un seul évaluateur, arrêté à la première condition fausse.
+    // Chaque condition est évaluée avec son prédicat courant : une liaison à une autre relation
+    // (partition suivante) est prise en compte sans recompiler la conjonction.
+    public static Predicate and(List<Condition> conditions) {
+        if (conditions == null || conditions.isEmpty()) {
+            return new And(new Condition[0]);
+        }
+        if (conditions.size() == 2) {
+            return new And2(conditions.get(0), conditions.get(1));
+        }
+        return new And(conditions.toArray(new Condition[0]));
+    }
+
+    // Conjonction de prédicats déjà compilés (propres à un worker, voir ParallelScan)
+    public static Predicate allOf(List<Predicate> predicates) {
+        return new AllOf(predicates.toArray(new Predicate[0]));
+    }
+
+    private static IllegalStateException unbound() {
+        return new IllegalStateException("Prédicat non lié à une relation : évaluation en page impossible");
+    }
+
+    // Vue de la relation de column si le record en est une (évaluable sur la page), null sinon
+    private static RecordView viewOf(Record record, PageColumn column) {
+        if (column != null && record instanceof RecordView) {
+            RecordView view = (RecordView) record;
+            if (view.getRelation() == column.getRelation() && !view.isProjected()) return view;
+        }
+        return null;
+    }
+
+    private static final class IntColumn extends Predicate {
+        private final int colIdx;
+        private final PageColumn column;
+        private final IntTest test;
+
+        IntColumn(int colIdx, PageColumn column, IntTest test) {
+            this.colIdx = colIdx;
+            this.column = column;
+            this.test = test;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            return test.test(record.getInt(colIdx));
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            if (column == null) throw unbound();
+            return test.test(column.getInt(pageBuff, slotIdx));
+        }
+    }
+
+    private static final class FloatColumn extends Predicate {
+        private final int colIdx;
+        private final PageColumn column;
+        private final FloatTest test;
+
+        FloatColumn(int colIdx, PageColumn column, FloatTest test) {
+            this.colIdx = colIdx;
+            this.column = column;
+            this.test = test;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            return test.test(record.getFloat(colIdx));
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            if (column == null) throw unbound();
+            return test.test(column.getFloat(pageBuff, slotIdx));
+        }
+    }
+
+    private static final class ValueColumn extends Predicate {
+        private final int colIdx;
+        private final PageColumn column;
+        private final ValueTest test;
+
+        ValueColumn(int colIdx, PageColumn column, ValueTest test) {
+            this.colIdx = colIdx;
+            this.column = column;
+            this.test = test;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            return test.test((String) record.getValue(colIdx));
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            if (column == null) throw unbound();
+            return test.test((String) column.getValue(pageBuff, slotIdx));
+        }
+    }
+
+    private static final class CodeColumn extends Predicate {
+        private final PageColumn column;
+        private final int[] codes;
+        private final boolean negate;
+        private final Predicate decoded;
+
+        CodeColumn(PageColumn column, int[] codes, boolean negate, Predicate decoded) {
+            this.column = column;
+            this.codes = codes;
+            this.negate = negate;
+            this.decoded = decoded;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            RecordView view = viewOf(record, column);
+            return view != null ? test(view.getPageBuffer(), view.getSlotIdx()) : decoded.test(record);
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            int code = column.getCode(pageBuff, slotIdx);
+            for (int c : codes) {
+                if (c == code) return !negate;
+            }
+            return negate;
+        }
+    }
+
+    private static final class CharColumn extends Predicate {
+        private final PageColumn column;
+        private final byte[] chars;
+        private final boolean negate;
+        private final Predicate decoded;
+
+        CharColumn(PageColumn column, byte[] chars, boolean negate, Predicate decoded) {
+            this.column = column;
+            this.chars = chars;
+            this.negate = negate;
+            this.decoded = decoded;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            RecordView view = viewOf(record, column);
+            return view != null ? test(view.getPageBuffer(), view.getSlotIdx()) : decoded.test(record);
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            return column.charsEqual(pageBuff, slotIdx, chars) != negate;
+        }
+    }
+
+    private static final class RecordPredicate extends Predicate {
+        private final RecordView view; // null si non lié
+        private final RecordTest test;
+
+        RecordPredicate(Relation relation, RecordTest test) {
+            this.view = relation != null ? relation.newRecordView() : null;
+            this.test = test;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            return test.test(record);
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            if (view == null) throw unbound();
+            view.moveTo(null, pageBuff, slotIdx);
+            return test.test(view);
+        }
+    }
+
+    private static final class And2 extends Predicate {
+        private final Condition first;
+        private final Condition second;
+
+        And2(Condition first, Condition second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            return first.getPredicate().test(record) && second.getPredicate().test(record);
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            return first.getPredicate().test(pageBuff, slotIdx) && second.getPredicate().test(pageBuff, slotIdx);
+        }
+    }
+
+    private static final class AllOf extends Predicate {
+        private final Predicate[] predicates;
+
+        AllOf(Predicate[] predicates) {
+            this.predicates = predicates;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            for (Predicate predicate : predicates) {
+                if (!predicate.test(record)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            for (Predicate predicate : predicates) {
+                if (!predicate.test(pageBuff, slotIdx)) return false;
+            }
+            return true;
+        }
+    }
+
+    private static final class And extends Predicate {
+        private final Condition[] conditions;
+
+        And(Condition[] conditions) {
+            this.conditions = conditions;
+        }
+
+        @Override
+        public boolean test(Record record) {
+            for (Condition cond : conditions) {
+                if (!cond.getPredicate().test(record)) return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean test(ByteBuffer pageBuff, int slotIdx) {
+            for (Condition cond : conditions) {
+                if (!cond.getPredicate().test(pageBuff, slotIdx)) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package QueryManager;
 
 import FileManager.Record;
+import FileManager.RecordBatch;
+import FileManager.RecordId;
 import java.util.List;
 
+// Projection sur des colonnes de l'enfant. Par lots (ProjectOperator.Batched, enfant
+// IBatchIterator), le lot de l'enfant est retourné avec ses colonnes visibles restreintes
+// (RecordBatch.project).
 public class ProjectOperator implements IRecordIterator {
     private IRecordIterator child;
     private List<Integer> colIndices; // Liste des indices à garder
+    private ProjectedRecord projected;
+    private final int[] indices;
 
     public ProjectOperator(IRecordIterator child, List<Integer> colIndices) {
         this.child = child;
         this.colIndices = colIndices;
+        this.indices = colIndices == null ? new int[0] : colIndices.stream().mapToInt(Integer::intValue).toArray();
+        this.projected = new ProjectedRecord(indices);
     }
 
     @Override
@@ -22,11 +31,9 @@ public class ProjectOperator implements IRecordIterator {
             return sourceRec;
         }
 
-        Record newRec = new Record(colIndices.size());
-        for (int i = 0; i < colIndices.size(); i++) {
-            newRec.setValue(i, sourceRec.getValue(colIndices.get(i)));
-        }
-        return newRec;
+        // Pas de copie : les valeurs sont lues dans le record source à la demande
+        projected.source = sourceRec;
+        return projected;
     }
 
     @Override
@@ -38,4 +45,98 @@ public class ProjectOperator implements IRecordIterator {
     public void Reset() {
         child.Reset();
     }
-}
\ No newline at end of file
+
+    // Projection par lots, seulement sur un enfant qui sait produire des lots
+    public static class Batched extends ProjectOperator implements IBatchIterator {
+        private final IBatchIterator batches;
+
+        public <T extends IRecordIterator & IBatchIterator> Batched(T child, List<Integer> colIndices) {
+            super(child, colIndices);
+            this.batches = child;
+        }
+
+        @Override
+        public RecordBatch GetNextBatch() {
+            RecordBatch batch = batches.GetNextBatch();
+            if (batch != null && super.indices.length > 0) {
+                batch.project(super.indices);
+            }
+            return batch;
+        }
+    }
+
+    // Vue sur les colonnes projetées du record source, réutilisée d'un record à l'autre
+    private static class ProjectedRecord extends Record {
+        private final int[] indices;
+        private Record source;
+
+        ProjectedRecord(int[] indices) {
+            super(0);
+            this.indices = indices;
+        }
+
+        @Override
+        public Object getValue(int index) {
+            return source.getValue(indices[index]);
+        }
+
+        @Override
+        public int getInt(int index) {
+            return source.getInt(indices[index]);
+        }
+
+        @Override
+        public float getFloat(int index) {
+            return source.getFloat(indices[index]);
+        }
+
+        @Override
+        public boolean isNull(int index) {
+            return source.isNull(indices[index]);
+        }
+
+        @Override
+        public void setValue(int index, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setInt(int index, int value) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setFloat(int index, float value) {
+            throw readOnly();
+        }
+
+        @Override
+        public void clear() {
+            throw readOnly();
+        }
+
+        @Override
+        public int getValueCount() {
+            return indices.length;
+        }
+
+        @Override
+        public RecordId getRid() {
+            return source.getRid();
+        }
+
+        @Override
+        public Record materialize() {
+            Record record = new Record(indices.length);
+            for (int i = 0; i < indices.length; i++) {
+                record.setValue(i, source.getValue(indices[i]));
+            }
+            record.setRid(source.getRid());
+            return record;
+        }
+
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Record projeté en lecture seule, utiliser materialize()");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package QueryManager;
 
 import FileManager.Record;
+import FileManager.RecordBatch;
 
 public class RecordPrinter {
     private IRecordIterator iterator;
@@ -18,4 +19,26 @@ public class RecordPrinter {
         }
         System.out.println("Total selected records = " + count);
     }
+
+    // Même affichage, lot par lot : l'itérateur doit aussi produire des lots (IBatchIterator)
+    public void printBatches() {
+        IBatchIterator batches = (IBatchIterator) iterator;
+        int count = 0;
+        RecordBatch batch;
+        StringBuilder sb = new StringBuilder();
+        while ((batch = batches.GetNextBatch()) != null) {
+            int[] sel = batch.getSelection();
+            int columns = batch.getColumnCount();
+            for (int i = 0; i < batch.getSelectedCount(); i++) {
+                sb.setLength(0);
+                for (int c = 0; c < columns; c++) {
+                    sb.append(batch.getValue(sel[i], c));
+                    if (c < columns - 1) sb.append(" ; ");
+                }
+                System.out.println(sb);
+            }
+            count += batch.getSelectedCount();
+        }
+        System.out.println("Total selected records = " + count);
+    }
 }
\ No newline at end of file
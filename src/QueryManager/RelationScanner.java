@@ -3,80 +3,186 @@ package QueryManager;
 import BufferManager.BufferManager;
 import DiskManager.PageId;
 import FileManager.Record;
+import FileManager.RecordBatch;
+import FileManager.RecordView;
 import FileManager.Relation;
-import FileManager.RecordId;
+import FileManager.ZoneMap;
 
 import java.nio.ByteBuffer;
 import java.util.List;
 
-public class RelationScanner implements IRecordIterator {
+// Parcours séquentiel d'une relation. Les records retournés sont un même RecordView
+// déplacé de slot en slot : la page courante reste épinglée tant qu'on la parcourt et
+// seules les valeurs demandées sont décodées. Par lots (GetNextBatch), un lot couvre les
+// slots occupés d'une page, CAPACITY au plus ; la page reste épinglée jusqu'à l'appel suivant.
+// Sélection et projection sont poussées dans le parcours : les conditions sont testées sur les
+// octets de la page avant de placer la vue, et la vue n'expose que les colonnes demandées.
+public class RelationScanner implements IRecordIterator, IBatchIterator {
     private Relation relation;
     private BufferManager bm;
     private List<PageId> dataPages;
     private int currentPageIdx;
     private int currentSlotIdx;
+    private PageId currentPageId; // page épinglée, null entre deux pages
+    private ByteBuffer currentBuff;
+    private final RecordView view;
+    private RecordBatch batch; // créé au premier GetNextBatch
+    private List<Condition> conditions; // null = aucune
+    private final Predicate filter; // conjonction compilée des conditions, null = aucune
+    private final int[] columns; // colonnes retournées, null = toutes
+    private int skippedPageCount;
 
     public RelationScanner(Relation relation, BufferManager bm) {
+        this(relation, bm, null);
+    }
+
+    // Seuls les records qui vérifient toutes les conditions sont retournés, et les pages dont la
+    // zone map contredit une des conditions ne sont pas lues. Les conditions sont liées à cette
+    // relation (dictionnaire et lecture des pages propres à chaque partition) : un parcours à la
+    // fois par liste de conditions.
+    public RelationScanner(Relation relation, BufferManager bm, List<Condition> conditions) {
+        this(relation, bm, conditions, null);
+    }
+
+    // columns : indices (dans la relation) des colonnes des records retournés, null ou vide = toutes
+    public RelationScanner(Relation relation, BufferManager bm, List<Condition> conditions, List<Integer> columns) {
         this.relation = relation;
         this.bm = bm;
+        this.columns = (columns == null || columns.isEmpty()) ? null
+                : columns.stream().mapToInt(Integer::intValue).toArray();
+        this.view = relation.newRecordView(this.columns);
+        this.conditions = conditions;
+        this.filter = (conditions == null || conditions.isEmpty()) ? null : Predicate.and(conditions);
         Reset();
     }
 
     @Override
     public void Reset() {
+        releaseCurrentPage();
         this.dataPages = relation.getDataPages();
         this.currentPageIdx = 0;
         this.currentSlotIdx = 0;
+        this.skippedPageCount = 0;
+        if (conditions != null) {
+            for (Condition cond : conditions) {
+                cond.bind(relation);
+            }
+        }
+    }
+
+    // Nombre de pages écartées grâce aux zone maps depuis le dernier Reset
+    public int getSkippedPageCount() {
+        return skippedPageCount;
     }
 
     @Override
     public void Close() {
-        // Rien
+        releaseCurrentPage();
     }
 
     @Override
     public Record GetNextRecord() {
-        if (dataPages.isEmpty()) return null;
-
         while (currentPageIdx < dataPages.size()) {
-            PageId pid = dataPages.get(currentPageIdx);
-            ByteBuffer buff = bm.GetPage(pid);
-
-            // Chercher le prochain slot valide dans la page courante
-            int slotsPerPage = relation.getSlotCountPerDataPage();
-
-            // ByteMap offset = 16 
-            int bytemapOffset = 16;
-
-            // Parcourir les slots restants de la page
-            while (currentSlotIdx < slotsPerPage) {
-                byte occupied = buff.get(bytemapOffset + currentSlotIdx);
-
-                if (occupied == 1) {
-                    // Record trouvé
-                    // Calculer position (16 + slots + idx * recordSize)
-                    // Note: Relation has a helper for this offset calculation but it's private.
-                    // Recomputing based on Relation logic:
-                    // Header(16) + Bytemap(slots)
-                    int pos = relation.getRecordsOffset() + (currentSlotIdx * relation.getRecordSize());
-
-                    Record rec = new Record(relation.getColumns().length);
-                    relation.readFromBuffer(rec, buff, pos);
-                    rec.setRid(new RecordId(pid, currentSlotIdx));
-
-                    bm.FreePage(pid, false);
-                    currentSlotIdx++;
-                    return rec;
+            if (currentBuff == null) {
+                PageId pid = dataPages.get(currentPageIdx);
+                if (!pageMayMatch(pid)) {
+                    skippedPageCount++;
+                    currentPageIdx++;
+                    continue;
                 }
-                currentSlotIdx++;
+                currentPageId = pid;
+                currentBuff = bm.GetPage(pid);
+                currentSlotIdx = 0;
             }
 
-            // Fin de la page atteinte sans trouver (ou plus de records), passer a la suivante
-            bm.FreePage(pid, false);
+            // Chercher le prochain slot occupé dans la page courante (selon le layout de la relation)
+            // qui vérifie les conditions, testées sur les octets de la page
+            int slot = relation.nextUsedSlot(currentBuff, currentSlotIdx);
+            while (slot != -1 && filter != null && !filter.test(currentBuff, slot)) {
+                slot = relation.nextUsedSlot(currentBuff, slot + 1);
+            }
+            if (slot != -1) {
+                view.moveTo(currentPageId, currentBuff, slot);
+                currentSlotIdx = slot + 1;
+                return view;
+            }
+
+            // Fin de la page atteinte, passer a la suivante
+            releaseCurrentPage();
             currentPageIdx++;
-            currentSlotIdx = 0;
         }
 
         return null; // Plus de records
     }
+
+    @Override
+    public RecordBatch GetNextBatch() {
+        if (batch == null) {
+            batch = relation.newRecordBatch();
+        }
+        while (currentPageIdx < dataPages.size()) {
+            if (currentBuff == null) {
+                PageId pid = dataPages.get(currentPageIdx);
+                if (!pageMayMatch(pid)) {
+                    skippedPageCount++;
+                    currentPageIdx++;
+                    continue;
+                }
+                currentPageId = pid;
+                currentBuff = bm.GetPage(pid);
+                currentSlotIdx = 0;
+            }
+
+            batch.start(currentPageId, currentBuff);
+            int slot = currentSlotIdx;
+            while (!batch.isFull() && (slot = relation.nextUsedSlot(currentBuff, slot)) != -1) {
+                batch.add(slot);
+                slot++;
+            }
+            if (batch.getRowCount() > 0) {
+                currentSlotIdx = slot == -1 ? Integer.MAX_VALUE : slot; // MAX_VALUE : page épuisée
+                if (filterBatch()) {
+                    return batch;
+                }
+                continue; // aucune ligne retenue : lot suivant de la même page
+            }
+
+            releaseCurrentPage();
+            currentPageIdx++;
+        }
+        return null;
+    }
+
+    // Applique les conditions au lot puis la projection ; false si aucune ligne n'est retenue
+    private boolean filterBatch() {
+        if (conditions != null) {
+            for (Condition cond : conditions) {
+                cond.filter(batch);
+                if (batch.getSelectedCount() == 0) return false;
+            }
+        }
+        if (columns != null) {
+            batch.project(columns);
+        }
+        return true;
+    }
+
+    private void releaseCurrentPage() {
+        if (currentBuff != null) {
+            bm.FreePage(currentPageId, false);
+            currentPageId = null;
+            currentBuff = null;
+        }
+    }
+
+    private boolean pageMayMatch(PageId pid) {
+        if (conditions == null) return true;
+        ZoneMap zone = relation.getZoneMap(pid);
+        for (Condition cond : conditions) {
+            if (!cond.mayMatch(zone)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
\ No newline at end of file
@@ -1,31 +1,27 @@
 package QueryManager;
 
 import FileManager.Record;
+import FileManager.RecordBatch;
 import java.util.List;
 
+// Filtre des records de l'enfant. Par lots (SelectOperator.Batched, enfant IBatchIterator),
+// chaque condition réduit la sélection du lot entier ; les lots vidés ne sont pas retournés.
 public class SelectOperator implements IRecordIterator {
     private IRecordIterator child;
     private List<Condition> conditions;
+    private final Predicate predicate; // conjonction compilée des conditions
 
     public SelectOperator(IRecordIterator child, List<Condition> conditions) {
         this.child = child;
         this.conditions = conditions;
+        this.predicate = Predicate.and(conditions);
     }
 
     @Override
     public Record GetNextRecord() {
         Record rec;
         while ((rec = child.GetNextRecord()) != null) {
-            boolean valid = true;
-            if (conditions != null) {
-                for (Condition cond : conditions) {
-                    if (!cond.evaluate(rec)) {
-                        valid = false;
-                        break;
-                    }
-                }
-            }
-            if (valid) return rec;
+            if (predicate.test(rec)) return rec;
         }
         return null;
     }
@@ -39,4 +35,29 @@ public class SelectOperator implements IRecordIterator {
     public void Reset() {
         child.Reset();
     }
+
+    // Filtre par lots, seulement sur un enfant qui sait produire des lots
+    public static class Batched extends SelectOperator implements IBatchIterator {
+        private final IBatchIterator batches;
+
+        public <T extends IRecordIterator & IBatchIterator> Batched(T child, List<Condition> conditions) {
+            super(child, conditions);
+            this.batches = child;
+        }
+
+        @Override
+        public RecordBatch GetNextBatch() {
+            RecordBatch batch;
+            while ((batch = batches.GetNextBatch()) != null) {
+                if (super.conditions != null) {
+                    for (Condition cond : super.conditions) {
+                        cond.filter(batch);
+                        if (batch.getSelectedCount() == 0) break;
+                    }
+                }
+                if (batch.getSelectedCount() > 0) return batch;
+            }
+            return null;
+        }
+    }
 }
\ No newline at end of file